@@ -0,0 +1,136 @@
+package io.github.pojotools.flat2pojo.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.pojotools.flat2pojo.core.api.Flat2Pojo;
+import io.github.pojotools.flat2pojo.core.config.MappingConfig;
+import io.github.pojotools.flat2pojo.core.impl.Flat2PojoCore;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Guards the allocation-free row path: one large group whose rows only revisit existing list
+ * elements and repeat parent values. Allocation per conversion is measured at two row counts; the
+ * difference divided by the extra rows is the marginal cost of a row, which must stay near zero.
+ * Fixed costs (setup, grouping, the output tree) cancel out.
+ *
+ * <p>Run {@link #main} to execute the benchmark with the GC profiler and assert the bound.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RowAllocationBenchmark {
+  /** Upper bound for the marginal allocation of a row, in bytes. */
+  static final double MAX_BYTES_PER_ROW = 64;
+
+  private static final String ALLOC_RATE_NORM = "gc.alloc.rate.norm";
+  private static final int ORDERS = 10;
+  private static final int ITEMS_PER_ORDER = 5;
+
+  @Param({"10000", "20000"})
+  public int rowCount;
+
+  private Flat2Pojo converter;
+  private MappingConfig config;
+  private List<Map<String, Object>> rows;
+
+  @Setup
+  public void setup() {
+    converter = new Flat2PojoCore(new ObjectMapper());
+    config =
+        MappingConfig.builder()
+            .separator("/")
+            .addLists(
+                new MappingConfig.ListRule(
+                    "orders",
+                    List.of("orderId"),
+                    List.of(),
+                    true,
+                    MappingConfig.ConflictPolicy.error))
+            .addLists(
+                new MappingConfig.ListRule(
+                    "orders/items",
+                    List.of("productId"),
+                    List.of(),
+                    true,
+                    MappingConfig.ConflictPolicy.lastWriteWins))
+            .interningPolicy(
+                new MappingConfig.InterningPolicy(
+                    List.of(), true, MappingConfig.InterningPolicy.DEFAULT_MAX_ENTRIES_PER_COLUMN))
+            .build();
+    rows = generateRepeatingDataset(rowCount);
+  }
+
+  @Benchmark
+  @SuppressWarnings("PMD.MethodNamingConventions")
+  public void convertAll_SingleGroup(Blackhole bh) {
+    List<JsonNode> results = converter.convertAll(rows, JsonNode.class, config);
+    bh.consume(results);
+  }
+
+  /**
+   * Every row carries the same customer, one of {@value #ORDERS} orders and one of {@value
+   * #ITEMS_PER_ORDER} items, so after the first rows nothing new is created. Values are fresh
+   * strings per row, as a JDBC driver would return them.
+   */
+  private List<Map<String, Object>> generateRepeatingDataset(int recordCount) {
+    List<Map<String, Object>> data = new ArrayList<>(recordCount);
+    for (int i = 0; i < recordCount; i++) {
+      int item = (i / ORDERS) % ITEMS_PER_ORDER;
+      Map<String, Object> row = new LinkedHashMap<>();
+      row.put("customerId", 1);
+      row.put("customer/name", "Customer" + (i / recordCount));
+      row.put("orders/orderId", "ORD" + (i % ORDERS));
+      row.put("orders/status", i % 2 == 0 ? "OPEN" : "SHIPPED");
+      row.put("orders/items/productId", "P" + item);
+      row.put("orders/items/quantity", 1 + item);
+      data.add(row);
+    }
+    return data;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options options =
+        new OptionsBuilder()
+            .include(RowAllocationBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build();
+    Collection<RunResult> results = new Runner(options).run();
+
+    Map<Integer, Double> bytesPerConversion = new TreeMap<>();
+    for (RunResult result : results) {
+      int count = Integer.parseInt(result.getParams().getParam("rowCount"));
+      bytesPerConversion.put(
+          count, result.getSecondaryResults().get(ALLOC_RATE_NORM).getScore());
+    }
+    List<Integer> counts = new ArrayList<>(bytesPerConversion.keySet());
+    int low = counts.getFirst();
+    int high = counts.getLast();
+    double perRow =
+        (bytesPerConversion.get(high) - bytesPerConversion.get(low)) / (double) (high - low);
+    System.out.printf(
+        "Marginal allocation: %.1f bytes/row (bound %.0f)%n", perRow, MAX_BYTES_PER_ROW);
+    if (perRow > MAX_BYTES_PER_ROW) {
+      throw new IllegalStateException(
+          String.format(
+              "Row path allocates %.1f bytes/row, above the bound of %.0f",
+              perRow, MAX_BYTES_PER_ROW));
+    }
+  }
+}
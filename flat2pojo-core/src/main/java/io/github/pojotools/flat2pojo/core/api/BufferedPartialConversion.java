@@ -0,0 +1,77 @@
+package io.github.pojotools.flat2pojo.core.api;
+
+import io.github.pojotools.flat2pojo.core.config.MappingConfig;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The default {@link PartialConversion} of {@link Flat2Pojo#convertPartial}. Single
+ * Responsibility: Buffers every batch and converts all rows with one {@link
+ * Flat2Pojo#convertAll(List, Class, MappingConfig)} call on {@link #complete()}.
+ *
+ * <p>Open groups are counted by the distinct root keys of the rows accepted so far, before row
+ * filters; rows with a missing or null root key count for none.
+ */
+final class BufferedPartialConversion<T> implements PartialConversion<T> {
+  private final Flat2Pojo converter;
+  private final Class<T> type;
+  private final MappingConfig config;
+  private final List<Map<String, ?>> rows = new ArrayList<>();
+  private final Set<List<Object>> rootKeys = new HashSet<>();
+  private boolean completed;
+
+  BufferedPartialConversion(
+      final Flat2Pojo converter, final Class<T> type, final MappingConfig config) {
+    this.converter = converter;
+    this.type = type;
+    this.config = config;
+  }
+
+  @Override
+  public PartialConversion<T> accept(final List<? extends Map<String, ?>> batch) {
+    ensureOpen();
+    for (final Map<String, ?> row : batch) {
+      rows.add(row);
+      final List<Object> rootKey = rootKeyOf(row);
+      if (rootKey != null) {
+        rootKeys.add(rootKey);
+      }
+    }
+    return this;
+  }
+
+  @Override
+  public int openGroups() {
+    // like convertAll, a conversion without root keys has one group even for no rows
+    return config.rootKeys().isEmpty() ? 1 : rootKeys.size();
+  }
+
+  @Override
+  public List<T> complete() {
+    ensureOpen();
+    completed = true;
+    return converter.convertAll(rows, type, config);
+  }
+
+  @SuppressWarnings("PMD.ReturnEmptyCollectionRatherThanNull")
+  private List<Object> rootKeyOf(final Map<String, ?> row) {
+    final List<Object> values = new ArrayList<>(config.rootKeys().size());
+    for (final String rootKey : config.rootKeys()) {
+      final Object value = row.get(rootKey);
+      if (value == null) {
+        return null;
+      }
+      values.add(value);
+    }
+    return values;
+  }
+
+  private void ensureOpen() {
+    if (completed) {
+      throw new IllegalStateException("Conversion is already complete");
+    }
+  }
+}
@@ -0,0 +1,158 @@
+package io.github.pojotools.flat2pojo.core.api;
+
+import io.github.pojotools.flat2pojo.core.config.MappingConfig;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Front-end for many small concurrent conversions. Single Responsibility: Collects requests that
+ * share a config and target type into batches and runs each batch through one compiled
+ * conversion.
+ *
+ * <p>A batch opens with its first request and is dispatched to the batch executor once it holds
+ * {@code maxBatchRequests} requests or {@code window} after it opened, whichever comes first. Its
+ * requests are converted in turn by {@link Flat2Pojo#convertEach}, which for {@code Flat2PojoCore}
+ * means one pipeline and one warm assembler, so column plans, caches and interning dictionaries
+ * are built once per batch instead of once per call. Batches of different configs or types, and
+ * successive batches, run in parallel.
+ *
+ * <p>Every request's rows are grouped on their own, so roots never merge across requests, and a
+ * failing request fails only its own future. A batch that cannot be dispatched or fails as a
+ * whole fails every request in it. Configs are matched by identity: share one {@code
+ * MappingConfig} instance between callers, as recommended for caching anyway.
+ */
+public final class CoalescingConverter {
+  private final Flat2Pojo converter;
+  private final Executor batches;
+  private final int maxBatchRequests;
+  private final Executor windowTimer;
+  private final ConcurrentMap<BatchKey, Batch> openBatches = new ConcurrentHashMap<>();
+
+  /**
+   * @param converter converts the batches
+   * @param batches runs the batches; may be the converter's own executor
+   * @param window how long a batch waits for more requests; trades latency for batch size
+   * @param maxBatchRequests requests after which a batch is dispatched without waiting
+   */
+  public CoalescingConverter(
+      final Flat2Pojo converter,
+      final Executor batches,
+      final Duration window,
+      final int maxBatchRequests) {
+    if (window.isNegative()) {
+      throw new IllegalArgumentException("window must not be negative: " + window);
+    }
+    if (maxBatchRequests < 1) {
+      throw new IllegalArgumentException("maxBatchRequests must be positive: " + maxBatchRequests);
+    }
+    this.converter = converter;
+    this.batches = batches;
+    this.maxBatchRequests = maxBatchRequests;
+    // only hands the batch on, so the timer thread never runs a conversion or sees a rejection
+    this.windowTimer =
+        CompletableFuture.delayedExecutor(window.toNanos(), TimeUnit.NANOSECONDS, Runnable::run);
+  }
+
+  /**
+   * Converts {@code rows} as part of the next batch for {@code config} and {@code type}.
+   *
+   * @return completed with the roots of {@code rows}, as {@link Flat2Pojo#convertAll(List, Class,
+   *     MappingConfig)} returns them
+   */
+  public <T> CompletableFuture<List<T>> convertAll(
+      final List<? extends Map<String, ?>> rows, final Class<T> type, final MappingConfig config) {
+    final ConversionRequest<T> request = new ConversionRequest<>(rows, new CompletableFuture<>());
+    final BatchKey key = new BatchKey(config, type);
+    final Batch[] full = new Batch[1];
+    openBatches.compute(
+        key,
+        (batchKey, open) -> {
+          final Batch batch = open != null ? open : openBatch(batchKey);
+          batch.requests.add(request);
+          if (batch.requests.size() < maxBatchRequests) {
+            return batch;
+          }
+          full[0] = batch;
+          return null;
+        });
+    if (full[0] != null) {
+      dispatch(full[0]);
+    }
+    return request.future();
+  }
+
+  /** Converts one row as part of the next batch; see {@link Flat2Pojo#convertOptional}. */
+  public <T> CompletableFuture<Optional<T>> convertOptional(
+      final Map<String, ?> row, final Class<T> type, final MappingConfig config) {
+    return convertAll(List.of(row), type, config)
+        .thenApply(roots -> roots.isEmpty() ? Optional.empty() : Optional.of(roots.getFirst()));
+  }
+
+  /** Creates a batch and schedules its dispatch at the end of the window. */
+  private Batch openBatch(final BatchKey key) {
+    final Batch batch = new Batch(key);
+    windowTimer.execute(
+        () -> {
+          // a batch filled up before its window ended was dispatched and removed already
+          if (openBatches.remove(key, batch)) {
+            dispatch(batch);
+          }
+        });
+    return batch;
+  }
+
+  private void dispatch(final Batch batch) {
+    try {
+      batches.execute(() -> run(batch));
+    } catch (final RuntimeException | Error rejected) {
+      fail(batch, rejected);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> void run(final Batch batch) {
+    try {
+      final List<ConversionRequest<T>> requests = new ArrayList<>(batch.requests.size());
+      batch.requests.forEach(request -> requests.add((ConversionRequest<T>) request));
+      converter.convertEach(requests, (Class<T>) batch.key.type(), batch.key.config());
+    } catch (final RuntimeException | Error failure) {
+      fail(batch, failure);
+    }
+  }
+
+  /** Fails every request of {@code batch} that is not done yet, so no caller waits forever. */
+  private static void fail(final Batch batch, final Throwable failure) {
+    batch.requests.forEach(request -> request.future().completeExceptionally(failure));
+  }
+
+  /** Requests collected for one config and type; only mutated inside {@code compute}. */
+  private static final class Batch {
+    private final BatchKey key;
+    private final List<ConversionRequest<?>> requests = new ArrayList<>();
+
+    Batch(final BatchKey key) {
+      this.key = key;
+    }
+  }
+
+  /** Matches configs by identity, so a lookup never hashes a whole config. */
+  private record BatchKey(MappingConfig config, Class<?> type) {
+    @Override
+    public boolean equals(final Object other) {
+      return other instanceof BatchKey key && key.config == config && key.type == type;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * System.identityHashCode(config) + type.hashCode();
+    }
+  }
+}
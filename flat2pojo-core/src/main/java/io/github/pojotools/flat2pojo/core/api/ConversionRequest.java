@@ -0,0 +1,22 @@
+package io.github.pojotools.flat2pojo.core.api;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * One caller's rows within a batch of conversions, and the future that receives their roots; see
+ * {@link Flat2Pojo#convertEach}.
+ *
+ * @param rows the caller's flat rows, grouped on their own
+ * @param future completed with the caller's roots, or with the failure of its rows
+ */
+public record ConversionRequest<T>(
+    List<? extends Map<String, ?>> rows, CompletableFuture<List<T>> future) {
+
+  public ConversionRequest {
+    Objects.requireNonNull(rows, "rows must not be null");
+    Objects.requireNonNull(future, "future must not be null");
+  }
+}
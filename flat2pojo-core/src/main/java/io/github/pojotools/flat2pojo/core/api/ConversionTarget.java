@@ -0,0 +1,28 @@
+package io.github.pojotools.flat2pojo.core.api;
+
+import io.github.pojotools.flat2pojo.core.config.MappingConfig;
+import java.util.Objects;
+
+/**
+ * One projection of a multi-target conversion: a target type and the mapping that shapes it.
+ *
+ * <pre>{@code
+ * ConversionTarget<CustomerDto> dto = ConversionTarget.of(CustomerDto.class, dtoConfig);
+ * ConversionTarget<JsonNode> document = ConversionTarget.of(JsonNode.class, searchConfig);
+ * TargetResults results = converter.convertAll(rows, List.of(dto, document));
+ * }</pre>
+ *
+ * @param type the target POJO class
+ * @param config the mapping configuration of this target
+ */
+public record ConversionTarget<T>(Class<T> type, MappingConfig config) {
+
+  public ConversionTarget {
+    Objects.requireNonNull(type, "type must not be null");
+    Objects.requireNonNull(config, "config must not be null");
+  }
+
+  public static <T> ConversionTarget<T> of(final Class<T> type, final MappingConfig config) {
+    return new ConversionTarget<>(type, config);
+  }
+}
@@ -0,0 +1,390 @@
+package io.github.pojotools.flat2pojo.core.api;
+
+import io.github.pojotools.flat2pojo.core.config.MappingConfig;
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Shares a worker pool fairly between tenants. Single Responsibility: Queues conversion jobs per
+ * tenant and decides whose job runs its next slice on a free worker.
+ *
+ * <p>Jobs run as {@link SlicedConversion}s of about {@code sliceRows} rows of whole root groups.
+ * After every slice a job goes back to its tenant's queue, so a large export is preempted at group
+ * boundaries instead of holding a worker while other tenants wait. A free worker goes to the
+ * eligible tenant with the smallest virtual time (start-time weighted fair queuing): a slice
+ * advances its tenant's virtual time by rows / weight, and a tenant that was idle starts at the
+ * current virtual time, so idling earns no credit. A tenant is eligible while it has a queued job,
+ * occupies fewer than {@code maxWorkers} workers and its row-rate token bucket is not overdrawn; a
+ * rate-limited tenant is reconsidered once its bucket refills. A tenant's own jobs take turns
+ * slice by slice. A tenant that was never {@link #register registered} is forgotten once it has
+ * neither queued nor running jobs, so ad-hoc tenant names do not accumulate.
+ *
+ * <p>Roots equal those of {@link Flat2Pojo#convertAll(List, Class, MappingConfig)} for the same
+ * rows; {@code Flat2PojoCore} runs slices without parallel or pipelined stages, since the
+ * scheduler already spreads jobs over the workers. Cancelling a job's future stops it at the next
+ * row it reads.
+ */
+public final class FairConversionScheduler {
+  private static final double NANOS_PER_SECOND = 1e9;
+  private final Flat2Pojo converter;
+  private final Executor workers;
+  private final int workerSlots;
+  private final int sliceRows;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Map<String, Tenant> tenants = new LinkedHashMap<>();
+  private int runningSlices;
+  private double virtualTime;
+  private long wakeUpAt; // nanoTime of the pending rate-limit wake-up
+  private boolean wakeUpPending;
+
+  /**
+   * @param converter converter whose {@link Flat2Pojo#convertSliced sliced conversions} the
+   *     workers run
+   * @param workers runs slices; must run tasks on other threads, never inline
+   * @param workerSlots maximum number of slices running at once, across all tenants
+   * @param sliceRows rows after which a job yields, at the next root group boundary
+   */
+  public FairConversionScheduler(
+      final Flat2Pojo converter,
+      final Executor workers,
+      final int workerSlots,
+      final int sliceRows) {
+    if (workerSlots < 1) {
+      throw new IllegalArgumentException("workerSlots must be positive: " + workerSlots);
+    }
+    if (sliceRows < 1) {
+      throw new IllegalArgumentException("sliceRows must be positive: " + sliceRows);
+    }
+    this.converter = converter;
+    this.workers = workers;
+    this.workerSlots = workerSlots;
+    this.sliceRows = sliceRows;
+  }
+
+  /** Sets the quota of {@code tenant}; queued and running jobs are scheduled by it from now on. */
+  public void register(final String tenant, final TenantQuota quota) {
+    lock.lock();
+    try {
+      final Tenant owner = tenants.computeIfAbsent(tenant, key -> new Tenant(key, quota));
+      owner.setQuota(quota);
+      owner.registered = true;
+    } finally {
+      lock.unlock();
+    }
+    dispatch();
+  }
+
+  /**
+   * Queues a conversion of {@code rows} for {@code tenant}. A tenant not {@link #register
+   * registered} yet gets {@link TenantQuota#weighted(int) weight 1} without limits.
+   *
+   * @return completed with the roots {@link Flat2Pojo#convertAll(List, Class, MappingConfig)}
+   *     returns for {@code rows}
+   */
+  public <T> CompletableFuture<List<T>> submit(
+      final String tenant,
+      final List<? extends Map<String, ?>> rows,
+      final Class<T> type,
+      final MappingConfig config) {
+    final Job<T> job;
+    lock.lock();
+    try {
+      final Tenant owner =
+          tenants.computeIfAbsent(tenant, key -> new Tenant(key, TenantQuota.weighted(1)));
+      if (owner.idle()) {
+        owner.virtualTime = Math.max(owner.virtualTime, virtualTime);
+      }
+      job = new Job<>(owner, rows, type, config);
+      owner.queue.add(job);
+    } finally {
+      lock.unlock();
+    }
+    dispatch();
+    return job.future;
+  }
+
+  /** Returns the registered tenants and those with queued or running jobs. */
+  public Set<String> tenants() {
+    lock.lock();
+    try {
+      return Set.copyOf(tenants.keySet());
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Starts slices on free workers, fairest tenant first. */
+  private void dispatch() {
+    final List<Job<?>> started = new ArrayList<>();
+    lock.lock();
+    try {
+      final long now = System.nanoTime();
+      Tenant next;
+      while (runningSlices < workerSlots && (next = nextTenant(now)) != null) {
+        final Job<?> job = next.queue.poll();
+        if (job.future.isDone()) {
+          forgetIfIdle(next);
+          continue; // cancelled while queued
+        }
+        next.running++;
+        runningSlices++;
+        virtualTime = next.virtualTime;
+        started.add(job);
+      }
+      if (runningSlices < workerSlots) {
+        scheduleWakeUp(now);
+      }
+    } finally {
+      lock.unlock();
+    }
+    started.forEach(this::start);
+  }
+
+  private Tenant nextTenant(final long now) {
+    Tenant fairest = null;
+    for (final Tenant tenant : tenants.values()) {
+      if (tenant.eligible(now) && (fairest == null || tenant.virtualTime < fairest.virtualTime)) {
+        fairest = tenant;
+      }
+    }
+    return fairest;
+  }
+
+  /** Dispatches again when the first rate-limited tenant with queued jobs may run. */
+  private void scheduleWakeUp(final long now) {
+    long earliest = Long.MAX_VALUE;
+    for (final Tenant tenant : tenants.values()) {
+      if (!tenant.queue.isEmpty() && tenant.running < tenant.quota.maxWorkers()) {
+        earliest = Math.min(earliest, now + tenant.nanosUntilTokens(now));
+      }
+    }
+    if (earliest == Long.MAX_VALUE || (wakeUpPending && wakeUpAt - earliest <= 0)) {
+      return;
+    }
+    final long at = earliest;
+    wakeUpPending = true;
+    wakeUpAt = at;
+    CompletableFuture.delayedExecutor(at - now, TimeUnit.NANOSECONDS, workers)
+        .execute(
+            () -> {
+              lock.lock();
+              try {
+                if (wakeUpAt == at) {
+                  wakeUpPending = false;
+                }
+              } finally {
+                lock.unlock();
+              }
+              dispatch();
+            });
+  }
+
+  private void start(final Job<?> job) {
+    try {
+      workers.execute(() -> finishSlice(job, job.runSlice()));
+    } catch (final RejectedExecutionException rejected) {
+      job.failure = rejected;
+      finishSlice(job, 0);
+    }
+  }
+
+  /** Accounts for a slice, then completes an ended job, so its caller sees the slot freed. */
+  private void finishSlice(final Job<?> job, final int processedRows) {
+    lock.lock();
+    try {
+      final Tenant tenant = job.tenant;
+      tenant.running--;
+      runningSlices--;
+      tenant.charge(processedRows, System.nanoTime());
+      if (!job.ended()) {
+        tenant.queue.add(job);
+      }
+      forgetIfIdle(tenant);
+    } finally {
+      lock.unlock();
+    }
+    job.complete();
+    dispatch();
+  }
+
+  /** Removes an unregistered tenant without jobs; a later submit starts it afresh. */
+  private void forgetIfIdle(final Tenant tenant) {
+    if (!tenant.registered && tenant.idle()) {
+      tenants.remove(tenant.name, tenant);
+    }
+  }
+
+  /**
+   * Scheduling share and limits of one tenant.
+   *
+   * @param weight share of the workers relative to other busy tenants
+   * @param maxWorkers maximum number of workers the tenant's slices occupy at once
+   * @param maxRowsPerSecond sustained row rate; up to one second's worth may run in a burst
+   */
+  public record TenantQuota(int weight, int maxWorkers, long maxRowsPerSecond) {
+    public TenantQuota {
+      if (weight < 1 || maxWorkers < 1 || maxRowsPerSecond < 1) {
+        throw new IllegalArgumentException(
+            "weight, maxWorkers and maxRowsPerSecond must be positive: "
+                + weight
+                + ", "
+                + maxWorkers
+                + ", "
+                + maxRowsPerSecond);
+      }
+    }
+
+    /** A quota with the given weight and neither a worker nor a rate limit. */
+    public static TenantQuota weighted(final int weight) {
+      return new TenantQuota(weight, Integer.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    boolean rateLimited() {
+      return maxRowsPerSecond != Long.MAX_VALUE;
+    }
+  }
+
+  /** Queue, virtual time and token bucket of one tenant; guarded by the scheduler lock. */
+  private static final class Tenant {
+    private final String name;
+    private final ArrayDeque<Job<?>> queue = new ArrayDeque<>();
+    private TenantQuota quota;
+    private boolean registered;
+    private int running;
+    private double virtualTime;
+    private double tokens;
+    private long refilledAt = System.nanoTime();
+
+    Tenant(final String name, final TenantQuota quota) {
+      this.name = name;
+      this.quota = quota;
+      this.tokens = quota.maxRowsPerSecond();
+    }
+
+    void setQuota(final TenantQuota quota) {
+      this.quota = quota;
+      tokens = Math.min(tokens, quota.maxRowsPerSecond());
+    }
+
+    boolean idle() {
+      return queue.isEmpty() && running == 0;
+    }
+
+    boolean eligible(final long now) {
+      return !queue.isEmpty() && running < quota.maxWorkers() && nanosUntilTokens(now) == 0;
+    }
+
+    long nanosUntilTokens(final long now) {
+      if (!quota.rateLimited()) {
+        return 0;
+      }
+      refill(now);
+      return tokens > 0 ? 0 : 1 + (long) (-tokens * NANOS_PER_SECOND / quota.maxRowsPerSecond());
+    }
+
+    /** Advances the virtual time by the slice's weighted rows and draws them from the bucket. */
+    void charge(final int rows, final long now) {
+      virtualTime += Math.max(rows, 1) / (double) quota.weight();
+      if (quota.rateLimited()) {
+        refill(now);
+        tokens -= rows;
+      }
+    }
+
+    private void refill(final long now) {
+      final double rate = quota.maxRowsPerSecond();
+      tokens = Math.min(rate, tokens + (now - refilledAt) * rate / NANOS_PER_SECOND);
+      refilledAt = now;
+    }
+  }
+
+  /** One queued conversion; its slices run one at a time. */
+  private final class Job<T> {
+    private final Tenant tenant;
+    private final List<? extends Map<String, ?>> rows;
+    private final Class<T> type;
+    private final MappingConfig config;
+    private final CompletableFuture<List<T>> future = new CompletableFuture<>();
+    private SlicedConversion<T> conversion;
+    private List<T> results;
+    private Throwable failure;
+
+    Job(
+        final Tenant tenant,
+        final List<? extends Map<String, ?>> rows,
+        final Class<T> type,
+        final MappingConfig config) {
+      this.tenant = tenant;
+      this.rows = rows;
+      this.type = type;
+      this.config = config;
+    }
+
+    /** Runs the next slice, keeping the outcome once the job ends; returns its rows. */
+    int runSlice() {
+      try {
+        if (conversion == null) {
+          conversion = converter.convertSliced(new CancellableRows(rows, future), type, config);
+        }
+        final int processed = conversion.advance(sliceRows);
+        if (conversion.done()) {
+          results = conversion.results();
+        }
+        return processed;
+      } catch (final RuntimeException | Error sliceFailure) {
+        failure = sliceFailure;
+        return 0;
+      }
+    }
+
+    boolean ended() {
+      return results != null || failure != null || future.isDone();
+    }
+
+    /** Completes the future with the outcome of an ended job; a cancelled future stays as is. */
+    void complete() {
+      if (failure != null) {
+        future.completeExceptionally(failure);
+      } else if (results != null) {
+        future.complete(results);
+      }
+    }
+  }
+
+  /** A job's rows that stop being readable once its future is cancelled. */
+  private static final class CancellableRows extends AbstractList<Map<String, ?>>
+      implements RandomAccess {
+    private final List<? extends Map<String, ?>> rows;
+    private final CompletableFuture<?> future;
+
+    CancellableRows(final List<? extends Map<String, ?>> rows, final CompletableFuture<?> future) {
+      this.rows = rows;
+      this.future = future;
+    }
+
+    @Override
+    public Map<String, ?> get(final int index) {
+      if (future.isCancelled()) {
+        throw new CancellationException("Job was cancelled");
+      }
+      return rows.get(index);
+    }
+
+    @Override
+    public int size() {
+      return rows.size();
+    }
+  }
+}
@@ -2,6 +2,9 @@ package io.github.pojotools.flat2pojo.core.api;
 
 import io.github.pojotools.flat2pojo.core.config.MappingConfig;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 /**
@@ -15,7 +18,9 @@ import java.util.stream.Stream;
  * structure, then leverages Jackson's powerful type conversion and mapping capabilities to produce
  * the final POJOs.
  *
- * <p>All implementations are thread-safe and can be used concurrently.
+ * <p>All implementations are thread-safe and can be used concurrently. Methods with a default
+ * implementation build on the basic conversions; implementations override them where they can do
+ * better.
  */
 public interface Flat2Pojo {
 
@@ -55,12 +60,154 @@ public interface Flat2Pojo {
   <T> List<T> convertAll(
       List<? extends Map<String, ?>> flatRows, Class<T> type, MappingConfig config);
 
+  /**
+   * Converts the same rows into several targets in one pass, e.g. an API DTO and a search
+   * document from one JOIN result.
+   *
+   * <p>All targets must share {@link MappingConfig#rootKeys()} and {@link
+   * MappingConfig#inputClustering()}. Rows are grouped once and every value is transformed once
+   * for all targets with equal value settings; only list assembly and materialization run per
+   * target. Each target's roots equal those of {@link #convertAll(List, Class, MappingConfig)}
+   * with its own type and config.
+   *
+   * <p>The default implementation converts the rows once per target.
+   *
+   * @param flatRows the flat rows to convert
+   * @param targets the target types and configs
+   * @return the converted POJOs per target
+   */
+  default TargetResults convertAll(
+      List<? extends Map<String, ?>> flatRows, List<ConversionTarget<?>> targets) {
+    final Map<ConversionTarget<?>, List<?>> roots = new LinkedHashMap<>();
+    for (final ConversionTarget<?> target : targets) {
+      roots.put(target, convertAll(flatRows, target.type(), target.config()));
+    }
+    return new TargetResults(roots);
+  }
+
+  /**
+   * Runs {@link #convertAll(List, Class, MappingConfig)} on {@code executor}.
+   *
+   * <p>Cancelling the returned future stops the conversion at the next row it reads, including
+   * between groups, instead of letting it run to completion. A conversion cancelled before it
+   * starts does not run at all. The default implementation can only skip a conversion that has
+   * not started yet.
+   *
+   * @param flatRows the flat rows to convert
+   * @param type the target POJO class
+   * @param config the mapping configuration
+   * @param executor runs the conversion; parallel stages still run on the converter's executor
+   * @param <T> the target type
+   * @return completed with the converted POJOs, or with the conversion's failure
+   */
+  default <T> CompletableFuture<List<T>> convertAllAsync(
+      List<? extends Map<String, ?>> flatRows,
+      Class<T> type,
+      MappingConfig config,
+      Executor executor) {
+    return CompletableFuture.supplyAsync(() -> convertAll(flatRows, type, config), executor);
+  }
+
+  /**
+   * Converts separate row sources - one for the root and one per list rule - into POJOs.
+   *
+   * <p>Use this instead of a single JOIN when a root has sibling lists: each list is loaded by its
+   * own query, and its rows are attached to the right parent elements through the root keys and
+   * the ancestor lists' key columns. Only roots present in the root source are produced.
+   *
+   * @param sources the root source and per-list sources
+   * @param type the target POJO class
+   * @param config the mapping configuration
+   * @param <T> the target type
+   * @return list of converted POJOs, one per root group
+   */
+  <T> List<T> convertAll(RowSources sources, Class<T> type, MappingConfig config);
+
+  /**
+   * Starts a conversion whose rows arrive in several batches; see {@link PartialConversion}.
+   *
+   * <p>Root groups spanning batches are continued rather than duplicated, and lists are only
+   * finalized when the conversion is {@link PartialConversion#complete() completed}.
+   *
+   * <p>The default implementation buffers the batches and converts them with {@link
+   * #convertAll(List, Class, MappingConfig)} on completion.
+   *
+   * @param type the target POJO class
+   * @param config the mapping configuration
+   * @param <T> the target type
+   * @return an empty conversion to feed with {@link PartialConversion#accept(List)}
+   */
+  default <T> PartialConversion<T> convertPartial(Class<T> type, MappingConfig config) {
+    return new BufferedPartialConversion<>(this, type, config);
+  }
+
+  /**
+   * Converts rows into roots that stay updatable by later row changes; see {@link
+   * IncrementalConversion}. Configs with list aggregates are rejected.
+   *
+   * @param flatRows the initial rows
+   * @param type the target POJO class
+   * @param config the mapping configuration
+   * @param <T> the target type
+   * @return the assembled roots, ready for {@link IncrementalConversion#apply(List)}
+   */
+  <T> IncrementalConversion<T> convertIncremental(
+      List<? extends Map<String, ?>> flatRows, Class<T> type, MappingConfig config);
+
+  /**
+   * Converts several row sets of one config and type in turn, completing each request's future
+   * with the roots of its own rows; see {@link CoalescingConverter}.
+   *
+   * <p>Roots never merge across requests, a failing row set fails only its own future, and a
+   * request whose future is already done is skipped. The default implementation converts each row
+   * set with {@link #convertAll(List, Class, MappingConfig)}.
+   *
+   * @param requests the row sets and the futures of their roots
+   * @param type the target POJO class
+   * @param config the mapping configuration
+   * @param <T> the target type
+   */
+  default <T> void convertEach(
+      List<ConversionRequest<T>> requests, Class<T> type, MappingConfig config) {
+    for (final ConversionRequest<T> request : requests) {
+      if (request.future().isDone()) {
+        continue;
+      }
+      try {
+        request.future().complete(convertAll(request.rows(), type, config));
+      } catch (final RuntimeException failure) {
+        request.future().completeExceptionally(failure);
+      }
+    }
+  }
+
+  /**
+   * Starts a conversion that assembles a few root groups per call; see {@link SlicedConversion}.
+   *
+   * <p>The default implementation converts all rows with {@link #convertAll(List, Class,
+   * MappingConfig)} in the first slice.
+   *
+   * @param rows the flat rows to convert
+   * @param type the target POJO class
+   * @param config the mapping configuration
+   * @param <T> the target type
+   * @return a conversion to run with {@link SlicedConversion#advance(int)}
+   */
+  default <T> SlicedConversion<T> convertSliced(
+      List<? extends Map<String, ?>> rows, Class<T> type, MappingConfig config) {
+    return new SingleSliceConversion<>(this, rows, type, config);
+  }
+
   /**
    * Converts rows from an iterator to a stream of POJOs.
    *
    * <p>This method is useful for processing large datasets that don't fit in memory. Note that
    * streaming conversion is less efficient than batch processing with {@link #convertAll}.
    *
+   * <p>The stream must be closed, e.g. with try-with-resources, unless it is consumed to the end:
+   * an implementation may read the iterator ahead on a thread of its own, which only stops when
+   * the last root was consumed, a root fails or the stream is closed.
+   *
    * @param rows iterator of flat rows
    * @param type the target POJO class
    * @param config the mapping configuration
@@ -69,4 +216,55 @@ public interface Flat2Pojo {
    */
   <T> Stream<T> stream(
       Iterator<? extends Map<String, ?>> rows, Class<T> type, MappingConfig config);
+
+  /**
+   * Converts rows of a list to a stream of POJOs.
+   *
+   * <p>Over input clustered by root keys (see {@link MappingConfig#inputClustering()}), groups are
+   * assembled lazily as the stream is consumed, and the stream splits at root key changes: {@code
+   * parallel()} assembles and materializes groups concurrently while keeping encounter order.
+   * Otherwise the rows are converted up front, as by {@link #convertAll(List, Class,
+   * MappingConfig)}. The default implementation streams {@code rows.iterator()}.
+   *
+   * @param rows the flat rows to convert
+   * @param type the target POJO class
+   * @param config the mapping configuration
+   * @param <T> the target type
+   * @return ordered stream of converted POJOs
+   */
+  default <T> Stream<T> stream(
+      List<? extends Map<String, ?>> rows, Class<T> type, MappingConfig config) {
+    return stream(rows.iterator(), type, config);
+  }
+
+  /**
+   * Runs {@link #stream(Iterator, Class, MappingConfig)} on {@code executor} and hands every POJO
+   * to {@code action}, in stream order.
+   *
+   * <p>Cancelling the returned future stops reading rows and delivering POJOs at the next row or
+   * root, and closes the underlying stream. The default implementation can only skip a
+   * conversion that has not started yet.
+   *
+   * @param rows iterator of flat rows, read on the executor
+   * @param type the target POJO class
+   * @param config the mapping configuration
+   * @param action receives each converted POJO
+   * @param executor runs the conversion and {@code action}
+   * @param <T> the target type
+   * @return completed once every POJO was delivered, or with the first failure
+   */
+  default <T> CompletableFuture<Void> streamAsync(
+      Iterator<? extends Map<String, ?>> rows,
+      Class<T> type,
+      MappingConfig config,
+      Consumer<? super T> action,
+      Executor executor) {
+    return CompletableFuture.runAsync(
+        () -> {
+          try (Stream<T> roots = stream(rows, type, config)) {
+            roots.forEachOrdered(action);
+          }
+        },
+        executor);
+  }
 }
@@ -0,0 +1,49 @@
+package io.github.pojotools.flat2pojo.core.api;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Assembled roots that stay updatable by row changes, for caches of aggregates fed by change data
+ * capture.
+ *
+ * <p>Every root keeps its assembly state - list elements by key, primitive-list accumulators,
+ * written values - so a change costs time proportional to the change, not to the aggregate. Only
+ * the roots a batch touches are re-materialized, and only the lists it changed are re-sorted.
+ *
+ * <pre>{@code
+ * IncrementalConversion<Customer> customers =
+ *     converter.convertIncremental(initialRows, Customer.class, config);
+ * Map<Object, Optional<Customer>> changed =
+ *     customers.apply(List.of(RowChange.upsert(newItemRow), RowChange.delete(removedOrderRow)));
+ * }</pre>
+ *
+ * <p>Root keys are the value of the single root key column, or a {@code List} of the values of
+ * composite root keys; a mapping without root keys has a single root under {@code List.of()}.
+ *
+ * <p>Rows are identified by their content: upserting a row equal to one applied before replaces it
+ * rather than adding to it, so a replayed change leaves the root as it was. Applied rows are
+ * retained to rebuild their root from, and must not be mutated afterwards.
+ *
+ * <p>Not thread-safe: apply changes from one thread at a time.
+ *
+ * @param <T> the target type
+ */
+public interface IncrementalConversion<T> {
+
+  /**
+   * Applies a batch of row changes in order and re-materializes the roots they touched. The batch
+   * is atomic: if it fails, every root is left as it was before the call.
+   *
+   * @param changes upserted and deleted rows
+   * @return the touched roots by root key, in order of first touch; empty for deleted roots
+   */
+  Map<Object, Optional<T>> apply(List<RowChange> changes);
+
+  /** Returns the current materialized root for {@code rootKey}, if it exists. */
+  Optional<T> root(Object rootKey);
+
+  /** Returns all current roots, in order of first appearance. */
+  List<T> roots();
+}
@@ -0,0 +1,48 @@
+package io.github.pojotools.flat2pojo.core.api;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A conversion fed in batches, for inputs read page by page where one root can span pages.
+ *
+ * <p>Root groups stay open between batches: their lists keep deduplicating by key and their sort
+ * order and primitive-list accumulators are only applied on {@link #complete()}. Rows of a later
+ * batch continue the group their root keys belong to, so no rows have to be re-read or buffered
+ * and no root is produced twice.
+ *
+ * <pre>{@code
+ * PartialConversion<Customer> conversion = converter.convertPartial(Customer.class, config);
+ * while (pages.hasNext()) {
+ *   conversion.accept(pages.next());
+ * }
+ * List<Customer> customers = conversion.complete();
+ * }</pre>
+ *
+ * <p>Not thread-safe: feed one conversion from one thread at a time.
+ *
+ * @param <T> the target type
+ */
+public interface PartialConversion<T> {
+
+  /**
+   * Adds a batch of rows to the open groups, starting new groups for unseen root keys.
+   *
+   * @param rows the next batch of flat rows
+   * @return this conversion
+   * @throws IllegalStateException if the conversion is already complete
+   */
+  PartialConversion<T> accept(List<? extends Map<String, ?>> rows);
+
+  /** Returns the number of root groups accumulated so far. */
+  int openGroups();
+
+  /**
+   * Finalizes and materializes every open group, in order of first appearance. The conversion
+   * accepts no rows afterwards.
+   *
+   * @return one POJO per root group
+   * @throws IllegalStateException if the conversion is already complete
+   */
+  List<T> complete();
+}
@@ -0,0 +1,36 @@
+package io.github.pojotools.flat2pojo.core.api;
+
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * One change of a flat row, as delivered by change data capture, for {@link
+ * IncrementalConversion#apply}.
+ *
+ * <p>An {@code upsert} row is assembled into its root like any input row. A {@code delete} row
+ * removes the deepest list element it addresses by the root keys and its lists' key columns, with
+ * everything nested in it; a row that carries no list keys deletes its whole root.
+ *
+ * @param kind whether the row is upserted or deleted
+ * @param row the flat row
+ */
+public record RowChange(Kind kind, Map<String, ?> row) {
+
+  public RowChange {
+    Objects.requireNonNull(kind, "kind must not be null");
+    Objects.requireNonNull(row, "row must not be null");
+  }
+
+  public static RowChange upsert(final Map<String, ?> row) {
+    return new RowChange(Kind.upsert, row);
+  }
+
+  public static RowChange delete(final Map<String, ?> row) {
+    return new RowChange(Kind.delete, row);
+  }
+
+  public enum Kind {
+    upsert,
+    delete
+  }
+}
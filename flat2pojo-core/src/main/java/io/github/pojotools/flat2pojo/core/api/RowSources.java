@@ -0,0 +1,44 @@
+package io.github.pojotools.flat2pojo.core.api;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Narrow row sources for one conversion: a root source plus at most one source per list rule.
+ *
+ * <p>Instead of a single JOIN whose sibling lists multiply into M×N rows, each list is queried on
+ * its own. Every row of a list source carries the root keys and the key columns of its ancestor
+ * lists (e.g. {@code orders/id} for an {@code orders/items} source), plus its own columns:
+ *
+ * <pre>{@code
+ * RowSources sources =
+ *     RowSources.of(customerRows)
+ *         .withList("orders", orderRows)
+ *         .withList("orders/items", orderItemRows)
+ *         .withList("addresses", addressRows);
+ * }</pre>
+ *
+ * @param rootRows rows carrying the root-level columns; they define which roots exist
+ * @param listRows rows per list rule path
+ */
+public record RowSources(
+    List<? extends Map<String, ?>> rootRows, Map<String, List<? extends Map<String, ?>>> listRows) {
+
+  public RowSources {
+    rootRows = List.copyOf(Objects.requireNonNull(rootRows, "rootRows must not be null"));
+    listRows = Map.copyOf(Objects.requireNonNull(listRows, "listRows must not be null"));
+  }
+
+  public static RowSources of(final List<? extends Map<String, ?>> rootRows) {
+    return new RowSources(rootRows, Map.of());
+  }
+
+  /** Returns a copy with {@code rows} as the source of the list rule at {@code listPath}. */
+  public RowSources withList(final String listPath, final List<? extends Map<String, ?>> rows) {
+    final Map<String, List<? extends Map<String, ?>>> merged = new LinkedHashMap<>(listRows);
+    merged.put(listPath, List.copyOf(rows));
+    return new RowSources(rootRows, merged);
+  }
+}
@@ -0,0 +1,50 @@
+package io.github.pojotools.flat2pojo.core.api;
+
+import io.github.pojotools.flat2pojo.core.config.MappingConfig;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The default {@link SlicedConversion} of {@link Flat2Pojo#convertSliced}. Single Responsibility:
+ * Converts all rows with one {@link Flat2Pojo#convertAll(List, Class, MappingConfig)} call in the
+ * first slice, whatever its row budget.
+ */
+final class SingleSliceConversion<T> implements SlicedConversion<T> {
+  private final Flat2Pojo converter;
+  private final List<? extends Map<String, ?>> rows;
+  private final Class<T> type;
+  private final MappingConfig config;
+  private List<T> results = List.of();
+  private boolean done;
+
+  SingleSliceConversion(
+      final Flat2Pojo converter,
+      final List<? extends Map<String, ?>> rows,
+      final Class<T> type,
+      final MappingConfig config) {
+    this.converter = converter;
+    this.rows = rows;
+    this.type = type;
+    this.config = config;
+  }
+
+  @Override
+  public int advance(final int rowBudget) {
+    if (done) {
+      return 0;
+    }
+    results = converter.convertAll(rows, type, config);
+    done = true;
+    return rows.size();
+  }
+
+  @Override
+  public boolean done() {
+    return done;
+  }
+
+  @Override
+  public List<T> results() {
+    return results;
+  }
+}
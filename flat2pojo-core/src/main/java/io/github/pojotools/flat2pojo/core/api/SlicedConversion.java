@@ -0,0 +1,36 @@
+package io.github.pojotools.flat2pojo.core.api;
+
+import java.util.List;
+
+/**
+ * A conversion run a few root groups at a time, so the caller can yield its thread between groups.
+ *
+ * <pre>{@code
+ * SlicedConversion<Customer> conversion = converter.convertSliced(rows, Customer.class, config);
+ * while (!conversion.done()) {
+ *   conversion.advance(10_000);
+ * }
+ * List<Customer> customers = conversion.results();
+ * }</pre>
+ *
+ * <p>Groups and roots come out exactly as {@link Flat2Pojo#convertAll(List, Class,
+ * io.github.pojotools.flat2pojo.core.config.MappingConfig)} produces them. Slices may run on
+ * different threads one after another, but not concurrently.
+ *
+ * @param <T> the target type
+ */
+public interface SlicedConversion<T> {
+
+  /**
+   * Assembles whole groups until at least {@code rowBudget} rows were processed or the input ends.
+   *
+   * @return the number of rows processed
+   */
+  int advance(int rowBudget);
+
+  /** Returns whether every group was assembled. */
+  boolean done();
+
+  /** Returns the roots, one per group in input order; only complete once {@link #done()}. */
+  List<T> results();
+}
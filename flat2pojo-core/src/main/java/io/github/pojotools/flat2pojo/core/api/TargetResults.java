@@ -0,0 +1,28 @@
+package io.github.pojotools.flat2pojo.core.api;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The roots of a multi-target conversion, per {@link ConversionTarget}.
+ *
+ * @param roots converted roots per target, each list in root group order
+ */
+public record TargetResults(Map<ConversionTarget<?>, List<?>> roots) {
+
+  public TargetResults {
+    roots = Map.copyOf(Objects.requireNonNull(roots, "roots must not be null"));
+  }
+
+  /** Returns the roots converted for {@code target}. */
+  @SuppressWarnings("unchecked")
+  public <T> List<T> get(final ConversionTarget<T> target) {
+    final List<?> converted = roots.get(target);
+    if (converted == null) {
+      throw new IllegalArgumentException(
+          "Not a target of this conversion: " + target.type().getName());
+    }
+    return (List<T>) converted;
+  }
+}
@@ -1,6 +1,7 @@
 package io.github.pojotools.flat2pojo.core.config;
 
 import io.github.pojotools.flat2pojo.core.util.PathResolver;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
@@ -13,6 +14,8 @@ import java.util.Set;
  */
 public final class ListHierarchyCache {
   private final Map<String, String> parentListPaths;
+  private final Map<String, List<MappingConfig.ListRule>> childListRules;
+  private final List<MappingConfig.ListRule> topLevelListRules;
   private final Set<String> declaredListPaths;
   private final PathResolver pathResolver;
 
@@ -20,6 +23,9 @@ public final class ListHierarchyCache {
     this.pathResolver = pathResolver;
     this.declaredListPaths = config.listPaths();
     this.parentListPaths = buildParentListPaths(config);
+    this.childListRules = buildChildListRules(config);
+    this.topLevelListRules =
+        config.lists().stream().filter(r -> !parentListPaths.containsKey(r.path())).toList();
   }
 
   private Map<String, String> buildParentListPaths(final MappingConfig config) {
@@ -44,10 +50,32 @@ public final class ListHierarchyCache {
     return Map.copyOf(result);
   }
 
+  private Map<String, List<MappingConfig.ListRule>> buildChildListRules(
+      final MappingConfig config) {
+    final Map<String, List<MappingConfig.ListRule>> result = new HashMap<>();
+    for (final MappingConfig.ListRule rule : config.lists()) {
+      final String parent = parentListPaths.get(rule.path());
+      if (parent != null) {
+        result.computeIfAbsent(parent, k -> new ArrayList<>()).add(rule);
+      }
+    }
+    return Map.copyOf(result);
+  }
+
   public String getParentListPath(final String listPath) {
     return parentListPaths.get(listPath);
   }
 
+  /**
+   * Returns the list rules declared directly beneath {@code parentListPath}, in declaration order;
+   * {@code null} returns the top-level list rules.
+   */
+  public List<MappingConfig.ListRule> getChildListRules(final String parentListPath) {
+    return parentListPath == null
+        ? topLevelListRules
+        : childListRules.getOrDefault(parentListPath, List.of());
+  }
+
   public boolean isUnderAnyList(final String path) {
     return pathResolver.isUnderAny(path, declaredListPaths);
   }
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import io.github.pojotools.flat2pojo.spi.Reporter;
+import io.github.pojotools.flat2pojo.spi.ValueConverter;
 import io.github.pojotools.flat2pojo.spi.ValuePreprocessor;
 import java.util.HashSet;
 import java.util.List;
@@ -39,6 +40,26 @@ public abstract class MappingConfig {
     return false;
   }
 
+  /**
+   * Assemble into compact object nodes whose field names are shared per shape (see {@code
+   * CompactNodeFactory}) instead of with the {@code ObjectMapper}'s own node factory. Opt-in, as
+   * it replaces a custom or configured factory; avoid when callers heavily restructure returned
+   * {@code JsonNode}s.
+   */
+  @Value.Default
+  public boolean compactNodes() {
+    return false;
+  }
+
+  /**
+   * Whether rows arrive clustered by root keys (e.g. {@code ORDER BY} the root keys). Clustered
+   * input is grouped by comparing each row's keys with the previous row's, without a grouping map.
+   */
+  @Value.Default
+  public InputClustering inputClustering() {
+    return InputClustering.none;
+  }
+
   @Value.Default
   public List<String> rootKeys() {
     return List.of();
@@ -64,6 +85,40 @@ public abstract class MappingConfig {
     return new NullPolicy(false);
   }
 
+  @Value.Default
+  public InterningPolicy interningPolicy() {
+    return InterningPolicy.disabled();
+  }
+
+  @Value.Default
+  public ParallelAssembly parallelAssembly() {
+    return ParallelAssembly.disabled();
+  }
+
+  @Value.Default
+  public ParallelGrouping parallelGrouping() {
+    return ParallelGrouping.disabled();
+  }
+
+  @Value.Default
+  public PipelinedTransform pipelinedTransform() {
+    return PipelinedTransform.disabled();
+  }
+
+  @Value.Default
+  public Projection projection() {
+    return Projection.all();
+  }
+
+  /**
+   * Row filters on absolute column paths, all of which a row must pass to be assembled. Rows are
+   * filtered on their raw values before grouping, so a root all of whose rows fail never exists.
+   */
+  @Value.Default
+  public List<Filter> filters() {
+    return List.of();
+  }
+
   @Value.Default
   public Optional<Reporter> reporter() {
     return Optional.empty();
@@ -74,6 +129,11 @@ public abstract class MappingConfig {
     return Optional.empty();
   }
 
+  @Value.Default
+  public List<ValueConverter<?>> valueConverters() {
+    return List.of();
+  }
+
   // ======= DERIVED/CACHED FIELDS =======
 
   @Value.Derived
@@ -87,6 +147,12 @@ public abstract class MappingConfig {
     return ImmutableMappingConfig.builder();
   }
 
+  /** Whether any list or primitive list rule declares aggregates. */
+  public boolean hasAggregates() {
+    return lists().stream().anyMatch(rule -> !rule.aggregation().aggregates().isEmpty())
+        || primitiveLists().stream().anyMatch(rule -> !rule.aggregation().aggregates().isEmpty());
+  }
+
   // ======= HELPER METHODS FOR DERIVED FIELDS =======
 
   private Set<String> precomputeListPaths() {
@@ -101,12 +167,53 @@ public abstract class MappingConfig {
 
   public record NullPolicy(boolean blanksAsNulls) {}
 
+  /**
+   * Shares text nodes (and their strings) for repeated values of low-cardinality columns within a
+   * conversion batch. {@code paths} are always interned; {@code autoDetect} interns every other
+   * column until it exceeds {@code maxEntriesPerColumn} distinct values.
+   */
+  public record InterningPolicy(List<String> paths, boolean autoDetect, int maxEntriesPerColumn) {
+    public static final int DEFAULT_MAX_ENTRIES_PER_COLUMN = 1024;
+
+    public static InterningPolicy disabled() {
+      return new InterningPolicy(List.of(), false, DEFAULT_MAX_ENTRIES_PER_COLUMN);
+    }
+  }
+
+  /**
+   * A list of elements under {@code path}. A row only writes to an element when its values pass
+   * all {@code filters}, whose paths are relative to the list like {@code keyPaths}; a row that
+   * fails them skips the element and every list nested in it. The {@code aggregation} summarizes
+   * the elements next to the list.
+   */
   public record ListRule(
       String path,
       List<String> keyPaths,
       List<OrderBy> orderBy,
       boolean dedupe,
-      ConflictPolicy onConflict) {}
+      ConflictPolicy onConflict,
+      List<Filter> filters,
+      Aggregation aggregation) {
+
+    public ListRule(
+        final String path,
+        final List<String> keyPaths,
+        final List<OrderBy> orderBy,
+        final boolean dedupe,
+        final ConflictPolicy onConflict) {
+      this(path, keyPaths, orderBy, dedupe, onConflict, List.of());
+    }
+
+    public ListRule(
+        final String path,
+        final List<String> keyPaths,
+        final List<OrderBy> orderBy,
+        final boolean dedupe,
+        final ConflictPolicy onConflict,
+        final List<Filter> filters) {
+      this(path, keyPaths, orderBy, dedupe, onConflict, filters, Aggregation.none());
+    }
+  }
 
   public enum ConflictPolicy {
     error,
@@ -122,9 +229,155 @@ public abstract class MappingConfig {
     last
   }
 
+  /**
+   * Assembles one large group in chunks of {@code chunkRows} rows on several threads, then merges
+   * the partial trees by list keys. Applies to groups of at least {@code minGroupRows} rows; {@code
+   * minGroupRows <= 0} disables it. The merged result equals sequential assembly.
+   */
+  public record ParallelAssembly(int minGroupRows, int chunkRows) {
+    public static final int DEFAULT_CHUNK_ROWS = 50_000;
+
+    public static ParallelAssembly disabled() {
+      return new ParallelAssembly(0, DEFAULT_CHUNK_ROWS);
+    }
+
+    public boolean appliesTo(final int groupRows) {
+      return minGroupRows > 0
+          && chunkRows > 0
+          && groupRows >= minGroupRows
+          && groupRows > chunkRows;
+    }
+  }
+
+  /**
+   * Groups inputs of at least {@code minRows} rows on several threads: rows are partitioned by root
+   * key hash and every partition is grouped and assembled on its own. {@code partitions <= 0} uses
+   * one partition per available processor; {@code minRows <= 0} disables it. Results keep the
+   * order of sequential grouping.
+   */
+  public record ParallelGrouping(int minRows, int partitions) {
+    public static ParallelGrouping disabled() {
+      return new ParallelGrouping(0, 0);
+    }
+
+    public boolean appliesTo(final int rows) {
+      return minRows > 0 && rows >= minRows;
+    }
+
+    public int partitionCount() {
+      return partitions > 0 ? partitions : Runtime.getRuntime().availableProcessors();
+    }
+  }
+
+  /**
+   * Preprocesses and transforms row values on {@code stages} threads ahead of assembly, handing
+   * them over in batches of {@code batchRows} rows. Applies to inputs of more than one batch;
+   * {@code stages <= 0} disables it. Results equal sequential assembly.
+   */
+  public record PipelinedTransform(int stages, int batchRows) {
+    public static final int DEFAULT_BATCH_ROWS = 256;
+
+    public static PipelinedTransform disabled() {
+      return new PipelinedTransform(0, DEFAULT_BATCH_ROWS);
+    }
+
+    public boolean appliesTo(final int rows) {
+      return stages > 0 && batchRows > 0 && rows > batchRows;
+    }
+  }
+
+  /**
+   * Drops the columns a consumer never reads before their values are transformed. A column is kept
+   * when it equals or lies under an {@code include} path (any column if {@code include} is empty),
+   * lies under no {@code exclude} path and, with {@code fromTargetType}, names a property path of
+   * the target type. Root keys and the key, {@code orderBy} and filter paths of list rules are
+   * always kept.
+   */
+  public record Projection(List<String> include, List<String> exclude, boolean fromTargetType) {
+    public static Projection all() {
+      return new Projection(List.of(), List.of(), false);
+    }
+
+    public boolean keepsAll() {
+      return include.isEmpty() && exclude.isEmpty() && !fromTargetType;
+    }
+  }
+
+  /**
+   * Keeps a row or list element whose value at {@code path} satisfies {@code op} against {@code
+   * values}: one value for comparisons, any number for {@code oneOf} and {@code noneOf}, none for
+   * null checks. Numbers compare numerically, text lexicographically and booleans by value; a
+   * value of another type is unequal to every operand and fails ordering comparisons. A null or
+   * absent value only passes {@code isNull}, {@code ne} and {@code noneOf}.
+   */
+  public record Filter(String path, FilterOp op, List<Object> values) {
+    public static Filter of(final String path, final FilterOp op, final Object... values) {
+      return new Filter(path, op, List.of(values));
+    }
+  }
+
+  public enum FilterOp {
+    eq,
+    ne,
+    lt,
+    le,
+    gt,
+    ge,
+    isNull,
+    notNull,
+    oneOf,
+    noneOf
+  }
+
   public record PrimitiveSplitRule(String path, String delimiter, boolean trim) {}
 
-  public record PrimitiveListRule(String path, OrderDirection orderDirection, boolean dedup) {}
+  public record PrimitiveListRule(
+      String path, OrderDirection orderDirection, boolean dedup, Aggregation aggregation) {
+
+    public PrimitiveListRule(
+        final String path, final OrderDirection orderDirection, final boolean dedup) {
+      this(path, orderDirection, dedup, Aggregation.none());
+    }
+  }
+
+  /**
+   * Summary fields of a list, updated as its elements (or, for a primitive list, its values)
+   * arrive. With {@code aggregateOnly} the list itself is not kept: only the aggregates are
+   * written, and no element is ever created.
+   */
+  public record Aggregation(List<Aggregate> aggregates, boolean aggregateOnly) {
+    public static Aggregation none() {
+      return new Aggregation(List.of(), false);
+    }
+  }
+
+  /**
+   * Writes {@code op} over the list to {@code field}, a path relative to the object that holds the
+   * list. {@code path} is relative to a list element: {@code count} counts the elements (with a
+   * {@code path}, those with a non-null value there), {@code sum}, {@code min}, {@code max} and
+   * {@code distinct} (number of distinct values) read the value at {@code path}. Primitive lists
+   * aggregate their values and take no {@code path}.
+   */
+  public record Aggregate(String field, AggregateOp op, String path) {}
+
+  public enum AggregateOp {
+    count,
+    sum,
+    min,
+    max,
+    distinct
+  }
+
+  /**
+   * {@code none} groups rows by hashing their root keys; {@code clustered} trusts that all rows of
+   * a root are adjacent; {@code verified} also fails when a root key reappears after its group
+   * was closed.
+   */
+  public enum InputClustering {
+    none,
+    clustered,
+    verified
+  }
 
   public enum OrderDirection {
     insertion,
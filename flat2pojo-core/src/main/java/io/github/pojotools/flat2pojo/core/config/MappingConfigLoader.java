@@ -1,7 +1,13 @@
 package io.github.pojotools.flat2pojo.core.config;
 
+import io.github.pojotools.flat2pojo.core.config.MappingConfig.Aggregate;
+import io.github.pojotools.flat2pojo.core.config.MappingConfig.AggregateOp;
+import io.github.pojotools.flat2pojo.core.config.MappingConfig.Aggregation;
+import io.github.pojotools.flat2pojo.core.config.MappingConfig.Filter;
+import io.github.pojotools.flat2pojo.core.config.MappingConfig.FilterOp;
 import io.github.pojotools.flat2pojo.core.config.MappingConfig.ListRule;
 import io.github.pojotools.flat2pojo.core.config.MappingConfig.OrderBy;
+import io.github.pojotools.flat2pojo.core.config.MappingConfig.PrimitiveListRule;
 import io.github.pojotools.flat2pojo.core.util.PathOps;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -26,10 +32,14 @@ public final class MappingConfigLoader {
     private final Map<String, Integer> declarationOrder;
     private final Set<String> listPaths;
     private final List<ListRule> listRules;
+    private final List<Filter> rowFilters;
+    private final List<PrimitiveListRule> primitiveListRules;
 
     HierarchyValidator(MappingConfig cfg) {
       this.separator = cfg.separator();
       this.listRules = cfg.lists();
+      this.rowFilters = cfg.filters();
+      this.primitiveListRules = cfg.primitiveLists();
       this.declarationOrder = buildDeclarationOrderMap();
       this.listPaths = buildListPathsSet();
     }
@@ -54,12 +64,27 @@ public final class MappingConfigLoader {
       for (ListRule rule : listRules) {
         validateSingleListRule(rule);
       }
+      for (Filter filter : rowFilters) {
+        validateFilter(filter, "row filters");
+      }
+      for (PrimitiveListRule rule : primitiveListRules) {
+        String owner = "primitive list '" + rule.path() + "'";
+        validateAggregation(rule.aggregation(), owner);
+        for (Aggregate aggregate : rule.aggregation().aggregates()) {
+          if (aggregate.path() != null) {
+            throw new ValidationException(
+                "Aggregate '" + aggregate.field() + "' of " + owner + " cannot take a path");
+          }
+        }
+      }
     }
 
     private void validateSingleListRule(ListRule rule) {
       validateParentChildOrder(rule);
       validateKeyPathsAreRelative(rule);
       validateOrderByPathsAreRelative(rule);
+      validateElementFilters(rule);
+      validateListAggregation(rule);
       // validateImpliedParentLists is no longer needed with relative paths
     }
 
@@ -102,6 +127,138 @@ public final class MappingConfigLoader {
       }
     }
 
+    private void validateElementFilters(ListRule rule) {
+      String listPathPrefix = rule.path() + separator;
+
+      for (Filter filter : rule.filters()) {
+        validateFilter(filter, "list rule '" + rule.path() + "'");
+        if (filter.path().startsWith(listPathPrefix)) {
+          throw new ValidationException(
+              "filter path '"
+                  + filter.path()
+                  + "' in list rule '"
+                  + rule.path()
+                  + "' must be relative, not absolute. Use '"
+                  + filter.path().substring(listPathPrefix.length())
+                  + "' instead.");
+        }
+      }
+    }
+
+    private void validateListAggregation(ListRule rule) {
+      String owner = "list rule '" + rule.path() + "'";
+      validateAggregation(rule.aggregation(), owner);
+      String listPathPrefix = rule.path() + separator;
+      for (Aggregate aggregate : rule.aggregation().aggregates()) {
+        validateAggregatePath(aggregate, owner, listPathPrefix);
+      }
+      if (rule.aggregation().aggregateOnly()) {
+        validateNothingNestedIn(owner, listPathPrefix);
+      }
+    }
+
+    private void validateAggregatePath(Aggregate aggregate, String owner, String listPathPrefix) {
+      if (aggregate.path() == null && aggregate.op() != AggregateOp.count) {
+        throw new ValidationException(
+            "Aggregate '"
+                + aggregate.field()
+                + "' of "
+                + owner
+                + " needs a path to "
+                + aggregate.op());
+      }
+      if (aggregate.path() != null && aggregate.path().startsWith(listPathPrefix)) {
+        throw new ValidationException(
+            "Aggregate path '"
+                + aggregate.path()
+                + "' in "
+                + owner
+                + " must be relative, not absolute. Use '"
+                + aggregate.path().substring(listPathPrefix.length())
+                + "' instead.");
+      }
+    }
+
+    private void validateNothingNestedIn(String owner, String listPathPrefix) {
+      for (String path : listPaths) {
+        if (path.startsWith(listPathPrefix)) {
+          throw new ValidationException(
+              "List '" + path + "' cannot be nested in aggregate-only " + owner);
+        }
+      }
+      for (PrimitiveListRule primitiveList : primitiveListRules) {
+        if (primitiveList.path().startsWith(listPathPrefix)) {
+          throw new ValidationException(
+              "Primitive list '"
+                  + primitiveList.path()
+                  + "' cannot be nested in aggregate-only "
+                  + owner);
+        }
+      }
+    }
+
+    private void validateAggregation(Aggregation aggregation, String owner) {
+      if (aggregation.aggregateOnly() && aggregation.aggregates().isEmpty()) {
+        throw new ValidationException("aggregateOnly " + owner + " declares no aggregates");
+      }
+      for (Aggregate aggregate : aggregation.aggregates()) {
+        if (aggregate.field() == null || aggregate.field().isEmpty() || aggregate.op() == null) {
+          throw new ValidationException("Aggregate of " + owner + " needs a field and an op");
+        }
+      }
+    }
+
+    private void validateFilter(Filter filter, String owner) {
+      if (filter.path() == null || filter.path().isEmpty() || filter.op() == null) {
+        throw new ValidationException("Filter in " + owner + " needs a path and an op");
+      }
+      int operands = filter.values().size();
+      boolean arityMatches =
+          switch (filter.op()) {
+            case isNull, notNull -> operands == 0;
+            case oneOf, noneOf -> operands > 0;
+            default -> operands == 1;
+          };
+      if (!arityMatches) {
+        throw new ValidationException(
+            "Filter '"
+                + filter.op()
+                + "' on '"
+                + filter.path()
+                + "' in "
+                + owner
+                + " cannot take "
+                + operands
+                + " value(s)");
+      }
+      for (Object value : filter.values()) {
+        validateOperand(filter, owner, value);
+      }
+    }
+
+    private void validateOperand(Filter filter, String owner, Object value) {
+      boolean ordering =
+          filter.op() == FilterOp.lt
+              || filter.op() == FilterOp.le
+              || filter.op() == FilterOp.gt
+              || filter.op() == FilterOp.ge;
+      boolean supported =
+          value instanceof Number
+              || value instanceof String
+              || (value instanceof Boolean && !ordering);
+      if (!supported) {
+        throw new ValidationException(
+            "Filter '"
+                + filter.op()
+                + "' on '"
+                + filter.path()
+                + "' in "
+                + owner
+                + " cannot compare against "
+                + value);
+      }
+    }
+
     private void validateParentChildOrder(ListRule rule) {
       String path = rule.path();
       String nearestAncestor = findNearestListAncestor(path);
@@ -1,11 +1,22 @@
 package io.github.pojotools.flat2pojo.core.config;
 
+import io.github.pojotools.flat2pojo.core.config.MappingConfig.Aggregate;
+import io.github.pojotools.flat2pojo.core.config.MappingConfig.AggregateOp;
+import io.github.pojotools.flat2pojo.core.config.MappingConfig.Aggregation;
 import io.github.pojotools.flat2pojo.core.config.MappingConfig.ConflictPolicy;
+import io.github.pojotools.flat2pojo.core.config.MappingConfig.Filter;
+import io.github.pojotools.flat2pojo.core.config.MappingConfig.FilterOp;
+import io.github.pojotools.flat2pojo.core.config.MappingConfig.InputClustering;
+import io.github.pojotools.flat2pojo.core.config.MappingConfig.InterningPolicy;
 import io.github.pojotools.flat2pojo.core.config.MappingConfig.Nulls;
 import io.github.pojotools.flat2pojo.core.config.MappingConfig.OrderBy;
 import io.github.pojotools.flat2pojo.core.config.MappingConfig.OrderDirection;
+import io.github.pojotools.flat2pojo.core.config.MappingConfig.ParallelAssembly;
+import io.github.pojotools.flat2pojo.core.config.MappingConfig.ParallelGrouping;
+import io.github.pojotools.flat2pojo.core.config.MappingConfig.PipelinedTransform;
 import io.github.pojotools.flat2pojo.core.config.MappingConfig.PrimitiveListRule;
 import io.github.pojotools.flat2pojo.core.config.MappingConfig.PrimitiveSplitRule;
+import io.github.pojotools.flat2pojo.core.config.MappingConfig.Projection;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -28,6 +39,12 @@ final class YamlConfigParser {
     parsePrimitiveListRules(root, builder);
     parseListRules(root, builder);
     parseNullPolicy(root, builder);
+    parseInterningPolicy(root, builder);
+    parseParallelAssembly(root, builder);
+    parseParallelGrouping(root, builder);
+    parsePipelinedTransform(root, builder);
+    parseProjection(root, builder);
+    builder.filters(parseFilters(root));
     return builder.build();
   }
 
@@ -35,6 +52,9 @@ final class YamlConfigParser {
       final Map<String, Object> root, final ImmutableMappingConfig.Builder builder) {
     builder.separator((String) root.getOrDefault("separator", "/"));
     builder.allowSparseRows(Boolean.TRUE.equals(root.get("allowSparseRows")));
+    builder.compactNodes(Boolean.TRUE.equals(root.get("compactNodes")));
+    builder.inputClustering(
+        InputClustering.valueOf((String) root.getOrDefault("inputClustering", "none")));
 
     final List<String> rootKeys = (List<String>) root.get("rootKeys");
     if (rootKeys != null) {
@@ -90,7 +110,9 @@ final class YamlConfigParser {
         OrderDirection.valueOf(orderDirectionString.toLowerCase(java.util.Locale.ROOT));
     boolean dedup = !Boolean.FALSE.equals(primitiveListRule.get("dedup"));
 
-    builder.addPrimitiveLists(new PrimitiveListRule(path, orderDirection, dedup));
+    Aggregation aggregation = parseAggregation(primitiveListRule);
+
+    builder.addPrimitiveLists(new PrimitiveListRule(path, orderDirection, dedup, aggregation));
   }
 
   private static void parseListRules(
@@ -112,8 +134,12 @@ final class YamlConfigParser {
     List<OrderBy> orderBy = parseOrderByRules(listRule);
     boolean dedupe = !Boolean.FALSE.equals(listRule.get("dedupe"));
     ConflictPolicy conflictPolicy = parseConflictPolicy(listRule);
+    List<Filter> filters = parseFilters(listRule);
+    Aggregation aggregation = parseAggregation(listRule);
 
-    builder.addLists(new MappingConfig.ListRule(path, keyPaths, orderBy, dedupe, conflictPolicy));
+    builder.addLists(
+        new MappingConfig.ListRule(
+            path, keyPaths, orderBy, dedupe, conflictPolicy, filters, aggregation));
   }
 
   private static List<OrderBy> parseOrderByRules(Map<String, Object> listRule) {
@@ -145,6 +171,54 @@ final class YamlConfigParser {
     return Nulls.valueOf(nullsString.toLowerCase(java.util.Locale.ROOT));
   }
 
+  private static List<Filter> parseFilters(final Map<String, Object> block) {
+    final List<Map<String, Object>> filterList = (List<Map<String, Object>>) block.get("filters");
+    if (filterList == null) {
+      return List.of();
+    }
+
+    final List<Filter> filters = new ArrayList<>();
+    for (final Map<String, Object> filterSpec : filterList) {
+      filters.add(parseSingleFilter(filterSpec));
+    }
+    return filters;
+  }
+
+  /** A single operand goes under {@code value}, a set under {@code values}. */
+  private static Filter parseSingleFilter(final Map<String, Object> filterSpec) {
+    final String path = (String) filterSpec.get("path");
+    final FilterOp op = parseFilterOp((String) filterSpec.getOrDefault("op", "eq"));
+    final List<Object> values =
+        filterSpec.containsKey("value")
+            ? java.util.Collections.singletonList(filterSpec.get("value"))
+            : (List<Object>) filterSpec.getOrDefault("values", List.of());
+    return new Filter(path, op, values);
+  }
+
+  /** Accepts the SQL spellings {@code in} and {@code notIn} of {@code oneOf} and {@code noneOf}. */
+  private static FilterOp parseFilterOp(final String opString) {
+    return switch (opString.trim()) {
+      case "in" -> FilterOp.oneOf;
+      case "notIn" -> FilterOp.noneOf;
+      default -> FilterOp.valueOf(opString.trim());
+    };
+  }
+
+  private static Aggregation parseAggregation(final Map<String, Object> rule) {
+    final List<Map<String, Object>> aggregateList =
+        (List<Map<String, Object>>) rule.getOrDefault("aggregates", List.of());
+
+    final List<Aggregate> aggregates = new ArrayList<>();
+    for (final Map<String, Object> aggregateSpec : aggregateList) {
+      aggregates.add(
+          new Aggregate(
+              (String) aggregateSpec.get("field"),
+              AggregateOp.valueOf(((String) aggregateSpec.getOrDefault("op", "count")).trim()),
+              (String) aggregateSpec.get("path")));
+    }
+    return new Aggregation(aggregates, Boolean.TRUE.equals(rule.get("aggregateOnly")));
+  }
+
   private static ConflictPolicy parseConflictPolicy(final Map<String, Object> listRule) {
     final String policyString = (String) listRule.getOrDefault("onConflict", "error");
     return ConflictPolicy.valueOf(policyString.trim());
@@ -167,4 +241,74 @@ final class YamlConfigParser {
     }
     return blanksAsNullsValue != null && Boolean.parseBoolean(String.valueOf(blanksAsNullsValue));
   }
+
+  private static void parseInterningPolicy(
+      final Map<String, Object> root, final ImmutableMappingConfig.Builder builder) {
+    final Map<String, Object> interning = (Map<String, Object>) root.get("interning");
+    if (interning == null) {
+      return;
+    }
+
+    final List<String> paths = (List<String>) interning.getOrDefault("paths", List.of());
+    final boolean autoDetect = Boolean.TRUE.equals(interning.get("autoDetect"));
+    final int maxEntries =
+        ((Number)
+                interning.getOrDefault(
+                    "maxEntriesPerColumn", InterningPolicy.DEFAULT_MAX_ENTRIES_PER_COLUMN))
+            .intValue();
+    builder.interningPolicy(new InterningPolicy(paths, autoDetect, maxEntries));
+  }
+
+  private static void parseParallelAssembly(
+      final Map<String, Object> root, final ImmutableMappingConfig.Builder builder) {
+    final Map<String, Object> parallel = (Map<String, Object>) root.get("parallelAssembly");
+    if (parallel == null) {
+      return;
+    }
+
+    final int minGroupRows = ((Number) parallel.getOrDefault("minGroupRows", 0)).intValue();
+    final int chunkRows =
+        ((Number) parallel.getOrDefault("chunkRows", ParallelAssembly.DEFAULT_CHUNK_ROWS))
+            .intValue();
+    builder.parallelAssembly(new ParallelAssembly(minGroupRows, chunkRows));
+  }
+
+  private static void parseParallelGrouping(
+      final Map<String, Object> root, final ImmutableMappingConfig.Builder builder) {
+    final Map<String, Object> grouping = (Map<String, Object>) root.get("parallelGrouping");
+    if (grouping == null) {
+      return;
+    }
+
+    final int minRows = ((Number) grouping.getOrDefault("minRows", 0)).intValue();
+    final int partitions = ((Number) grouping.getOrDefault("partitions", 0)).intValue();
+    builder.parallelGrouping(new ParallelGrouping(minRows, partitions));
+  }
+
+  private static void parsePipelinedTransform(
+      final Map<String, Object> root, final ImmutableMappingConfig.Builder builder) {
+    final Map<String, Object> pipelined = (Map<String, Object>) root.get("pipelinedTransform");
+    if (pipelined == null) {
+      return;
+    }
+
+    final int stages = ((Number) pipelined.getOrDefault("stages", 0)).intValue();
+    final int batchRows =
+        ((Number) pipelined.getOrDefault("batchRows", PipelinedTransform.DEFAULT_BATCH_ROWS))
+            .intValue();
+    builder.pipelinedTransform(new PipelinedTransform(stages, batchRows));
+  }
+
+  private static void parseProjection(
+      final Map<String, Object> root, final ImmutableMappingConfig.Builder builder) {
+    final Map<String, Object> projection = (Map<String, Object>) root.get("projection");
+    if (projection == null) {
+      return;
+    }
+
+    final List<String> include = (List<String>) projection.getOrDefault("include", List.of());
+    final List<String> exclude = (List<String>) projection.getOrDefault("exclude", List.of());
+    final boolean fromTargetType = Boolean.TRUE.equals(projection.get("fromTargetType"));
+    builder.projection(new Projection(include, exclude, fromTargetType));
+  }
 }
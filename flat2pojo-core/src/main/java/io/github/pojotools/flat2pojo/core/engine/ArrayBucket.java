@@ -4,9 +4,29 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 import java.util.*;
 
 public final class ArrayBucket {
-  private final Map<CompositeKey, ObjectNode> byKey = new LinkedHashMap<>();
+  private final Map<CompositeKey, ObjectNode> byKey;
+  private final List<ObjectNode> appended;
   private List<ObjectNode> cachedSortedElements;
   private List<Comparator<ObjectNode>> lastComparators;
+  private ListAggregates aggregates;
+
+  /** Creates a deduplicating bucket: elements are identified by their composite key. */
+  public ArrayBucket() {
+    this(new LinkedHashMap<>(), null);
+  }
+
+  private ArrayBucket(final Map<CompositeKey, ObjectNode> byKey, final List<ObjectNode> appended) {
+    this.byKey = byKey;
+    this.appended = appended;
+  }
+
+  /**
+   * Creates an append-only bucket for {@code dedupe: false} lists: elements are kept in arrival
+   * order with no key extraction, hashing or lookup. Only {@link #append} is supported.
+   */
+  public static ArrayBucket appendOnly() {
+    return new ArrayBucket(null, new ArrayList<>());
+  }
 
   /**
    * Upserts an element into the bucket.
@@ -24,10 +44,76 @@ public final class ArrayBucket {
   public ObjectNode upsert(CompositeKey key, ObjectNode candidate) {
     Objects.requireNonNull(key, "key must not be null");
     Objects.requireNonNull(candidate, "candidate must not be null");
+    if (byKey == null) {
+      throw new IllegalStateException("upsert is not supported by an append-only bucket");
+    }
 
     return existsInBucket(key) ? byKey.get(key) : insertNew(key, candidate);
   }
 
+  /**
+   * Looks up the element stored under {@code key} without inserting.
+   *
+   * @return the existing node, or {@code null} if the key is new
+   */
+  public ObjectNode find(CompositeKey key) {
+    if (byKey == null) {
+      throw new IllegalStateException("find is not supported by an append-only bucket");
+    }
+    return byKey.get(key);
+  }
+
+  /**
+   * Removes the element stored under {@code key}.
+   *
+   * @return the removed node, or {@code null} if the key is unknown
+   */
+  public ObjectNode remove(CompositeKey key) {
+    if (byKey == null) {
+      throw new IllegalStateException("remove is not supported by an append-only bucket");
+    }
+    ObjectNode removed = byKey.remove(key);
+    if (removed != null) {
+      invalidateCache();
+    }
+    return removed;
+  }
+
+  /** Returns the aggregates folded over this list's elements, or {@code null} if it has none. */
+  ListAggregates aggregates() {
+    return aggregates;
+  }
+
+  void aggregateInto(ListAggregates listAggregates) {
+    this.aggregates = listAggregates;
+  }
+
+  /** Returns the elements in arrival order, as stored. */
+  Collection<ObjectNode> elements() {
+    return byKey == null ? appended : byKey.values();
+  }
+
+  /** Forgets the cached order, e.g. after sort fields of stored elements were rewritten. */
+  public void invalidateOrder() {
+    invalidateCache();
+  }
+
+  /**
+   * Appends an element to an append-only bucket.
+   *
+   * @param candidate node to append (production: always empty; will be populated by callers)
+   * @return the appended node
+   */
+  public ObjectNode append(ObjectNode candidate) {
+    Objects.requireNonNull(candidate, "candidate must not be null");
+    if (appended == null) {
+      throw new IllegalStateException("append is only supported by an append-only bucket");
+    }
+    appended.add(candidate);
+    invalidateCache();
+    return candidate;
+  }
+
   private boolean existsInBucket(CompositeKey key) {
     return byKey.containsKey(key);
   }
@@ -57,7 +143,7 @@ public final class ArrayBucket {
   }
 
   private List<ObjectNode> sortElements(List<Comparator<ObjectNode>> comparators) {
-    List<ObjectNode> elements = new ArrayList<>(byKey.values());
+    List<ObjectNode> elements = new ArrayList<>(byKey == null ? appended : byKey.values());
     if (!comparators.isEmpty()) {
       elements.sort(buildCombinedComparator(comparators));
     }
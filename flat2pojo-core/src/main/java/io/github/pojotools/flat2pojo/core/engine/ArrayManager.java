@@ -1,67 +1,367 @@
 package io.github.pojotools.flat2pojo.core.engine;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.github.pojotools.flat2pojo.core.config.MappingConfig;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Manages list array lifecycle with grouping and sorting. Single Responsibility: Coordinates array
  * operations.
+ *
+ * <p>Lists with aggregates fold their final elements into their {@link ListAggregates} when they
+ * are finalized, and the results are written next to the lists. Aggregate-only lists never get an
+ * array: they fold in the row that carries each element, keeping just their aggregates and, to
+ * deduplicate, their keys. A keyed one that aggregates more than its keys keeps, per key, only the
+ * aggregated values, merged like the element's columns, and folds them in when it is finalized.
  */
 public final class ArrayManager {
-  private final ObjectMapper objectMapper;
+  private final JsonNodeFactory nodeFactory;
   private final ArrayNodeResolver arrayResolver;
   private final CompositeKeyExtractor keyExtractor;
   private final ComparatorBuilder comparatorBuilder;
   private final IdentityHashMap<ArrayNode, ArrayBucket> buckets;
   private final IdentityHashMap<ArrayNode, List<Comparator<ObjectNode>>> comparators;
+  private final Map<String, ListAggregates.Plan> aggregatePlans; // by list path
+  private final Map<String, IdentityHashMap<ObjectNode, AggregateOnlyList>> aggregateOnlyLists;
+  private final List<ListAggregates> pendingAggregates; // written on finalization
+  private IdentityHashMap<ArrayNode, Boolean> touched; // only while retaining state
 
-  public ArrayManager(final ObjectMapper objectMapper, final MappingConfig config) {
-    this.objectMapper = objectMapper;
+  /**
+   * @param nodeFactory creates list elements; elements of one list share a shape under {@link
+   *     CompactNodeFactory}
+   */
+  public ArrayManager(final JsonNodeFactory nodeFactory, final MappingConfig config) {
+    this.nodeFactory = nodeFactory;
     this.arrayResolver = new ArrayNodeResolver(config.separator());
     this.keyExtractor = new CompositeKeyExtractor(config.separator());
     this.comparatorBuilder = new ComparatorBuilder(config.separator());
     this.buckets = new IdentityHashMap<>();
     this.comparators = new IdentityHashMap<>();
+    this.aggregatePlans = new HashMap<>();
+    this.aggregateOnlyLists = new HashMap<>();
+    this.pendingAggregates = new ArrayList<>();
     comparatorBuilder.precomputeComparators(config);
+    for (final MappingConfig.ListRule rule : config.lists()) {
+      final ListAggregates.Plan plan =
+          ListAggregates.Plan.of(rule.aggregation(), rule.path(), config.separator());
+      if (!plan.isEmpty()) {
+        aggregatePlans.put(
+            rule.path(),
+            mergesValues(rule)
+                ? plan.mergingValues(rule.onConflict(), config.reporter().orElse(null))
+                : plan);
+      }
+    }
   }
 
+  /** A keyed aggregate-only list that reads more than its keys must merge each key's values. */
+  private static boolean mergesValues(final MappingConfig.ListRule rule) {
+    if (!rule.aggregation().aggregateOnly() || !rule.dedupe()) {
+      return false;
+    }
+    for (final MappingConfig.Aggregate aggregate : rule.aggregation().aggregates()) {
+      if (aggregate.path() != null && !rule.keyPaths().contains(aggregate.path())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the element of {@code rule}'s list that this row writes to, or {@code null} if the row
+   * carries no element for it. Deduplicating lists upsert by composite key; {@code dedupe: false}
+   * lists append a new element for every row.
+   *
+   * <p>An element that already exists is found with a reusable key probe and returned without
+   * allocating; only a new element detaches its key and creates its node.
+   */
   public ObjectNode upsertListElement(
       final ObjectNode base,
       final String relativeListPath,
-      final Map<String, JsonNode> rowValues,
+      final RowValues rowValues,
       final MappingConfig.ListRule rule) {
     final ArrayNode arrayNode = arrayResolver.resolveArrayNode(base, relativeListPath);
-    final ArrayBucket bucket = ensureBucket(arrayNode, rule);
-    final CompositeKey key = keyExtractor.extractFrom(rowValues, rule);
-    return upsertElement(bucket, key);
+    final ArrayBucket bucket = ensureBucket(base, relativeListPath, arrayNode, rule);
+    if (touched != null) {
+      touched.put(arrayNode, Boolean.TRUE);
+    }
+    if (!rule.dedupe()) {
+      return appendElement(bucket, rowValues, rule);
+    }
+    final CompositeKey probe = keyExtractor.extractFrom(rowValues, rule);
+    return upsertElement(bucket, probe);
+  }
+
+  /**
+   * Folds the element this row carries for an aggregate-only {@code rule} into the aggregates of
+   * its list beneath {@code base}, without creating the element. A keyed element counts once: with
+   * the values of the row that first carries its key when only key paths are aggregated, and
+   * otherwise with the values its rows merge into, as the element would hold them.
+   *
+   * @return whether the row carries an element for the rule
+   */
+  public boolean aggregateListElement(
+      final ObjectNode base,
+      final String relativeListPath,
+      final RowValues rowValues,
+      final MappingConfig.ListRule rule) {
+    final AggregateOnlyList list = ensureAggregateOnlyList(base, relativeListPath, rule);
+    if (!rule.dedupe()) {
+      if (!keyExtractor.hasElementValues(rowValues, rule)) {
+        return false;
+      }
+      list.aggregates().add(rowValues);
+      return true;
+    }
+    final CompositeKey probe = keyExtractor.extractFrom(rowValues, rule);
+    if (probe == null) {
+      return false;
+    }
+    if (list.values() != null) {
+      ObjectNode values = list.values().get(probe);
+      if (values == null) {
+        values = nodeFactory.objectNode();
+        list.values().put(probe.detach(), values);
+      }
+      list.aggregates().mergeValues(values, rowValues);
+    } else if (!list.keys().contains(probe)) {
+      list.keys().add(probe.detach());
+      list.aggregates().add(rowValues);
+    }
+    return true;
+  }
+
+  /**
+   * Ensures the (possibly empty) array of {@code rule} exists beneath {@code base}; for an
+   * aggregate-only rule, its aggregates.
+   */
+  public void ensureList(
+      final ObjectNode base, final String relativeListPath, final MappingConfig.ListRule rule) {
+    if (rule.aggregation().aggregateOnly()) {
+      ensureAggregateOnlyList(base, relativeListPath, rule);
+    } else {
+      ensureBucket(
+          base, relativeListPath, arrayResolver.resolveArrayNode(base, relativeListPath), rule);
+    }
   }
 
   public void finalizeArrays(final ObjectNode root) {
     final ArrayFinalizer finalizer = new ArrayFinalizer(buckets, comparators);
     finalizer.finalizeArrays(root);
+    writeAggregates();
     clearState();
   }
 
-  private ArrayBucket ensureBucket(final ArrayNode arrayNode, final MappingConfig.ListRule rule) {
-    buckets.computeIfAbsent(arrayNode, k -> new ArrayBucket());
-    comparators.computeIfAbsent(
-        arrayNode, k -> comparatorBuilder.getComparatorsForPath(rule.path()));
-    return buckets.get(arrayNode);
+  /** Finalizes the lists of several groups assembled side by side, then starts over. */
+  public void finalizeArrays(final Collection<ObjectNode> roots) {
+    final ArrayFinalizer finalizer = new ArrayFinalizer(buckets, comparators);
+    roots.forEach(finalizer::finalizeArrays);
+    writeAggregates();
+    clearState();
   }
 
-  private ObjectNode upsertElement(final ArrayBucket bucket, final CompositeKey key) {
-    return key == null ? null : bucket.upsert(key, objectMapper.createObjectNode());
+  /**
+   * Like {@link #finalizeArrays} but keeps every list in arrival order, for partial trees that
+   * {@link PartialTreeMerger} combines and sorts afterwards.
+   */
+  public void finalizeArraysInArrivalOrder(final ObjectNode root) {
+    final ArrayFinalizer finalizer = new ArrayFinalizer(buckets, new IdentityHashMap<>());
+    finalizer.finalizeArrays(root);
+    writeAggregates();
+    clearState();
+  }
+
+  /**
+   * Keeps buckets after their lists are written, for state that is updated and re-materialized
+   * repeatedly. Lists changed since the last {@link #refreshTouchedArrays()} are tracked; {@link
+   * #finalizeArrays} must not be used afterwards.
+   */
+  public void retainState() {
+    touched = new IdentityHashMap<>();
+  }
+
+  /**
+   * Rewrites the lists upserted into or removed from since the last refresh, in their configured
+   * order. Buckets are kept, so later rows keep deduplicating against them.
+   */
+  public void refreshTouchedArrays() {
+    for (final ArrayNode arrayNode : touched.keySet()) {
+      final ArrayBucket bucket = buckets.get(arrayNode);
+      bucket.invalidateOrder();
+      arrayNode.removeAll();
+      for (final ObjectNode element : bucket.ordered(comparators.get(arrayNode))) {
+        arrayNode.add(element);
+      }
+    }
+    touched.clear();
+  }
+
+  /**
+   * Returns whether the row carries the complete key of an element of {@code rule}'s list. Lists
+   * with {@code dedupe: false} have no addressable elements.
+   */
+  public boolean identifiesElement(final RowValues rowValues, final MappingConfig.ListRule rule) {
+    return rule.dedupe() && keyExtractor.extractFrom(rowValues, rule) != null;
+  }
+
+  /** Returns the existing element of {@code rule}'s list keyed by the row, or {@code null}. */
+  public ObjectNode findListElement(
+      final ObjectNode base,
+      final String relativeListPath,
+      final RowValues rowValues,
+      final MappingConfig.ListRule rule) {
+    final ArrayBucket bucket = buckets.get(arrayResolver.resolveArrayNode(base, relativeListPath));
+    final CompositeKey probe = keyExtractor.extractFrom(rowValues, rule);
+    return bucket == null || probe == null ? null : bucket.find(probe);
+  }
+
+  /**
+   * Removes the element of {@code rule}'s list keyed by the row. Forget the lists nested in the
+   * removed element with {@link #forgetArray}.
+   *
+   * @return the removed element, or {@code null} if there was none
+   */
+  public ObjectNode removeListElement(
+      final ObjectNode base,
+      final String relativeListPath,
+      final RowValues rowValues,
+      final MappingConfig.ListRule rule) {
+    final ArrayNode arrayNode = arrayResolver.resolveArrayNode(base, relativeListPath);
+    final ArrayBucket bucket = buckets.get(arrayNode);
+    final CompositeKey probe = keyExtractor.extractFrom(rowValues, rule);
+    if (bucket == null || probe == null) {
+      return null;
+    }
+    final ObjectNode removed = bucket.remove(probe);
+    if (removed != null && touched != null) {
+      touched.put(arrayNode, Boolean.TRUE);
+    }
+    return removed;
+  }
+
+  /** Drops the bucket of a list that is no longer part of any retained tree. */
+  public void forgetArray(final ArrayNode arrayNode) {
+    buckets.remove(arrayNode);
+    comparators.remove(arrayNode);
+    if (touched != null) {
+      touched.remove(arrayNode);
+    }
+  }
+
+  private ArrayBucket ensureBucket(
+      final ObjectNode base,
+      final String relativeListPath,
+      final ArrayNode arrayNode,
+      final MappingConfig.ListRule rule) {
+    final ArrayBucket existing = buckets.get(arrayNode);
+    if (existing != null) {
+      return existing;
+    }
+    final ArrayBucket created = rule.dedupe() ? new ArrayBucket() : ArrayBucket.appendOnly();
+    buckets.put(arrayNode, created);
+    comparators.put(arrayNode, comparatorBuilder.getComparatorsForPath(rule.path()));
+    final ListAggregates.Plan plan = aggregatePlans.get(rule.path());
+    if (plan != null) {
+      created.aggregateInto(
+          startAggregates(plan, arrayResolver.resolveHolder(base, relativeListPath)));
+    }
+    return created;
+  }
+
+  private AggregateOnlyList ensureAggregateOnlyList(
+      final ObjectNode base, final String relativeListPath, final MappingConfig.ListRule rule) {
+    IdentityHashMap<ObjectNode, AggregateOnlyList> lists = aggregateOnlyLists.get(rule.path());
+    if (lists == null) {
+      lists = new IdentityHashMap<>();
+      aggregateOnlyLists.put(rule.path(), lists);
+    }
+    final ObjectNode holder = arrayResolver.resolveHolder(base, relativeListPath);
+    AggregateOnlyList list = lists.get(holder);
+    if (list == null) {
+      final ListAggregates aggregates = startAggregates(aggregatePlans.get(rule.path()), holder);
+      final boolean merges = aggregates.mergesValues();
+      list =
+          new AggregateOnlyList(
+              rule.dedupe() && !merges ? new HashSet<>() : null,
+              merges ? new LinkedHashMap<>() : null,
+              aggregates);
+      lists.put(holder, list);
+    }
+    return list;
+  }
+
+  private ListAggregates startAggregates(
+      final ListAggregates.Plan plan, final ObjectNode holder) {
+    final ListAggregates aggregates = plan.start(holder);
+    pendingAggregates.add(aggregates);
+    return aggregates;
+  }
+
+  private ObjectNode upsertElement(final ArrayBucket bucket, final CompositeKey probe) {
+    if (probe == null) {
+      return null;
+    }
+    final ObjectNode existing = bucket.find(probe);
+    if (existing != null) {
+      return existing;
+    }
+    return bucket.upsert(probe.detach(), nodeFactory.objectNode());
+  }
+
+  private ObjectNode appendElement(
+      final ArrayBucket bucket,
+      final RowValues rowValues,
+      final MappingConfig.ListRule rule) {
+    if (!keyExtractor.hasElementValues(rowValues, rule)) {
+      return null;
+    }
+    return bucket.append(nodeFactory.objectNode());
+  }
+
+  /**
+   * Folds the final elements of every list with aggregates in, and the merged values of keyed
+   * aggregate-only lists, then writes all results.
+   */
+  private void writeAggregates() {
+    for (final ArrayBucket bucket : buckets.values()) {
+      if (bucket.aggregates() != null) {
+        bucket.elements().forEach(bucket.aggregates()::addElement);
+      }
+    }
+    for (final var lists : aggregateOnlyLists.values()) {
+      for (final AggregateOnlyList list : lists.values()) {
+        if (list.values() != null) {
+          list.values().values().forEach(list.aggregates()::addElement);
+        }
+      }
+    }
+    for (final ListAggregates aggregates : pendingAggregates) {
+      aggregates.write(nodeFactory);
+    }
   }
 
   private void clearState() {
     buckets.clear();
     comparators.clear();
+    aggregateOnlyLists.clear();
+    pendingAggregates.clear();
   }
+
+  /**
+   * The state of an aggregate-only list: its keys when it deduplicates on key paths alone, or the
+   * merged values per key when it aggregates other paths, and its aggregates.
+   */
+  private record AggregateOnlyList(
+      Set<CompositeKey> keys, Map<CompositeKey, ObjectNode> values, ListAggregates aggregates) {}
 }
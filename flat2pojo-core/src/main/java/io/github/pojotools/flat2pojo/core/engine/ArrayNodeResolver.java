@@ -3,6 +3,9 @@ package io.github.pojotools.flat2pojo.core.engine;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.github.pojotools.flat2pojo.core.util.PathOps;
+import io.github.pojotools.flat2pojo.core.util.PathSegments;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Resolves and creates array nodes within the object tree. Single Responsibility: Array node
@@ -10,22 +13,31 @@ import io.github.pojotools.flat2pojo.core.util.PathOps;
  */
 final class ArrayNodeResolver {
   private final String separator;
+  private final Map<String, PathSegments> segmentsByPath = new HashMap<>();
 
   ArrayNodeResolver(final String separator) {
     this.separator = separator;
   }
 
   ArrayNode resolveArrayNode(final ObjectNode base, final String relativeListPath) {
-    final ObjectNode parentNode = traverseToParent(base, relativeListPath);
-    final String arrayField = extractArrayFieldName(relativeListPath);
-    return parentNode.withArray(arrayField);
+    final PathSegments segments = segmentsOf(relativeListPath);
+    final ObjectNode parentNode =
+        PathOps.traverseAndEnsurePath(base, segments, PathOps::ensureObject);
+    return parentNode.withArray(segments.leaf());
   }
 
-  private ObjectNode traverseToParent(final ObjectNode base, final String relativeListPath) {
-    return PathOps.traverseAndEnsurePath(base, relativeListPath, separator, PathOps::ensureObject);
+  /** Returns the object that holds (or would hold) the list, without creating the array. */
+  ObjectNode resolveHolder(final ObjectNode base, final String relativeListPath) {
+    return PathOps.traverseAndEnsurePath(
+        base, segmentsOf(relativeListPath), PathOps::ensureObject);
   }
 
-  private String extractArrayFieldName(final String relativeListPath) {
-    return PathOps.getFinalSegment(relativeListPath, separator);
+  private PathSegments segmentsOf(final String relativeListPath) {
+    PathSegments segments = segmentsByPath.get(relativeListPath);
+    if (segments == null) {
+      segments = PathSegments.of(relativeListPath, separator);
+      segmentsByPath.put(relativeListPath, segments);
+    }
+    return segments;
   }
 }
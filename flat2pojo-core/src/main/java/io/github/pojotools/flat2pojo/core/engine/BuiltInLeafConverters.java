@@ -0,0 +1,74 @@
+package io.github.pojotools.flat2pojo.core.engine;
+
+import com.fasterxml.jackson.databind.node.IntNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.LongNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Direct node constructors for common JDBC and JDK value types. Single Responsibility: Built-in
+ * type-to-node mapping.
+ *
+ * <p>Each constructor mirrors the node produced by Jackson's default serializer for that type.
+ * Mapper-dependent types (dates, java.time) are only candidates: {@link LeafNodeFactory} installs
+ * them after verifying the first result against {@code ObjectMapper.valueToTree}.
+ */
+final class BuiltInLeafConverters {
+  private BuiltInLeafConverters() {}
+
+  static Map<Class<?>, LeafNodeConverter> create(final JsonNodeFactory nodeFactory) {
+    final Map<Class<?>, LeafNodeConverter> converters = new HashMap<>();
+    registerNumbers(converters, nodeFactory);
+    registerText(converters);
+    registerDates(converters);
+    registerJavaTime(converters);
+    converters.put(byte[].class, value -> nodeFactory.binaryNode((byte[]) value));
+    return Map.copyOf(converters);
+  }
+
+  private static void registerNumbers(
+      final Map<Class<?>, LeafNodeConverter> converters, final JsonNodeFactory nodeFactory) {
+    converters.put(BigDecimal.class, value -> nodeFactory.numberNode((BigDecimal) value));
+    converters.put(BigInteger.class, value -> nodeFactory.numberNode((BigInteger) value));
+    converters.put(Float.class, value -> nodeFactory.numberNode((Float) value));
+    converters.put(Short.class, value -> IntNode.valueOf((Short) value));
+    converters.put(Byte.class, value -> IntNode.valueOf((Byte) value));
+  }
+
+  private static void registerText(final Map<Class<?>, LeafNodeConverter> converters) {
+    converters.put(Character.class, value -> TextNode.valueOf(value.toString()));
+    converters.put(UUID.class, value -> TextNode.valueOf(value.toString()));
+    converters.put(java.sql.Time.class, value -> TextNode.valueOf(value.toString()));
+  }
+
+  private static void registerDates(final Map<Class<?>, LeafNodeConverter> converters) {
+    final LeafNodeConverter epochMillis = value -> LongNode.valueOf(((Date) value).getTime());
+    converters.put(Date.class, epochMillis);
+    converters.put(java.sql.Timestamp.class, epochMillis);
+    converters.put(java.sql.Date.class, epochMillis);
+  }
+
+  private static void registerJavaTime(final Map<Class<?>, LeafNodeConverter> converters) {
+    converters.put(LocalDate.class, value -> TextNode.valueOf(value.toString()));
+    converters.put(Instant.class, value -> TextNode.valueOf(value.toString()));
+    converters.put(
+        LocalDateTime.class, value -> formatted(DateTimeFormatter.ISO_LOCAL_DATE_TIME, value));
+    converters.put(LocalTime.class, value -> formatted(DateTimeFormatter.ISO_LOCAL_TIME, value));
+  }
+
+  private static TextNode formatted(final DateTimeFormatter formatter, final Object value) {
+    return TextNode.valueOf(formatter.format((TemporalAccessor) value));
+  }
+}
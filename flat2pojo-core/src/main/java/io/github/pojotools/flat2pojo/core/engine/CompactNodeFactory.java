@@ -0,0 +1,28 @@
+package io.github.pojotools.flat2pojo.core.engine;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Node factory whose object nodes keep their fields in a {@link ShapedFieldMap}: field names are
+ * stored once per shape and shared by all objects with the same fields, values in a flat array.
+ * The nodes are regular {@link ObjectNode}s, so serialization, {@code treeToValue} and {@code
+ * JsonNode} targets are unaffected. Objects created beneath them through {@link
+ * ObjectNode#objectNode()} use this factory as well.
+ *
+ * <p>One instance per config keeps shapes shared across its conversions, and its shape budget
+ * from being spent by other configs. Thread-safe.
+ */
+public final class CompactNodeFactory extends JsonNodeFactory {
+  private static final long serialVersionUID = 1L;
+
+  /** Bound on the number of distinct shapes; later objects fall back to a plain map. */
+  static final int MAX_SHAPES = 4096;
+
+  private final transient FieldShape rootShape = FieldShape.root(MAX_SHAPES);
+
+  @Override
+  public ObjectNode objectNode() {
+    return new ObjectNode(this, new ShapedFieldMap(rootShape));
+  }
+}
@@ -1,22 +1,65 @@
 package io.github.pojotools.flat2pojo.core.engine;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
 import lombok.ToString;
 
 @ToString(of = "values")
 public final class CompositeKey {
   private final List<Object> values;
-  private final int hash;
+  private int hash;
 
   public CompositeKey(final List<Object> values) {
     this.values = List.copyOf(values);
-    this.hash = Objects.hash(this.values);
+    this.hash = this.values.hashCode();
+  }
+
+  private CompositeKey(final ArrayList<Object> buffer) {
+    this.values = buffer;
+  }
+
+  /**
+   * Creates a reusable lookup key backed by a mutable buffer, so looking up an existing element
+   * allocates nothing. A probe must only be used for lookups; store its {@link #detach()} copy.
+   */
+  static CompositeKey probe(final int capacity) {
+    return new CompositeKey(new ArrayList<>(capacity));
+  }
+
+  /** Clears a probe before it is refilled with {@link #add} and {@link #rehash}. */
+  void reset() {
+    values.clear();
+  }
+
+  void add(final Object value) {
+    values.add(value);
+  }
+
+  void rehash() {
+    hash = values.hashCode();
+  }
+
+  /** Returns an immutable copy of this key, safe to store in a bucket. */
+  CompositeKey detach() {
+    return new CompositeKey(values);
   }
 
   @Override
   public boolean equals(final Object o) {
-    return this == o || (o instanceof CompositeKey k && values.equals(k.values));
+    return this == o || (o instanceof CompositeKey k && sameValues(k.values));
+  }
+
+  // indexed comparison: List.equals between list implementations allocates an iterator
+  private boolean sameValues(final List<Object> other) {
+    if (values.size() != other.size()) {
+      return false;
+    }
+    for (int i = 0; i < values.size(); i++) {
+      if (!values.get(i).equals(other.get(i))) {
+        return false;
+      }
+    }
+    return true;
   }
 
   @Override
@@ -2,40 +2,73 @@ package io.github.pojotools.flat2pojo.core.engine;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import io.github.pojotools.flat2pojo.core.config.MappingConfig;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.IdentityHashMap;
+import java.util.Map;
 
 /**
  * Extracts composite keys from row values for list element deduplication. Single Responsibility:
  * Key extraction logic.
+ *
+ * <p>Keys are extracted into one reusable probe, so looking up an element that already exists
+ * allocates nothing; callers {@link CompositeKey#detach() detach} the probe only to insert.
  */
 final class CompositeKeyExtractor {
+  private static final int INITIAL_PROBE_CAPACITY = 4;
+
   private final String separator;
+  private final Map<MappingConfig.ListRule, String[]> absoluteKeyPaths = new IdentityHashMap<>();
+  private final CompositeKey probe = CompositeKey.probe(INITIAL_PROBE_CAPACITY);
 
   CompositeKeyExtractor(final String separator) {
     this.separator = separator;
   }
 
-  CompositeKey extractFrom(
-      final java.util.Map<String, JsonNode> rowValues, final MappingConfig.ListRule rule) {
-    final List<Object> keyValues = collectKeyValues(rowValues, rule);
-    return keyValues == null ? null : new CompositeKey(keyValues);
-  }
-
-  @SuppressWarnings("PMD.ReturnEmptyCollectionRatherThanNull")
-  private List<Object> collectKeyValues(
-      final java.util.Map<String, JsonNode> rowValues, final MappingConfig.ListRule rule) {
-    final List<Object> keyValues = new ArrayList<>(rule.keyPaths().size());
-    final String absolutePrefix = buildAbsolutePrefix(rule.path());
-
-    for (final String relativeKeyPath : rule.keyPaths()) {
-      final JsonNode value = rowValues.get(absolutePrefix + relativeKeyPath);
+  /**
+   * Fills the shared probe with the rule's key values.
+   *
+   * @return the probe, valid until the next call, or {@code null} if a key path is missing
+   */
+  CompositeKey extractFrom(final RowValues rowValues, final MappingConfig.ListRule rule) {
+    probe.reset();
+    for (final String keyPath : keyPathsOf(rule)) {
+      final JsonNode value = rowValues.get(keyPath);
       if (isNullOrMissing(value)) {
         return null; // Signals missing key path - intentional null return
       }
-      keyValues.add(value);
+      probe.add(value);
+    }
+    probe.rehash();
+    return probe;
+  }
+
+  /**
+   * Checks whether the row carries an element for an append-only list without building a key: all
+   * key paths must be present, or, for a keyless list, at least one non-null value under it.
+   */
+  boolean hasElementValues(final RowValues rowValues, final MappingConfig.ListRule rule) {
+    if (rule.keyPaths().isEmpty()) {
+      return rowValues.hasValueUnder(buildAbsolutePrefix(rule.path()));
+    }
+    for (final String keyPath : keyPathsOf(rule)) {
+      if (isNullOrMissing(rowValues.get(keyPath))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private String[] keyPathsOf(final MappingConfig.ListRule rule) {
+    String[] keyPaths = absoluteKeyPaths.get(rule);
+    if (keyPaths == null) {
+      keyPaths = buildAbsoluteKeyPaths(rule);
+      absoluteKeyPaths.put(rule, keyPaths);
     }
-    return keyValues;
+    return keyPaths;
+  }
+
+  private String[] buildAbsoluteKeyPaths(final MappingConfig.ListRule rule) {
+    final String absolutePrefix = buildAbsolutePrefix(rule.path());
+    return rule.keyPaths().stream().map(p -> absolutePrefix + p).toArray(String[]::new);
   }
 
   private String buildAbsolutePrefix(final String path) {
@@ -0,0 +1,93 @@
+package io.github.pojotools.flat2pojo.core.engine;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An ordered set of field names shared by every object node built with the same fields in the same
+ * order. Shapes form a transition tree rooted at the empty shape: adding a field to an object moves
+ * it to the child shape for that field, so all elements of one list end up sharing one shape.
+ *
+ * <p>The tree is bounded: a shape stops growing past {@link #MAX_FIELDS} fields or {@link
+ * #MAX_TRANSITIONS} children, and the whole tree past its shape budget. Objects that cannot
+ * transition fall back to a plain map. Thread-safe.
+ */
+final class FieldShape {
+  static final int MAX_FIELDS = 64;
+  static final int MAX_TRANSITIONS = 32;
+  private static final int INDEXED_FROM = 8;
+
+  private final String[] fields;
+  private final Map<String, Integer> index;
+  private final ConcurrentMap<String, FieldShape> transitions = new ConcurrentHashMap<>();
+  private final AtomicInteger budget;
+
+  private FieldShape(final String[] fields, final AtomicInteger budget) {
+    this.fields = fields;
+    this.index = fields.length >= INDEXED_FROM ? buildIndex(fields) : null;
+    this.budget = budget;
+  }
+
+  /** Creates the empty root shape of a new tree allowing at most {@code maxShapes} shapes. */
+  static FieldShape root(final int maxShapes) {
+    return new FieldShape(new String[0], new AtomicInteger(maxShapes));
+  }
+
+  private static Map<String, Integer> buildIndex(final String[] fields) {
+    final Map<String, Integer> index = new HashMap<>();
+    for (int i = 0; i < fields.length; i++) {
+      index.put(fields[i], i);
+    }
+    return Map.copyOf(index);
+  }
+
+  int size() {
+    return fields.length;
+  }
+
+  String field(final int position) {
+    return fields[position];
+  }
+
+  /** Returns the position of {@code field} in this shape, or {@code -1}. */
+  int indexOf(final Object field) {
+    if (field == null) {
+      return -1; // Map.copyOf rejects null lookups; a LinkedHashMap simply has no such key
+    }
+    if (index != null) {
+      final Integer position = index.get(field);
+      return position == null ? -1 : position;
+    }
+    for (int i = 0; i < fields.length; i++) {
+      if (fields[i].equals(field)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the shape with {@code field} appended, or {@code null} when the tree may not grow any
+   * further in that direction.
+   */
+  FieldShape with(final String field) {
+    final FieldShape existing = transitions.get(field);
+    if (existing != null) {
+      return existing;
+    }
+    if (fields.length >= MAX_FIELDS
+        || transitions.size() >= MAX_TRANSITIONS
+        || budget.getAndUpdate(left -> left > 0 ? left - 1 : 0) <= 0) {
+      return null;
+    }
+    final String[] extended = Arrays.copyOf(fields, fields.length + 1);
+    extended[fields.length] = field;
+    final FieldShape created = new FieldShape(extended, budget);
+    final FieldShape raced = transitions.putIfAbsent(field, created);
+    return raced != null ? raced : created;
+  }
+}
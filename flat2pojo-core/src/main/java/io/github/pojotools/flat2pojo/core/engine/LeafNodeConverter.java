@@ -0,0 +1,9 @@
+package io.github.pojotools.flat2pojo.core.engine;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/** Converts a single non-null cell value into a JSON leaf node. */
+@FunctionalInterface
+interface LeafNodeConverter {
+  JsonNode toNode(Object value);
+}
@@ -0,0 +1,126 @@
+package io.github.pojotools.flat2pojo.core.engine;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.BooleanNode;
+import com.fasterxml.jackson.databind.node.DoubleNode;
+import com.fasterxml.jackson.databind.node.IntNode;
+import com.fasterxml.jackson.databind.node.LongNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import io.github.pojotools.flat2pojo.core.config.MappingConfig;
+import io.github.pojotools.flat2pojo.spi.ValueConverter;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Creates JSON leaf nodes from raw cell values. Single Responsibility: Per-class converter
+ * dispatch.
+ *
+ * <p>Hot-path types are handled inline. Any other class is resolved once into a dispatch table:
+ * user {@link ValueConverter}s first, then {@link BuiltInLeafConverters}, then {@code
+ * ObjectMapper.valueToTree}. A built-in is only installed when its first result equals the
+ * ObjectMapper's, so mapper settings such as date formats keep their effect. Fallback hits are
+ * counted per column.
+ */
+final class LeafNodeFactory {
+  private final ObjectMapper objectMapper;
+  private final List<ValueConverter<?>> customConverters;
+  private final Map<Class<?>, LeafNodeConverter> builtInConverters;
+  private final Map<Class<?>, Resolution> dispatchTable = new HashMap<>();
+  private final Map<String, Integer> fallbackCounts = new LinkedHashMap<>();
+  private final LeafNodeConverter fallback;
+
+  LeafNodeFactory(final ObjectMapper objectMapper, final MappingConfig config) {
+    this.objectMapper = objectMapper;
+    this.customConverters = config.valueConverters();
+    this.builtInConverters = BuiltInLeafConverters.create(objectMapper.getNodeFactory());
+    this.fallback = objectMapper::valueToTree;
+  }
+
+  JsonNode create(final String column, final Object value) {
+    return switch (value) {
+      case null -> NullNode.getInstance();
+      case String stringValue -> TextNode.valueOf(stringValue);
+      case Integer intValue -> IntNode.valueOf(intValue);
+      case Long longValue -> LongNode.valueOf(longValue);
+      case Double doubleValue -> DoubleNode.valueOf(doubleValue);
+      case Boolean boolValue -> BooleanNode.valueOf(boolValue);
+      default -> dispatch(column, value);
+    };
+  }
+
+  Map<String, Integer> fallbackCounts() {
+    return Collections.unmodifiableMap(fallbackCounts);
+  }
+
+  private JsonNode dispatch(final String column, final Object value) {
+    final Resolution resolution = dispatchTable.get(value.getClass());
+    if (resolution == null) {
+      return resolveAndConvert(column, value);
+    }
+    if (resolution.slowPath()) {
+      countFallback(column);
+    }
+    return resolution.converter().toNode(value);
+  }
+
+  private JsonNode resolveAndConvert(final String column, final Object value) {
+    final LeafNodeConverter custom = findCustomConverter(value.getClass());
+    if (custom != null) {
+      dispatchTable.put(value.getClass(), new Resolution(custom, false));
+      return custom.toNode(value);
+    }
+    final JsonNode expected = fallback.toNode(value);
+    final Resolution resolution = verifyBuiltIn(value, expected);
+    dispatchTable.put(value.getClass(), resolution);
+    if (resolution.slowPath()) {
+      countFallback(column);
+    }
+    return expected;
+  }
+
+  private Resolution verifyBuiltIn(final Object value, final JsonNode expected) {
+    final LeafNodeConverter builtIn = builtInConverters.get(value.getClass());
+    return builtIn != null && expected.equals(builtIn.toNode(value))
+        ? new Resolution(builtIn, false)
+        : new Resolution(fallback, true);
+  }
+
+  private LeafNodeConverter findCustomConverter(final Class<?> type) {
+    for (final ValueConverter<?> converter : customConverters) {
+      if (converter.type().isAssignableFrom(type)) {
+        return adapt(converter);
+      }
+    }
+    return null;
+  }
+
+  private LeafNodeConverter adapt(final ValueConverter<?> converter) {
+    @SuppressWarnings("unchecked")
+    final ValueConverter<Object> typed = (ValueConverter<Object>) converter;
+    return value -> convertedToNode(typed.convert(value));
+  }
+
+  private JsonNode convertedToNode(final Object converted) {
+    return switch (converted) {
+      case null -> NullNode.getInstance();
+      case JsonNode node -> node;
+      case String stringValue -> TextNode.valueOf(stringValue);
+      case Integer intValue -> IntNode.valueOf(intValue);
+      case Long longValue -> LongNode.valueOf(longValue);
+      case Double doubleValue -> DoubleNode.valueOf(doubleValue);
+      case Boolean boolValue -> BooleanNode.valueOf(boolValue);
+      default -> objectMapper.valueToTree(converted);
+    };
+  }
+
+  private void countFallback(final String column) {
+    fallbackCounts.merge(column, 1, Integer::sum);
+  }
+
+  private record Resolution(LeafNodeConverter converter, boolean slowPath) {}
+}
@@ -0,0 +1,279 @@
+package io.github.pojotools.flat2pojo.core.engine;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.github.pojotools.flat2pojo.core.config.MappingConfig;
+import io.github.pojotools.flat2pojo.core.util.ConflictContext;
+import io.github.pojotools.flat2pojo.core.util.ConflictHandler;
+import io.github.pojotools.flat2pojo.core.util.PathOps;
+import io.github.pojotools.flat2pojo.core.util.PathSegments;
+import io.github.pojotools.flat2pojo.spi.Reporter;
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The aggregates of one list within one holder object (see {@link MappingConfig.Aggregation}).
+ * Single Responsibility: Folds list elements into count, sum, min, max and distinct results, then
+ * writes the results next to the list.
+ *
+ * <p>A materialized list adds its final elements when it is finalized, so values merged into an
+ * element by later rows count. An aggregate-only list has no elements and adds the row that
+ * carries each element instead; a keyed one that reads more than its keys merges each element's
+ * aggregated values as its rows arrive, and adds them like a finished element.
+ *
+ * <p>Only the running results are kept, never the elements: a count or sum holds one number, min
+ * and max the extreme value seen, and only distinct holds the set of values seen.
+ */
+final class ListAggregates {
+  private static final JsonNodeComparator VALUE_ORDER = new JsonNodeComparator();
+
+  private final ObjectNode holder;
+  private final Plan plan;
+  private final Accumulator[] accumulators;
+
+  private ListAggregates(final ObjectNode holder, final Plan plan) {
+    this.holder = holder;
+    this.plan = plan;
+    this.accumulators = new Accumulator[plan.ops.length];
+    for (int i = 0; i < accumulators.length; i++) {
+      accumulators[i] = new Accumulator(plan.ops[i]);
+    }
+  }
+
+  /** Adds the element of an aggregate-only list rule that the current row carries. */
+  void add(final RowValues rowValues) {
+    for (int i = 0; i < accumulators.length; i++) {
+      final String valuePath = plan.valuePaths[i];
+      if (valuePath == null) {
+        accumulators[i].count++;
+      } else {
+        accumulators[i].add(rowValues.get(valuePath));
+      }
+    }
+  }
+
+  /**
+   * Merges the values this row carries for a keyed aggregate-only element into {@code values}, the
+   * element's stand-in that holds only the aggregated columns, under the list's conflict policy.
+   * The stand-in is added with {@link #addElement} once the list is finalized.
+   */
+  void mergeValues(final ObjectNode values, final RowValues rowValues) {
+    for (int i = 0; i < accumulators.length; i++) {
+      final String valuePath = plan.valuePaths[i];
+      final JsonNode value = valuePath == null ? null : rowValues.get(valuePath);
+      if (value != null) {
+        final PathSegments elementPath = plan.elementPaths[i];
+        final ObjectNode parent =
+            PathOps.traverseAndEnsurePath(values, elementPath, PathOps::ensureObject);
+        ConflictHandler.writeScalarWithPolicy(
+            parent, elementPath.leaf(), value, plan.conflicts[i]);
+      }
+    }
+  }
+
+  /** Returns whether the elements of this keyed aggregate-only list merge their values. */
+  boolean mergesValues() {
+    return plan.conflicts != null;
+  }
+
+  /** Adds a finished element of a materialized list. */
+  void addElement(final ObjectNode element) {
+    for (int i = 0; i < accumulators.length; i++) {
+      final PathSegments elementPath = plan.elementPaths[i];
+      if (elementPath == null) {
+        accumulators[i].count++;
+      } else {
+        accumulators[i].add(valueAt(element, elementPath));
+      }
+    }
+  }
+
+  /** Adds a value of a primitive list. */
+  void add(final JsonNode value) {
+    for (final Accumulator accumulator : accumulators) {
+      accumulator.add(value);
+    }
+  }
+
+  /** Writes every result into the holder; min and max of no values are left absent. */
+  void write(final JsonNodeFactory nodeFactory) {
+    for (int i = 0; i < accumulators.length; i++) {
+      final JsonNode result = accumulators[i].result(nodeFactory);
+      if (result != null) {
+        final PathSegments field = plan.fields[i];
+        PathOps.traverseAndEnsurePath(holder, field, PathOps::ensureObject)
+            .set(field.leaf(), result);
+      }
+    }
+  }
+
+  private static JsonNode valueAt(final ObjectNode element, final PathSegments path) {
+    JsonNode current = element;
+    for (final String parent : path.parents()) {
+      current = current.get(parent);
+      if (current == null) {
+        return null;
+      }
+    }
+    return current.get(path.leaf());
+  }
+
+  /** The compiled aggregates of one rule, shared by all of its lists. */
+  static final class Plan {
+    private final PathSegments[] fields;
+    private final String[] valuePaths; // absolute, for rows; null counts elements
+    private final PathSegments[] elementPaths; // relative, for elements; null counts elements
+    private final MappingConfig.AggregateOp[] ops;
+    private final ConflictContext[] conflicts; // for merged values; null when nothing is merged
+
+    private Plan(
+        final PathSegments[] fields,
+        final String[] valuePaths,
+        final PathSegments[] elementPaths,
+        final MappingConfig.AggregateOp[] ops,
+        final ConflictContext[] conflicts) {
+      this.fields = fields;
+      this.valuePaths = valuePaths;
+      this.elementPaths = elementPaths;
+      this.ops = ops;
+      this.conflicts = conflicts;
+    }
+
+    /**
+     * @param listPath the absolute path of the list; aggregate paths are resolved beneath it
+     */
+    static Plan of(
+        final MappingConfig.Aggregation aggregation,
+        final String listPath,
+        final String separator) {
+      final List<MappingConfig.Aggregate> aggregates = aggregation.aggregates();
+      final PathSegments[] fields = new PathSegments[aggregates.size()];
+      final String[] valuePaths = new String[aggregates.size()];
+      final PathSegments[] elementPaths = new PathSegments[aggregates.size()];
+      final MappingConfig.AggregateOp[] ops = new MappingConfig.AggregateOp[aggregates.size()];
+      for (int i = 0; i < aggregates.size(); i++) {
+        final MappingConfig.Aggregate aggregate = aggregates.get(i);
+        fields[i] = PathSegments.of(aggregate.field(), separator);
+        if (aggregate.path() != null) {
+          valuePaths[i] = listPath + separator + aggregate.path();
+          elementPaths[i] = PathSegments.of(aggregate.path(), separator);
+        }
+        ops[i] = aggregate.op();
+      }
+      return new Plan(fields, valuePaths, elementPaths, ops, null);
+    }
+
+    /**
+     * Returns this plan for a keyed aggregate-only list whose elements merge the values they read
+     * under {@code policy}, as the columns of a materialized element would.
+     */
+    Plan mergingValues(final MappingConfig.ConflictPolicy policy, final Reporter reporter) {
+      final ConflictContext[] merged = new ConflictContext[ops.length];
+      for (int i = 0; i < merged.length; i++) {
+        if (valuePaths[i] != null) {
+          merged[i] = new ConflictContext(policy, valuePaths[i], reporter);
+        }
+      }
+      return new Plan(fields, valuePaths, elementPaths, ops, merged);
+    }
+
+    boolean isEmpty() {
+      return ops.length == 0;
+    }
+
+    ListAggregates start(final ObjectNode holder) {
+      return new ListAggregates(holder, this);
+    }
+  }
+
+  /**
+   * The running result of one aggregate. Sums stay exact while they can: long, then {@link
+   * BigDecimal} on overflow or decimal input, and double once a floating-point value is added.
+   */
+  private static final class Accumulator {
+    private final MappingConfig.AggregateOp op;
+    private long count;
+    private long longSum;
+    private BigDecimal decimalSum;
+    private double doubleSum;
+    private boolean floating;
+    private JsonNode extreme;
+    private Set<JsonNode> distinct;
+
+    Accumulator(final MappingConfig.AggregateOp op) {
+      this.op = op;
+      if (op == MappingConfig.AggregateOp.distinct) {
+        distinct = new HashSet<>();
+      }
+    }
+
+    void add(final JsonNode value) {
+      if (value == null || value.isNull() || value.isMissingNode()) {
+        return;
+      }
+      switch (op) {
+        case count -> count++;
+        case sum -> addToSum(value);
+        case min -> keepExtreme(value, -1);
+        case max -> keepExtreme(value, 1);
+        case distinct -> distinct.add(value);
+        default -> throw new IllegalStateException("Unknown aggregate op: " + op);
+      }
+    }
+
+    /** Keeps {@code value} if it orders before (sign -1) or after (sign 1) the current one. */
+    private void keepExtreme(final JsonNode value, final int sign) {
+      if (extreme == null || Integer.signum(VALUE_ORDER.compare(value, extreme)) == sign) {
+        extreme = value;
+      }
+    }
+
+    /** Non-numeric values are ignored. */
+    private void addToSum(final JsonNode value) {
+      if (!value.isNumber()) {
+        return;
+      }
+      if (value.isFloatingPointNumber() && !value.isBigDecimal()) {
+        floating = true;
+        doubleSum += value.doubleValue();
+      } else if (decimalSum == null && value.isIntegralNumber() && value.canConvertToLong()) {
+        try {
+          longSum = Math.addExact(longSum, value.longValue());
+        } catch (ArithmeticException overflow) {
+          decimalSum = BigDecimal.valueOf(longSum).add(value.decimalValue());
+        }
+      } else {
+        decimalSum = exactSum().add(value.decimalValue());
+      }
+    }
+
+    private BigDecimal exactSum() {
+      return decimalSum == null ? BigDecimal.valueOf(longSum) : decimalSum;
+    }
+
+    JsonNode result(final JsonNodeFactory nodeFactory) {
+      return switch (op) {
+        case count -> number(nodeFactory, count);
+        case distinct -> nodeFactory.numberNode(distinct.size());
+        case min, max -> extreme;
+        case sum -> sum(nodeFactory);
+      };
+    }
+
+    private JsonNode sum(final JsonNodeFactory nodeFactory) {
+      if (floating) {
+        return nodeFactory.numberNode(doubleSum + exactSum().doubleValue());
+      }
+      return decimalSum == null ? number(nodeFactory, longSum) : nodeFactory.numberNode(decimalSum);
+    }
+
+    private static JsonNode number(final JsonNodeFactory nodeFactory, final long value) {
+      return value == (int) value
+          ? nodeFactory.numberNode((int) value)
+          : nodeFactory.numberNode(value);
+    }
+  }
+}
@@ -0,0 +1,224 @@
+package io.github.pojotools.flat2pojo.core.engine;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.github.pojotools.flat2pojo.core.config.MappingConfig;
+import io.github.pojotools.flat2pojo.core.util.ConflictContext;
+import io.github.pojotools.flat2pojo.core.util.ConflictHandler;
+import io.github.pojotools.flat2pojo.core.util.PathOps;
+import io.github.pojotools.flat2pojo.spi.Reporter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Merges partial trees assembled from consecutive slices of one group's rows. Single
+ * Responsibility: Combines partials so the result equals assembling all rows in sequence.
+ *
+ * <p>Partials must keep their lists in arrival order (see {@link
+ * ArrayManager#finalizeArraysInArrivalOrder}). Merging {@code source} into {@code target} treats
+ * the source rows as coming after the target rows:
+ *
+ * <ul>
+ *   <li>elements of deduplicating lists are matched by their key values and merged field by field;
+ *       new elements and {@code dedupe: false} elements are appended
+ *   <li>fields of list elements are combined with the rule's {@link
+ *       MappingConfig.ConflictPolicy}; direct values of the root are overwritten, as direct writes
+ *       are
+ *   <li>primitive list values are appended, skipping duplicates when the rule deduplicates
+ * </ul>
+ *
+ * <p>{@link #sortLists} then applies {@code orderBy} and primitive ordering once, on the merged
+ * tree; stable sorting over arrival order gives the same order as sequential assembly.
+ */
+public final class PartialTreeMerger {
+  private final String separator;
+  private final Map<String, MappingConfig.ListRule> listRules = new HashMap<>();
+  private final Map<String, MappingConfig.PrimitiveListRule> primitiveListRules = new HashMap<>();
+  private final ComparatorBuilder comparatorBuilder;
+  private final Reporter reporter;
+
+  public PartialTreeMerger(final MappingConfig config) {
+    this.separator = config.separator();
+    config.lists().forEach(rule -> listRules.put(rule.path(), rule));
+    config.primitiveLists().forEach(rule -> primitiveListRules.put(rule.path(), rule));
+    this.comparatorBuilder = new ComparatorBuilder(config.separator());
+    this.comparatorBuilder.precomputeComparators(config);
+    this.reporter = config.reporter().orElse(null);
+  }
+
+  /** Merges {@code source}, assembled from later rows, into {@code target}. */
+  public void merge(final ObjectNode target, final ObjectNode source) {
+    mergeObject(target, source, "", null);
+  }
+
+  /** Sorts every list and primitive list of a merged tree by its configured order. */
+  public void sortLists(final ObjectNode root) {
+    sortObject(root, "");
+  }
+
+  private void mergeObject(
+      final ObjectNode target,
+      final ObjectNode source,
+      final String basePath,
+      final MappingConfig.ConflictPolicy policy) {
+    final List<String> fieldNames = new ArrayList<>();
+    source.fieldNames().forEachRemaining(fieldNames::add);
+    for (final String fieldName : fieldNames) {
+      final JsonNode incoming = source.get(fieldName);
+      if (target.get(fieldName) == null) {
+        target.set(fieldName, incoming);
+      } else {
+        final ConflictContext field =
+            new ConflictContext(policy, childPath(basePath, fieldName), reporter);
+        mergeField(target, fieldName, incoming, field);
+      }
+    }
+  }
+
+  private void mergeField(
+      final ObjectNode target,
+      final String fieldName,
+      final JsonNode incoming,
+      final ConflictContext field) {
+    final JsonNode existing = target.get(fieldName);
+    if (existing instanceof ArrayNode existingArray
+        && incoming instanceof ArrayNode incomingArray
+        && mergeDeclaredList(existingArray, incomingArray, field.absolutePath())) {
+      return;
+    }
+    if (existing instanceof ObjectNode existingObject
+        && incoming instanceof ObjectNode incomingObject) {
+      mergeObject(existingObject, incomingObject, field.absolutePath(), field.policy());
+    } else if (field.policy() == null) {
+      target.set(fieldName, incoming);
+    } else {
+      ConflictHandler.writeScalarWithPolicy(target, fieldName, incoming, field);
+    }
+  }
+
+  private boolean mergeDeclaredList(
+      final ArrayNode target, final ArrayNode source, final String path) {
+    final MappingConfig.ListRule listRule = listRules.get(path);
+    if (listRule != null) {
+      mergeList(target, source, listRule);
+      return true;
+    }
+    final MappingConfig.PrimitiveListRule primitiveRule = primitiveListRules.get(path);
+    if (primitiveRule != null) {
+      mergePrimitiveList(target, source, primitiveRule);
+      return true;
+    }
+    return false;
+  }
+
+  private void mergeList(
+      final ArrayNode target, final ArrayNode source, final MappingConfig.ListRule rule) {
+    if (!rule.dedupe()) {
+      target.addAll(source);
+      return;
+    }
+    final Map<List<JsonNode>, ObjectNode> elementsByKey = new HashMap<>();
+    for (final JsonNode element : target) {
+      elementsByKey.putIfAbsent(keyOf((ObjectNode) element, rule), (ObjectNode) element);
+    }
+    for (final JsonNode element : source) {
+      final List<JsonNode> key = keyOf((ObjectNode) element, rule);
+      final ObjectNode existing = elementsByKey.get(key);
+      if (existing == null) {
+        target.add(element);
+        elementsByKey.put(key, (ObjectNode) element);
+      } else {
+        mergeObject(existing, (ObjectNode) element, rule.path(), rule.onConflict());
+      }
+    }
+  }
+
+  private List<JsonNode> keyOf(final ObjectNode element, final MappingConfig.ListRule rule) {
+    final List<JsonNode> key = new ArrayList<>(rule.keyPaths().size());
+    for (final String keyPath : rule.keyPaths()) {
+      key.add(valueAt(element, keyPath));
+    }
+    return key;
+  }
+
+  private JsonNode valueAt(final ObjectNode element, final String relativePath) {
+    JsonNode current = element;
+    for (final String segment : PathOps.splitPath(relativePath, separator)) {
+      current = current == null ? null : current.get(segment);
+    }
+    return current;
+  }
+
+  private void mergePrimitiveList(
+      final ArrayNode target, final ArrayNode source, final MappingConfig.PrimitiveListRule rule) {
+    final Set<JsonNode> seen = new HashSet<>();
+    if (rule.dedup()) {
+      target.forEach(seen::add);
+    }
+    for (final JsonNode value : source) {
+      if (!rule.dedup() || seen.add(value)) {
+        target.add(value);
+      }
+    }
+  }
+
+  private void sortObject(final ObjectNode node, final String basePath) {
+    final List<String> fieldNames = new ArrayList<>();
+    node.fieldNames().forEachRemaining(fieldNames::add);
+    for (final String fieldName : fieldNames) {
+      final JsonNode value = node.get(fieldName);
+      final String path = childPath(basePath, fieldName);
+      if (value instanceof ArrayNode array) {
+        sortArray(array, path);
+      } else if (value instanceof ObjectNode object) {
+        sortObject(object, path);
+      }
+    }
+  }
+
+  private void sortArray(final ArrayNode array, final String path) {
+    if (listRules.containsKey(path)) {
+      sortElements(array, comparatorBuilder.getComparatorsForPath(path));
+      for (final JsonNode element : array) {
+        sortObject((ObjectNode) element, path);
+      }
+    } else if (primitiveListRules.containsKey(path)) {
+      sortPrimitives(array, primitiveListRules.get(path).orderDirection());
+    }
+  }
+
+  private void sortElements(
+      final ArrayNode array, final List<Comparator<ObjectNode>> comparators) {
+    if (comparators.isEmpty()) {
+      return;
+    }
+    final List<ObjectNode> elements = new ArrayList<>(array.size());
+    array.forEach(element -> elements.add((ObjectNode) element));
+    elements.sort(comparators.stream().reduce(Comparator::thenComparing).orElseThrow());
+    array.removeAll();
+    elements.forEach(array::add);
+  }
+
+  private void sortPrimitives(
+      final ArrayNode array, final MappingConfig.OrderDirection direction) {
+    if (direction == MappingConfig.OrderDirection.insertion) {
+      return;
+    }
+    final List<JsonNode> values = new ArrayList<>(array.size());
+    array.forEach(values::add);
+    final Comparator<JsonNode> comparator = new JsonNodeComparator();
+    values.sort(direction == MappingConfig.OrderDirection.asc ? comparator : comparator.reversed());
+    array.removeAll();
+    array.addAll(values);
+  }
+
+  private String childPath(final String basePath, final String fieldName) {
+    return basePath.isEmpty() ? fieldName : basePath + separator + fieldName;
+  }
+}
@@ -21,10 +21,13 @@ final class PrimitiveArrayBucket {
     this.dedup = dedup;
   }
 
-  void add(final JsonNode value) {
-    if (shouldAdd(value)) {
-      values.add(value);
+  /** Returns whether the value was added, i.e. is not a duplicate. */
+  boolean add(final JsonNode value) {
+    if (!shouldAdd(value)) {
+      return false;
     }
+    values.add(value);
+    return true;
   }
 
   boolean shouldAdd(final JsonNode value) {
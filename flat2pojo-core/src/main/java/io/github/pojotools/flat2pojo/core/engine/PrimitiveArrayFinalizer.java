@@ -1,40 +1,45 @@
 package io.github.pojotools.flat2pojo.core.engine;
 
-import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import io.github.pojotools.flat2pojo.core.config.MappingConfig;
+import java.util.Collection;
 import java.util.Map;
 
 /**
- * Finalizes primitive array nodes by applying sorting. Single Responsibility: Primitive array
- * finalization logic.
+ * Finalizes primitive array nodes by applying sorting, and writes their aggregates. Single
+ * Responsibility: Primitive array finalization logic.
  */
 final class PrimitiveArrayFinalizer {
-  private final Map<String, PrimitiveArrayBucket> buckets;
-  private final Map<String, ArrayNode> arrayNodes;
-  private final Map<String, MappingConfig.OrderDirection> directions;
+  private final Collection<Map<String, PrimitiveArrayManager.PrimitiveArraySlot>> slotsByTarget;
+  private final JsonNodeFactory nodeFactory;
 
   PrimitiveArrayFinalizer(
-      final Map<String, PrimitiveArrayBucket> buckets,
-      final Map<String, ArrayNode> arrayNodes,
-      final Map<String, MappingConfig.OrderDirection> directions) {
-    this.buckets = buckets;
-    this.arrayNodes = arrayNodes;
-    this.directions = directions;
+      final Collection<Map<String, PrimitiveArrayManager.PrimitiveArraySlot>> slotsByTarget,
+      final JsonNodeFactory nodeFactory) {
+    this.slotsByTarget = slotsByTarget;
+    this.nodeFactory = nodeFactory;
   }
 
   void finalizeAll() {
-    for (final var entry : buckets.entrySet()) {
-      finalizeOne(entry.getKey(), entry.getValue());
+    for (final Map<String, PrimitiveArrayManager.PrimitiveArraySlot> slots : slotsByTarget) {
+      slots.values().forEach(slot -> finalizeOne(slot, slot.direction()));
     }
   }
 
-  private void finalizeOne(final String cacheKey, final PrimitiveArrayBucket bucket) {
-    final ArrayNode array = arrayNodes.get(cacheKey);
-    final MappingConfig.OrderDirection direction = getDirection(cacheKey);
-    bucket.writeToArray(array, direction);
+  void finalizeAllInArrivalOrder() {
+    for (final Map<String, PrimitiveArrayManager.PrimitiveArraySlot> slots : slotsByTarget) {
+      slots.values().forEach(slot -> finalizeOne(slot, MappingConfig.OrderDirection.insertion));
+    }
   }
 
-  private MappingConfig.OrderDirection getDirection(final String cacheKey) {
-    return directions.getOrDefault(cacheKey, MappingConfig.OrderDirection.insertion);
+  private void finalizeOne(
+      final PrimitiveArrayManager.PrimitiveArraySlot slot,
+      final MappingConfig.OrderDirection direction) {
+    if (slot.array() != null) {
+      slot.bucket().writeToArray(slot.array(), direction);
+    }
+    if (slot.aggregates() != null) {
+      slot.aggregates().write(nodeFactory);
+    }
   }
 }
@@ -3,9 +3,11 @@ package io.github.pojotools.flat2pojo.core.engine;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.github.pojotools.flat2pojo.core.config.MappingConfig;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Map;
 
 /**
@@ -15,106 +17,155 @@ import java.util.Map;
  * <p>Performance optimization: Uses accumulation + sort-at-end pattern for sorted lists (asc/desc)
  * to achieve O(P + V log V) complexity instead of O(P × V) quadratic insertion. Insertion-order
  * lists still use immediate append for optimal memory efficiency.
+ *
+ * <p>Arrays are looked up by target node identity and absolute path, so adding a value to an
+ * existing array builds no cache key.
+ *
+ * <p>Values of a list with aggregates are folded into its {@link ListAggregates} as they are added
+ * (after deduplication); an aggregate-only list keeps no values and never gets an array.
  */
 public final class PrimitiveArrayManager {
-  private static final char CACHE_KEY_SEPARATOR = '|';
-
   private final PrimitiveArrayRuleCache ruleCache;
   private final PrimitiveArrayNodeFactory arrayFactory;
-  private final Map<String, ArrayNode> arrayNodes;
-  private final Map<String, PrimitiveArrayBucket> buckets;
-  private final Map<String, MappingConfig.OrderDirection> directions;
+  private final JsonNodeFactory nodeFactory;
+  private final Map<String, ListAggregates.Plan> aggregatePlans; // by list path
+  private final Map<ObjectNode, Map<String, PrimitiveArraySlot>> slotsByTarget;
+  private Map<PrimitiveArraySlot, Boolean> touched; // sorted slots, only while retaining state
 
   public PrimitiveArrayManager(final ObjectMapper objectMapper, final MappingConfig config) {
     this.ruleCache = new PrimitiveArrayRuleCache(config);
     this.arrayFactory = new PrimitiveArrayNodeFactory(objectMapper, config.separator());
-    this.arrayNodes = new HashMap<>();
-    this.buckets = new HashMap<>();
-    this.directions = new HashMap<>();
+    this.nodeFactory = objectMapper.getNodeFactory();
+    this.slotsByTarget = new IdentityHashMap<>();
+    this.aggregatePlans = new HashMap<>();
+    for (final MappingConfig.PrimitiveListRule rule : config.primitiveLists()) {
+      final ListAggregates.Plan plan =
+          ListAggregates.Plan.of(rule.aggregation(), rule.path(), config.separator());
+      if (!plan.isEmpty()) {
+        aggregatePlans.put(rule.path(), plan);
+      }
+    }
   }
 
-  private record AddContext(
-      String cacheKey,
-      Path path,
-      JsonNode value,
-      ObjectNode targetRoot,
-      MappingConfig.PrimitiveListRule rule) {}
-
   public boolean isPrimitiveListPath(final String path) {
     return ruleCache.isPrimitiveListPath(path);
   }
 
   public void finalizePrimitiveArrays() {
     final PrimitiveArrayFinalizer finalizer =
-        new PrimitiveArrayFinalizer(buckets, arrayNodes, directions);
+        new PrimitiveArrayFinalizer(slotsByTarget.values(), nodeFactory);
     finalizer.finalizeAll();
-    clearState();
+    slotsByTarget.clear();
   }
 
-  public void addValue(
-      final String scope, final Path path, final JsonNode value, final ObjectNode targetRoot) {
+  /** Like {@link #finalizePrimitiveArrays} but leaves asc/desc lists unsorted. */
+  public void finalizePrimitiveArraysInArrivalOrder() {
+    final PrimitiveArrayFinalizer finalizer =
+        new PrimitiveArrayFinalizer(slotsByTarget.values(), nodeFactory);
+    finalizer.finalizeAllInArrivalOrder();
+    slotsByTarget.clear();
+  }
+
+  public void addValue(final ObjectNode targetRoot, final Path path, final JsonNode value) {
     if (isNullValue(value)) {
       return;
     }
-    routeValue(scope, path, value, targetRoot);
-  }
-
-  private void routeValue(
-      final String scope, final Path path, final JsonNode value, final ObjectNode targetRoot) {
-    final String cacheKey = buildCacheKey(scope, path.absolutePath());
-    final MappingConfig.PrimitiveListRule rule = ruleCache.getRuleFor(path.absolutePath());
-    final AddContext context = new AddContext(cacheKey, path, value, targetRoot, rule);
-
-    if (shouldInsertImmediately(rule)) {
-      addImmediately(context);
+    final PrimitiveArraySlot slot = getOrCreateSlot(targetRoot, path);
+    final boolean added;
+    if (slot.array() == null) {
+      added = slot.bucket().shouldAdd(value);
+    } else if (shouldInsertImmediately(slot.direction())) {
+      added = addImmediately(slot, value);
     } else {
-      accumulateForSorting(context);
+      added = slot.bucket().add(value);
+      if (touched != null) {
+        touched.put(slot, Boolean.TRUE);
+      }
+    }
+    if (added && slot.aggregates() != null) {
+      slot.aggregates().add(value);
     }
   }
 
-  private boolean shouldInsertImmediately(final MappingConfig.PrimitiveListRule rule) {
-    return rule.orderDirection() == MappingConfig.OrderDirection.insertion;
+  /**
+   * Keeps accumulated values after their arrays are written, for state that is updated and
+   * re-materialized repeatedly; see {@link #refreshTouchedArrays()}. {@link
+   * #finalizePrimitiveArrays} must not be used afterwards.
+   */
+  public void retainState() {
+    touched = new IdentityHashMap<>();
   }
 
-  private void addImmediately(final AddContext context) {
-    final ArrayNode array =
-        getOrCreateArrayNode(context.cacheKey(), context.path(), context.targetRoot());
-    final PrimitiveArrayBucket bucket = getOrCreateBucket(context.cacheKey(), context.rule());
-
-    if (bucket.shouldAdd(context.value())) {
-      array.add(context.value());
+  /** Rewrites the sorted arrays that received values since the last refresh. */
+  public void refreshTouchedArrays() {
+    for (final PrimitiveArraySlot slot : touched.keySet()) {
+      slot.array().removeAll();
+      slot.bucket().writeToArray(slot.array(), slot.direction());
     }
+    touched.clear();
   }
 
-  private void accumulateForSorting(final AddContext context) {
-    getOrCreateArrayNode(context.cacheKey(), context.path(), context.targetRoot());
-    final PrimitiveArrayBucket bucket = getOrCreateBucket(context.cacheKey(), context.rule());
-    bucket.add(context.value());
-    directions.put(context.cacheKey(), context.rule().orderDirection());
+  /** Drops the primitive arrays of a node that is no longer part of any retained tree. */
+  public void forgetTarget(final ObjectNode target) {
+    final Map<String, PrimitiveArraySlot> slots = slotsByTarget.remove(target);
+    if (slots != null && touched != null) {
+      slots.values().forEach(touched::remove);
+    }
   }
 
-  private PrimitiveArrayBucket getOrCreateBucket(
-      final String cacheKey, final MappingConfig.PrimitiveListRule rule) {
-    return buckets.computeIfAbsent(cacheKey, k -> new PrimitiveArrayBucket(rule.dedup()));
+  private boolean shouldInsertImmediately(final MappingConfig.OrderDirection direction) {
+    return direction == MappingConfig.OrderDirection.insertion;
   }
 
-  private ArrayNode getOrCreateArrayNode(
-      final String cacheKey, final Path path, final ObjectNode targetRoot) {
-    return arrayNodes.computeIfAbsent(
-        cacheKey, k -> arrayFactory.createAndAttach(targetRoot, path.relativePath()));
+  private boolean addImmediately(final PrimitiveArraySlot slot, final JsonNode value) {
+    if (!slot.bucket().shouldAdd(value)) {
+      return false;
+    }
+    slot.array().add(value);
+    return true;
   }
 
-  private String buildCacheKey(final String scope, final String path) {
-    return scope + CACHE_KEY_SEPARATOR + path;
+  private PrimitiveArraySlot getOrCreateSlot(final ObjectNode targetRoot, final Path path) {
+    Map<String, PrimitiveArraySlot> slots = slotsByTarget.get(targetRoot);
+    if (slots == null) {
+      slots = new HashMap<>();
+      slotsByTarget.put(targetRoot, slots);
+    }
+    PrimitiveArraySlot slot = slots.get(path.absolutePath());
+    if (slot == null) {
+      slot = createSlot(targetRoot, path);
+      slots.put(path.absolutePath(), slot);
+    }
+    return slot;
   }
 
-  private void clearState() {
-    arrayNodes.clear();
-    buckets.clear();
-    directions.clear();
+  private PrimitiveArraySlot createSlot(final ObjectNode targetRoot, final Path path) {
+    final MappingConfig.PrimitiveListRule rule = ruleCache.getRuleFor(path.absolutePath());
+    final ListAggregates.Plan plan = aggregatePlans.get(rule.path());
+    return new PrimitiveArraySlot(
+        rule.aggregation().aggregateOnly()
+            ? null
+            : arrayFactory.createAndAttach(targetRoot, path.relativePath()),
+        new PrimitiveArrayBucket(rule.dedup()),
+        rule.orderDirection(),
+        plan == null
+            ? null
+            : plan.start(arrayFactory.traverseToParent(targetRoot, path.relativePath())));
   }
 
   private boolean isNullValue(final JsonNode value) {
     return value == null || value.isNull();
   }
+
+  /**
+   * The array of one primitive list within one target node, with its accumulated values.
+   *
+   * @param array {@code null} for an aggregate-only list
+   * @param aggregates {@code null} unless the list declares aggregates
+   */
+  record PrimitiveArraySlot(
+      ArrayNode array,
+      PrimitiveArrayBucket bucket,
+      MappingConfig.OrderDirection direction,
+      ListAggregates aggregates) {}
 }
@@ -24,7 +24,8 @@ final class PrimitiveArrayNodeFactory {
     return attachNewArray(parent, fieldName);
   }
 
-  private ObjectNode traverseToParent(final ObjectNode targetRoot, final String path) {
+  /** Returns the object that holds (or would hold) the array at {@code path}. */
+  ObjectNode traverseToParent(final ObjectNode targetRoot, final String path) {
     return PathOps.traverseAndEnsurePath(targetRoot, path, separator, PathOps::ensureObject);
   }
 
@@ -0,0 +1,15 @@
+package io.github.pojotools.flat2pojo.core.engine;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Read access to the transformed values of the row being assembled, by absolute path.
+ * Implementations are reusable per-row buffers: values are only valid until the next row.
+ */
+public interface RowValues {
+  /** Returns the value of {@code absolutePath} in the current row, or {@code null} if absent. */
+  JsonNode get(String absolutePath);
+
+  /** Returns whether the current row has a non-null value under {@code absolutePrefix}. */
+  boolean hasValueUnder(String absolutePrefix);
+}
@@ -0,0 +1,174 @@
+package io.github.pojotools.flat2pojo.core.engine;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Field map of a compact object node: field names live in a shared {@link FieldShape}, values in a
+ * flat array. Behaves like an insertion-ordered map; removing a field, or adding one the shape tree
+ * cannot take, turns it into a plain {@link LinkedHashMap} for good.
+ *
+ * <p>Not thread-safe, like the map of a regular {@code ObjectNode}.
+ */
+final class ShapedFieldMap extends AbstractMap<String, JsonNode> {
+  private static final JsonNode[] NO_VALUES = new JsonNode[0];
+  private static final int INITIAL_CAPACITY = 4;
+
+  private final FieldShape root;
+  private FieldShape shape;
+  private JsonNode[] values = NO_VALUES;
+  private Map<String, JsonNode> dictionary;
+
+  ShapedFieldMap(final FieldShape root) {
+    this.root = root;
+    this.shape = root;
+  }
+
+  @Override
+  public int size() {
+    return dictionary != null ? dictionary.size() : shape.size();
+  }
+
+  @Override
+  public boolean containsKey(final Object key) {
+    return dictionary != null ? dictionary.containsKey(key) : shape.indexOf(key) >= 0;
+  }
+
+  @Override
+  public JsonNode get(final Object key) {
+    if (dictionary != null) {
+      return dictionary.get(key);
+    }
+    final int position = shape.indexOf(key);
+    return position >= 0 ? values[position] : null;
+  }
+
+  @Override
+  public JsonNode put(final String key, final JsonNode value) {
+    if (dictionary != null) {
+      return dictionary.put(key, value);
+    }
+    final int position = shape.indexOf(key);
+    if (position >= 0) {
+      final JsonNode previous = values[position];
+      values[position] = value;
+      return previous;
+    }
+    final FieldShape next = shape.with(key);
+    if (next == null) {
+      return toDictionary().put(key, value);
+    }
+    append(next, value);
+    return null;
+  }
+
+  @Override
+  public JsonNode remove(final Object key) {
+    if (dictionary == null && shape.indexOf(key) < 0) {
+      return null;
+    }
+    return toDictionary().remove(key);
+  }
+
+  @Override
+  public void clear() {
+    dictionary = null;
+    shape = root;
+    values = NO_VALUES;
+  }
+
+  @Override
+  public Set<Entry<String, JsonNode>> entrySet() {
+    return dictionary != null ? dictionary.entrySet() : new ShapedEntrySet();
+  }
+
+  private void append(final FieldShape next, final JsonNode value) {
+    final int position = shape.size();
+    if (position == values.length) {
+      values = Arrays.copyOf(values, Math.max(INITIAL_CAPACITY, values.length * 2));
+    }
+    values[position] = value;
+    shape = next;
+  }
+
+  private Map<String, JsonNode> toDictionary() {
+    if (dictionary == null) {
+      final Map<String, JsonNode> map = new LinkedHashMap<>();
+      for (int i = 0; i < shape.size(); i++) {
+        map.put(shape.field(i), values[i]);
+      }
+      dictionary = map;
+      values = NO_VALUES;
+      shape = root;
+    }
+    return dictionary;
+  }
+
+  /** Entries of the shaped representation; iterates a snapshot of shape and values. */
+  private final class ShapedEntrySet extends AbstractSet<Entry<String, JsonNode>> {
+    @Override
+    public int size() {
+      return ShapedFieldMap.this.size();
+    }
+
+    @Override
+    public Iterator<Entry<String, JsonNode>> iterator() {
+      return new ShapedIterator(shape, values);
+    }
+  }
+
+  private final class ShapedIterator implements Iterator<Entry<String, JsonNode>> {
+    private final FieldShape snapshotShape;
+    private final JsonNode[] snapshotValues;
+    private int next;
+    private String current;
+
+    ShapedIterator(final FieldShape snapshotShape, final JsonNode[] snapshotValues) {
+      this.snapshotShape = snapshotShape;
+      this.snapshotValues = snapshotValues;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next < snapshotShape.size();
+    }
+
+    @Override
+    public Entry<String, JsonNode> next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      current = snapshotShape.field(next);
+      return new ShapedEntry(current, snapshotValues[next++]);
+    }
+
+    @Override
+    public void remove() {
+      if (current == null) {
+        throw new IllegalStateException();
+      }
+      ShapedFieldMap.this.remove(current);
+      current = null;
+    }
+  }
+
+  /** Entry whose {@link #setValue} writes through to the map. */
+  private final class ShapedEntry extends SimpleEntry<String, JsonNode> {
+    ShapedEntry(final String key, final JsonNode value) {
+      super(key, value);
+    }
+
+    @Override
+    public JsonNode setValue(final JsonNode value) {
+      ShapedFieldMap.this.put(getKey(), value);
+      return super.setValue(value);
+    }
+  }
+}
@@ -0,0 +1,97 @@
+package io.github.pojotools.flat2pojo.core.engine;
+
+import com.fasterxml.jackson.databind.node.TextNode;
+import io.github.pojotools.flat2pojo.core.config.MappingConfig;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Shares {@link TextNode} instances for repeated column values within one conversion. Single
+ * Responsibility: Bounded per-column value interning.
+ *
+ * <p>Configured paths keep their dictionary for the whole batch; once full, new values are simply
+ * not interned. With automatic detection every other column starts with a dictionary too, but a
+ * column whose distinct values exceed the bound is treated as high-cardinality and its dictionary
+ * is dropped.
+ */
+final class TextNodeInterner {
+  private final Set<String> configuredPaths;
+  private final boolean autoDetect;
+  private final int maxEntriesPerColumn;
+  private final Map<String, ColumnDictionary> dictionaries = new HashMap<>();
+
+  TextNodeInterner(final MappingConfig.InterningPolicy policy) {
+    this.configuredPaths = new HashSet<>(policy.paths());
+    this.autoDetect = policy.autoDetect();
+    this.maxEntriesPerColumn = policy.maxEntriesPerColumn();
+  }
+
+  TextNode textNode(final String column, final String value) {
+    if (isDisabled()) {
+      return TextNode.valueOf(value);
+    }
+    ColumnDictionary dictionary = dictionaries.get(column);
+    if (dictionary == null) {
+      dictionary = createDictionary(column);
+      dictionaries.put(column, dictionary);
+    }
+    return dictionary.intern(value);
+  }
+
+  private boolean isDisabled() {
+    return configuredPaths.isEmpty() && !autoDetect;
+  }
+
+  private ColumnDictionary createDictionary(final String column) {
+    if (configuredPaths.contains(column)) {
+      return new ColumnDictionary(maxEntriesPerColumn, false);
+    }
+    return autoDetect
+        ? new ColumnDictionary(maxEntriesPerColumn, true)
+        : ColumnDictionary.disabled();
+  }
+
+  /** Dictionary for a single column. */
+  private static final class ColumnDictionary {
+    private final int maxEntries;
+    private final boolean dropWhenFull;
+    private Map<String, TextNode> entries = new HashMap<>();
+    private boolean active = true;
+
+    private ColumnDictionary(final int maxEntries, final boolean dropWhenFull) {
+      this.maxEntries = maxEntries;
+      this.dropWhenFull = dropWhenFull;
+    }
+
+    static ColumnDictionary disabled() {
+      final ColumnDictionary dictionary = new ColumnDictionary(0, true);
+      dictionary.deactivate();
+      return dictionary;
+    }
+
+    TextNode intern(final String value) {
+      if (!active) {
+        return TextNode.valueOf(value);
+      }
+      final TextNode existing = entries.get(value);
+      return existing != null ? existing : add(value);
+    }
+
+    private TextNode add(final String value) {
+      final TextNode created = TextNode.valueOf(value);
+      if (entries.size() < maxEntries) {
+        entries.put(value, created);
+      } else if (dropWhenFull) {
+        deactivate();
+      }
+      return created;
+    }
+
+    private void deactivate() {
+      active = false;
+      entries = Map.of();
+    }
+  }
+}
@@ -3,12 +3,7 @@ package io.github.pojotools.flat2pojo.core.engine;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.BooleanNode;
-import com.fasterxml.jackson.databind.node.DoubleNode;
-import com.fasterxml.jackson.databind.node.IntNode;
-import com.fasterxml.jackson.databind.node.LongNode;
 import com.fasterxml.jackson.databind.node.NullNode;
-import com.fasterxml.jackson.databind.node.TextNode;
 import io.github.pojotools.flat2pojo.core.config.MappingConfig;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
@@ -20,12 +15,18 @@ import lombok.experimental.FieldDefaults;
 public final class ValueTransformer {
   ObjectMapper objectMapper;
   Map<String, MappingConfig.PrimitiveSplitRule> splitRulesCache;
+  LeafNodeFactory leafNodeFactory;
+  TextNodeInterner textNodeInterner;
   boolean blanksAsNulls;
+  boolean skipNullColumns;
 
   public ValueTransformer(final ObjectMapper objectMapper, final MappingConfig config) {
     this.objectMapper = objectMapper;
+    this.skipNullColumns = config.allowSparseRows();
     this.blanksAsNulls = config.nullPolicy() != null && config.nullPolicy().blanksAsNulls();
     this.splitRulesCache = buildSplitRulesCache(config);
+    this.leafNodeFactory = new LeafNodeFactory(objectMapper, config);
+    this.textNodeInterner = new TextNodeInterner(config.interningPolicy());
   }
 
   private static Map<String, MappingConfig.PrimitiveSplitRule> buildSplitRulesCache(
@@ -37,24 +38,49 @@ public final class ValueTransformer {
     return cache;
   }
 
+  /**
+   * Returns, per column, how many values fell back to {@code ObjectMapper.valueToTree} because no
+   * built-in or registered {@link io.github.pojotools.flat2pojo.spi.ValueConverter} handled them.
+   */
+  public Map<String, Integer> fallbackCounts() {
+    return leafNodeFactory.fallbackCounts();
+  }
+
   /**
    * Transforms flat row values directly to JsonNode map without building intermediate tree. More
    * efficient than build-then-flatten approach for list processing.
+   *
+   * <p>With {@code allowSparseRows}, null columns are dropped here, before any routing: the result
+   * only holds non-null columns. Key-path detection treats missing and null alike, so it is
+   * unaffected.
    */
   public Map<String, JsonNode> transformRowValuesToJsonNodes(final Map<String, ?> row) {
     final Map<String, JsonNode> result = new LinkedHashMap<>(row.size());
     for (final var entry : row.entrySet()) {
-      transformEntry(entry, result);
+      final JsonNode valueNode = toJsonNode(entry.getKey(), entry.getValue());
+      if (valueNode != null) {
+        result.put(entry.getKey(), valueNode);
+      }
     }
     return result;
   }
 
-  private void transformEntry(
-      final Map.Entry<String, ?> entry, final Map<String, JsonNode> result) {
-    final String key = entry.getKey();
-    final Object normalized = normalizeBlankValue(entry.getValue());
-    final JsonNode valueNode = createValueNode(key, normalized);
-    result.put(key, valueNode);
+  /**
+   * Transforms a single cell, for callers that keep row values in their own buffers.
+   *
+   * @return the value node, or {@code null} if the cell is dropped (a null under {@code
+   *     allowSparseRows})
+   */
+  public JsonNode toJsonNode(final String column, final Object rawValue) {
+    if (skipNullColumns && rawValue == null) {
+      return null;
+    }
+    return createValueNode(column, normalizeBlankValue(rawValue));
+  }
+
+  /** Whether a cell counts as null: a null, or a blank text under {@code blanksAsNulls}. */
+  public boolean isNull(final Object rawValue) {
+    return normalizeBlankValue(rawValue) == null;
   }
 
   private Object normalizeBlankValue(final Object rawValue) {
@@ -70,7 +96,7 @@ public final class ValueTransformer {
     if (splitRule != null && rawValue instanceof String stringValue) {
       return createSplitArrayNode(stringValue, splitRule);
     } else {
-      return createLeafNode(rawValue);
+      return createLeafNode(key, rawValue);
     }
   }
 
@@ -80,35 +106,30 @@ public final class ValueTransformer {
         stringValue.split(java.util.regex.Pattern.quote(splitRule.delimiter()), -1);
     final ArrayNode arrayNode = objectMapper.createArrayNode();
     for (final String part : parts) {
-      arrayNode.add(createArrayElement(part, splitRule.trim()));
+      arrayNode.add(createArrayElement(part, splitRule));
     }
     return arrayNode;
   }
 
-  private JsonNode createArrayElement(final String part, final boolean shouldTrim) {
-    final String processed = shouldTrim ? part.trim() : part;
+  private JsonNode createArrayElement(
+      final String part, final MappingConfig.PrimitiveSplitRule splitRule) {
+    final String processed = splitRule.trim() ? part.trim() : part;
     if (blanksAsNulls && processed.isBlank()) {
       return NullNode.getInstance();
     }
-    return TextNode.valueOf(processed);
+    return textNodeInterner.textNode(splitRule.path(), processed);
   }
 
-  private JsonNode createLeafNode(final Object rawValue) {
-    return switch (rawValue) {
-      case null -> NullNode.getInstance();
-      case String stringValue -> createStringNode(stringValue);
-      case Integer intValue -> IntNode.valueOf(intValue);
-      case Long longValue -> LongNode.valueOf(longValue);
-      case Double doubleValue -> DoubleNode.valueOf(doubleValue);
-      case Boolean boolValue -> BooleanNode.valueOf(boolValue);
-      default -> objectMapper.valueToTree(rawValue);
-    };
+  private JsonNode createLeafNode(final String key, final Object rawValue) {
+    return rawValue instanceof String stringValue
+        ? createStringNode(key, stringValue)
+        : leafNodeFactory.create(key, rawValue);
   }
 
-  private JsonNode createStringNode(final String stringValue) {
+  private JsonNode createStringNode(final String key, final String stringValue) {
     if (blanksAsNulls && stringValue.isBlank()) {
       return NullNode.getInstance();
     }
-    return TextNode.valueOf(stringValue);
+    return textNodeInterner.textNode(key, stringValue);
   }
 }
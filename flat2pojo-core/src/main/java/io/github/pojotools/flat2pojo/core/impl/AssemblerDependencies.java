@@ -1,6 +1,7 @@
 package io.github.pojotools.flat2pojo.core.impl;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import io.github.pojotools.flat2pojo.core.engine.ArrayManager;
 import io.github.pojotools.flat2pojo.core.engine.PrimitiveArrayManager;
 import io.github.pojotools.flat2pojo.core.engine.ValueTransformer;
@@ -13,6 +14,7 @@ import lombok.Builder;
 @Builder
 record AssemblerDependencies(
     ObjectMapper objectMapper,
+    JsonNodeFactory nodeFactory,
     ArrayManager arrayManager,
     ValueTransformer valueTransformer,
     PrimitiveArrayManager primitiveArrayManager,
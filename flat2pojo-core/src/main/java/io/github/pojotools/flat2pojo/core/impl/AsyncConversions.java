@@ -0,0 +1,95 @@
+package io.github.pojotools.flat2pojo.core.impl;
+
+import io.github.pojotools.flat2pojo.core.api.Flat2Pojo;
+import io.github.pojotools.flat2pojo.core.config.MappingConfig;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * The asynchronous entry points of {@link Flat2PojoCore}. Single Responsibility: Runs a conversion
+ * or stream on a caller's executor and completes its future, reading the input through a {@link
+ * CancellableInput} so that cancelling the future stops the work between rows.
+ */
+final class AsyncConversions {
+  private final Flat2Pojo converter;
+  private final RootStreams streams;
+
+  AsyncConversions(final Flat2Pojo converter, final RootStreams streams) {
+    this.converter = converter;
+    this.streams = streams;
+  }
+
+  /** Converts on {@code executor}; the input stops the conversion once the future is cancelled. */
+  <T> CompletableFuture<List<T>> convertAll(
+      final List<? extends Map<String, ?>> rows,
+      final Class<T> type,
+      final MappingConfig config,
+      final Executor executor) {
+    final CompletableFuture<List<T>> future = new CompletableFuture<>();
+    final CancellableInput input = new CancellableInput(future);
+    runAsync(
+        future,
+        executor,
+        () -> future.complete(converter.convertAll(input.rows(rows), type, config)));
+    return future;
+  }
+
+  /**
+   * Streams on {@code executor}; rows are read through a cancellable input, and each root is only
+   * delivered while the future is not cancelled.
+   */
+  <T> CompletableFuture<Void> stream(
+      final Iterator<? extends Map<String, ?>> rows,
+      final Class<T> type,
+      final MappingConfig config,
+      final Consumer<? super T> action,
+      final Executor executor) {
+    final CompletableFuture<Void> future = new CompletableFuture<>();
+    final CancellableInput input = new CancellableInput(future);
+    runAsync(
+        future,
+        executor,
+        () -> {
+          try (Stream<T> roots =
+              streams.handsOffRoots(config)
+                  ? streams.stream(input.rows(rows), type, config)
+                  : converter
+                      .convertAll(input.rows(RootStreams.drain(input.rows(rows))), type, config)
+                      .stream()) {
+            roots.forEach(
+                root -> {
+                  input.check();
+                  action.accept(root);
+                });
+          }
+          future.complete(null);
+        });
+    return future;
+  }
+
+  /** Runs {@code conversion} on {@code executor} unless {@code future} is done by then. */
+  private static void runAsync(
+      final CompletableFuture<?> future, final Executor executor, final Runnable conversion) {
+    try {
+      executor.execute(
+          () -> {
+            if (future.isDone()) {
+              return;
+            }
+            try {
+              conversion.run();
+            } catch (final RuntimeException | Error failure) {
+              future.completeExceptionally(failure);
+            }
+          });
+    } catch (final RejectedExecutionException rejected) {
+      future.completeExceptionally(rejected);
+    }
+  }
+}
@@ -0,0 +1,75 @@
+package io.github.pojotools.flat2pojo.core.impl;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Future;
+
+/**
+ * Stops a conversion once its future is cancelled. Single Responsibility: Wraps a conversion's
+ * input so that reading a row after cancellation throws {@link CancellationException}.
+ *
+ * <p>Every conversion path reads each row through its input list or iterator, while grouping and
+ * again while assembling, so the check stops work between rows and thereby between groups without
+ * a flag threaded through the assemblers. Rows read by parallel chunks, partitions and transform
+ * stages stop the same way; their failure is rethrown on the converting thread.
+ */
+final class CancellableInput {
+  private final Future<?> future;
+
+  CancellableInput(final Future<?> future) {
+    this.future = future;
+  }
+
+  /** Throws if the future was cancelled. */
+  void check() {
+    if (future.isCancelled()) {
+      throw new CancellationException("Conversion was cancelled");
+    }
+  }
+
+  List<Map<String, ?>> rows(final List<? extends Map<String, ?>> rows) {
+    return new CheckedList(rows, this);
+  }
+
+  Iterator<Map<String, ?>> rows(final Iterator<? extends Map<String, ?>> rows) {
+    return new Iterator<>() {
+      @Override
+      public boolean hasNext() {
+        check();
+        return rows.hasNext();
+      }
+
+      @Override
+      public Map<String, ?> next() {
+        return rows.next();
+      }
+    };
+  }
+
+  /** Random access is kept, so grouping reads the rows in place instead of copying them. */
+  private static final class CheckedList extends AbstractList<Map<String, ?>>
+      implements RandomAccess {
+    private final List<? extends Map<String, ?>> rows;
+    private final CancellableInput input;
+
+    CheckedList(final List<? extends Map<String, ?>> rows, final CancellableInput input) {
+      this.rows = rows;
+      this.input = input;
+    }
+
+    @Override
+    public Map<String, ?> get(final int index) {
+      input.check();
+      return rows.get(index);
+    }
+
+    @Override
+    public int size() {
+      return rows.size();
+    }
+  }
+}
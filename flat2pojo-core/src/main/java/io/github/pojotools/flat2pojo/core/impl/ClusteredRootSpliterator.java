@@ -0,0 +1,266 @@
+package io.github.pojotools.flat2pojo.core.impl;
+
+import io.github.pojotools.flat2pojo.core.config.MappingConfig;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Splits clustered rows into roots. Single Responsibility: Assembles the root groups of a row range
+ * lazily, one per {@link #tryAdvance}, and splits the range at a root key change.
+ *
+ * <p>A split takes the middle of the remaining rows and scans forward to the next row whose root
+ * key differs from the last keyed row before it, so both halves hold whole groups and no rows are
+ * copied. Roots come out in encounter order and equal those of {@link Flat2PojoCore#convertAll};
+ * rows with a missing root key or rejected by the row filters are skipped within their group, so
+ * filtering copies no rows either. Splits borrow idle pipelines, so no more pipelines are built
+ * than splits ever ran at once. {@code verified} input is not split, since its reappearing-key
+ * check needs to see every group.
+ */
+final class ClusteredRootSpliterator<T> implements Spliterator<T> {
+  private static final int SAMPLE_ROWS = 1024;
+
+  private final Source<T> source;
+  private final int end;
+  private int next;
+  private ClusteredRowGrouper grouper;
+  private boolean pendingRow; // rows[next] opened a group in the previous tryAdvance
+  private ProcessingPipeline pipeline;
+  private RowProcessor processor;
+  private boolean exhausted;
+
+  private ClusteredRootSpliterator(final Source<T> source, final int from, final int end) {
+    this.source = source;
+    this.next = from;
+    this.end = end;
+  }
+
+  /**
+   * Streams the roots of {@code rows}.
+   *
+   * @param onExhausted receives the fallback conversion counts of all splits, by column, once every
+   *     split was traversed to its end
+   */
+  static <T> Stream<T> stream(
+      final List<? extends Map<String, ?>> rows,
+      final Class<T> type,
+      final Supplier<ProcessingPipeline> pipelines,
+      final Consumer<Map<String, Integer>> onExhausted) {
+    final List<? extends Map<String, ?>> random =
+        rows instanceof RandomAccess ? rows : new ArrayList<>(rows);
+    final Source<T> source = new Source<>(random, type, pipelines, onExhausted);
+    return StreamSupport.stream(new ClusteredRootSpliterator<>(source, 0, random.size()), false);
+  }
+
+  @Override
+  public boolean tryAdvance(final Consumer<? super T> action) {
+    if (exhausted) {
+      return false;
+    }
+    if (grouper == null) {
+      grouper = new ClusteredRowGrouper(source.config);
+    }
+    int groupRows = 0;
+    if (pendingRow) {
+      pendingRow = false;
+      processor().processRow(source.rows.get(next++));
+      groupRows++;
+    }
+    while (next < end) {
+      final Map<String, ?> row = source.rows.get(next);
+      final ClusteredRowGrouper.Boundary boundary = grouper.advance(row, next);
+      if (boundary == ClusteredRowGrouper.Boundary.NEW_GROUP && groupRows > 0) {
+        pendingRow = true;
+        break;
+      }
+      next++;
+      if (boundary != ClusteredRowGrouper.Boundary.SKIPPED) {
+        processor().processRow(row);
+        groupRows++;
+      }
+    }
+    if (groupRows == 0) {
+      finish();
+      return false;
+    }
+    action.accept(processor.materialize(source.type));
+    return true;
+  }
+
+  /** Splits off the first half of the remaining rows, ending at a root key change. */
+  @Override
+  public Spliterator<T> trySplit() {
+    if (source.verified || grouper != null || exhausted) {
+      return null; // traversal has begun, or verified input must be seen in one pass
+    }
+    final int boundary = keyChangeAfter(next + (end - next) / 2);
+    if (boundary <= next || boundary >= end) {
+      return null;
+    }
+    final ClusteredRootSpliterator<T> prefix =
+        new ClusteredRootSpliterator<>(source, next, boundary);
+    source.openSplits.incrementAndGet();
+    next = boundary;
+    return prefix;
+  }
+
+  @Override
+  public long estimateSize() {
+    return (long) Math.ceil((end - next) / source.rowsPerGroup);
+  }
+
+  @Override
+  public int characteristics() {
+    return ORDERED | NONNULL;
+  }
+
+  /**
+   * Returns the first row at or after {@code from} that opens a new group, judged against the last
+   * keyed row before it, or {@code end} if there is none.
+   */
+  private int keyChangeAfter(final int from) {
+    int keyed = from - 1;
+    while (keyed >= next && source.skipped(keyed)) {
+      keyed--;
+    }
+    if (keyed < next) {
+      keyed = from;
+      while (keyed < end && source.skipped(keyed)) {
+        keyed++;
+      }
+    }
+    for (int row = keyed + 1; row < end; row++) {
+      if (!source.skipped(row) && !source.sameKey(row, keyed)) {
+        return row;
+      }
+    }
+    return end;
+  }
+
+  private RowProcessor processor() {
+    if (processor == null) {
+      pipeline = source.borrow();
+      processor = pipeline.createAssembler();
+    }
+    return processor;
+  }
+
+  private void finish() {
+    exhausted = true;
+    if (pipeline != null) {
+      source.idle.add(pipeline);
+    }
+    if (source.openSplits.decrementAndGet() == 0) {
+      source.onExhausted.accept(source.fallbackCounts());
+    }
+  }
+
+  /** State shared by all splits of one stream. */
+  private static final class Source<T> {
+    private final List<? extends Map<String, ?>> rows;
+    private final Class<T> type;
+    private final Supplier<ProcessingPipeline> pipelines;
+    private final Consumer<Map<String, Integer>> onExhausted;
+    private final Queue<ProcessingPipeline> idle = new ConcurrentLinkedQueue<>();
+    private final Queue<ProcessingPipeline> built = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger openSplits = new AtomicInteger(1);
+    private final MappingConfig config;
+    private final RowFilter rowFilter;
+    private final String[] rootKeys;
+    private final boolean verified;
+    private final double rowsPerGroup;
+
+    Source(
+        final List<? extends Map<String, ?>> rows,
+        final Class<T> type,
+        final Supplier<ProcessingPipeline> pipelines,
+        final Consumer<Map<String, Integer>> onExhausted) {
+      this.rows = rows;
+      this.type = type;
+      this.pipelines = pipelines;
+      this.onExhausted = onExhausted;
+      final ProcessingPipeline first = build();
+      idle.add(first);
+      this.config = first.context().config();
+      this.rowFilter = RowFilter.of(config);
+      this.rootKeys = config.rootKeys().toArray(String[]::new);
+      this.verified = config.inputClustering() == MappingConfig.InputClustering.verified;
+      this.rowsPerGroup = sampleRowsPerGroup();
+    }
+
+    ProcessingPipeline borrow() {
+      final ProcessingPipeline borrowed = idle.poll();
+      return borrowed != null ? borrowed : build();
+    }
+
+    Map<String, Integer> fallbackCounts() {
+      final Map<String, Integer> counts = new LinkedHashMap<>();
+      for (final ProcessingPipeline pipeline : built) {
+        pipeline
+            .dependencies()
+            .valueTransformer()
+            .fallbackCounts()
+            .forEach((column, count) -> counts.merge(column, count, Integer::sum));
+      }
+      return counts;
+    }
+
+    private ProcessingPipeline build() {
+      final ProcessingPipeline pipeline = pipelines.get();
+      built.add(pipeline);
+      return pipeline;
+    }
+
+    /** Whether the row has a missing root key or is rejected by the row filters. */
+    boolean skipped(final int row) {
+      final Map<String, ?> values = rows.get(row);
+      if (!rowFilter.accepts(values)) {
+        return true;
+      }
+      for (final String key : rootKeys) {
+        if (values.get(key) == null) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    /** Compares the root keys of two rows that both have them. */
+    boolean sameKey(final int row, final int other) {
+      final Map<String, ?> values = rows.get(row);
+      final Map<String, ?> otherValues = rows.get(other);
+      for (final String key : rootKeys) {
+        if (!values.get(key).equals(otherValues.get(key))) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /** Average group length over the first rows; sizes the estimates that guide splitting. */
+    private double sampleRowsPerGroup() {
+      final int sample = Math.min(rows.size(), SAMPLE_ROWS);
+      int groups = 0;
+      int previous = -1;
+      for (int row = 0; row < sample; row++) {
+        if (!skipped(row)) {
+          if (previous < 0 || !sameKey(row, previous)) {
+            groups++;
+          }
+          previous = row;
+        }
+      }
+      return groups == 0 ? 1 : (double) sample / groups;
+    }
+  }
+}
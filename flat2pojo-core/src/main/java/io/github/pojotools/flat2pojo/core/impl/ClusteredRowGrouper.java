@@ -0,0 +1,123 @@
+package io.github.pojotools.flat2pojo.core.impl;
+
+import io.github.pojotools.flat2pojo.core.config.MappingConfig;
+import io.github.pojotools.flat2pojo.core.config.ValidationException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Groups rows that arrive clustered by root keys. Single Responsibility: Detects group boundaries
+ * by comparing each row's root key values with the open group's.
+ *
+ * <p>Rows go straight to the assembler: no grouping map, no per-group row list and no key object
+ * per row. Like {@link RootKeyGrouper}, rows with a missing or null root key are skipped, and so
+ * are rows rejected by the row filters, which therefore neither open nor close a group. In
+ * {@code verified} mode the keys of closed groups are remembered (one key per group) and a key that
+ * reappears fails the conversion.
+ */
+final class ClusteredRowGrouper {
+  private final List<String> rootKeys;
+  private final RowFilter rowFilter;
+  private final Object[] openKey;
+  private final Set<Object> closedKeys;
+  private boolean open;
+
+  ClusteredRowGrouper(final MappingConfig config) {
+    this.rootKeys = config.rootKeys();
+    this.rowFilter = RowFilter.of(config);
+    this.openKey = new Object[rootKeys.size()];
+    this.closedKeys =
+        config.inputClustering() == MappingConfig.InputClustering.verified ? new HashSet<>() : null;
+  }
+
+  <T> List<T> convert(
+      final List<? extends Map<String, ?>> rows,
+      final Class<T> type,
+      final RowProcessor processor) {
+    final List<T> results = new ArrayList<>();
+    int ordinal = 0;
+    for (final Map<String, ?> row : rows) {
+      final boolean closesGroup = open;
+      final Boundary boundary = advance(row, ordinal++);
+      if (boundary == Boundary.NEW_GROUP && closesGroup) {
+        results.add(processor.materialize(type));
+      }
+      if (boundary != Boundary.SKIPPED) {
+        processor.processRow(row);
+      }
+    }
+    if (open) {
+      results.add(processor.materialize(type));
+    }
+    return results;
+  }
+
+  /**
+   * Classifies the row at {@code ordinal} against the open group; on a new group, the open group is
+   * closed and the row's group opened. Rows must be passed in input order.
+   */
+  Boundary advance(final Map<String, ?> row, final int ordinal) {
+    final Boundary boundary = classify(row);
+    if (boundary == Boundary.NEW_GROUP) {
+      if (open) {
+        closeGroup();
+      }
+      openGroup(row, ordinal);
+    }
+    return boundary;
+  }
+
+  private Boundary classify(final Map<String, ?> row) {
+    if (!rowFilter.accepts(row)) {
+      return Boundary.SKIPPED;
+    }
+    boolean sameGroup = open;
+    for (int i = 0; i < openKey.length; i++) {
+      final Object value = row.get(rootKeys.get(i));
+      if (value == null) {
+        return Boundary.SKIPPED;
+      }
+      sameGroup = sameGroup && value.equals(openKey[i]);
+    }
+    return sameGroup ? Boundary.SAME_GROUP : Boundary.NEW_GROUP;
+  }
+
+  private void openGroup(final Map<String, ?> row, final int ordinal) {
+    for (int i = 0; i < openKey.length; i++) {
+      openKey[i] = row.get(rootKeys.get(i));
+    }
+    if (closedKeys != null && closedKeys.contains(groupKey())) {
+      throw new ValidationException(
+          "Input is not clustered by root keys "
+              + rootKeys
+              + ": key "
+              + Arrays.toString(openKey)
+              + " reappears at row "
+              + ordinal
+              + " after its group was closed");
+    }
+    open = true;
+  }
+
+  private void closeGroup() {
+    if (closedKeys != null) {
+      closedKeys.add(groupKey());
+    }
+    open = false;
+  }
+
+  private Object groupKey() {
+    return openKey.length == 1 ? openKey[0] : List.of(openKey.clone());
+  }
+
+  enum Boundary {
+    SAME_GROUP,
+    NEW_GROUP,
+    /** The row has a missing root key or is rejected by the row filters. */
+    SKIPPED
+  }
+}
@@ -0,0 +1,32 @@
+package io.github.pojotools.flat2pojo.core.impl;
+
+import io.github.pojotools.flat2pojo.core.engine.Path;
+import io.github.pojotools.flat2pojo.core.util.ConflictContext;
+import io.github.pojotools.flat2pojo.core.util.PathSegments;
+
+/**
+ * Routing decided once per column instead of once per cell: which segment the column is written
+ * to, its path relative to that segment (pre-split) and the conflict context of its writes.
+ *
+ * @param id dense column index, used to address per-row slots
+ * @param segment index of the owning list rule, {@link RowLayout#rootSegment()} for direct values
+ *     or {@link RowLayout#NO_SEGMENT} when the column is never written
+ * @param memoizable whether an unchanged value may skip re-writing; {@code false} when another
+ *     path of the same segment overlaps this one, or for primitive list paths
+ * @param dropped whether the projection drops the column; its cells are never transformed
+ */
+record ColumnPlan(
+    int id,
+    int segment,
+    Path path,
+    PathSegments segments,
+    boolean primitiveList,
+    ConflictContext conflictContext,
+    boolean memoizable,
+    boolean dropped) {
+
+  ColumnPlan notMemoizable() {
+    return new ColumnPlan(
+        id, segment, path, segments, primitiveList, conflictContext, false, dropped);
+  }
+}
@@ -0,0 +1,129 @@
+package io.github.pojotools.flat2pojo.core.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import io.github.pojotools.flat2pojo.core.config.MappingConfig;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * The columns a conversion keeps. Single Responsibility: Resolves the projection of a config and
+ * target type (see {@link MappingConfig#projection()}) into a keep-or-drop decision per column.
+ *
+ * <p>Dropped columns are never transformed or written. A dropped non-null cell still stands in the
+ * row as {@link #PRESENT}, so that a keyless list gets the same elements as without projection.
+ * Immutable and shared by all pipelines of a conversion; {@link RowLayout} plans each column's
+ * decision once.
+ *
+ * <p>The element columns of aggregate-only lists are always dropped, except for those their keys,
+ * filters and aggregates read.
+ */
+final class ColumnProjection {
+  /** Stands in for a dropped non-null cell: not null, never written. */
+  static final JsonNode PRESENT = MissingNode.getInstance();
+
+  private static final ColumnProjection ALL =
+      new ColumnProjection("/", List.of(), List.of(), List.of(), Set.of(), null);
+
+  private final String separator;
+  private final List<String> includes;
+  private final List<String> excludes;
+  private final List<String> aggregatedLists;
+  private final Set<String> required;
+  private final TargetProperties properties;
+
+  private ColumnProjection(
+      final String separator,
+      final List<String> includes,
+      final List<String> excludes,
+      final List<String> aggregatedLists,
+      final Set<String> required,
+      final TargetProperties properties) {
+    this.separator = separator;
+    this.includes = includes;
+    this.excludes = excludes;
+    this.aggregatedLists = aggregatedLists;
+    this.required = required;
+    this.properties = properties;
+  }
+
+  /**
+   * @param properties the properties of the target type; {@code null} unless the projection is
+   *     {@code fromTargetType}
+   */
+  static ColumnProjection of(final MappingConfig config, final TargetProperties properties) {
+    final MappingConfig.Projection projection = config.projection();
+    final List<String> aggregatedLists = new ArrayList<>();
+    for (final MappingConfig.ListRule rule : config.lists()) {
+      if (rule.aggregation().aggregateOnly()) {
+        aggregatedLists.add(rule.path());
+      }
+    }
+    if (projection.keepsAll() && aggregatedLists.isEmpty()) {
+      return ALL;
+    }
+    final Set<String> required = new HashSet<>(config.rootKeys());
+    for (final MappingConfig.ListRule rule : config.lists()) {
+      final String prefix = rule.path() + config.separator();
+      rule.keyPaths().forEach(keyPath -> required.add(prefix + keyPath));
+      rule.orderBy().forEach(orderBy -> required.add(prefix + orderBy.path()));
+      rule.filters().forEach(filter -> required.add(prefix + filter.path()));
+      for (final MappingConfig.Aggregate aggregate : rule.aggregation().aggregates()) {
+        if (aggregate.path() != null) {
+          required.add(prefix + aggregate.path());
+        }
+      }
+    }
+    for (final MappingConfig.PrimitiveListRule rule : config.primitiveLists()) {
+      if (!rule.aggregation().aggregates().isEmpty()) {
+        required.add(rule.path());
+      }
+    }
+    return new ColumnProjection(
+        config.separator(),
+        List.copyOf(projection.include()),
+        List.copyOf(projection.exclude()),
+        List.copyOf(aggregatedLists),
+        Set.copyOf(required),
+        projection.fromTargetType() ? properties : null);
+  }
+
+  boolean keeps(final String column) {
+    if (this == ALL || required.contains(column)) {
+      return true;
+    }
+    if (underAny(aggregatedLists, column)) {
+      return false;
+    }
+    if (!includes.isEmpty() && !underAny(includes, column)) {
+      return false;
+    }
+    return !underAny(excludes, column)
+        && (properties == null || properties.binds(column, separator));
+  }
+
+  /** Returns {@link #keeps} remembering each column's decision; for one thread. */
+  Predicate<String> memoizing() {
+    if (this == ALL) {
+      return column -> true;
+    }
+    final Map<String, Boolean> decisions = new HashMap<>();
+    return column -> decisions.computeIfAbsent(column, this::keeps);
+  }
+
+  private boolean underAny(final List<String> paths, final String column) {
+    for (final String path : paths) {
+      if (column.startsWith(path)
+          && (column.length() == path.length()
+              || column.startsWith(separator, path.length()))) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,37 @@
+package io.github.pojotools.flat2pojo.core.impl;
+
+import io.github.pojotools.flat2pojo.core.config.MappingConfig;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A conversion compiled for one config: its pipeline, its assembler, its row filter and the
+ * optional parallel and pipelined stages. Serves one row set at a time; the assembler stays warm
+ * between them.
+ */
+record CompiledConversion(
+    ProcessingPipeline pipeline,
+    RowProcessor assembler,
+    RowFilter rowFilter,
+    ParallelGroupAssembly parallel,
+    PartitionedGrouping partitioned,
+    PipelinedAssembly pipelined) {
+
+  MappingConfig config() {
+    return pipeline.context().config();
+  }
+
+  /** The fallback conversion counts of the pipeline and every stage, by column. */
+  Map<String, Integer> fallbackCounts() {
+    final Map<String, Integer> counts =
+        new LinkedHashMap<>(pipeline.dependencies().valueTransformer().fallbackCounts());
+    final List<Map<String, Integer>> stages =
+        List.of(
+            parallel.fallbackCounts(), partitioned.fallbackCounts(), pipelined.fallbackCounts());
+    for (final Map<String, Integer> stageCounts : stages) {
+      stageCounts.forEach((column, count) -> counts.merge(column, count, Integer::sum));
+    }
+    return counts;
+  }
+}
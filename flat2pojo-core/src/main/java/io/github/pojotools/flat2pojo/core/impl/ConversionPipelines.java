@@ -0,0 +1,127 @@
+package io.github.pojotools.flat2pojo.core.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import io.github.pojotools.flat2pojo.core.config.ListHierarchyCache;
+import io.github.pojotools.flat2pojo.core.config.MappingConfig;
+import io.github.pojotools.flat2pojo.core.engine.ArrayManager;
+import io.github.pojotools.flat2pojo.core.engine.CompactNodeFactory;
+import io.github.pojotools.flat2pojo.core.engine.PrimitiveArrayManager;
+import io.github.pojotools.flat2pojo.core.engine.ValueTransformer;
+import io.github.pojotools.flat2pojo.core.util.PathResolver;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Builds the pipelines of one converter. Single Responsibility: Creates the processing pipelines,
+ * value transformers and compiled conversions for a config and target type, and reports the
+ * values they converted on the slow path.
+ *
+ * <p>Pipelines of one converter share the descriptions of its target types, and pipelines of one
+ * config its compact node factory, so shape budgets are per config and dropped with it.
+ * Thread-safe; every pipeline it builds serves one conversion at a time.
+ */
+final class ConversionPipelines {
+  private final ObjectMapper objectMapper;
+  private final Map<Class<?>, TargetProperties> targetProperties = new ConcurrentHashMap<>();
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Map<MappingConfig, CompactNodeFactory> compactNodeFactories = new WeakHashMap<>();
+
+  ConversionPipelines(final ObjectMapper objectMapper) {
+    this.objectMapper = objectMapper;
+  }
+
+  ProcessingPipeline build(final MappingConfig config, final Class<?> type) {
+    final AssemblerDependencies dependencies = buildAssemblerDependencies(config);
+    final ProcessingContext context = buildProcessingContext(config, type);
+    return new ProcessingPipeline(dependencies, context);
+  }
+
+  ValueTransformer transformer(final MappingConfig config) {
+    return new ValueTransformer(objectMapper, config);
+  }
+
+  /**
+   * Builds the pipeline, assembler and optional stages of a compiled conversion, with parallel
+   * stages run by {@code stages}.
+   */
+  CompiledConversion compile(
+      final MappingConfig config, final Class<?> type, final Executor stages) {
+    final ProcessingPipeline pipeline = build(config, type);
+    final ParallelGroupAssembly parallel =
+        new ParallelGroupAssembly(
+            config, () -> build(config, type), pipeline.dependencies().materializer(), stages);
+    final PartitionedGrouping partitioned =
+        new PartitionedGrouping(config, () -> build(config, type), parallel, stages);
+    final PipelinedAssembly pipelined =
+        new PipelinedAssembly(
+            config, pipeline.context().projection(), () -> transformer(config));
+    return new CompiledConversion(
+        pipeline,
+        pipeline.createAssembler(),
+        RowFilter.of(config),
+        parallel,
+        partitioned,
+        pipelined);
+  }
+
+  /** Warns the config's reporter of the values converted via the ObjectMapper fallback. */
+  static void reportSlowPathColumns(
+      final Map<String, Integer> fallbackCounts, final MappingConfig config) {
+    if (fallbackCounts.isEmpty()) {
+      return;
+    }
+    config
+        .reporter()
+        .ifPresent(
+            r ->
+                r.warn(
+                    "Values converted via ObjectMapper.valueToTree fallback (column=count): "
+                        + fallbackCounts
+                        + ". Register a ValueConverter for a direct conversion."));
+  }
+
+  private ProcessingContext buildProcessingContext(
+      final MappingConfig config, final Class<?> type) {
+    final PathResolver pathResolver = new PathResolver(config.separator());
+    final ListHierarchyCache hierarchyCache = new ListHierarchyCache(config, pathResolver);
+    return new ProcessingContext(
+        config, hierarchyCache, pathResolver, buildColumnProjection(config, type));
+  }
+
+  /** Target type properties are described once per type and shared by later conversions. */
+  private ColumnProjection buildColumnProjection(final MappingConfig config, final Class<?> type) {
+    final TargetProperties properties =
+        config.projection().fromTargetType()
+            ? targetProperties.computeIfAbsent(
+                type, target -> TargetProperties.of(objectMapper, target))
+            : null;
+    return ColumnProjection.of(config, properties);
+  }
+
+  /** Weakly keyed by config: its shapes stay shared while the config is in use. */
+  CompactNodeFactory compactNodeFactory(final MappingConfig config) {
+    lock.lock();
+    try {
+      return compactNodeFactories.computeIfAbsent(config, unused -> new CompactNodeFactory());
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private AssemblerDependencies buildAssemblerDependencies(final MappingConfig config) {
+    final JsonNodeFactory nodeFactory =
+        config.compactNodes() ? compactNodeFactory(config) : objectMapper.getNodeFactory();
+    return AssemblerDependencies.builder()
+        .objectMapper(objectMapper)
+        .nodeFactory(nodeFactory)
+        .arrayManager(new ArrayManager(nodeFactory, config))
+        .valueTransformer(transformer(config))
+        .primitiveArrayManager(new PrimitiveArrayManager(objectMapper, config))
+        .materializer(new ResultMaterializer(objectMapper))
+        .build();
+  }
+}
@@ -1,26 +1,70 @@
 package io.github.pojotools.flat2pojo.core.impl;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.pojotools.flat2pojo.core.api.ConversionRequest;
+import io.github.pojotools.flat2pojo.core.api.ConversionTarget;
 import io.github.pojotools.flat2pojo.core.api.Flat2Pojo;
-import io.github.pojotools.flat2pojo.core.config.ListHierarchyCache;
+import io.github.pojotools.flat2pojo.core.api.IncrementalConversion;
+import io.github.pojotools.flat2pojo.core.api.PartialConversion;
+import io.github.pojotools.flat2pojo.core.api.RowChange;
+import io.github.pojotools.flat2pojo.core.api.RowSources;
+import io.github.pojotools.flat2pojo.core.api.SlicedConversion;
+import io.github.pojotools.flat2pojo.core.api.TargetResults;
 import io.github.pojotools.flat2pojo.core.config.MappingConfig;
 import io.github.pojotools.flat2pojo.core.config.MappingConfigLoader;
-import io.github.pojotools.flat2pojo.core.engine.ArrayManager;
-import io.github.pojotools.flat2pojo.core.engine.PrimitiveArrayManager;
-import io.github.pojotools.flat2pojo.core.engine.ValueTransformer;
-import io.github.pojotools.flat2pojo.core.util.PathResolver;
+import io.github.pojotools.flat2pojo.core.config.ValidationException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
 import java.util.stream.Stream;
 
 public final class Flat2PojoCore implements Flat2Pojo {
-  private final ObjectMapper objectMapper;
+  private final ConversionPipelines pipelines;
+  private final Executor executor;
+  private final RootStreams streams;
+  private final AsyncConversions async;
 
   public Flat2PojoCore(ObjectMapper objectMapper) {
-    this.objectMapper = objectMapper;
+    this(objectMapper, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * @param executor runs the chunks of groups assembled in parallel and the partitions of inputs
+   *     grouped in parallel (see {@link MappingConfig#parallelAssembly()} and {@link
+   *     MappingConfig#parallelGrouping()})
+   */
+  public Flat2PojoCore(ObjectMapper objectMapper, Executor executor) {
+    this(objectMapper, executor, 0);
+  }
+
+  private Flat2PojoCore(ObjectMapper objectMapper, Executor executor, int handOffCapacity) {
+    this.pipelines = new ConversionPipelines(objectMapper);
+    this.executor = executor;
+    this.streams = new RootStreams(this, pipelines, executor, handOffCapacity);
+    this.async = new AsyncConversions(this, streams);
+  }
+
+  /**
+   * Creates a converter whose parallel work runs on virtual threads, at most {@code maxConcurrency}
+   * tasks at a time. {@link #stream} over clustered input (see {@link
+   * MappingConfig#inputClustering()}) then reads rows on a producer thread and assembles each root
+   * as its own task, with at most {@code maxConcurrency} roots waiting to be consumed.
+   *
+   * @param maxConcurrency maximum number of tasks running at once; must be positive
+   */
+  public static Flat2PojoCore onVirtualThreads(ObjectMapper objectMapper, int maxConcurrency) {
+    if (maxConcurrency < 1) {
+      throw new IllegalArgumentException("maxConcurrency must be positive: " + maxConcurrency);
+    }
+    return new Flat2PojoCore(
+        objectMapper, new VirtualThreadExecutor(maxConcurrency), maxConcurrency);
   }
 
   @Override
@@ -44,64 +88,243 @@ public final class Flat2PojoCore implements Flat2Pojo {
   public <T> List<T> convertAll(
       final List<? extends Map<String, ?>> rows, final Class<T> type, final MappingConfig config) {
     MappingConfigLoader.validateHierarchy(config);
-    final ProcessingPipeline pipeline = buildProcessingPipeline(config);
+    final CompiledConversion compiled = compile(config, type);
 
-    return config.rootKeys().isEmpty()
-        ? convertWithoutGrouping(rows, type, pipeline)
-        : convertWithGrouping(rows, type, config, pipeline);
+    final List<T> results = convertRows(rows, type, compiled);
+    ConversionPipelines.reportSlowPathColumns(compiled.fallbackCounts(), config);
+    return results;
+  }
+
+  /**
+   * Converts rows into several targets in one pass.
+   *
+   * <p>Algorithm: Validate → Group by the shared rootKeys → Per batch of group rows, transform
+   * values once per value setting → Assemble per target → Materialize per target
+   */
+  @Override
+  public TargetResults convertAll(
+      final List<? extends Map<String, ?>> rows, final List<ConversionTarget<?>> targets) {
+    return MultiTargetAssembly.convert(rows, targets, pipelines);
+  }
+
+  /** Converts on {@code asyncExecutor}; cancelling the future stops the conversion. */
+  @Override
+  public <T> CompletableFuture<List<T>> convertAllAsync(
+      final List<? extends Map<String, ?>> rows,
+      final Class<T> type,
+      final MappingConfig config,
+      final Executor asyncExecutor) {
+    return async.convertAll(rows, type, config, asyncExecutor);
   }
 
-  private ProcessingPipeline buildProcessingPipeline(final MappingConfig config) {
-    final AssemblerDependencies dependencies = buildAssemblerDependencies(config);
-    final ProcessingContext context = buildProcessingContext(config);
-    return new ProcessingPipeline(dependencies, context);
+  /**
+   * Converts several row sets in turn with one compiled conversion, completing each request's
+   * future with the roots of its own rows. A failing row set fails only its own future; the next
+   * one gets a fresh compilation, since the failure may have left the assembler mid-group. Any
+   * other failure fails every request that is not done yet.
+   *
+   * <p>Parallel stages run inline on the calling thread: a batch usually runs as a task of this
+   * converter's executor, and waiting there for stage tasks that need a slot of the same bounded
+   * executor could deadlock it.
+   */
+  @Override
+  public <T> void convertEach(
+      final List<ConversionRequest<T>> requests, final Class<T> type, final MappingConfig config) {
+    try {
+      MappingConfigLoader.validateHierarchy(config);
+      CompiledConversion compiled = pipelines.compile(config, type, Runnable::run);
+      for (final ConversionRequest<T> request : requests) {
+        if (request.future().isDone()) {
+          continue;
+        }
+        try {
+          request.future().complete(convertRows(request.rows(), type, compiled));
+        } catch (final RuntimeException failure) {
+          request.future().completeExceptionally(failure);
+          ConversionPipelines.reportSlowPathColumns(compiled.fallbackCounts(), config);
+          compiled = pipelines.compile(config, type, Runnable::run);
+        }
+      }
+      ConversionPipelines.reportSlowPathColumns(compiled.fallbackCounts(), config);
+    } catch (final RuntimeException | Error failure) {
+      requests.forEach(request -> request.future().completeExceptionally(failure));
+    }
   }
 
-  private ProcessingContext buildProcessingContext(final MappingConfig config) {
-    final PathResolver pathResolver = new PathResolver(config.separator());
-    final ListHierarchyCache hierarchyCache = new ListHierarchyCache(config, pathResolver);
-    return new ProcessingContext(config, hierarchyCache, pathResolver);
+  /** Starts a conversion run in slices of whole root groups; see {@link SlicedAssembly}. */
+  @Override
+  public <T> SlicedConversion<T> convertSliced(
+      final List<? extends Map<String, ?>> rows, final Class<T> type, final MappingConfig config) {
+    MappingConfigLoader.validateHierarchy(config);
+    final ProcessingPipeline pipeline = pipelines.build(config, type);
+    return new SlicedAssembly<>(
+        rows,
+        type,
+        pipeline,
+        () ->
+            ConversionPipelines.reportSlowPathColumns(
+                pipeline.dependencies().valueTransformer().fallbackCounts(), config));
   }
 
-  private AssemblerDependencies buildAssemblerDependencies(final MappingConfig config) {
-    return AssemblerDependencies.builder()
-        .objectMapper(objectMapper)
-        .arrayManager(new ArrayManager(objectMapper, config))
-        .valueTransformer(new ValueTransformer(objectMapper, config))
-        .primitiveArrayManager(new PrimitiveArrayManager(objectMapper, config))
-        .materializer(new ResultMaterializer(objectMapper))
-        .build();
+  /**
+   * Converts narrow per-list row sources into structured POJOs, one per root of the root source.
+   *
+   * <p>Algorithm: Validate → Group each source by rootKeys → Per root, apply the root source,
+   * then each list source against its own rule and ancestors → Materialize to POJO
+   */
+  @Override
+  public <T> List<T> convertAll(
+      final RowSources sources, final Class<T> type, final MappingConfig config) {
+    MappingConfigLoader.validateHierarchy(config);
+    final ProcessingPipeline pipeline = pipelines.build(config, type);
+
+    final List<T> results = new RowSourceAssembly(sources, pipeline).convert(type);
+    ConversionPipelines.reportSlowPathColumns(
+        pipeline.dependencies().valueTransformer().fallbackCounts(), config);
+    return results;
   }
 
-  private <T> List<T> convertWithoutGrouping(
+  /**
+   * Starts a conversion fed in batches. Root groups stay open until {@link
+   * PartialConversion#complete()}; rows of later batches continue the group of their root keys.
+   */
+  @Override
+  public <T> PartialConversion<T> convertPartial(final Class<T> type, final MappingConfig config) {
+    MappingConfigLoader.validateHierarchy(config);
+    final ProcessingPipeline pipeline = pipelines.build(config, type);
+    return new ResumableConversion<>(
+        pipeline,
+        type,
+        () ->
+            ConversionPipelines.reportSlowPathColumns(
+                pipeline.dependencies().valueTransformer().fallbackCounts(), config));
+  }
+
+  /**
+   * Converts rows into roots that retain their assembly state, so later {@link RowChange}s update
+   * only the roots and lists they touch.
+   */
+  @Override
+  public <T> IncrementalConversion<T> convertIncremental(
+      final List<? extends Map<String, ?>> rows, final Class<T> type, final MappingConfig config) {
+    MappingConfigLoader.validateHierarchy(config);
+    if (config.hasAggregates()) {
+      throw new ValidationException(
+          "List aggregates cannot be kept up to date under deletes; incremental conversions do"
+              + " not support them");
+    }
+    final IncrementalConversion<T> conversion =
+        new IncrementalAssembly<>(pipelines.build(config, type), type);
+    final List<RowChange> upserts = new ArrayList<>(rows.size());
+    rows.forEach(row -> upserts.add(RowChange.upsert(row)));
+    conversion.apply(upserts);
+    return conversion;
+  }
+
+  /** Builds the pipeline, assembler and optional stages that {@link #convertRows} runs on. */
+  private CompiledConversion compile(final MappingConfig config, final Class<?> type) {
+    return pipelines.compile(config, type, executor);
+  }
+
+  /** Rows rejected by the row filters are skipped while grouping; they are never copied out. */
+  private <T> List<T> convertRows(
       final List<? extends Map<String, ?>> rows,
       final Class<T> type,
-      final ProcessingPipeline pipeline) {
-    final RowProcessor processor = pipeline.createAssembler();
-    rows.forEach(processor::processRow);
+      final CompiledConversion compiled) {
+    if (compiled.config().rootKeys().isEmpty()) {
+      return convertWithoutGrouping(rows, type, compiled);
+    }
+    if (compiled.partitioned().appliesTo(rows.size())) {
+      return compiled.partitioned().convert(rows, type);
+    }
+    return convertWithGrouping(rows, type, compiled);
+  }
+
+  private <T> List<T> convertWithoutGrouping(
+      final List<? extends Map<String, ?>> input,
+      final Class<T> type,
+      final CompiledConversion compiled) {
+    final RowProcessor processor = compiled.assembler();
+    final RowFilter filter = compiled.rowFilter();
+    // stages take a row list: the accepted rows, as a view over the input
+    final List<? extends Map<String, ?>> rows =
+        filter.keepsAll() || !appliesToStages(input.size(), compiled)
+            ? input
+            : RowGroupIndex.single(input, filter).groupRows(0);
+    if (compiled.parallel().appliesTo(rows.size())) {
+      return List.of(compiled.parallel().assemble(rows, type));
+    }
+    if (compiled.pipelined().appliesTo(rows.size())) {
+      try (PipelinedAssembly.Run run = compiled.pipelined().start(rows, processor)) {
+        return List.of(run.assembleGroup(rows.size(), type));
+      }
+    }
+    for (final Map<String, ?> row : rows) {
+      if (filter.accepts(row)) {
+        processor.processRow(row);
+      }
+    }
     return List.of(processor.materialize(type));
   }
 
+  private static boolean appliesToStages(final int rows, final CompiledConversion compiled) {
+    return compiled.parallel().appliesTo(rows) || compiled.pipelined().appliesTo(rows);
+  }
+
   private <T> List<T> convertWithGrouping(
       final List<? extends Map<String, ?>> rows,
       final Class<T> type,
-      final MappingConfig config,
-      final ProcessingPipeline pipeline) {
-    final Map<Object, List<Map<String, ?>>> rowGroups =
-        RootKeyGrouper.groupByRootKeys(rows, config.rootKeys());
-    final List<T> results = new ArrayList<>(rowGroups.size());
-    for (final List<Map<String, ?>> groupRows : rowGroups.values()) {
-      results.add(processGroup(groupRows, type, pipeline));
+      final CompiledConversion compiled) {
+    final MappingConfig config = compiled.config();
+    if (config.inputClustering() != MappingConfig.InputClustering.none) {
+      return new ClusteredRowGrouper(config).convert(rows, type, compiled.assembler());
+    }
+    final RowGroupIndex index = RowGroupIndex.build(rows, config.rootKeys(), compiled.rowFilter());
+    return compiled.pipelined().appliesTo(rows.size())
+        ? assemblePipelined(index, type, compiled)
+        : assembleIndexed(index, type, compiled);
+  }
+
+  private <T> List<T> assembleIndexed(
+      final RowGroupIndex index, final Class<T> type, final CompiledConversion compiled) {
+    final ParallelGroupAssembly parallel = compiled.parallel();
+    final List<T> results = new ArrayList<>(index.groupCount());
+    for (int group = 0; group < index.groupCount(); group++) {
+      results.add(
+          parallel.appliesTo(index.groupSize(group))
+              ? parallel.assemble(index.groupRows(group), type)
+              : processIndexedGroup(index, group, type, compiled.assembler()));
     }
     return results;
   }
 
-  private <T> T processGroup(
-      final List<Map<String, ?>> groupRows,
+  /** Groups left to parallel assembly are not transformed ahead; all others are, in order. */
+  private <T> List<T> assemblePipelined(
+      final RowGroupIndex index, final Class<T> type, final CompiledConversion compiled) {
+    final ParallelGroupAssembly parallel = compiled.parallel();
+    final IntPredicate sequential = group -> !parallel.appliesTo(index.groupSize(group));
+    final List<T> results = new ArrayList<>(index.groupCount());
+    try (PipelinedAssembly.Run run =
+        compiled.pipelined().start(index.rowsOfGroups(sequential), compiled.assembler())) {
+      for (int group = 0; group < index.groupCount(); group++) {
+        results.add(
+            sequential.test(group)
+                ? run.assembleGroup(index.groupSize(group), type)
+                : parallel.assemble(index.groupRows(group), type));
+      }
+    }
+    return results;
+  }
+
+  private <T> T processIndexedGroup(
+      final RowGroupIndex index,
+      final int group,
       final Class<T> type,
-      final ProcessingPipeline pipeline) {
-    final RowProcessor processor = pipeline.createAssembler();
-    groupRows.forEach(processor::processRow);
+      final RowProcessor processor) {
+    final int size = index.groupSize(group);
+    for (int i = 0; i < size; i++) {
+      processor.processRow(index.row(group, i));
+    }
     return processor.materialize(type);
   }
 
@@ -110,8 +333,26 @@ public final class Flat2PojoCore implements Flat2Pojo {
       final Iterator<? extends Map<String, ?>> rows,
       final Class<T> type,
       final MappingConfig config) {
-    final List<Map<String, ?>> list = new ArrayList<>();
-    rows.forEachRemaining(list::add);
-    return convertAll(list, type, config).stream();
+    return streams.stream(rows, type, config);
+  }
+
+  /** See {@link RootStreams#stream(List, Class, MappingConfig)}. */
+  @Override
+  public <T> Stream<T> stream(
+      final List<? extends Map<String, ?>> rows,
+      final Class<T> type,
+      final MappingConfig config) {
+    return streams.stream(rows, type, config);
+  }
+
+  /** Streams on {@code asyncExecutor}; cancelling the future stops reading and delivery. */
+  @Override
+  public <T> CompletableFuture<Void> streamAsync(
+      final Iterator<? extends Map<String, ?>> rows,
+      final Class<T> type,
+      final MappingConfig config,
+      final Consumer<? super T> action,
+      final Executor asyncExecutor) {
+    return async.stream(rows, type, config, action, asyncExecutor);
   }
 }
@@ -0,0 +1,221 @@
+package io.github.pojotools.flat2pojo.core.impl;
+
+import io.github.pojotools.flat2pojo.core.api.Flat2PojoException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Streams the roots of clustered rows read from a blocking source. Single Responsibility: Hands
+ * complete groups from a producer thread to assembly tasks through a bounded queue and returns the
+ * roots in input order.
+ *
+ * <p>The producer reads the iterator on its own virtual thread and cuts groups where the root keys
+ * change. It queues one assembly future per group; {@code put} blocks while {@code capacity} roots
+ * wait to be consumed, which bounds memory and throttles the source. Assembly tasks borrow idle
+ * pipelines, so no more pipelines are built than tasks ever ran at once.
+ *
+ * <p>The producer starts with the first {@code hasNext}, so a stream that is never consumed reads
+ * nothing. It stops, and the queued roots are cancelled, when the last root was consumed, when a
+ * group fails and when the stream is closed; a stream abandoned before then must be closed.
+ */
+final class HandOffRootStream<T> {
+  private static final String FAILURE = "Root assembly failed";
+
+  private final Supplier<ProcessingPipeline> pipelines;
+  private final Class<T> type;
+  private final Executor executor;
+  private final BlockingQueue<CompletableFuture<Optional<T>>> handOff;
+  private final ClusteredRowGrouper grouper;
+  private final Queue<ProcessingPipeline> idle = new ConcurrentLinkedQueue<>();
+  private final Queue<ProcessingPipeline> built = new ConcurrentLinkedQueue<>();
+  private volatile Thread producer;
+  private volatile boolean stopped;
+
+  HandOffRootStream(
+      final Supplier<ProcessingPipeline> pipelines,
+      final Class<T> type,
+      final Executor executor,
+      final int capacity) {
+    this.pipelines = pipelines;
+    this.type = type;
+    this.executor = executor;
+    this.handOff = new ArrayBlockingQueue<>(capacity);
+    final ProcessingPipeline first = buildPipeline();
+    this.grouper = new ClusteredRowGrouper(first.context().config());
+    idle.add(first);
+  }
+
+  /**
+   * Returns the roots as they are assembled; the producer starts when the first root is requested.
+   *
+   * @param onExhausted runs once the last root was consumed
+   */
+  Stream<T> stream(final Iterator<? extends Map<String, ?>> rows, final Runnable onExhausted) {
+    final Iterator<T> roots = new RootIterator(rows, onExhausted);
+    return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(roots, Spliterator.ORDERED | Spliterator.NONNULL),
+            false)
+        .onClose(this::stop);
+  }
+
+  /** Fallback conversion counts of all pipelines used so far, by column. */
+  Map<String, Integer> fallbackCounts() {
+    final Map<String, Integer> counts = new LinkedHashMap<>();
+    for (final ProcessingPipeline pipeline : built) {
+      pipeline
+          .dependencies()
+          .valueTransformer()
+          .fallbackCounts()
+          .forEach((column, count) -> counts.merge(column, count, Integer::sum));
+    }
+    return counts;
+  }
+
+  /**
+   * Interrupts the producer and cancels the queued roots. Draining also frees a producer parked in
+   * {@code put}, which then sees its interrupt and ends.
+   */
+  private void stop() {
+    stopped = true;
+    final Thread running = producer;
+    if (running != null) {
+      running.interrupt();
+    }
+    CompletableFuture<Optional<T>> root;
+    while ((root = handOff.poll()) != null) {
+      root.cancel(false);
+    }
+  }
+
+  private void produce(final Iterator<? extends Map<String, ?>> rows) {
+    try {
+      try {
+        cutGroups(rows);
+        handOff.put(CompletableFuture.completedFuture(Optional.empty()));
+      } catch (final RuntimeException | Error failure) {
+        // surfaces at the failing position of the stream instead of leaving the consumer waiting
+        handOff.put(CompletableFuture.failedFuture(failure));
+      }
+    } catch (final InterruptedException closed) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void cutGroups(final Iterator<? extends Map<String, ?>> rows)
+      throws InterruptedException {
+    List<Map<String, ?>> group = new ArrayList<>();
+    int ordinal = 0;
+    while (!stopped && rows.hasNext()) {
+      final Map<String, ?> row = rows.next();
+      final ClusteredRowGrouper.Boundary boundary = grouper.advance(row, ordinal++);
+      if (boundary == ClusteredRowGrouper.Boundary.NEW_GROUP && !group.isEmpty()) {
+        submit(group);
+        group = new ArrayList<>();
+      }
+      if (boundary != ClusteredRowGrouper.Boundary.SKIPPED) {
+        group.add(row);
+      }
+    }
+    if (!group.isEmpty()) {
+      submit(group);
+    }
+  }
+
+  private void submit(final List<Map<String, ?>> group) throws InterruptedException {
+    handOff.put(CompletableFuture.supplyAsync(() -> Optional.of(assemble(group)), executor));
+  }
+
+  private T assemble(final List<Map<String, ?>> group) {
+    final ProcessingPipeline borrowed = idle.poll();
+    final ProcessingPipeline pipeline = borrowed != null ? borrowed : buildPipeline();
+    final RowProcessor processor = pipeline.createAssembler();
+    group.forEach(processor::processRow);
+    final T root = processor.materialize(type);
+    // only after success: a failed group may leave state behind in its pipeline
+    idle.add(pipeline);
+    return root;
+  }
+
+  private ProcessingPipeline buildPipeline() {
+    final ProcessingPipeline pipeline = pipelines.get();
+    built.add(pipeline);
+    return pipeline;
+  }
+
+  private final class RootIterator implements Iterator<T> {
+    private final Iterator<? extends Map<String, ?>> rows;
+    private final Runnable onExhausted;
+    private T next;
+    private boolean exhausted;
+
+    RootIterator(final Iterator<? extends Map<String, ?>> rows, final Runnable onExhausted) {
+      this.rows = rows;
+      this.onExhausted = onExhausted;
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (next == null && !exhausted) {
+        if (stopped) {
+          throw new IllegalStateException("Root stream is closed");
+        }
+        if (producer == null) {
+          producer = Thread.ofVirtual().name("flat2pojo-producer").start(() -> produce(rows));
+        }
+        next = join(take()).orElse(null);
+        if (next == null) {
+          exhausted = true;
+          stop();
+          onExhausted.run();
+        }
+      }
+      return next != null;
+    }
+
+    @Override
+    public T next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      final T root = next;
+      next = null;
+      return root;
+    }
+
+    private CompletableFuture<Optional<T>> take() {
+      try {
+        return handOff.take();
+      } catch (final InterruptedException interrupted) {
+        Thread.currentThread().interrupt();
+        throw new Flat2PojoException("Interrupted while waiting for the next root", interrupted);
+      }
+    }
+
+    private Optional<T> join(final CompletableFuture<Optional<T>> root) {
+      try {
+        return root.join();
+      } catch (final CompletionException failure) {
+        exhausted = true;
+        stop();
+        throw ParallelGroupAssembly.unwrap(failure, FAILURE);
+      }
+    }
+  }
+}
@@ -0,0 +1,198 @@
+package io.github.pojotools.flat2pojo.core.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.github.pojotools.flat2pojo.core.api.IncrementalConversion;
+import io.github.pojotools.flat2pojo.core.api.RowChange;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Keeps assembled roots updatable by row changes. Single Responsibility: Routes each change to its
+ * root's retained state and re-materializes the roots a batch touched.
+ *
+ * <p>All roots share one retaining assembler; a root is just its tree, because list buckets and
+ * primitive accumulators are keyed by node identity inside the pipeline. A refresh rewrites only
+ * the lists changed since the previous one.
+ *
+ * <p>Upserted rows that fail the row filters are ignored; deletes apply regardless.
+ *
+ * <p>Every root also keeps the log of changes it was built from, so it can be rebuilt by replaying
+ * them through the same assembler. An upsert of a row already in the log is moved to the end of
+ * the log and its root rebuilt, instead of being applied twice, which would append its {@code
+ * dedupe: false} elements and primitive values again. A batch is applied atomically: if a change
+ * or a materialization fails, the logs are restored, the touched roots are rebuilt from them, and
+ * the failure is rethrown with the previous results in place.
+ */
+final class IncrementalAssembly<T> implements IncrementalConversion<T> {
+  private static final Object SINGLE_GROUP = List.of();
+
+  private final Class<T> type;
+  private final List<String> rootKeys;
+  private final RowFilter rowFilter;
+  private final RowProcessor processor;
+  private final ResultMaterializer materializer;
+  private final Map<Object, ObjectNode> trees = new LinkedHashMap<>();
+  private final Map<Object, T> results = new LinkedHashMap<>();
+  private final Map<Object, Map<Object, Logged>> logs = new HashMap<>(); // by root, then row
+  private long nextSequence;
+
+  IncrementalAssembly(final ProcessingPipeline pipeline, final Class<T> type) {
+    this.type = type;
+    this.rootKeys = pipeline.context().config().rootKeys();
+    this.rowFilter = RowFilter.of(pipeline.context().config());
+    this.processor = pipeline.createRetainingAssembler();
+    this.materializer = pipeline.dependencies().materializer();
+  }
+
+  @Override
+  public Map<Object, Optional<T>> apply(final List<RowChange> changes) {
+    final Map<Object, Boolean> touched = new LinkedHashMap<>();
+    final Set<Object> repeated = new HashSet<>();
+    final Deque<Runnable> undo = new ArrayDeque<>();
+    try {
+      for (final RowChange change : changes) {
+        final Object rootKey = rootKeyOf(change.row());
+        if (rootKey != null && passesRowFilter(change)) {
+          touched.put(rootKey, Boolean.TRUE);
+          applyChange(rootKey, change, repeated, undo);
+        }
+      }
+      repeated.forEach(this::rebuild);
+      processor.refreshGroups();
+      final Map<Object, Optional<T>> changed = new LinkedHashMap<>();
+      for (final Object rootKey : touched.keySet()) {
+        changed.put(rootKey, materialize(rootKey));
+      }
+      changed.forEach(this::publish);
+      return changed;
+    } catch (final RuntimeException | Error failure) {
+      undo.forEach(Runnable::run);
+      touched.keySet().forEach(this::rebuild);
+      processor.refreshGroups();
+      throw failure;
+    }
+  }
+
+  @Override
+  public Optional<T> root(final Object rootKey) {
+    return Optional.ofNullable(results.get(rootKey));
+  }
+
+  @Override
+  public List<T> roots() {
+    return new ArrayList<>(results.values());
+  }
+
+  private Object rootKeyOf(final Map<String, ?> row) {
+    return rootKeys.isEmpty() ? SINGLE_GROUP : RootKeyGrouper.rootKeyOf(row, rootKeys);
+  }
+
+  private boolean passesRowFilter(final RowChange change) {
+    return change.kind() != RowChange.Kind.upsert || rowFilter.accepts(change.row());
+  }
+
+  /**
+   * Applies one change to its root and logs it; {@code undo} receives what restores the log. A
+   * repeated upsert is only logged, and its root added to {@code repeated} for a rebuild.
+   */
+  private void applyChange(
+      final Object rootKey,
+      final RowChange change,
+      final Set<Object> repeated,
+      final Deque<Runnable> undo) {
+    final ObjectNode tree = trees.get(rootKey);
+    if (change.kind() == RowChange.Kind.upsert) {
+      if (log(rootKey, change.row(), change, undo)) {
+        repeated.add(rootKey);
+        return;
+      }
+      final ObjectNode current = processor.switchGroup(tree);
+      if (tree == null) {
+        trees.put(rootKey, current);
+      }
+      processor.processRow(change.row());
+    } else if (tree != null) {
+      processor.switchGroup(tree);
+      if (processor.removeRow(change.row())) {
+        log(rootKey, new Object(), change, undo);
+      } else {
+        processor.discardGroup(tree);
+        trees.remove(rootKey);
+        final Map<Object, Logged> log = logs.remove(rootKey);
+        undo.push(() -> logs.put(rootKey, log));
+      }
+    }
+  }
+
+  /**
+   * Logs {@code change} under {@code key}, its row for an upsert, as the latest change of its root.
+   *
+   * @return whether the key was logged before
+   */
+  private boolean log(
+      final Object rootKey, final Object key, final RowChange change, final Deque<Runnable> undo) {
+    Map<Object, Logged> log = logs.get(rootKey);
+    if (log == null) {
+      log = new HashMap<>();
+      logs.put(rootKey, log);
+      undo.push(() -> logs.remove(rootKey));
+    }
+    final Map<Object, Logged> changes = log;
+    final Logged previous = changes.put(key, new Logged(nextSequence++, change));
+    undo.push(previous == null ? () -> changes.remove(key) : () -> changes.put(key, previous));
+    return previous != null;
+  }
+
+  /** Replaces the tree of {@code rootKey} by replaying its log, in order, into a new group. */
+  private void rebuild(final Object rootKey) {
+    final ObjectNode tree = trees.remove(rootKey);
+    if (tree != null) {
+      processor.discardGroup(tree);
+    }
+    final Map<Object, Logged> log = logs.get(rootKey);
+    if (log == null) {
+      return;
+    }
+    trees.put(rootKey, processor.switchGroup(null));
+    final List<Logged> replay = new ArrayList<>(log.values());
+    replay.sort(Comparator.comparingLong(Logged::sequence));
+    for (final Logged logged : replay) {
+      if (logged.change().kind() == RowChange.Kind.upsert) {
+        processor.processRow(logged.change().row());
+      } else {
+        processor.removeRow(logged.change().row());
+      }
+    }
+  }
+
+  private Optional<T> materialize(final Object rootKey) {
+    final ObjectNode tree = trees.get(rootKey);
+    if (tree == null) {
+      return Optional.empty();
+    }
+    // JsonNode results must not alias the retained tree, which later changes keep mutating
+    final ObjectNode source = JsonNode.class.isAssignableFrom(type) ? tree.deepCopy() : tree;
+    return Optional.of(materializer.materialize(source, type));
+  }
+
+  private void publish(final Object rootKey, final Optional<T> result) {
+    if (result.isPresent()) {
+      results.put(rootKey, result.get());
+    } else {
+      results.remove(rootKey);
+    }
+  }
+
+  /** A logged change of a root; {@code sequence} orders the changes of all roots. */
+  private record Logged(long sequence, RowChange change) {}
+}
@@ -2,61 +2,40 @@ package io.github.pojotools.flat2pojo.core.impl;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import io.github.pojotools.flat2pojo.core.config.MappingConfig;
-import io.github.pojotools.flat2pojo.core.engine.Path;
 import io.github.pojotools.flat2pojo.core.engine.PrimitiveArrayManager;
-import io.github.pojotools.flat2pojo.core.util.ConflictContext;
 import io.github.pojotools.flat2pojo.core.util.ConflictHandler;
+import io.github.pojotools.flat2pojo.core.util.PathOps;
 
 /**
  * Writes values into list elements with conflict policy handling. Single Responsibility:
  * Conflict-aware value writing for list elements.
  */
 final class ListElementWriter {
-  private final ProcessingContext context;
   private final PrimitiveArrayManager primitiveArrayManager;
 
-  ListElementWriter(final ProcessingContext context, final PrimitiveArrayManager manager) {
-    this.context = context;
+  ListElementWriter(final PrimitiveArrayManager manager) {
     this.primitiveArrayManager = manager;
   }
 
-  void writeWithConflictPolicy(
-      final ObjectNode target,
-      final Path path,
-      final JsonNode value,
-      final MappingConfig.ConflictPolicy policy) {
-    if (path.relativePath().isEmpty()) {
-      return;
+  /**
+   * Writes the value under the column's conflict policy.
+   *
+   * @return {@code true} if the target now holds {@code value}, so repeating the write is a no-op
+   */
+  boolean writeWithConflictPolicy(
+      final ObjectNode target, final ColumnPlan column, final JsonNode value) {
+    if (column.primitiveList()) {
+      primitiveArrayManager.addValue(target, column.path(), value);
+      return true;
     }
-
-    if (primitiveArrayManager.isPrimitiveListPath(path.absolutePath())) {
-      writeToPrimitiveList(target, path, value);
-    } else {
-      writeWithPolicy(target, path, value, policy);
-    }
-  }
-
-  private void writeToPrimitiveList(
-      final ObjectNode target, final Path path, final JsonNode value) {
-    final String scope = buildScopeKey(target);
-    primitiveArrayManager.addValue(scope, path, value, target);
+    return writeWithPolicy(target, column, value);
   }
 
-  private void writeWithPolicy(
-      final ObjectNode target,
-      final Path path,
-      final JsonNode value,
-      final MappingConfig.ConflictPolicy policy) {
+  private boolean writeWithPolicy(
+      final ObjectNode target, final ColumnPlan column, final JsonNode value) {
     final ObjectNode parent =
-        context.pathResolver().traverseAndEnsurePath(target, path.relativePath());
-    final String lastSegment = context.pathResolver().getFinalSegment(path.relativePath());
-    final ConflictContext conflictContext =
-        new ConflictContext(policy, path.absolutePath(), context.config().reporter().orElse(null));
-    ConflictHandler.writeScalarWithPolicy(parent, lastSegment, value, conflictContext);
-  }
-
-  private String buildScopeKey(final ObjectNode target) {
-    return String.valueOf(System.identityHashCode(target));
+        PathOps.traverseAndEnsurePath(target, column.segments(), PathOps::ensureObject);
+    return ConflictHandler.writeScalarWithPolicy(
+        parent, column.segments().leaf(), value, column.conflictContext());
   }
 }
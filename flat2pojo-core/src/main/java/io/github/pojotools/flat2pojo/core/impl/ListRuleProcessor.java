@@ -4,142 +4,262 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.github.pojotools.flat2pojo.core.config.MappingConfig;
 import io.github.pojotools.flat2pojo.core.engine.ArrayManager;
-import io.github.pojotools.flat2pojo.core.engine.Path;
-import java.util.LinkedHashMap;
-import java.util.Map;
-import java.util.Set;
+import io.github.pojotools.flat2pojo.spi.Reporter;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
 
-/** Processes a single list rule for a row. Single Responsibility: List rule processing logic. */
+/**
+ * Processes a single list rule for a row. Single Responsibility: List rule processing logic.
+ *
+ * <p>A row failing a rule's element filters skips the rule and its nested lists before any element
+ * is looked up or created; only the list itself is ensured. Such subtrees are also marked in the
+ * upper half of the skipped-rules bitset, so that they are skipped without the warnings of a
+ * missing key.
+ *
+ * <p>An aggregate-only rule's element is folded into its list's aggregates and never created, so
+ * none of its values are written.
+ */
 final class ListRuleProcessor {
   private final ProcessingContext context;
+  private final RowLayout layout;
   private final ArrayManager arrayManager;
   private final ListElementWriter writer;
-  private final Map<String, ObjectNode> listElementCache =
-      new LinkedHashMap<>(); // Shared across rows
+  private final SegmentWriteTracker segmentWriteTracker;
+  private final ObjectNode[] listElementCache; // by rule index, shared across rows
+  private final String[][] filterColumns; // by rule index, absolute paths
+  private final ValuePredicate[][] filterPredicates;
 
-  ListRuleProcessor(final AssemblerDependencies dependencies, final ProcessingContext context) {
+  ListRuleProcessor(
+      final AssemblerDependencies dependencies,
+      final ProcessingContext context,
+      final RowLayout layout,
+      final SegmentWriteTracker segmentWriteTracker) {
     this.context = context;
+    this.layout = layout;
     this.arrayManager = dependencies.arrayManager();
-    this.writer = new ListElementWriter(context, dependencies.primitiveArrayManager());
+    this.writer = new ListElementWriter(dependencies.primitiveArrayManager());
+    this.segmentWriteTracker = segmentWriteTracker;
+    this.listElementCache = new ObjectNode[layout.ruleCount()];
+    this.filterColumns = new String[layout.ruleCount()][];
+    this.filterPredicates = new ValuePredicate[layout.ruleCount()][];
+    for (int i = 0; i < layout.ruleCount(); i++) {
+      compileElementFilters(i);
+    }
+  }
+
+  private void compileElementFilters(final int ruleIndex) {
+    final MappingConfig.ListRule rule = layout.rule(ruleIndex);
+    final String prefix = context.pathResolver().buildPrefix(rule.path());
+    final int count = rule.filters().size();
+    filterColumns[ruleIndex] = new String[count];
+    filterPredicates[ruleIndex] = new ValuePredicate[count];
+    for (int i = 0; i < count; i++) {
+      filterColumns[ruleIndex][i] = prefix + rule.filters().get(i).path();
+      filterPredicates[ruleIndex][i] = new ValuePredicate(rule.filters().get(i), false);
+    }
   }
 
   void processRule(
-      final Map<String, JsonNode> rowValues,
-      final Set<String> skippedListPaths,
-      final MappingConfig.ListRule rule,
+      final RowSlots rowValues,
+      final BitSet skippedRules,
+      final int ruleIndex,
       final ObjectNode root) {
-    if (shouldSkipDueToParent(rule.path(), skippedListPaths)) {
+    if (shouldSkipDueToParent(ruleIndex, skippedRules)) {
+      return;
+    }
+    processListElementCreation(rowValues, skippedRules, ruleIndex, root);
+  }
+
+  /**
+   * Creates the empty arrays of the lists declared directly beneath the element last resolved for
+   * rule {@code parentIndex} (the root when {@link RowLayout#NO_SEGMENT}), as a JOIN row without
+   * child columns would.
+   */
+  void ensureChildLists(final int parentIndex, final ObjectNode root) {
+    final ObjectNode base = resolveBaseObject(parentIndex, root);
+    if (base == null) {
       return;
     }
-    processListElementCreation(rowValues, skippedListPaths, rule, root);
+    final String parentListPath =
+        parentIndex == RowLayout.NO_SEGMENT ? null : layout.rule(parentIndex).path();
+    final List<MappingConfig.ListRule> children =
+        context.hierarchyCache().getChildListRules(parentListPath);
+    for (final MappingConfig.ListRule child : children) {
+      final int childIndex = layout.ruleIndex(child);
+      arrayManager.ensureList(base, layout.relativeListPath(childIndex), child);
+    }
+  }
+
+  /** Returns whether the rule or one of its ancestors was skipped for the current row. */
+  boolean isSkipped(final int ruleIndex, final BitSet skippedRules) {
+    return skippedRules.get(layout.skipBit(ruleIndex));
+  }
+
+  /**
+   * Returns the deepest rule whose element the row addresses by a complete key chain: the rule
+   * and every ancestor list carry their key values. Among sibling chains the last declared wins.
+   *
+   * @return the rule index, or {@link RowLayout#NO_SEGMENT} when the row addresses no element
+   */
+  int deepestIdentifiedRule(final RowSlots rowValues, final BitSet identified) {
+    identified.clear();
+    int deepest = RowLayout.NO_SEGMENT;
+    for (int i = 0; i < layout.ruleCount(); i++) {
+      final int parentIndex = layout.parentIndex(i);
+      if ((parentIndex == RowLayout.NO_SEGMENT || identified.get(parentIndex))
+          && arrayManager.identifiesElement(rowValues, layout.rule(i))) {
+        identified.set(i);
+        deepest = i;
+      }
+    }
+    return deepest;
+  }
+
+  /**
+   * Removes the element of rule {@code ruleIndex} addressed by the row, walking its ancestor
+   * elements down from {@code root}.
+   *
+   * @return the removed element, or {@code null} if it or one of its ancestors does not exist
+   */
+  ObjectNode removeElement(final RowSlots rowValues, final int ruleIndex, final ObjectNode root) {
+    final int parentIndex = layout.parentIndex(ruleIndex);
+    final ObjectNode base =
+        parentIndex == RowLayout.NO_SEGMENT ? root : findElement(rowValues, parentIndex, root);
+    return base == null
+        ? null
+        : arrayManager.removeListElement(
+            base, layout.relativeListPath(ruleIndex), rowValues, layout.rule(ruleIndex));
+  }
+
+  private ObjectNode findElement(
+      final RowSlots rowValues, final int ruleIndex, final ObjectNode root) {
+    final int parentIndex = layout.parentIndex(ruleIndex);
+    final ObjectNode base =
+        parentIndex == RowLayout.NO_SEGMENT ? root : findElement(rowValues, parentIndex, root);
+    return base == null
+        ? null
+        : arrayManager.findListElement(
+            base, layout.relativeListPath(ruleIndex), rowValues, layout.rule(ruleIndex));
+  }
+
+  /** Forgets the elements of the finished group. */
+  void reset() {
+    Arrays.fill(listElementCache, null);
   }
 
   private void processListElementCreation(
-      final Map<String, JsonNode> rowValues,
-      final Set<String> skippedListPaths,
-      final MappingConfig.ListRule rule,
+      final RowSlots rowValues,
+      final BitSet skippedRules,
+      final int ruleIndex,
       final ObjectNode root) {
-    final ObjectNode listElement = createListElement(rowValues, rule, root);
+    if (!acceptsElement(rowValues, ruleIndex)) {
+      // the list exists as it would for a row without an element, but nothing is looked up
+      arrayManager.ensureList(
+          findBaseObject(layout.parentIndex(ruleIndex), root),
+          layout.relativeListPath(ruleIndex),
+          layout.rule(ruleIndex));
+      skippedRules.set(layout.skipBit(ruleIndex), layout.subtreeEnd(ruleIndex));
+      skippedRules.set(
+          layout.ruleCount() + layout.skipBit(ruleIndex),
+          layout.ruleCount() + layout.subtreeEnd(ruleIndex));
+      return;
+    }
+    final MappingConfig.ListRule rule = layout.rule(ruleIndex);
+    if (rule.aggregation().aggregateOnly()) {
+      if (!arrayManager.aggregateListElement(
+          findBaseObject(layout.parentIndex(ruleIndex), root),
+          layout.relativeListPath(ruleIndex),
+          rowValues,
+          rule)) {
+        markAsSkipped(skippedRules, ruleIndex);
+      }
+      return;
+    }
+    final ObjectNode listElement = createListElement(rowValues, ruleIndex, root);
     if (listElement == null) {
-      markAsSkipped(skippedListPaths, rule);
+      markAsSkipped(skippedRules, ruleIndex);
     } else {
-      listElementCache.put(rule.path(), listElement);
-      copyValuesToElement(rowValues, listElement, rule);
+      listElementCache[ruleIndex] = listElement;
+      copyValuesToElement(rowValues, listElement, ruleIndex, rule.dedupe());
     }
   }
 
-  private boolean shouldSkipDueToParent(final String listPath, final Set<String> skippedListPaths) {
-    if (isSkippedDueToParent(listPath, skippedListPaths)) {
-      context
-          .config()
-          .reporter()
-          .ifPresent(
-              r ->
-                  r.warn(
-                      "Skipping list rule '"
-                          + listPath
-                          + "' because parent list was skipped due to missing keyPath"));
-      return true;
+  private boolean acceptsElement(final RowSlots rowValues, final int ruleIndex) {
+    final String[] columns = filterColumns[ruleIndex];
+    for (int i = 0; i < columns.length; i++) {
+      if (!filterPredicates[ruleIndex][i].test(rowValues.get(columns[i]))) {
+        return false;
+      }
     }
-    return false;
+    return true;
   }
 
-  private void markAsSkipped(
-      final Set<String> skippedListPaths, final MappingConfig.ListRule rule) {
-    skippedListPaths.add(rule.path());
-    context
-        .config()
-        .reporter()
-        .ifPresent(
-            r ->
-                r.warn(
-                    "Skipping list rule '"
-                        + rule.path()
-                        + "' because keyPath(s) "
-                        + rule.keyPaths()
-                        + " are missing or null"));
+  private boolean shouldSkipDueToParent(final int ruleIndex, final BitSet skippedRules) {
+    if (!isSkipped(ruleIndex, skippedRules)) {
+      return false;
+    }
+    final Reporter reporter = layout.reporter();
+    if (reporter != null && !skippedRules.get(layout.ruleCount() + layout.skipBit(ruleIndex))) {
+      reporter.warn(
+          "Skipping list rule '"
+              + layout.rule(ruleIndex).path()
+              + "' because parent list was skipped due to missing keyPath");
+    }
+    return true;
   }
 
-  private boolean isSkippedDueToParent(final String listPath, final Set<String> skippedListPaths) {
-    return context.pathResolver().isUnderAny(listPath, skippedListPaths);
+  /** Skips the rule and, through its bit range, every list nested beneath it. */
+  private void markAsSkipped(final BitSet skippedRules, final int ruleIndex) {
+    skippedRules.set(layout.skipBit(ruleIndex), layout.subtreeEnd(ruleIndex));
+    final Reporter reporter = layout.reporter();
+    if (reporter != null) {
+      final MappingConfig.ListRule rule = layout.rule(ruleIndex);
+      reporter.warn(
+          "Skipping list rule '"
+              + rule.path()
+              + "' because "
+              + (rule.keyPaths().isEmpty()
+                  ? "the row has no values for it"
+                  : "keyPath(s) " + rule.keyPaths() + " are missing or null"));
+    }
   }
 
   private ObjectNode createListElement(
-      final Map<String, JsonNode> rowValues,
-      final MappingConfig.ListRule rule,
-      final ObjectNode root) {
-    final String listPath = rule.path();
-    final String parentListPath = context.hierarchyCache().getParentListPath(listPath);
-    final ObjectNode baseObject = findBaseObject(parentListPath, root);
-    final String relativePath = computeRelativePath(listPath, parentListPath);
-    return arrayManager.upsertListElement(baseObject, relativePath, rowValues, rule);
+      final RowSlots rowValues, final int ruleIndex, final ObjectNode root) {
+    final ObjectNode baseObject = findBaseObject(layout.parentIndex(ruleIndex), root);
+    return arrayManager.upsertListElement(
+        baseObject, layout.relativeListPath(ruleIndex), rowValues, layout.rule(ruleIndex));
   }
 
-  private ObjectNode findBaseObject(final String parentListPath, final ObjectNode root) {
-    final ObjectNode baseObject = resolveBaseObject(parentListPath, root);
+  private ObjectNode findBaseObject(final int parentIndex, final ObjectNode root) {
+    final ObjectNode baseObject = resolveBaseObject(parentIndex, root);
     if (baseObject == null) {
       throw new IllegalStateException(
-          "Parent list element for '" + parentListPath + "' not found in cache");
+          "Parent list element for '" + layout.rule(parentIndex).path() + "' not found in cache");
     }
     return baseObject;
   }
 
-  private String computeRelativePath(final String listPath, final String parentListPath) {
-    return parentListPath == null
-        ? listPath
-        : context.pathResolver().tailAfter(listPath, parentListPath);
-  }
-
-  private ObjectNode resolveBaseObject(final String parentListPath, final ObjectNode root) {
-    return parentListPath == null ? root : listElementCache.get(parentListPath);
+  private ObjectNode resolveBaseObject(final int parentIndex, final ObjectNode root) {
+    return parentIndex == RowLayout.NO_SEGMENT ? root : listElementCache[parentIndex];
   }
 
   private void copyValuesToElement(
-      final Map<String, JsonNode> rowValues,
+      final RowSlots rowValues,
       final ObjectNode element,
-      final MappingConfig.ListRule rule) {
-    final WriteContext writeContext =
-        new WriteContext(rule, context.pathResolver().buildPrefix(rule.path()));
-    for (final var entry : rowValues.entrySet()) {
-      if (entry.getKey().startsWith(writeContext.pathPrefix())) {
-        writeValueIfNotUnderChild(element, entry, writeContext);
+      final int ruleIndex,
+      final boolean dedupe) {
+    for (int id = rowValues.first(ruleIndex); id >= 0; id = rowValues.next(id)) {
+      final ColumnPlan column = layout.column(id);
+      final JsonNode value = rowValues.value(id);
+      if (!segmentWriteTracker.isAlreadyWritten(column, element, value)) {
+        final boolean settled = writer.writeWithConflictPolicy(element, column, value);
+        // appended elements are fresh on every row, so there is nothing to remember
+        if (dedupe) {
+          segmentWriteTracker.record(column, element, value, settled);
+        }
       }
     }
   }
-
-  private void writeValueIfNotUnderChild(
-      final ObjectNode element,
-      final Map.Entry<String, JsonNode> entry,
-      final WriteContext writeContext) {
-    final String relativePath =
-        context.pathResolver().stripPrefix(entry.getKey(), writeContext.pathPrefix());
-    if (!context.hierarchyCache().isUnderAnyChildList(relativePath, writeContext.rule().path())) {
-      final String absolutePath = entry.getKey();
-      final Path path = new Path(relativePath, absolutePath);
-      writer.writeWithConflictPolicy(
-          element, path, entry.getValue(), writeContext.rule().onConflict());
-    }
-  }
-
-  private record WriteContext(MappingConfig.ListRule rule, String pathPrefix) {}
 }
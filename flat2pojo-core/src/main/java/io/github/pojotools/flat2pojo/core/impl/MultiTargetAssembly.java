@@ -0,0 +1,246 @@
+package io.github.pojotools.flat2pojo.core.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.github.pojotools.flat2pojo.core.api.ConversionTarget;
+import io.github.pojotools.flat2pojo.core.api.TargetResults;
+import io.github.pojotools.flat2pojo.core.config.MappingConfig;
+import io.github.pojotools.flat2pojo.core.config.MappingConfigLoader;
+import io.github.pojotools.flat2pojo.core.config.ValidationException;
+import io.github.pojotools.flat2pojo.core.engine.ValueTransformer;
+import io.github.pojotools.flat2pojo.spi.ValueConverter;
+import io.github.pojotools.flat2pojo.spi.ValuePreprocessor;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Converts one row set into several targets in a single pass. Single Responsibility: Groups the
+ * rows once and transforms every cell once, then feeds the transformed rows to one assembler per
+ * target.
+ *
+ * <p>Targets must share root keys, input clustering and row filters, since they share the grouping
+ * and its rows; element filters stay per target. Cells are transformed once per set of value
+ * settings (sparse rows, null policy, primitive splits, interning, value converters, preprocessor):
+ * targets that agree on all of them, the common case of projections of one JOIN, share one {@link
+ * ValueTransformer} and its output. Group rows are transformed in batches of {@code BATCH_ROWS}
+ * into a reusable {@link TransformedRows}; only list routing and tree writes run per target. A
+ * shared transformation skips the columns that all of its targets' projections drop. Parallel and
+ * pipelined settings of the targets do not apply.
+ */
+final class MultiTargetAssembly {
+  private static final int BATCH_ROWS = 256;
+
+  private final List<ConversionTarget<?>> targets;
+  private final List<RowProcessor> assemblers = new ArrayList<>();
+  private final List<SharedTransform> transforms = new ArrayList<>();
+  private final int[] transformOf;
+  private final MappingConfig grouping;
+  private final RowFilter rowFilter;
+
+  /**
+   * @param pipelines builds the pipeline of a target
+   * @param transformers builds the value transformer shared by targets with equal value settings
+   */
+  MultiTargetAssembly(
+      final List<ConversionTarget<?>> targets,
+      final Function<ConversionTarget<?>, ProcessingPipeline> pipelines,
+      final Function<MappingConfig, ValueTransformer> transformers) {
+    if (targets.isEmpty()) {
+      throw new IllegalArgumentException("At least one conversion target is required");
+    }
+    this.targets = List.copyOf(targets);
+    this.grouping = targets.getFirst().config();
+    this.rowFilter = RowFilter.of(grouping);
+    this.transformOf = new int[targets.size()];
+    final Map<ValueSettings, Integer> transformBySettings = new LinkedHashMap<>();
+    for (int target = 0; target < targets.size(); target++) {
+      final MappingConfig config = targets.get(target).config();
+      validate(config);
+      final ProcessingPipeline pipeline = pipelines.apply(targets.get(target));
+      assemblers.add(pipeline.createAssembler());
+      transformOf[target] =
+          transformBySettings.computeIfAbsent(
+              ValueSettings.of(config),
+              settings -> {
+                transforms.add(new SharedTransform(config, transformers.apply(config)));
+                return transforms.size() - 1;
+              });
+      transforms.get(transformOf[target]).keepFor(pipeline.context().projection());
+    }
+  }
+
+  /**
+   * Converts {@code rows} into {@code targets} with pipelines built by {@code pipelines}, then
+   * reports the slow-path conversions of each shared transformation.
+   */
+  static TargetResults convert(
+      final List<? extends Map<String, ?>> rows,
+      final List<ConversionTarget<?>> targets,
+      final ConversionPipelines pipelines) {
+    final MultiTargetAssembly assembly =
+        new MultiTargetAssembly(
+            targets,
+            target -> pipelines.build(target.config(), target.type()),
+            pipelines::transformer);
+    final TargetResults results = assembly.convert(rows);
+    assembly.reportFallbackCounts(ConversionPipelines::reportSlowPathColumns);
+    return results;
+  }
+
+  TargetResults convert(final List<? extends Map<String, ?>> rows) {
+    final RowGroupIndex index = group(rows);
+    final List<List<Object>> roots = new ArrayList<>(targets.size());
+    for (int target = 0; target < targets.size(); target++) {
+      roots.add(new ArrayList<>(index.groupCount()));
+    }
+    for (int group = 0; group < index.groupCount(); group++) {
+      final int size = index.groupSize(group);
+      for (int from = 0; from < size; from += BATCH_ROWS) {
+        assembleBatch(index, group, from, Math.min(size, from + BATCH_ROWS));
+      }
+      for (int target = 0; target < targets.size(); target++) {
+        roots.get(target).add(assemblers.get(target).materialize(targets.get(target).type()));
+      }
+    }
+    final Map<ConversionTarget<?>, List<?>> byTarget = new LinkedHashMap<>();
+    for (int target = 0; target < targets.size(); target++) {
+      byTarget.putIfAbsent(targets.get(target), roots.get(target));
+    }
+    return new TargetResults(byTarget);
+  }
+
+  /**
+   * Hands the fallback conversion counts of each shared transformer to {@code report}, with the
+   * config of the first target that shares it.
+   */
+  private void reportFallbackCounts(final BiConsumer<Map<String, Integer>, MappingConfig> report) {
+    transforms.forEach(
+        transform -> report.accept(transform.transformer.fallbackCounts(), transform.config));
+  }
+
+  private void validate(final MappingConfig config) {
+    MappingConfigLoader.validateHierarchy(config);
+    if (!config.rootKeys().equals(grouping.rootKeys())
+        || config.inputClustering() != grouping.inputClustering()) {
+      throw new ValidationException(
+          "All conversion targets must share rootKeys and inputClustering: "
+              + grouping.rootKeys()
+              + " ("
+              + grouping.inputClustering()
+              + ") vs "
+              + config.rootKeys()
+              + " ("
+              + config.inputClustering()
+              + ")");
+    }
+    if (!config.filters().equals(grouping.filters())) {
+      throw new ValidationException(
+          "All conversion targets must share row filters: "
+              + grouping.filters()
+              + " vs "
+              + config.filters());
+    }
+  }
+
+  /** The index skips the rows rejected by the shared row filters. */
+  private RowGroupIndex group(final List<? extends Map<String, ?>> rows) {
+    if (grouping.rootKeys().isEmpty()) {
+      return RowGroupIndex.single(rows, rowFilter);
+    }
+    return grouping.inputClustering() == MappingConfig.InputClustering.none
+        ? RowGroupIndex.build(rows, grouping.rootKeys(), rowFilter)
+        : RowGroupIndex.clustered(rows, grouping);
+  }
+
+  private void assembleBatch(
+      final RowGroupIndex index, final int group, final int from, final int to) {
+    for (final SharedTransform transform : transforms) {
+      transform.fill(index, group, from, to);
+    }
+    for (int target = 0; target < targets.size(); target++) {
+      final TransformedRows batch = transforms.get(transformOf[target]).batch;
+      final RowProcessor assembler = assemblers.get(target);
+      for (int row = 0; row < to - from; row++) {
+        assembler.processRow(batch, row);
+      }
+    }
+  }
+
+  /** The settings a value transformation depends on; equal settings yield equal cells. */
+  private record ValueSettings(
+      boolean allowSparseRows,
+      MappingConfig.NullPolicy nullPolicy,
+      List<MappingConfig.PrimitiveSplitRule> primitives,
+      MappingConfig.InterningPolicy interningPolicy,
+      List<ValueConverter<?>> valueConverters,
+      Optional<ValuePreprocessor> valuePreprocessor) {
+
+    static ValueSettings of(final MappingConfig config) {
+      return new ValueSettings(
+          config.allowSparseRows(),
+          config.nullPolicy(),
+          config.primitives(),
+          config.interningPolicy(),
+          config.valueConverters(),
+          config.valuePreprocessor());
+    }
+  }
+
+  /** Preprocesses and transforms batches of group rows for all targets of one value setting. */
+  private static final class SharedTransform implements BiConsumer<String, Object> {
+    private final MappingConfig config;
+    private final ValueTransformer transformer;
+    private final Function<Map<String, ?>, Map<String, ?>> preprocessor;
+    private final TransformedRows batch = new TransformedRows(BATCH_ROWS);
+    private final List<ColumnProjection> projections = new ArrayList<>();
+    private final Map<String, Boolean> kept = new HashMap<>();
+
+    SharedTransform(final MappingConfig config, final ValueTransformer transformer) {
+      this.config = config;
+      this.transformer = transformer;
+      this.preprocessor = RowGraphAssembler.buildPreprocessor(config);
+    }
+
+    /** Adds a target's projection; columns any target keeps are transformed. */
+    void keepFor(final ColumnProjection projection) {
+      projections.add(projection);
+    }
+
+    void fill(final RowGroupIndex index, final int group, final int from, final int to) {
+      batch.clear();
+      for (int i = from; i < to; i++) {
+        preprocessor.apply(index.row(group, i)).forEach(this);
+        batch.endRow();
+      }
+    }
+
+    /** Transforms one cell; {@link Map#forEach} target of {@link #fill}. */
+    @Override
+    public void accept(final String column, final Object rawValue) {
+      if (!kept.computeIfAbsent(column, this::keptByAny)) {
+        if (!transformer.isNull(rawValue)) {
+          batch.addCell(column, ColumnProjection.PRESENT);
+        }
+        return;
+      }
+      final JsonNode value = transformer.toJsonNode(column, rawValue);
+      if (value != null) {
+        batch.addCell(column, value);
+      }
+    }
+
+    private boolean keptByAny(final String column) {
+      for (final ColumnProjection projection : projections) {
+        if (projection.keeps(column)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+}
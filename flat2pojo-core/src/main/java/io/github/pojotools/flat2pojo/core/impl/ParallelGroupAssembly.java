@@ -0,0 +1,111 @@
+package io.github.pojotools.flat2pojo.core.impl;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.github.pojotools.flat2pojo.core.api.Flat2PojoException;
+import io.github.pojotools.flat2pojo.core.config.MappingConfig;
+import io.github.pojotools.flat2pojo.core.engine.PartialTreeMerger;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Assembles one large group on several threads. Single Responsibility: Splits a group's rows into
+ * chunks, assembles each chunk into a partial tree and merges the partials in row order.
+ *
+ * <p>Every chunk gets its own pipeline, so assemblers, array buckets and value caches are never
+ * shared between threads. Partials are merged left to right on the calling thread and sorted once
+ * afterwards, which makes the result independent of scheduling and equal to sequential assembly.
+ * Reporters and value preprocessors are called from the executor's threads.
+ *
+ * <p>Configs with list aggregates always assemble sequentially: aggregates of partial lists cannot
+ * be merged once their elements are gone.
+ */
+final class ParallelGroupAssembly {
+  private final MappingConfig.ParallelAssembly settings;
+  private final boolean hasAggregates;
+  private final Supplier<ProcessingPipeline> chunkPipelines;
+  private final ResultMaterializer materializer;
+  private final PartialTreeMerger merger;
+  private final Executor executor;
+  private final Map<String, Integer> fallbackCounts = new LinkedHashMap<>();
+
+  ParallelGroupAssembly(
+      final MappingConfig config,
+      final Supplier<ProcessingPipeline> chunkPipelines,
+      final ResultMaterializer materializer,
+      final Executor executor) {
+    this.settings = config.parallelAssembly();
+    this.hasAggregates = config.hasAggregates();
+    this.chunkPipelines = chunkPipelines;
+    this.materializer = materializer;
+    this.merger = new PartialTreeMerger(config);
+    this.executor = executor;
+  }
+
+  boolean appliesTo(final int groupRows) {
+    return !hasAggregates && settings.appliesTo(groupRows);
+  }
+
+  <T> T assemble(final List<? extends Map<String, ?>> groupRows, final Class<T> type) {
+    final List<CompletableFuture<ChunkResult>> chunks = new ArrayList<>();
+    for (int from = 0; from < groupRows.size(); from += settings.chunkRows()) {
+      final List<? extends Map<String, ?>> chunkRows =
+          groupRows.subList(from, Math.min(groupRows.size(), from + settings.chunkRows()));
+      chunks.add(CompletableFuture.supplyAsync(() -> assembleChunk(chunkRows), executor));
+    }
+    final ObjectNode root = mergeInOrder(chunks);
+    merger.sortLists(root);
+    return materializer.materialize(root, type);
+  }
+
+  /** Fallback conversion counts of all chunks assembled so far, by column. */
+  Map<String, Integer> fallbackCounts() {
+    return fallbackCounts;
+  }
+
+  private ChunkResult assembleChunk(final List<? extends Map<String, ?>> chunkRows) {
+    final ProcessingPipeline pipeline = chunkPipelines.get();
+    final RowProcessor processor = pipeline.createAssembler();
+    chunkRows.forEach(processor::processRow);
+    return new ChunkResult(
+        processor.finishPartial(), pipeline.dependencies().valueTransformer().fallbackCounts());
+  }
+
+  private ObjectNode mergeInOrder(final List<CompletableFuture<ChunkResult>> chunks) {
+    ObjectNode root = null;
+    try {
+      for (final CompletableFuture<ChunkResult> chunk : chunks) {
+        final ChunkResult result = chunk.join();
+        result
+            .fallbackCounts()
+            .forEach((column, count) -> fallbackCounts.merge(column, count, Integer::sum));
+        if (root == null) {
+          root = result.partial();
+        } else {
+          merger.merge(root, result.partial());
+        }
+      }
+    } catch (final RuntimeException exception) {
+      chunks.forEach(chunk -> chunk.cancel(false));
+      throw exception instanceof CompletionException completion
+          ? unwrap(completion, "Parallel group assembly failed")
+          : exception;
+    }
+    return root;
+  }
+
+  /** Returns the runtime exception a task failed with, or wraps a checked one. */
+  static RuntimeException unwrap(final CompletionException exception, final String message) {
+    if (exception.getCause() instanceof RuntimeException cause) {
+      return cause;
+    }
+    return new Flat2PojoException(message, exception.getCause());
+  }
+
+  private record ChunkResult(ObjectNode partial, Map<String, Integer> fallbackCounts) {}
+}
@@ -0,0 +1,222 @@
+package io.github.pojotools.flat2pojo.core.impl;
+
+import io.github.pojotools.flat2pojo.core.config.MappingConfig;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Groups and assembles large inputs on several threads. Single Responsibility: Partitions rows by
+ * root key hash, groups and assembles every partition on its own, and restores the order of
+ * sequential grouping.
+ *
+ * <p>All rows of a root share a key hash and so a partition: partitions never share a group, and
+ * each gets its own pipeline, so assemblers, array buckets and value caches are never shared
+ * between threads. Every group remembers the ordinal of its first row; merging the partitions'
+ * results by that ordinal yields first-appearance order. Groups large enough for {@link
+ * ParallelGroupAssembly} are left to it on the calling thread, so no task waits on another.
+ * Reporters and value preprocessors are called from the executor's threads.
+ */
+final class PartitionedGrouping {
+  private static final String FAILURE = "Parallel grouping failed";
+  private static final int GOLDEN_RATIO = 0x9E3779B9; // 2^32 / phi, odd
+  private static final int INT_BITS = 32;
+
+  private final MappingConfig.ParallelGrouping settings;
+  private final boolean clustered;
+  private final List<String> rootKeys;
+  private final RowFilter rowFilter;
+  private final Supplier<ProcessingPipeline> partitionPipelines;
+  private final ParallelGroupAssembly parallel;
+  private final Executor executor;
+  private final Map<String, Integer> fallbackCounts = new LinkedHashMap<>();
+
+  PartitionedGrouping(
+      final MappingConfig config,
+      final Supplier<ProcessingPipeline> partitionPipelines,
+      final ParallelGroupAssembly parallel,
+      final Executor executor) {
+    this.settings = config.parallelGrouping();
+    this.clustered = config.inputClustering() != MappingConfig.InputClustering.none;
+    this.rootKeys = config.rootKeys();
+    this.rowFilter = RowFilter.of(config);
+    this.partitionPipelines = partitionPipelines;
+    this.parallel = parallel;
+    this.executor = executor;
+  }
+
+  /** Clustered input needs no grouping, so it keeps its sequential single pass. */
+  boolean appliesTo(final int rows) {
+    return !clustered && !rootKeys.isEmpty() && settings.appliesTo(rows);
+  }
+
+  <T> List<T> convert(final List<? extends Map<String, ?>> input, final Class<T> type) {
+    final List<? extends Map<String, ?>> rows =
+        input instanceof RandomAccess ? input : new ArrayList<>(input);
+    final int partitions = settings.partitionCount();
+    final int[] hashes = hashRows(rows, partitions);
+    final int[][] ordinals = partitionOrdinals(hashes, partitions);
+    final List<CompletableFuture<Partition<T>>> tasks = new ArrayList<>(partitions);
+    for (final int[] partitionOrdinals : ordinals) {
+      tasks.add(
+          CompletableFuture.supplyAsync(
+              () -> assemblePartition(rows, partitionOrdinals, hashes, type), executor));
+    }
+    return mergeByFirstRow(joinAll(tasks), type);
+  }
+
+  /** Fallback conversion counts of all partitions assembled so far, by column. */
+  Map<String, Integer> fallbackCounts() {
+    return fallbackCounts;
+  }
+
+  private int[] hashRows(final List<? extends Map<String, ?>> rows, final int partitions) {
+    final String[] keys = rootKeys.toArray(String[]::new);
+    final int[] hashes = new int[rows.size()];
+    final int rangeRows = Math.max(1, (rows.size() + partitions - 1) / partitions);
+    final List<CompletableFuture<Void>> ranges = new ArrayList<>(partitions);
+    for (int from = 0; from < hashes.length; from += rangeRows) {
+      final int start = from;
+      final int end = Math.min(hashes.length, from + rangeRows);
+      ranges.add(
+          CompletableFuture.runAsync(
+              () -> {
+                for (int row = start; row < end; row++) {
+                  final Map<String, ?> values = rows.get(row);
+                  hashes[row] =
+                      rowFilter.accepts(values)
+                          ? RowGroupIndex.hashOf(values, keys)
+                          : RowGroupIndex.NO_GROUP;
+                }
+              },
+              executor));
+    }
+    joinAll(ranges);
+    return hashes;
+  }
+
+  /**
+   * Buckets row ordinals by partition, ascending within each; rows without a key or rejected by the
+   * row filters are dropped.
+   */
+  private static int[][] partitionOrdinals(final int[] hashes, final int partitions) {
+    final int[] sizes = new int[partitions];
+    for (final int hash : hashes) {
+      if (hash != RowGroupIndex.NO_GROUP) {
+        sizes[partitionOf(hash, partitions)]++;
+      }
+    }
+    final int[][] ordinals = new int[partitions][];
+    for (int partition = 0; partition < partitions; partition++) {
+      ordinals[partition] = new int[sizes[partition]];
+    }
+    final int[] next = new int[partitions];
+    for (int row = 0; row < hashes.length; row++) {
+      if (hashes[row] != RowGroupIndex.NO_GROUP) {
+        final int partition = partitionOf(hashes[row], partitions);
+        ordinals[partition][next[partition]++] = row;
+      }
+    }
+    return ordinals;
+  }
+
+  /**
+   * Maps the high bits of a multiplicative hash onto the partitions, so a partition's keys still
+   * spread over the low bits its group table indexes by.
+   */
+  private static int partitionOf(final int hash, final int partitions) {
+    return (int) ((Integer.toUnsignedLong(hash * GOLDEN_RATIO) * partitions) >>> INT_BITS);
+  }
+
+  private <T> Partition<T> assemblePartition(
+      final List<? extends Map<String, ?>> rows,
+      final int[] ordinals,
+      final int[] hashes,
+      final Class<T> type) {
+    final ProcessingPipeline pipeline = partitionPipelines.get();
+    final RowProcessor processor = pipeline.createAssembler();
+    final RowGroupIndex index = RowGroupIndex.build(rows, rootKeys, ordinals, hashes);
+    final List<T> results = new ArrayList<>(index.groupCount());
+    final BitSet deferred = new BitSet();
+    for (int group = 0; group < index.groupCount(); group++) {
+      if (parallel.appliesTo(index.groupSize(group))) {
+        deferred.set(group);
+        results.add(null);
+        continue;
+      }
+      for (int i = 0; i < index.groupSize(group); i++) {
+        processor.processRow(index.row(group, i));
+      }
+      results.add(processor.materialize(type));
+    }
+    return new Partition<>(
+        index, results, deferred, pipeline.dependencies().valueTransformer().fallbackCounts());
+  }
+
+  private <T> List<T> mergeByFirstRow(final List<Partition<T>> partitions, final Class<T> type) {
+    int total = 0;
+    for (final Partition<T> partition : partitions) {
+      partition
+          .fallbackCounts()
+          .forEach((column, count) -> fallbackCounts.merge(column, count, Integer::sum));
+      total += partition.results().size();
+    }
+    final int[] next = new int[partitions.size()];
+    final List<T> merged = new ArrayList<>(total);
+    while (merged.size() < total) {
+      final int earliest = earliestPartition(partitions, next);
+      merged.add(partitions.get(earliest).result(next[earliest]++, parallel, type));
+    }
+    return merged;
+  }
+
+  /** Returns the partition whose next group has the smallest first-row ordinal. */
+  private static int earliestPartition(
+      final List<? extends Partition<?>> partitions, final int[] next) {
+    int earliest = -1;
+    int earliestRow = Integer.MAX_VALUE;
+    for (int p = 0; p < partitions.size(); p++) {
+      final RowGroupIndex index = partitions.get(p).index();
+      if (next[p] < index.groupCount() && index.firstRow(next[p]) < earliestRow) {
+        earliest = p;
+        earliestRow = index.firstRow(next[p]);
+      }
+    }
+    return earliest;
+  }
+
+  private static <R> List<R> joinAll(final List<CompletableFuture<R>> tasks) {
+    final List<R> results = new ArrayList<>(tasks.size());
+    try {
+      for (final CompletableFuture<R> task : tasks) {
+        results.add(task.join());
+      }
+    } catch (final RuntimeException exception) {
+      tasks.forEach(task -> task.cancel(false));
+      throw exception instanceof CompletionException completion
+          ? ParallelGroupAssembly.unwrap(completion, FAILURE)
+          : exception;
+    }
+    return results;
+  }
+
+  /** Groups of one partition in first-appearance order; deferred groups are not assembled yet. */
+  private record Partition<T>(
+      RowGroupIndex index,
+      List<T> results,
+      BitSet deferred,
+      Map<String, Integer> fallbackCounts) {
+    T result(final int group, final ParallelGroupAssembly parallel, final Class<T> type) {
+      return deferred.get(group)
+          ? parallel.assemble(index.groupRows(group), type)
+          : results.get(group);
+    }
+  }
+}
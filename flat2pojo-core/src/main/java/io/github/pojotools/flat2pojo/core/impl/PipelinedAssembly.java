@@ -0,0 +1,209 @@
+package io.github.pojotools.flat2pojo.core.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.github.pojotools.flat2pojo.core.config.MappingConfig;
+import io.github.pojotools.flat2pojo.core.engine.ValueTransformer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Runs row transformation ahead of assembly. Single Responsibility: Preprocesses and transforms
+ * the cells of upcoming rows on stage threads while the calling thread assembles earlier rows.
+ *
+ * <p>Rows are cut into batches of {@code batchRows}; batch {@code k} is transformed by stage
+ * {@code k % stages}. Every stage owns a ring of filled batches towards the assembler and a ring
+ * of emptied batches back, both single-producer/single-consumer, and a fixed set of batches, so
+ * transformation runs at most that far ahead and allocates no batches after warm-up. The assembler
+ * takes batches round-robin, which restores row order. Each stage has its own {@link
+ * ValueTransformer}; column planning and all tree writes stay on the assembling thread. Columns
+ * the projection drops are not transformed.
+ *
+ * <p>Stages run on their own virtual threads rather than the converter's executor, so a stage
+ * never waits for a pool thread held by another stage. Value preprocessors are called from stage
+ * threads, concurrently when there are several stages.
+ */
+final class PipelinedAssembly {
+  private static final int BATCHES_PER_STAGE = 4;
+
+  private final MappingConfig.PipelinedTransform settings;
+  private final Function<Map<String, ?>, Map<String, ?>> preprocessor;
+  private final ColumnProjection projection;
+  private final Supplier<ValueTransformer> transformers;
+  private final Map<String, Integer> fallbackCounts = new LinkedHashMap<>();
+
+  PipelinedAssembly(
+      final MappingConfig config,
+      final ColumnProjection projection,
+      final Supplier<ValueTransformer> transformers) {
+    this.settings = config.pipelinedTransform();
+    this.preprocessor = RowGraphAssembler.buildPreprocessor(config);
+    this.projection = projection;
+    this.transformers = transformers;
+  }
+
+  boolean appliesTo(final int rows) {
+    return settings.appliesTo(rows);
+  }
+
+  /**
+   * Starts transforming {@code rows}, which must be in assembly order.
+   *
+   * @param processor the assembler the run feeds; used from the calling thread only
+   */
+  Run start(final List<? extends Map<String, ?>> rows, final RowProcessor processor) {
+    return new Run(rows instanceof RandomAccess ? rows : new ArrayList<>(rows), processor);
+  }
+
+  /** Fallback conversion counts of all stages of completed runs, by column. */
+  Map<String, Integer> fallbackCounts() {
+    return fallbackCounts;
+  }
+
+  /** One pass over a row sequence; close it to stop its stages early. */
+  final class Run implements AutoCloseable {
+    private final RowProcessor processor;
+    private final List<Stage> stages;
+    private final int batchCount;
+    private TransformedRows batch;
+    private int batchIndex = -1;
+    private int row;
+    private int consumedBatches;
+
+    private Run(final List<? extends Map<String, ?>> rows, final RowProcessor processor) {
+      this.processor = processor;
+      this.batchCount = (rows.size() + settings.batchRows() - 1) / settings.batchRows();
+      final int stageCount = Math.min(settings.stages(), Math.max(1, batchCount));
+      this.stages = new ArrayList<>(stageCount);
+      for (int i = 0; i < stageCount; i++) {
+        stages.add(new Stage(rows, i, stageCount, transformers.get()));
+      }
+      for (final Stage stage : stages) {
+        Thread.ofVirtual().name("flat2pojo-transform-" + stage.index).start(stage);
+      }
+    }
+
+    /** Assembles the next {@code groupRows} rows of the sequence as one group. */
+    <T> T assembleGroup(final int groupRows, final Class<T> type) {
+      for (int i = 0; i < groupRows; i++) {
+        if (batch == null || row == batch.rowCount()) {
+          nextBatch();
+        }
+        processor.processRow(batch, row++);
+      }
+      return processor.materialize(type);
+    }
+
+    @Override
+    public void close() {
+      stages.forEach(Stage::stop);
+      if (consumedBatches == batchCount) {
+        // the last batch of every stage was published after its final transform
+        for (final Stage stage : stages) {
+          stage
+              .transformer
+              .fallbackCounts()
+              .forEach((column, count) -> fallbackCounts.merge(column, count, Integer::sum));
+        }
+      }
+    }
+
+    private void nextBatch() {
+      if (batch != null) {
+        stages.get(batchIndex % stages.size()).free.put(batch);
+      }
+      batchIndex++;
+      batch = stages.get(batchIndex % stages.size()).filled.take();
+      row = 0;
+      if (batch == null) {
+        throw new IllegalStateException("Transform stage stopped before the end of the rows");
+      }
+      if (batch.failure() instanceof RuntimeException runtime) {
+        throw runtime;
+      }
+      if (batch.failure() instanceof Error error) {
+        throw error;
+      }
+      consumedBatches++;
+    }
+  }
+
+  private final class Stage implements Runnable, BiConsumer<String, Object> {
+    private final List<? extends Map<String, ?>> rows;
+    private final int index;
+    private final int stride;
+    private final ValueTransformer transformer;
+    private final Predicate<String> kept = projection.memoizing();
+    private final SpscRing<TransformedRows> filled = new SpscRing<>(BATCHES_PER_STAGE);
+    private final SpscRing<TransformedRows> free = new SpscRing<>(BATCHES_PER_STAGE);
+    private TransformedRows out;
+
+    Stage(
+        final List<? extends Map<String, ?>> rows,
+        final int index,
+        final int stride,
+        final ValueTransformer transformer) {
+      this.rows = rows;
+      this.index = index;
+      this.stride = stride;
+      this.transformer = transformer;
+      for (int i = 0; i < BATCHES_PER_STAGE; i++) {
+        free.put(new TransformedRows(settings.batchRows()));
+      }
+    }
+
+    @Override
+    public void run() {
+      final int batchCount = (rows.size() + settings.batchRows() - 1) / settings.batchRows();
+      for (int batchIndex = index; batchIndex < batchCount; batchIndex += stride) {
+        out = free.take();
+        if (out == null) {
+          return;
+        }
+        try {
+          fill(batchIndex * settings.batchRows());
+        } catch (final RuntimeException | Error failure) {
+          // surfaces on the assembling thread at this batch, instead of leaving it waiting
+          out.fail(failure);
+          filled.put(out);
+          return;
+        }
+        filled.put(out);
+      }
+    }
+
+    private void fill(final int from) {
+      out.clear();
+      final int to = Math.min(rows.size(), from + settings.batchRows());
+      for (int i = from; i < to; i++) {
+        preprocessor.apply(rows.get(i)).forEach(this);
+        out.endRow();
+      }
+    }
+
+    /** Transforms one cell; {@link Map#forEach} target of {@link #fill}. */
+    @Override
+    public void accept(final String column, final Object rawValue) {
+      if (!kept.test(column)) {
+        if (!transformer.isNull(rawValue)) {
+          out.addCell(column, ColumnProjection.PRESENT);
+        }
+        return;
+      }
+      final JsonNode value = transformer.toJsonNode(column, rawValue);
+      if (value != null) {
+        out.addCell(column, value);
+      }
+    }
+
+    void stop() {
+      free.close();
+    }
+  }
+}
@@ -7,6 +7,11 @@ import io.github.pojotools.flat2pojo.core.util.PathResolver;
 /**
  * Immutable context object holding all configuration and utilities needed for processing.
  * Eliminates parameter passing throughout the processing pipeline.
+ *
+ * @param projection the columns kept for the config and target type of the conversion
  */
 record ProcessingContext(
-    MappingConfig config, ListHierarchyCache hierarchyCache, PathResolver pathResolver) {}
+    MappingConfig config,
+    ListHierarchyCache hierarchyCache,
+    PathResolver pathResolver,
+    ColumnProjection projection) {}
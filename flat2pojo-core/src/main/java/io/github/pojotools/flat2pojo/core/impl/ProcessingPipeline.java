@@ -5,7 +5,18 @@ package io.github.pojotools.flat2pojo.core.impl;
  * parameter passing in Flat2PojoCore.
  */
 record ProcessingPipeline(AssemblerDependencies dependencies, ProcessingContext context) {
+  /** Creates an assembler; reuse it for all groups of one conversion, one group at a time. */
   RowProcessor createAssembler() {
     return new RowGraphAssembler(dependencies, context);
   }
+
+  /**
+   * Creates an assembler whose groups stay updatable after they are refreshed: list buckets and
+   * primitive accumulators are retained instead of being released on materialization.
+   */
+  RowProcessor createRetainingAssembler() {
+    dependencies.arrayManager().retainState();
+    dependencies.primitiveArrayManager().retainState();
+    return new RowGraphAssembler(dependencies, context);
+  }
 }
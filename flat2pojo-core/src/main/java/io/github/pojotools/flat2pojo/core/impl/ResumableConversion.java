@@ -0,0 +1,91 @@
+package io.github.pojotools.flat2pojo.core.impl;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.github.pojotools.flat2pojo.core.api.PartialConversion;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps root groups open across batches. Single Responsibility: Routes each batch's rows to the
+ * open group of their root key and defers finalization to {@link #complete()}.
+ *
+ * <p>One assembler serves all batches; open groups are just their roots, because list buckets,
+ * primitive accumulators and write memos are keyed by node identity inside the pipeline.
+ */
+final class ResumableConversion<T> implements PartialConversion<T> {
+  private static final Object SINGLE_GROUP = List.of();
+
+  private final Class<T> type;
+  private final List<String> rootKeys;
+  private final RowFilter rowFilter;
+  private final RowProcessor processor;
+  private final Runnable onComplete;
+  private final Map<Object, ObjectNode> groups = new LinkedHashMap<>();
+  private boolean completed;
+
+  ResumableConversion(
+      final ProcessingPipeline pipeline, final Class<T> type, final Runnable onComplete) {
+    this.type = type;
+    this.rootKeys = pipeline.context().config().rootKeys();
+    this.rowFilter = RowFilter.of(pipeline.context().config());
+    this.processor = pipeline.createAssembler();
+    this.onComplete = onComplete;
+    if (rootKeys.isEmpty()) {
+      // like convertAll, a conversion without root keys yields one root even for no rows
+      switchTo(SINGLE_GROUP);
+    }
+  }
+
+  @Override
+  public PartialConversion<T> accept(final List<? extends Map<String, ?>> batch) {
+    ensureOpen();
+    if (rootKeys.isEmpty()) {
+      switchTo(SINGLE_GROUP);
+      for (final Map<String, ?> row : batch) {
+        if (rowFilter.accepts(row)) {
+          processor.processRow(row);
+        }
+      }
+      return this;
+    }
+    final RowGroupIndex index = RowGroupIndex.build(batch, rootKeys, rowFilter);
+    for (int group = 0; group < index.groupCount(); group++) {
+      switchTo(index.groupKey(group, rootKeys));
+      for (int i = 0; i < index.groupSize(group); i++) {
+        processor.processRow(index.row(group, i));
+      }
+    }
+    return this;
+  }
+
+  @Override
+  public int openGroups() {
+    return groups.size();
+  }
+
+  @Override
+  public List<T> complete() {
+    ensureOpen();
+    completed = true;
+    final List<T> results = processor.materializeAll(new ArrayList<>(groups.values()), type);
+    groups.clear();
+    onComplete.run();
+    return results;
+  }
+
+  private void switchTo(final Object rootKey) {
+    final ObjectNode open = groups.get(rootKey);
+    final ObjectNode current = processor.switchGroup(open);
+    if (open == null) {
+      groups.put(rootKey, current);
+    }
+  }
+
+  private void ensureOpen() {
+    if (completed) {
+      throw new IllegalStateException("Conversion is already complete");
+    }
+  }
+}
@@ -31,6 +31,15 @@ final class RootKeyGrouper {
         : groupByCompositeKey(rows, rootKeys);
   }
 
+  /**
+   * Returns the group key of one row, as {@link #groupByRootKeys} keys its groups.
+   *
+   * @return the key, or {@code null} if a root key value is missing or null
+   */
+  static Object rootKeyOf(final Map<String, ?> row, final List<String> rootKeys) {
+    return rootKeys.size() == 1 ? row.get(rootKeys.getFirst()) : buildCompositeKey(row, rootKeys);
+  }
+
   private static Map<Object, List<Map<String, ?>>> groupBySingleKey(
       final List<? extends Map<String, ?>> rows, final String key) {
     final Map<Object, List<Map<String, ?>>> groups = new LinkedHashMap<>();
@@ -0,0 +1,88 @@
+package io.github.pojotools.flat2pojo.core.impl;
+
+import io.github.pojotools.flat2pojo.core.api.Flat2Pojo;
+import io.github.pojotools.flat2pojo.core.config.MappingConfig;
+import io.github.pojotools.flat2pojo.core.config.MappingConfigLoader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+
+/**
+ * The streaming entry points of {@link Flat2PojoCore}. Single Responsibility: Decides how a stream
+ * delivers its roots: handed off from a producer thread, assembled lazily over clustered rows, or
+ * converted at once.
+ */
+final class RootStreams {
+  private final Flat2Pojo converter;
+  private final ConversionPipelines pipelines;
+  private final Executor executor;
+  private final int handOffCapacity;
+
+  /**
+   * @param converter converts rows that cannot be streamed lazily
+   * @param handOffCapacity roots waiting to be consumed from a producer thread; 0 disables hand-off
+   */
+  RootStreams(
+      final Flat2Pojo converter,
+      final ConversionPipelines pipelines,
+      final Executor executor,
+      final int handOffCapacity) {
+    this.converter = converter;
+    this.pipelines = pipelines;
+    this.executor = executor;
+    this.handOffCapacity = handOffCapacity;
+  }
+
+  <T> Stream<T> stream(
+      final Iterator<? extends Map<String, ?>> rows,
+      final Class<T> type,
+      final MappingConfig config) {
+    if (handsOffRoots(config)) {
+      MappingConfigLoader.validateHierarchy(config);
+      final HandOffRootStream<T> roots =
+          new HandOffRootStream<>(
+              () -> pipelines.build(config, type), type, executor, handOffCapacity);
+      return roots.stream(
+          rows,
+          () -> ConversionPipelines.reportSlowPathColumns(roots.fallbackCounts(), config));
+    }
+    return stream(drain(rows), type, config);
+  }
+
+  /**
+   * Streams the roots of {@code rows}. Over clustered input (see {@link
+   * MappingConfig#inputClustering()}) groups are assembled lazily and the stream splits at root
+   * key changes, so a parallel stream assembles groups concurrently in encounter order.
+   */
+  <T> Stream<T> stream(
+      final List<? extends Map<String, ?>> rows,
+      final Class<T> type,
+      final MappingConfig config) {
+    if (config.rootKeys().isEmpty()
+        || config.inputClustering() == MappingConfig.InputClustering.none) {
+      return converter.convertAll(rows, type, config).stream();
+    }
+    MappingConfigLoader.validateHierarchy(config);
+    return ClusteredRootSpliterator.stream(
+        rows,
+        type,
+        () -> pipelines.build(config, type),
+        fallbackCounts -> ConversionPipelines.reportSlowPathColumns(fallbackCounts, config));
+  }
+
+  /** Returns whether roots of {@code config} are assembled on a producer thread as rows arrive. */
+  boolean handsOffRoots(final MappingConfig config) {
+    return handOffCapacity > 0
+        && !config.rootKeys().isEmpty()
+        && config.inputClustering() != MappingConfig.InputClustering.none;
+  }
+
+  static List<Map<String, ?>> drain(final Iterator<? extends Map<String, ?>> rows) {
+    final List<Map<String, ?>> list = new ArrayList<>();
+    rows.forEachRemaining(list::add);
+    return list;
+  }
+}
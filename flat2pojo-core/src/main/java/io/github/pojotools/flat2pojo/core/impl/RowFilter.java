@@ -0,0 +1,63 @@
+package io.github.pojotools.flat2pojo.core.impl;
+
+import io.github.pojotools.flat2pojo.core.config.MappingConfig;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The compiled row filters of a config (see {@link MappingConfig#filters()}). Single
+ * Responsibility: Decides on raw values which input rows take part in a conversion at all.
+ *
+ * <p>Rows are filtered before the value preprocessor, while they are grouped, so a rejected row is
+ * never transformed or assembled. Grouping skips it like a row without root keys instead of copying
+ * the accepted rows, so lazy and cancellable inputs are still read row by row. Immutable and
+ * shared.
+ */
+final class RowFilter {
+  static final RowFilter ALL = new RowFilter(new String[0], new ValuePredicate[0]);
+
+  private final String[] columns;
+  private final ValuePredicate[] predicates;
+
+  private RowFilter(final String[] columns, final ValuePredicate[] predicates) {
+    this.columns = columns;
+    this.predicates = predicates;
+  }
+
+  static RowFilter of(final MappingConfig config) {
+    final List<MappingConfig.Filter> filters = config.filters();
+    if (filters.isEmpty()) {
+      return ALL;
+    }
+    final boolean blanksAsNulls = config.nullPolicy().blanksAsNulls();
+    final String[] columns = new String[filters.size()];
+    final ValuePredicate[] predicates = new ValuePredicate[filters.size()];
+    for (int i = 0; i < filters.size(); i++) {
+      columns[i] = filters.get(i).path();
+      predicates[i] = new ValuePredicate(filters.get(i), blanksAsNulls);
+    }
+    return new RowFilter(columns, predicates);
+  }
+
+  boolean keepsAll() {
+    return this == ALL;
+  }
+
+  boolean accepts(final Map<String, ?> row) {
+    for (int i = 0; i < columns.length; i++) {
+      if (!predicates[i].test(row.get(columns[i]))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  boolean acceptsAny(final List<? extends Map<String, ?>> rows) {
+    for (final Map<String, ?> row : rows) {
+      if (accepts(row)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -1,52 +1,148 @@
 package io.github.pojotools.flat2pojo.core.impl;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.github.pojotools.flat2pojo.core.config.MappingConfig;
-import io.github.pojotools.flat2pojo.core.engine.Path;
-import java.util.HashSet;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.function.Function;
 
 /**
  * Assembles object graphs from flat rows by processing list rules and direct values. Single
  * Responsibility: Builds nested JSON tree structure from flat key-value rows.
+ *
+ * <p>One assembler serves every group of a conversion. Its per-row scratch (value slots, skipped
+ * rules) is reused across rows, so a row that only revisits existing segments allocates nothing
+ * beyond what the caller's row map and value converters do.
  */
 final class RowGraphAssembler implements RowProcessor {
-  private final ObjectNode root;
+  private ObjectNode root;
   private final AssemblerDependencies dependencies;
   private final ProcessingContext context;
+  private final RowLayout layout;
+  private final RowSlots rowSlots;
+  private final BitSet skippedRules;
   private final ListRuleProcessor listRuleProcessor;
   private final DirectValueWriter directValueWriter;
+  private final SegmentWriteTracker segmentWriteTracker;
   private final Function<Map<String, ?>, Map<String, ?>> preprocessor;
 
   RowGraphAssembler(final AssemblerDependencies dependencies, final ProcessingContext context) {
     this.dependencies = dependencies;
-    this.root = dependencies.objectMapper().createObjectNode();
+    this.root = dependencies.nodeFactory().objectNode();
     this.context = context;
-    this.directValueWriter = new DirectValueWriter(context, dependencies.primitiveArrayManager());
-    this.listRuleProcessor = new ListRuleProcessor(dependencies, context);
+    this.layout = new RowLayout(context, dependencies.primitiveArrayManager());
+    this.rowSlots = new RowSlots(layout, dependencies.valueTransformer());
+    this.skippedRules = new BitSet(layout.ruleCount());
+    this.directValueWriter = new DirectValueWriter(dependencies.primitiveArrayManager());
+    this.segmentWriteTracker = new SegmentWriteTracker();
+    this.listRuleProcessor =
+        new ListRuleProcessor(dependencies, context, layout, segmentWriteTracker);
     this.preprocessor = buildPreprocessor(context.config());
   }
 
   @Override
   public void processRow(final Map<String, ?> row) {
-    final Map<String, ?> preprocessed = preprocessor.apply(row);
-    final Map<String, JsonNode> rowValues =
-        dependencies.valueTransformer().transformRowValuesToJsonNodes(preprocessed);
-    final Set<String> skippedListPaths = processListRules(rowValues);
-    processDirectValues(rowValues, skippedListPaths);
+    loadRow(row);
+    assembleLoadedRow();
+  }
+
+  @Override
+  public void processRow(final TransformedRows batch, final int row) {
+    rowSlots.load(batch, row);
+    skippedRules.clear();
+    assembleLoadedRow();
+  }
+
+  @Override
+  public void processRow(final Map<String, ?> row, final List<MappingConfig.ListRule> rules) {
+    loadRow(row);
+    for (final MappingConfig.ListRule rule : rules) {
+      listRuleProcessor.processRule(rowSlots, skippedRules, layout.ruleIndex(rule), root);
+    }
+    processDirectValues();
+    final int leafIndex =
+        rules.isEmpty() ? RowLayout.NO_SEGMENT : layout.ruleIndex(rules.getLast());
+    if (leafIndex == RowLayout.NO_SEGMENT
+        || !listRuleProcessor.isSkipped(leafIndex, skippedRules)) {
+      listRuleProcessor.ensureChildLists(leafIndex, root);
+    }
   }
 
   @Override
   public <T> T materialize(final Class<T> type) {
     dependencies.arrayManager().finalizeArrays(root);
     dependencies.primitiveArrayManager().finalizePrimitiveArrays();
-    return dependencies.materializer().materialize(root, type);
+    final T result = dependencies.materializer().materialize(root, type);
+    startNextGroup();
+    return result;
+  }
+
+  @Override
+  public ObjectNode switchGroup(final ObjectNode groupRoot) {
+    // element cache and write memo are keyed by node identity, so they stay valid across groups
+    root = groupRoot == null ? dependencies.nodeFactory().objectNode() : groupRoot;
+    return root;
+  }
+
+  @Override
+  public <T> List<T> materializeAll(final List<ObjectNode> groupRoots, final Class<T> type) {
+    dependencies.arrayManager().finalizeArrays(groupRoots);
+    dependencies.primitiveArrayManager().finalizePrimitiveArrays();
+    final List<T> results = new ArrayList<>(groupRoots.size());
+    for (final ObjectNode groupRoot : groupRoots) {
+      results.add(dependencies.materializer().materialize(groupRoot, type));
+    }
+    startNextGroup();
+    return results;
   }
 
-  private static Function<Map<String, ?>, Map<String, ?>> buildPreprocessor(
+  @Override
+  public boolean removeRow(final Map<String, ?> row) {
+    loadRow(row);
+    final int ruleIndex = listRuleProcessor.deepestIdentifiedRule(rowSlots, skippedRules);
+    if (ruleIndex == RowLayout.NO_SEGMENT) {
+      return false;
+    }
+    final ObjectNode removed = listRuleProcessor.removeElement(rowSlots, ruleIndex, root);
+    if (removed != null) {
+      forgetSubtree(removed);
+    }
+    return true;
+  }
+
+  @Override
+  public void discardGroup(final ObjectNode groupRoot) {
+    forgetSubtree(groupRoot);
+  }
+
+  @Override
+  public void refreshGroups() {
+    dependencies.arrayManager().refreshTouchedArrays();
+    dependencies.primitiveArrayManager().refreshTouchedArrays();
+  }
+
+  @Override
+  public ObjectNode finishPartial() {
+    final ObjectNode partial = root;
+    dependencies.arrayManager().finalizeArraysInArrivalOrder(partial);
+    dependencies.primitiveArrayManager().finalizePrimitiveArraysInArrivalOrder();
+    startNextGroup();
+    return partial;
+  }
+
+  private void startNextGroup() {
+    root = dependencies.nodeFactory().objectNode();
+    listRuleProcessor.reset();
+    segmentWriteTracker.clear();
+  }
+
+  static Function<Map<String, ?>, Map<String, ?>> buildPreprocessor(
       final MappingConfig config) {
     return config
         .valuePreprocessor()
@@ -54,33 +150,46 @@ final class RowGraphAssembler implements RowProcessor {
         .orElse(Function.identity());
   }
 
-  private Set<String> processListRules(final Map<String, JsonNode> rowValues) {
-    final Set<String> skippedListPaths = new HashSet<>();
-    for (final MappingConfig.ListRule rule : context.config().lists()) {
-      listRuleProcessor.processRule(rowValues, skippedListPaths, rule, root);
+  private void forgetSubtree(final ObjectNode subtree) {
+    final Deque<JsonNode> stack = new ArrayDeque<>();
+    stack.push(subtree);
+    while (!stack.isEmpty()) {
+      final JsonNode node = stack.pop();
+      if (node instanceof ObjectNode objectNode) {
+        dependencies.primitiveArrayManager().forgetTarget(objectNode);
+      } else if (node instanceof ArrayNode arrayNode) {
+        dependencies.arrayManager().forgetArray(arrayNode);
+      }
+      for (final JsonNode child : node) {
+        if (child.isContainerNode()) {
+          stack.push(child);
+        }
+      }
     }
-    return skippedListPaths;
   }
 
-  private void processDirectValues(
-      final Map<String, JsonNode> rowValues, final Set<String> skippedListPaths) {
-    for (final var entry : rowValues.entrySet()) {
-      final String absolutePath = entry.getKey();
-      if (isDirectValuePath(absolutePath, skippedListPaths)) {
-        // absolute and relative paths are the same for direct values
-        final Path path = new Path(absolutePath, absolutePath);
-        directValueWriter.writeDirectly(root, path, entry.getValue());
-      }
-    }
+  private void loadRow(final Map<String, ?> row) {
+    rowSlots.load(preprocessor.apply(row));
+    skippedRules.clear();
   }
 
-  private boolean isDirectValuePath(final String path, final Set<String> skippedListPaths) {
-    return isEligibleForDirectWrite(path, skippedListPaths);
+  private void assembleLoadedRow() {
+    for (int i = 0; i < layout.ruleCount(); i++) {
+      listRuleProcessor.processRule(rowSlots, skippedRules, i, root);
+    }
+    processDirectValues();
   }
 
-  private boolean isEligibleForDirectWrite(final String path, final Set<String> skippedListPaths) {
-    final boolean underAnyList = context.hierarchyCache().isUnderAnyList(path);
-    final boolean skipped = context.pathResolver().isUnderAny(path, skippedListPaths);
-    return !underAnyList && !skipped;
+  private void processDirectValues() {
+    final int rootSegment = layout.rootSegment();
+    for (int id = rowSlots.first(rootSegment); id >= 0; id = rowSlots.next(id)) {
+      final ColumnPlan column = layout.column(id);
+      final JsonNode value = rowSlots.value(id);
+      if (!segmentWriteTracker.isAlreadyWritten(column, root, value)) {
+        directValueWriter.writeDirectly(root, column, value);
+        // direct writes always overwrite, so the root is settled on this value
+        segmentWriteTracker.record(column, root, value, true);
+      }
+    }
   }
 }
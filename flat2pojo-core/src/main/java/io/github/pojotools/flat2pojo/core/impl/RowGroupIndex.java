@@ -0,0 +1,329 @@
+package io.github.pojotools.flat2pojo.core.impl;
+
+import io.github.pojotools.flat2pojo.core.config.MappingConfig;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.IntPredicate;
+
+/**
+ * Groups rows by root keys into row ordinals. Single Responsibility: Assigns every row an int group
+ * id and orders the row ordinals group by group.
+ *
+ * <p>Group ids come from an open-addressing table keyed directly on the root key values: a slot
+ * holds a group id, and a candidate group is confirmed by comparing the row's key values with those
+ * of the group's first row. No key object is built per row and no list per group; a counting sort
+ * then writes all row ordinals into one {@code int[]} permutation. Groups keep the order of their
+ * first appearance and rows keep their input order within a group, exactly as {@link
+ * RootKeyGrouper} orders them. Rows with a missing or null root key belong to no group, and so do
+ * rows rejected by the row filters: the index is a filtered view of its input, never a copy.
+ */
+final class RowGroupIndex {
+  static final int NO_GROUP = -1;
+  private static final int INITIAL_GROUPS = 16;
+  private static final int HASH_MULTIPLIER = 31; // as List.hashCode combines elements
+  private static final int HASH_SPREAD_SHIFT = 16; // folds high bits into the probed low bits
+
+  private final List<? extends Map<String, ?>> rows;
+  private final int[] permutation;
+  private final int[] groupStart;
+  private final int groupCount;
+
+  private RowGroupIndex(
+      final List<? extends Map<String, ?>> rows,
+      final int[] permutation,
+      final int[] groupStart,
+      final int groupCount) {
+    this.rows = rows;
+    this.permutation = permutation;
+    this.groupStart = groupStart;
+    this.groupCount = groupCount;
+  }
+
+  static RowGroupIndex build(final List<? extends Map<String, ?>> input, final List<String> keys) {
+    return build(input, keys, RowFilter.ALL);
+  }
+
+  /** Groups the rows that {@code filter} accepts; the rejected ones belong to no group. */
+  static RowGroupIndex build(
+      final List<? extends Map<String, ?>> input,
+      final List<String> keys,
+      final RowFilter filter) {
+    final List<? extends Map<String, ?>> rows =
+        input instanceof RandomAccess ? input : new ArrayList<>(input);
+    final String[] keyArray = keys.toArray(String[]::new);
+    final GroupTable table = new GroupTable(rows, keyArray);
+    final int[] groupOf = new int[rows.size()];
+    for (int row = 0; row < groupOf.length; row++) {
+      final Map<String, ?> values = rows.get(row);
+      groupOf[row] =
+          filter.accepts(values) ? table.groupOf(row, hashOf(values, keyArray)) : NO_GROUP;
+    }
+    return sortByGroup(rows, groupOf, table.groupCount());
+  }
+
+  /**
+   * Puts the rows that {@code filter} accepts into one group, as a conversion without root keys
+   * assembles them.
+   */
+  static RowGroupIndex single(final List<? extends Map<String, ?>> input, final RowFilter filter) {
+    final List<? extends Map<String, ?>> rows =
+        input instanceof RandomAccess ? input : new ArrayList<>(input);
+    final int[] permutation = new int[rows.size()];
+    int size = 0;
+    for (int row = 0; row < permutation.length; row++) {
+      if (filter.accepts(rows.get(row))) {
+        permutation[size++] = row;
+      }
+    }
+    return new RowGroupIndex(rows, Arrays.copyOf(permutation, size), new int[] {0, size}, 1);
+  }
+
+  /**
+   * Groups rows by adjacent root keys, exactly as {@link ClusteredRowGrouper} cuts them: a key that
+   * reappears opens a new group, or fails under {@code verified} clustering. Rows rejected by the
+   * row filters belong to no group.
+   */
+  static RowGroupIndex clustered(
+      final List<? extends Map<String, ?>> input, final MappingConfig config) {
+    final List<? extends Map<String, ?>> rows =
+        input instanceof RandomAccess ? input : new ArrayList<>(input);
+    final ClusteredRowGrouper grouper = new ClusteredRowGrouper(config);
+    final int[] permutation = new int[rows.size()];
+    int[] groupStart = new int[INITIAL_GROUPS];
+    int groupCount = 0;
+    int size = 0;
+    for (int row = 0; row < permutation.length; row++) {
+      final ClusteredRowGrouper.Boundary boundary = grouper.advance(rows.get(row), row);
+      if (boundary == ClusteredRowGrouper.Boundary.SKIPPED) {
+        continue;
+      }
+      if (boundary == ClusteredRowGrouper.Boundary.NEW_GROUP) {
+        if (groupCount + 1 == groupStart.length) {
+          groupStart = Arrays.copyOf(groupStart, groupStart.length * 2);
+        }
+        groupStart[groupCount++] = size;
+      }
+      permutation[size++] = row;
+    }
+    groupStart[groupCount] = size;
+    return new RowGroupIndex(
+        rows,
+        Arrays.copyOf(permutation, size),
+        Arrays.copyOf(groupStart, groupCount + 1),
+        groupCount);
+  }
+
+  /**
+   * Groups only the rows at {@code ordinals}, whose key hashes were computed up front by {@link
+   * #hashOf}. Row ordinals of the index stay those of {@code rows}.
+   *
+   * @param rows random-access input rows
+   * @param ordinals ascending ordinals of the rows to group, none with hash {@code NO_GROUP}
+   * @param hashes key hash of every row of {@code rows}
+   */
+  static RowGroupIndex build(
+      final List<? extends Map<String, ?>> rows,
+      final List<String> keys,
+      final int[] ordinals,
+      final int[] hashes) {
+    final GroupTable table = new GroupTable(rows, keys.toArray(String[]::new));
+    final int[] groupOf = new int[ordinals.length];
+    for (int i = 0; i < ordinals.length; i++) {
+      groupOf[i] = table.groupOf(ordinals[i], hashes[ordinals[i]]);
+    }
+    final RowGroupIndex local = sortByGroup(rows, groupOf, table.groupCount());
+    for (int i = 0; i < local.permutation.length; i++) {
+      local.permutation[i] = ordinals[local.permutation[i]];
+    }
+    return local;
+  }
+
+  /** Returns a non-negative spread hash of the row's key values, or NO_GROUP if one is missing. */
+  static int hashOf(final Map<String, ?> row, final String[] keys) {
+    int hash = 1;
+    for (final String key : keys) {
+      final Object value = row.get(key);
+      if (value == null) {
+        return NO_GROUP;
+      }
+      hash = HASH_MULTIPLIER * hash + value.hashCode();
+    }
+    return (hash ^ (hash >>> HASH_SPREAD_SHIFT)) & Integer.MAX_VALUE;
+  }
+
+  /** Counting sort of row ordinals by group id; stable, so input order holds within a group. */
+  private static RowGroupIndex sortByGroup(
+      final List<? extends Map<String, ?>> rows, final int[] groupOf, final int groupCount) {
+    final int[] groupStart = new int[groupCount + 1];
+    for (final int group : groupOf) {
+      if (group != NO_GROUP) {
+        groupStart[group + 1]++;
+      }
+    }
+    for (int group = 0; group < groupCount; group++) {
+      groupStart[group + 1] += groupStart[group];
+    }
+    final int[] next = Arrays.copyOf(groupStart, groupCount);
+    final int[] permutation = new int[groupStart[groupCount]];
+    for (int row = 0; row < groupOf.length; row++) {
+      if (groupOf[row] != NO_GROUP) {
+        permutation[next[groupOf[row]]++] = row;
+      }
+    }
+    return new RowGroupIndex(rows, permutation, groupStart, groupCount);
+  }
+
+  int groupCount() {
+    return groupCount;
+  }
+
+  int groupSize(final int group) {
+    return groupStart[group + 1] - groupStart[group];
+  }
+
+  /** Returns the {@code index}-th row of {@code group}, in input order. */
+  Map<String, ?> row(final int group, final int index) {
+    return rows.get(permutation[groupStart[group] + index]);
+  }
+
+  /** Returns a read-only view of the rows of {@code group}. */
+  List<Map<String, ?>> groupRows(final int group) {
+    return new OrdinalView(rows, permutation, groupStart[group], groupStart[group + 1]);
+  }
+
+  /** Returns a read-only view of the rows of the selected groups, group by group. */
+  List<Map<String, ?>> rowsOfGroups(final IntPredicate selected) {
+    final int[] ordinals = new int[permutation.length];
+    int size = 0;
+    for (int group = 0; group < groupCount; group++) {
+      if (selected.test(group)) {
+        final int length = groupSize(group);
+        System.arraycopy(permutation, groupStart[group], ordinals, size, length);
+        size += length;
+      }
+    }
+    return new OrdinalView(rows, ordinals, 0, size);
+  }
+
+  /** Returns the input ordinal of the first row of {@code group}. */
+  int firstRow(final int group) {
+    return permutation[groupStart[group]];
+  }
+
+  /** Returns the key of {@code group}, as {@link RootKeyGrouper#rootKeyOf} builds it. */
+  Object groupKey(final int group, final List<String> rootKeys) {
+    return RootKeyGrouper.rootKeyOf(row(group, 0), rootKeys);
+  }
+
+  /** Rows at a range of an ordinal array. */
+  private static final class OrdinalView extends AbstractList<Map<String, ?>>
+      implements RandomAccess {
+    private final List<? extends Map<String, ?>> rows;
+    private final int[] ordinals;
+    private final int from;
+    private final int to;
+
+    OrdinalView(
+        final List<? extends Map<String, ?>> rows,
+        final int[] ordinals,
+        final int from,
+        final int to) {
+      this.rows = rows;
+      this.ordinals = ordinals;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    public Map<String, ?> get(final int index) {
+      return rows.get(ordinals[from + Objects.checkIndex(index, to - from)]);
+    }
+
+    @Override
+    public int size() {
+      return to - from;
+    }
+  }
+
+  /** Open-addressing table from root key values to group ids, in first-appearance order. */
+  private static final class GroupTable {
+    private static final int EMPTY = 0;
+    private static final int INITIAL_SLOTS = 64; // a power of two, at most half full
+
+    private final List<? extends Map<String, ?>> rows;
+    private final String[] keys;
+    private int[] slots; // group id + 1, EMPTY when free
+    private int[] firstRow = new int[INITIAL_GROUPS];
+    private int[] groupHash = new int[INITIAL_GROUPS];
+    private int groupCount;
+
+    GroupTable(final List<? extends Map<String, ?>> rows, final String[] keys) {
+      this.rows = rows;
+      this.keys = keys;
+      this.slots = new int[INITIAL_SLOTS];
+    }
+
+    int groupCount() {
+      return groupCount;
+    }
+
+    int groupOf(final int row, final int hash) {
+      if (hash == NO_GROUP) {
+        return NO_GROUP;
+      }
+      final Map<String, ?> values = rows.get(row);
+      final int mask = slots.length - 1;
+      for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+        final int entry = slots[slot];
+        if (entry == EMPTY) {
+          return addGroup(slot, row, hash);
+        }
+        final int group = entry - 1;
+        if (groupHash[group] == hash && sameKey(values, rows.get(firstRow[group]))) {
+          return group;
+        }
+      }
+    }
+
+    private boolean sameKey(final Map<String, ?> row, final Map<String, ?> first) {
+      for (final String key : keys) {
+        if (!row.get(key).equals(first.get(key))) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private int addGroup(final int slot, final int row, final int hash) {
+      final int group = groupCount++;
+      if (group == firstRow.length) {
+        firstRow = Arrays.copyOf(firstRow, group * 2);
+        groupHash = Arrays.copyOf(groupHash, group * 2);
+      }
+      firstRow[group] = row;
+      groupHash[group] = hash;
+      slots[slot] = group + 1;
+      if (groupCount * 2 > slots.length) {
+        rehash();
+      }
+      return group;
+    }
+
+    private void rehash() {
+      slots = new int[slots.length * 2];
+      final int mask = slots.length - 1;
+      for (int group = 0; group < groupCount; group++) {
+        int slot = groupHash[group] & mask;
+        while (slots[slot] != EMPTY) {
+          slot = (slot + 1) & mask;
+        }
+        slots[slot] = group + 1;
+      }
+    }
+  }
+}
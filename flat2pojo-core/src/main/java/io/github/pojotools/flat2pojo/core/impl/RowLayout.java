@@ -0,0 +1,253 @@
+package io.github.pojotools.flat2pojo.core.impl;
+
+import io.github.pojotools.flat2pojo.core.config.MappingConfig;
+import io.github.pojotools.flat2pojo.core.engine.Path;
+import io.github.pojotools.flat2pojo.core.engine.PrimitiveArrayManager;
+import io.github.pojotools.flat2pojo.core.util.ConflictContext;
+import io.github.pojotools.flat2pojo.core.util.PathSegments;
+import io.github.pojotools.flat2pojo.spi.Reporter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index-addressed view of the mapping: list rules and columns get dense int ids, and every column
+ * is planned once on first sight. Single Responsibility: Precomputes per-column and per-rule
+ * routing so that assembling a row does no path arithmetic.
+ *
+ * <p>Columns the projection drops are planned like unwritten ones and marked {@code dropped}.
+ *
+ * <p>Scoped to one conversion; not thread-safe.
+ */
+final class RowLayout {
+  static final int NO_SEGMENT = -1;
+
+  private final ProcessingContext context;
+  private final PrimitiveArrayManager primitiveArrayManager;
+  private final Reporter reporter;
+  private final List<MappingConfig.ListRule> rules;
+  private final Map<MappingConfig.ListRule, Integer> ruleIndexes = new IdentityHashMap<>();
+  private final String[] rulePrefixes;
+  private final String[] relativeListPaths;
+  private final int[] parentIndexes;
+  private final int[] skipBits;
+  private final int[] subtreeEnds;
+  private final Map<String, ColumnPlan> columnsByName = new HashMap<>();
+  private final List<ColumnPlan> columns = new ArrayList<>();
+
+  RowLayout(final ProcessingContext context, final PrimitiveArrayManager primitiveArrayManager) {
+    this.context = context;
+    this.primitiveArrayManager = primitiveArrayManager;
+    this.reporter = context.config().reporter().orElse(null);
+    this.rules = context.config().lists();
+    this.rulePrefixes = new String[rules.size()];
+    this.relativeListPaths = new String[rules.size()];
+    this.parentIndexes = new int[rules.size()];
+    this.skipBits = new int[rules.size()];
+    this.subtreeEnds = new int[rules.size()];
+    for (int i = 0; i < rules.size(); i++) {
+      ruleIndexes.put(rules.get(i), i);
+      rulePrefixes[i] = context.pathResolver().buildPrefix(rules.get(i).path());
+    }
+    for (int i = 0; i < rules.size(); i++) {
+      planRule(i);
+    }
+    numberSubtrees();
+  }
+
+  private void planRule(final int index) {
+    final String listPath = rules.get(index).path();
+    final String parentListPath = context.hierarchyCache().getParentListPath(listPath);
+    if (parentListPath == null) {
+      parentIndexes[index] = NO_SEGMENT;
+      relativeListPaths[index] = listPath;
+    } else {
+      parentIndexes[index] = indexOfPath(parentListPath);
+      relativeListPaths[index] = context.pathResolver().tailAfter(listPath, parentListPath);
+    }
+  }
+
+  /**
+   * Numbers the rule forest in depth-first pre-order, so that every rule's descendants occupy the
+   * contiguous bit range after its own bit. Skipping a rule then marks its whole subtree at once.
+   */
+  private void numberSubtrees() {
+    int next = 0;
+    for (int i = 0; i < rules.size(); i++) {
+      if (parentIndexes[i] == NO_SEGMENT) {
+        next = numberSubtree(i, next);
+      }
+    }
+  }
+
+  private int numberSubtree(final int ruleIndex, final int first) {
+    skipBits[ruleIndex] = first;
+    int next = first + 1;
+    for (int i = 0; i < rules.size(); i++) {
+      if (parentIndexes[i] == ruleIndex) {
+        next = numberSubtree(i, next);
+      }
+    }
+    subtreeEnds[ruleIndex] = next;
+    return next;
+  }
+
+  private int indexOfPath(final String listPath) {
+    for (int i = 0; i < rules.size(); i++) {
+      if (rules.get(i).path().equals(listPath)) {
+        return i;
+      }
+    }
+    throw new IllegalStateException("List rule '" + listPath + "' is not declared");
+  }
+
+  int ruleCount() {
+    return rules.size();
+  }
+
+  /** Segment index of the group root; list rules use their own index. */
+  int rootSegment() {
+    return rules.size();
+  }
+
+  MappingConfig.ListRule rule(final int index) {
+    return rules.get(index);
+  }
+
+  int ruleIndex(final MappingConfig.ListRule rule) {
+    return ruleIndexes.get(rule);
+  }
+
+  /** Returns the index of the rule's parent list, or {@link #NO_SEGMENT} for a top-level list. */
+  int parentIndex(final int ruleIndex) {
+    return parentIndexes[ruleIndex];
+  }
+
+  /** Returns the bit of the rule in a skipped-rules bitset. */
+  int skipBit(final int ruleIndex) {
+    return skipBits[ruleIndex];
+  }
+
+  /** Returns the exclusive end of the bit range covering the rule and all its descendants. */
+  int subtreeEnd(final int ruleIndex) {
+    return subtreeEnds[ruleIndex];
+  }
+
+  /** Returns the configured reporter, or {@code null} so callers build no message without one. */
+  Reporter reporter() {
+    return reporter;
+  }
+
+  /** Returns the rule's list path relative to its parent element (or the root). */
+  String relativeListPath(final int ruleIndex) {
+    return relativeListPaths[ruleIndex];
+  }
+
+  int columnCount() {
+    return columns.size();
+  }
+
+  ColumnPlan column(final int id) {
+    return columns.get(id);
+  }
+
+  /** Returns the plan of a column already seen, or {@code null}. */
+  ColumnPlan find(final String column) {
+    return columnsByName.get(column);
+  }
+
+  /** Returns the plan of {@code column}, planning it on first sight. */
+  ColumnPlan columnOf(final String column) {
+    final ColumnPlan existing = columnsByName.get(column);
+    return existing != null ? existing : register(column);
+  }
+
+  private ColumnPlan register(final String column) {
+    int segment = owningSegment(column);
+    final String relativePath =
+        segment == NO_SEGMENT || segment == rootSegment()
+            ? column
+            : context.pathResolver().stripPrefix(column, rulePrefixes[segment]);
+    final boolean dropped = !context.projection().keeps(column);
+    if (relativePath.isEmpty() || dropped) {
+      segment = NO_SEGMENT;
+    }
+    final boolean primitiveList = primitiveArrayManager.isPrimitiveListPath(column);
+    ColumnPlan plan =
+        new ColumnPlan(
+            columns.size(),
+            segment,
+            new Path(relativePath, column),
+            PathSegments.of(relativePath, context.pathResolver().separator()),
+            primitiveList,
+            conflictContextFor(segment, column),
+            !primitiveList && !overlapsListPath(column),
+            dropped);
+    plan = resolveOverlaps(plan);
+    columns.add(plan);
+    columnsByName.put(column, plan);
+    return plan;
+  }
+
+  /** The deepest list whose prefix the column starts with owns it; otherwise the root does. */
+  private int owningSegment(final String column) {
+    int owner = NO_SEGMENT;
+    for (int i = 0; i < rules.size(); i++) {
+      if (column.startsWith(rulePrefixes[i])
+          && (owner == NO_SEGMENT || rulePrefixes[i].length() > rulePrefixes[owner].length())) {
+        owner = i;
+      }
+    }
+    if (owner != NO_SEGMENT) {
+      return owner;
+    }
+    // a column named exactly like a list is not written anywhere
+    return context.hierarchyCache().isUnderAnyList(column) ? NO_SEGMENT : rootSegment();
+  }
+
+  private ConflictContext conflictContextFor(final int segment, final String column) {
+    return segment == NO_SEGMENT || segment == rootSegment()
+        ? null
+        : new ConflictContext(rules.get(segment).onConflict(), column, reporter);
+  }
+
+  private boolean overlapsListPath(final String column) {
+    final String prefix = context.pathResolver().buildPrefix(column);
+    for (final MappingConfig.ListRule rule : rules) {
+      if (rule.path().equals(column) || rule.path().startsWith(prefix)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Writing "a" replaces the object that "a/b" was written into (and vice versa), so neither may
+   * rely on its last write still being in place.
+   */
+  private ColumnPlan resolveOverlaps(final ColumnPlan plan) {
+    if (plan.segment() == NO_SEGMENT) {
+      return plan;
+    }
+    ColumnPlan resolved = plan;
+    for (int i = 0; i < columns.size(); i++) {
+      final ColumnPlan other = columns.get(i);
+      if (other.segment() == plan.segment() && overlaps(other, plan)) {
+        final ColumnPlan demoted = other.notMemoizable();
+        columns.set(i, demoted);
+        columnsByName.put(demoted.path().absolutePath(), demoted);
+        resolved = resolved.notMemoizable();
+      }
+    }
+    return resolved;
+  }
+
+  private boolean overlaps(final ColumnPlan a, final ColumnPlan b) {
+    final String pathA = a.path().relativePath();
+    final String pathB = b.path().relativePath();
+    return pathA.startsWith(context.pathResolver().buildPrefix(pathB))
+        || pathB.startsWith(context.pathResolver().buildPrefix(pathA));
+  }
+}
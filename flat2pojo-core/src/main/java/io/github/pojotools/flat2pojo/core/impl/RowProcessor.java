@@ -1,5 +1,8 @@
 package io.github.pojotools.flat2pojo.core.impl;
 
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.github.pojotools.flat2pojo.core.config.MappingConfig;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -17,11 +20,81 @@ interface RowProcessor {
   void processRow(Map<String, ?> row);
 
   /**
-   * Materializes accumulated rows into a target POJO type.
+   * Processes a row whose cells were already preprocessed and transformed, e.g. by a {@link
+   * PipelinedAssembly} stage.
+   *
+   * @param batch transformed rows
+   * @param row index of the row within {@code batch}
+   */
+  void processRow(TransformedRows batch, int row);
+
+  /**
+   * Processes a row of a narrow row source that only carries the columns of {@code rules}. List
+   * rules outside {@code rules} are not evaluated for this row; the lists declared directly beneath
+   * the last rule's element (or the root when {@code rules} is empty) are created empty, matching
+   * the shape a JOIN row without child columns produces.
+   *
+   * @param row flat key-value map
+   * @param rules list rules to apply, parents before children
+   */
+  void processRow(Map<String, ?> row, List<MappingConfig.ListRule> rules);
+
+  /**
+   * Materializes accumulated rows into a target POJO type. The processor then starts over with an
+   * empty root, so one instance can assemble every group of a conversion in turn.
    *
    * @param type target class to convert to
    * @param <T> target type
    * @return materialized POJO instance
    */
   <T> T materialize(Class<T> type);
+
+  /**
+   * Switches to another open group, for conversions that keep several groups open at once. Rows
+   * processed next are added to {@code groupRoot}, or to a new empty group when it is {@code null}.
+   * List buckets and primitive accumulators of the other open groups are kept.
+   *
+   * @param groupRoot the root of an open group returned earlier, or {@code null}
+   * @return the root of the group now being assembled
+   */
+  ObjectNode switchGroup(ObjectNode groupRoot);
+
+  /**
+   * Finalizes and materializes open groups, in the given order. The processor then starts over
+   * with no open groups.
+   *
+   * @param groupRoots roots returned by {@link #switchGroup}
+   * @param type target class to convert to
+   * @param <T> target type
+   * @return one materialized POJO per group
+   */
+  <T> List<T> materializeAll(List<ObjectNode> groupRoots, Class<T> type);
+
+  /**
+   * Removes what a deleted row contributed to the current group of a retaining processor (see
+   * {@link ProcessingPipeline#createRetainingAssembler()}): the deepest list element the row
+   * addresses by its key columns, with everything nested in it.
+   *
+   * @param row flat key-value map of the deleted row
+   * @return {@code false} if the row addresses no list element, i.e. it stands for the whole group
+   */
+  boolean removeRow(Map<String, ?> row);
+
+  /** Drops the retained list and primitive state of a group that is no longer needed. */
+  void discardGroup(ObjectNode groupRoot);
+
+  /**
+   * Brings the retained groups up to date: lists and sorted primitive lists changed since the last
+   * refresh are rewritten in their configured order. Their state is kept for further rows.
+   */
+  void refreshGroups();
+
+  /**
+   * Finishes the accumulated rows as a partial tree for {@link
+   * io.github.pojotools.flat2pojo.core.engine.PartialTreeMerger}: lists stay in arrival order and
+   * nothing is materialized. The processor then starts over with an empty root.
+   *
+   * @return the partial tree of the rows processed since the last finish
+   */
+  ObjectNode finishPartial();
 }
@@ -0,0 +1,171 @@
+package io.github.pojotools.flat2pojo.core.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.github.pojotools.flat2pojo.core.engine.RowValues;
+import io.github.pojotools.flat2pojo.core.engine.ValueTransformer;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Reusable per-row buffer of transformed values, addressed by column id. Single Responsibility:
+ * Holds the current row's values grouped by target segment, in row order.
+ *
+ * <p>Loading a row allocates nothing once every column has been seen: slots are cleared and
+ * refilled, and a column whose raw value repeats the previous row's reuses the previous node
+ * instead of transforming it again. Cells of dropped columns are not transformed. Values are only
+ * valid until the next {@link #load}.
+ *
+ * <p>Scoped to one conversion; not thread-safe.
+ */
+final class RowSlots implements RowValues, BiConsumer<String, Object> {
+  private static final int END = -1;
+
+  private final RowLayout layout;
+  private final ValueTransformer valueTransformer;
+  private JsonNode[] values = new JsonNode[0];
+  private Object[] lastRawValues = new Object[0];
+  private JsonNode[] lastNodes = new JsonNode[0];
+  private int[] next = new int[0];
+  private int[] rowOrder = new int[0];
+  private int rowSize;
+  private final int[] segmentHeads;
+  private final int[] segmentTails;
+
+  RowSlots(final RowLayout layout, final ValueTransformer valueTransformer) {
+    this.layout = layout;
+    this.valueTransformer = valueTransformer;
+    this.segmentHeads = new int[layout.rootSegment() + 1];
+    this.segmentTails = new int[layout.rootSegment() + 1];
+    Arrays.fill(segmentHeads, END);
+  }
+
+  void load(final Map<String, ?> row) {
+    clear();
+    row.forEach(this);
+  }
+
+  /** Loads a row whose cells a transform stage already turned into value nodes. */
+  void load(final TransformedRows batch, final int row) {
+    clear();
+    for (int cell = batch.cellStart(row); cell < batch.cellEnd(row); cell++) {
+      final ColumnPlan plan = layout.columnOf(batch.column(cell));
+      ensureCapacity(plan.id() + 1);
+      final JsonNode value = batch.value(cell);
+      if (!plan.dropped()) {
+        store(plan, value);
+      } else if (!value.isNull()) {
+        store(plan, ColumnProjection.PRESENT);
+      }
+    }
+  }
+
+  /** Transforms and stores one cell; {@link Map#forEach} target of {@link #load}. */
+  @Override
+  public void accept(final String column, final Object rawValue) {
+    final ColumnPlan plan = layout.columnOf(column);
+    ensureCapacity(plan.id() + 1);
+    if (plan.dropped()) {
+      if (!valueTransformer.isNull(rawValue)) {
+        store(plan, ColumnProjection.PRESENT);
+      }
+      return;
+    }
+    final JsonNode value = transform(plan.id(), column, rawValue);
+    if (value != null) {
+      store(plan, value);
+    }
+  }
+
+  private void store(final ColumnPlan plan, final JsonNode value) {
+    final int id = plan.id();
+    values[id] = value;
+    rowOrder[rowSize++] = id;
+    if (plan.segment() != RowLayout.NO_SEGMENT) {
+      link(plan.segment(), id);
+    }
+  }
+
+  /** Returns the first column id of {@code segment} in row order, or a negative value. */
+  int first(final int segment) {
+    return segmentHeads[segment];
+  }
+
+  /** Returns the column id after {@code id} within its segment, or a negative value. */
+  int next(final int id) {
+    return next[id];
+  }
+
+  JsonNode value(final int id) {
+    return values[id];
+  }
+
+  @Override
+  public JsonNode get(final String absolutePath) {
+    final ColumnPlan plan = layout.find(absolutePath);
+    return plan == null || plan.id() >= values.length ? null : values[plan.id()];
+  }
+
+  @Override
+  public boolean hasValueUnder(final String absolutePrefix) {
+    for (int i = 0; i < rowSize; i++) {
+      final int id = rowOrder[i];
+      if (layout.column(id).path().absolutePath().startsWith(absolutePrefix)
+          && !values[id].isNull()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private JsonNode transform(final int id, final String column, final Object rawValue) {
+    final JsonNode last = lastNodes[id];
+    if (last != null && isReusable(rawValue) && rawValue.equals(lastRawValues[id])) {
+      return last;
+    }
+    final JsonNode value = valueTransformer.toJsonNode(column, rawValue);
+    final boolean cacheable = value != null && value.isValueNode() && isReusable(rawValue);
+    lastRawValues[id] = cacheable ? rawValue : null;
+    lastNodes[id] = cacheable ? value : null;
+    return value;
+  }
+
+  /** Only types whose node depends on nothing but the value itself (no converter dispatch). */
+  private static boolean isReusable(final Object rawValue) {
+    return rawValue instanceof String
+        || rawValue instanceof Integer
+        || rawValue instanceof Long
+        || rawValue instanceof Double
+        || rawValue instanceof Boolean;
+  }
+
+  private void link(final int segment, final int id) {
+    next[id] = END;
+    if (segmentHeads[segment] == END) {
+      segmentHeads[segment] = id;
+    } else {
+      next[segmentTails[segment]] = id;
+    }
+    segmentTails[segment] = id;
+  }
+
+  private void clear() {
+    for (int i = 0; i < rowSize; i++) {
+      values[rowOrder[i]] = null;
+    }
+    rowSize = 0;
+    Arrays.fill(segmentHeads, END);
+  }
+
+  private void ensureCapacity(final int columnCount) {
+    if (values.length >= columnCount) {
+      return;
+    }
+    final int capacity = Math.max(columnCount, values.length * 2);
+    values = Arrays.copyOf(values, capacity);
+    lastRawValues = Arrays.copyOf(lastRawValues, capacity);
+    lastNodes = Arrays.copyOf(lastNodes, capacity);
+    next = Arrays.copyOf(next, capacity);
+    rowOrder = Arrays.copyOf(rowOrder, capacity);
+  }
+}
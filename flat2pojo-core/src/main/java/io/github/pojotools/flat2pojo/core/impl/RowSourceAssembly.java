@@ -0,0 +1,147 @@
+package io.github.pojotools.flat2pojo.core.impl;
+
+import io.github.pojotools.flat2pojo.core.api.RowSources;
+import io.github.pojotools.flat2pojo.core.config.MappingConfig;
+import io.github.pojotools.flat2pojo.core.config.ValidationException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Assembles roots from separate row sources instead of one JOIN. Single Responsibility: Routes
+ * each source's rows to the group they belong to and to the list rules they carry.
+ *
+ * <p>Every source is grouped by root keys on its own. Per root, the root source is applied first,
+ * then the list sources in declaration order (parents before children). A list-source row only
+ * applies its own rule and the rules of its ancestor lists, whose key columns locate the parent
+ * element, so sibling lists never see each other's rows. Row filters apply to the root source: a
+ * root none of whose rows pass them is skipped with its list-source rows.
+ */
+final class RowSourceAssembly {
+  private final ProcessingPipeline pipeline;
+  private final RowFilter rowFilter;
+  private final List<SourceBatch> batches;
+
+  RowSourceAssembly(final RowSources sources, final ProcessingPipeline pipeline) {
+    this.pipeline = pipeline;
+    this.rowFilter = RowFilter.of(pipeline.context().config());
+    this.batches = buildBatches(sources, pipeline.context());
+  }
+
+  <T> List<T> convert(final Class<T> type) {
+    final List<String> rootKeys = pipeline.context().config().rootKeys();
+    return rootKeys.isEmpty() ? List.of(convertSingleGroup(type)) : convertGroups(type, rootKeys);
+  }
+
+  private <T> T convertSingleGroup(final Class<T> type) {
+    final RowProcessor processor = pipeline.createAssembler();
+    for (int i = 0; i < batches.size(); i++) {
+      final SourceBatch batch = batches.get(i);
+      for (final Map<String, ?> row : batch.rows()) {
+        if (i > 0 || rowFilter.accepts(row)) {
+          processor.processRow(row, batch.rules());
+        }
+      }
+    }
+    return processor.materialize(type);
+  }
+
+  private <T> List<T> convertGroups(final Class<T> type, final List<String> rootKeys) {
+    final List<Map<Object, List<Map<String, ?>>>> groupedBatches = new ArrayList<>();
+    for (final SourceBatch batch : batches) {
+      groupedBatches.add(RootKeyGrouper.groupByRootKeys(batch.rows(), rootKeys));
+    }
+
+    final Map<Object, List<Map<String, ?>>> roots = groupedBatches.getFirst();
+    final List<T> results = new ArrayList<>(roots.size());
+    final RowProcessor processor = pipeline.createAssembler();
+    for (final Map.Entry<Object, List<Map<String, ?>>> root : roots.entrySet()) {
+      if (rowFilter.acceptsAny(root.getValue())) {
+        results.add(processGroup(root.getKey(), groupedBatches, type, processor));
+      }
+    }
+    reportOrphanGroups(roots.keySet(), groupedBatches);
+    return results;
+  }
+
+  private <T> T processGroup(
+      final Object rootKey,
+      final List<Map<Object, List<Map<String, ?>>>> groupedBatches,
+      final Class<T> type,
+      final RowProcessor processor) {
+    for (int i = 0; i < batches.size(); i++) {
+      final List<MappingConfig.ListRule> rules = batches.get(i).rules();
+      for (final Map<String, ?> row : groupedBatches.get(i).getOrDefault(rootKey, List.of())) {
+        if (i > 0 || rowFilter.accepts(row)) {
+          processor.processRow(row, rules);
+        }
+      }
+    }
+    return processor.materialize(type);
+  }
+
+  private void reportOrphanGroups(
+      final Set<Object> rootKeys, final List<Map<Object, List<Map<String, ?>>>> groupedBatches) {
+    final Set<Object> orphans = new HashSet<>();
+    for (final Map<Object, List<Map<String, ?>>> grouped : groupedBatches) {
+      for (final Object key : grouped.keySet()) {
+        if (!rootKeys.contains(key)) {
+          orphans.add(key);
+        }
+      }
+    }
+    if (orphans.isEmpty()) {
+      return;
+    }
+    pipeline
+        .context()
+        .config()
+        .reporter()
+        .ifPresent(
+            r ->
+                r.warn(
+                    "Skipping list-source rows of "
+                        + orphans.size()
+                        + " root key(s) that have no row in the root source"));
+  }
+
+  private static List<SourceBatch> buildBatches(
+      final RowSources sources, final ProcessingContext context) {
+    final List<SourceBatch> batches = new ArrayList<>();
+    batches.add(new SourceBatch(sources.rootRows(), List.of()));
+    for (final MappingConfig.ListRule rule : context.config().lists()) {
+      final List<? extends Map<String, ?>> rows = sources.listRows().get(rule.path());
+      if (rows != null) {
+        batches.add(new SourceBatch(rows, rulesFromRootTo(rule.path(), context)));
+      }
+    }
+    validateSourcePaths(sources, context.config());
+    return batches;
+  }
+
+  private static List<MappingConfig.ListRule> rulesFromRootTo(
+      final String listPath, final ProcessingContext context) {
+    final Set<String> chain = new HashSet<>();
+    for (String path = listPath;
+        path != null;
+        path = context.hierarchyCache().getParentListPath(path)) {
+      chain.add(path);
+    }
+    return context.config().lists().stream().filter(r -> chain.contains(r.path())).toList();
+  }
+
+  private static void validateSourcePaths(
+      final RowSources sources, final MappingConfig config) {
+    for (final String listPath : sources.listRows().keySet()) {
+      if (!config.listPaths().contains(listPath)) {
+        throw new ValidationException(
+            "Row source for '" + listPath + "' does not match any declared list rule");
+      }
+    }
+  }
+
+  private record SourceBatch(
+      List<? extends Map<String, ?>> rows, List<MappingConfig.ListRule> rules) {}
+}
@@ -0,0 +1,62 @@
+package io.github.pojotools.flat2pojo.core.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.util.Arrays;
+
+/**
+ * Remembers, per column, the target segment (the group root or a list element) and value it was
+ * last settled with. A later row carrying an identical value for the same segment can skip path
+ * traversal and conflict handling, because the segment already holds that value.
+ *
+ * <p>JOIN inputs repeat parent segments on every child row, so most of these writes are redundant.
+ * Primitive list paths and columns overlapping another path of their segment are never skipped
+ * (see {@link ColumnPlan#memoizable()}).
+ *
+ * <p>Scoped to one conversion and {@link #clear() cleared} between groups; not thread-safe.
+ */
+final class SegmentWriteTracker {
+  private ObjectNode[] segments = new ObjectNode[0];
+  private JsonNode[] values = new JsonNode[0];
+
+  boolean isAlreadyWritten(
+      final ColumnPlan column, final ObjectNode segment, final JsonNode value) {
+    final int id = column.id();
+    if (!column.memoizable() || id >= segments.length || segments[id] != segment) {
+      return false;
+    }
+    final JsonNode previous = values[id];
+    return previous == value || previous.equals(value);
+  }
+
+  /**
+   * Records the outcome of writing {@code value} into {@code segment}. Only a settled write can
+   * serve as the reference for later rows.
+   */
+  void record(
+      final ColumnPlan column,
+      final ObjectNode segment,
+      final JsonNode value,
+      final boolean settled) {
+    if (!column.memoizable()) {
+      return;
+    }
+    final int id = column.id();
+    ensureCapacity(id + 1);
+    segments[id] = settled ? segment : null;
+    values[id] = settled ? value : null;
+  }
+
+  void clear() {
+    Arrays.fill(segments, null);
+    Arrays.fill(values, null);
+  }
+
+  private void ensureCapacity(final int columnCount) {
+    if (segments.length < columnCount) {
+      final int capacity = Math.max(columnCount, segments.length * 2);
+      segments = Arrays.copyOf(segments, capacity);
+      values = Arrays.copyOf(values, capacity);
+    }
+  }
+}
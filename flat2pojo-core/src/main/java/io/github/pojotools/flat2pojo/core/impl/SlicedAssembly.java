@@ -0,0 +1,149 @@
+package io.github.pojotools.flat2pojo.core.impl;
+
+import io.github.pojotools.flat2pojo.core.api.SlicedConversion;
+import io.github.pojotools.flat2pojo.core.config.MappingConfig;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A conversion run a few root groups at a time (see {@link SlicedConversion}). Single
+ * Responsibility: Assembles whole root groups until a row budget is spent, so the caller can yield
+ * its thread between groups.
+ *
+ * <p>The conversion owns its assembler, so slices may run on different threads one after another;
+ * they must not run concurrently. Groups and roots come out exactly as {@link
+ * Flat2PojoCore#convertAll} produces them: indexed grouping by default, adjacent-key grouping
+ * (including the {@code verified} check) for clustered input, and one group when there are no root
+ * keys. A group never spans slices, except the single group of a conversion without root keys,
+ * which is sliced between rows. Rows rejected by the row filters are skipped as they are read and
+ * count against no budget.
+ */
+final class SlicedAssembly<T> implements SlicedConversion<T> {
+  private final List<? extends Map<String, ?>> rows;
+  private final Class<T> type;
+  private final RowProcessor processor;
+  private final Runnable onComplete;
+  private final MappingConfig config;
+  private final RowFilter rowFilter;
+  private final List<T> results = new ArrayList<>();
+  private RowGroupIndex index;
+  private ClusteredRowGrouper grouper;
+  private int next; // next group of the index, otherwise next row
+  private int openRows; // rows of the open clustered group
+  private boolean resumeOnRow; // rows[next] opened a group in the previous slice
+  private boolean done;
+
+  SlicedAssembly(
+      final List<? extends Map<String, ?>> rows,
+      final Class<T> type,
+      final ProcessingPipeline pipeline,
+      final Runnable onComplete) {
+    this.rows = rows;
+    this.type = type;
+    this.processor = pipeline.createAssembler();
+    this.onComplete = onComplete;
+    this.config = pipeline.context().config();
+    this.rowFilter = RowFilter.of(config);
+  }
+
+  @Override
+  public int advance(final int rowBudget) {
+    if (done) {
+      return 0;
+    }
+    final int processed;
+    if (config.rootKeys().isEmpty()) {
+      processed = advanceUngrouped(rowBudget);
+    } else if (config.inputClustering() != MappingConfig.InputClustering.none) {
+      processed = advanceClustered(rowBudget);
+    } else {
+      processed = advanceIndexed(rowBudget);
+    }
+    if (done) {
+      onComplete.run();
+    }
+    return processed;
+  }
+
+  @Override
+  public boolean done() {
+    return done;
+  }
+
+  @Override
+  public List<T> results() {
+    return results;
+  }
+
+  private int advanceIndexed(final int rowBudget) {
+    if (index == null) {
+      index = RowGroupIndex.build(rows, config.rootKeys(), rowFilter);
+    }
+    int processed = 0;
+    while (next < index.groupCount() && processed < rowBudget) {
+      final int size = index.groupSize(next);
+      for (int i = 0; i < size; i++) {
+        processor.processRow(index.row(next, i));
+      }
+      results.add(processor.materialize(type));
+      processed += size;
+      next++;
+    }
+    done = next == index.groupCount();
+    return processed;
+  }
+
+  private int advanceClustered(final int rowBudget) {
+    if (grouper == null) {
+      grouper = new ClusteredRowGrouper(config);
+    }
+    int processed = 0;
+    if (resumeOnRow) {
+      resumeOnRow = false;
+      processor.processRow(rows.get(next++));
+      openRows = 1;
+      processed++;
+    }
+    for (; next < rows.size(); next++) {
+      final Map<String, ?> row = rows.get(next);
+      final ClusteredRowGrouper.Boundary boundary = grouper.advance(row, next);
+      if (boundary == ClusteredRowGrouper.Boundary.NEW_GROUP && openRows > 0) {
+        results.add(processor.materialize(type));
+        openRows = 0;
+        if (processed >= rowBudget) {
+          // the grouper already opened this row's group; its row goes first next slice
+          resumeOnRow = true;
+          return processed;
+        }
+      }
+      if (boundary != ClusteredRowGrouper.Boundary.SKIPPED) {
+        processor.processRow(row);
+        openRows++;
+        processed++;
+      }
+    }
+    if (openRows > 0) {
+      results.add(processor.materialize(type));
+    }
+    done = true;
+    return processed;
+  }
+
+  private int advanceUngrouped(final int rowBudget) {
+    final int budget = Math.max(rowBudget, 1);
+    int processed = 0;
+    for (; next < rows.size() && processed < budget; next++) {
+      final Map<String, ?> row = rows.get(next);
+      if (rowFilter.accepts(row)) {
+        processor.processRow(row);
+        processed++;
+      }
+    }
+    if (next == rows.size()) {
+      results.add(processor.materialize(type));
+      done = true;
+    }
+    return processed;
+  }
+}
@@ -0,0 +1,85 @@
+package io.github.pojotools.flat2pojo.core.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded single-producer/single-consumer ring. Single Responsibility: Hands elements from exactly
+ * one thread to exactly one other, in order, without locks.
+ *
+ * <p>{@link #put} never blocks: rings are sized to hold every element that can be in flight, so a
+ * full ring is a bug. {@link #take} spins briefly and then parks until the producer publishes or
+ * the ring is closed. Head and tail are volatile, so a parking consumer and a publishing producer
+ * always see each other's writes and no wake-up is lost.
+ */
+final class SpscRing<E> {
+  private static final int SPINS = 128;
+
+  private final Object[] slots;
+  private final int mask;
+  private final AtomicLong head = new AtomicLong();
+  private final AtomicLong tail = new AtomicLong();
+  private volatile Thread waiter;
+  private volatile boolean closed;
+
+  /** Creates a ring of at least {@code capacity} slots. */
+  SpscRing(final int capacity) {
+    final int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+    this.slots = new Object[size];
+    this.mask = size - 1;
+  }
+
+  /** Publishes {@code element}; called by the producer only. */
+  void put(final E element) {
+    final long position = tail.get();
+    if (position - head.get() == slots.length) {
+      throw new IllegalStateException("Ring of " + slots.length + " slots is full");
+    }
+    slots[(int) position & mask] = element;
+    tail.set(position + 1);
+    final Thread consumer = waiter;
+    if (consumer != null) {
+      LockSupport.unpark(consumer);
+    }
+  }
+
+  /**
+   * Returns the next element, waiting until one is published; called by the consumer only.
+   *
+   * @return the next element, or {@code null} once the ring is closed
+   */
+  @SuppressWarnings("unchecked")
+  E take() {
+    final long position = head.get();
+    int spins = 0;
+    while (closed || tail.get() == position) {
+      if (closed) {
+        return null;
+      }
+      if (spins < SPINS) {
+        spins++;
+        Thread.onSpinWait();
+        continue;
+      }
+      waiter = Thread.currentThread();
+      if (tail.get() == position && !closed) {
+        LockSupport.park(this);
+      }
+      waiter = null;
+    }
+    final int slot = (int) position & mask;
+    final E element = (E) slots[slot];
+    slots[slot] = null;
+    head.set(position + 1);
+    return element;
+  }
+
+  /** Wakes the consumer; {@link #take} returns {@code null} from now on. */
+  void close() {
+    closed = true;
+    final Thread consumer = waiter;
+    if (consumer != null) {
+      LockSupport.unpark(consumer);
+    }
+  }
+}
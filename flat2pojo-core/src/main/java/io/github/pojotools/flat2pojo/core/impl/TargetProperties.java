@@ -0,0 +1,185 @@
+package io.github.pojotools.flat2pojo.core.impl;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.databind.AnnotationIntrospector;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyName;
+import com.fasterxml.jackson.databind.introspect.Annotated;
+import com.fasterxml.jackson.databind.introspect.AnnotatedAndMetadata;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMember;
+import com.fasterxml.jackson.databind.introspect.AnnotatedWithParams;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The property paths a target type binds. Single Responsibility: Describes, from Jackson's
+ * deserialization view of a type, which nested property names the materializer would read.
+ *
+ * <p>A node either lists its properties or is open: anything beneath an open node is bound or at
+ * least not known to be ignored. Scalars, maps, {@link JsonNode}s, abstract and polymorphic types,
+ * recursive references and beans bound by builders, custom deserializers, any-setters or
+ * unwrapped properties are open, so projecting by a type never drops a column the type might
+ * read. Collections, arrays and references are described by their content type, since list
+ * elements sit at their list's path; a type with a delegating creator (as Immutables generates)
+ * by the creator's parameter type. Immutable and shared.
+ */
+final class TargetProperties {
+  private static final TargetProperties OPEN = new TargetProperties(null);
+
+  private final Map<String, TargetProperties> properties; // null when open
+
+  private TargetProperties(final Map<String, TargetProperties> properties) {
+    this.properties = properties;
+  }
+
+  static TargetProperties of(final ObjectMapper objectMapper, final Class<?> type) {
+    if (objectMapper.isEnabled(MapperFeature.ACCEPT_CASE_INSENSITIVE_PROPERTIES)) {
+      return OPEN;
+    }
+    return new Describer(objectMapper.getDeserializationConfig())
+        .describe(objectMapper.constructType(type));
+  }
+
+  /** Whether {@code column}, split at {@code separator}, names a path the type may bind. */
+  boolean binds(final String column, final String separator) {
+    TargetProperties node = this;
+    int from = 0;
+    while (node.properties != null) {
+      final int end = column.indexOf(separator, from);
+      node = node.properties.get(end < 0 ? column.substring(from) : column.substring(from, end));
+      if (node == null) {
+        return false;
+      }
+      if (end < 0) {
+        return true;
+      }
+      from = end + separator.length();
+    }
+    return true;
+  }
+
+  private static final class Describer {
+    private final DeserializationConfig config;
+    private final AnnotationIntrospector introspector;
+    private final Set<JavaType> describing = new HashSet<>();
+
+    Describer(final DeserializationConfig config) {
+      this.config = config;
+      this.introspector = config.getAnnotationIntrospector();
+    }
+
+    TargetProperties describe(final JavaType declared) {
+      JavaType type = declared;
+      while (type.isCollectionLikeType() || type.isArrayType() || type.isReferenceType()) {
+        type = type.getContentType();
+      }
+      if (isOpenType(type)) {
+        return OPEN;
+      }
+      try {
+        type =
+            introspector.refineDeserializationType(
+                config, config.introspectClassAnnotations(type).getClassInfo(), type);
+      } catch (final JsonMappingException unresolvable) {
+        return OPEN;
+      }
+      if (isOpenType(type) || type.isAbstract() || !describing.add(type)) {
+        return OPEN;
+      }
+      try {
+        return describeBean(config.introspect(type));
+      } finally {
+        describing.remove(type);
+      }
+    }
+
+    private TargetProperties describeBean(final BeanDescription bean) {
+      if (isCustomBound(bean)) {
+        return OPEN;
+      }
+      final AnnotatedWithParams delegating = delegatingCreator(bean);
+      if (delegating != null) {
+        // e.g. Immutables: the JSON binds to the creator's parameter type
+        return delegating.getParameterCount() == 1
+            ? describe(delegating.getParameterType(0))
+            : OPEN;
+      }
+      final Map<String, TargetProperties> properties = new HashMap<>();
+      for (final BeanPropertyDefinition property : bean.findProperties()) {
+        final AnnotatedMember member = property.getPrimaryMember();
+        if (member != null && introspector.findUnwrappingNameTransformer(member) != null) {
+          return OPEN;
+        }
+        final TargetProperties child =
+            member != null && introspector.findDeserializer(member) != null
+                ? OPEN
+                : describe(property.getPrimaryType());
+        properties.put(property.getName(), child);
+        for (final String alias : aliasesOf(property)) {
+          properties.put(alias, child);
+        }
+      }
+      return new TargetProperties(properties);
+    }
+
+    private boolean isCustomBound(final BeanDescription bean) {
+      return bean.findPOJOBuilder() != null
+          || bean.findAnySetterAccessor() != null
+          || introspector.findDeserializer(bean.getClassInfo()) != null
+          || introspector.findTypeResolver(config, bean.getClassInfo(), bean.getType()) != null;
+    }
+
+    private static AnnotatedWithParams delegatingCreator(final BeanDescription bean) {
+      final List<AnnotatedAndMetadata<? extends AnnotatedWithParams, JsonCreator.Mode>> creators =
+          new ArrayList<>(bean.getConstructorsWithMode());
+      creators.addAll(bean.getFactoryMethodsWithMode());
+      for (final var creator : creators) {
+        if (creator.metadata == JsonCreator.Mode.DELEGATING) {
+          return creator.annotated;
+        }
+      }
+      return null;
+    }
+
+    private List<String> aliasesOf(final BeanPropertyDefinition property) {
+      final List<Annotated> members = new ArrayList<>();
+      members.add(property.getField());
+      members.add(property.getSetter());
+      final Iterator<? extends Annotated> parameters = property.getConstructorParameters();
+      while (parameters.hasNext()) {
+        members.add(parameters.next());
+      }
+      final List<String> aliases = new ArrayList<>();
+      for (final Annotated member : members) {
+        final List<PropertyName> names =
+            member == null ? null : introspector.findPropertyAliases(member);
+        if (names != null) {
+          names.forEach(name -> aliases.add(name.getSimpleName()));
+        }
+      }
+      return aliases;
+    }
+
+    private static boolean isOpenType(final JavaType type) {
+      final Class<?> raw = type.getRawClass();
+      return type.isMapLikeType()
+          || type.isJavaLangObject()
+          || raw.isPrimitive()
+          || raw.isEnum()
+          || JsonNode.class.isAssignableFrom(raw)
+          || raw.getName().startsWith("java.");
+    }
+  }
+}
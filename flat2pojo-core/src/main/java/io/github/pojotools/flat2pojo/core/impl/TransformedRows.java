@@ -0,0 +1,75 @@
+package io.github.pojotools.flat2pojo.core.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.util.Arrays;
+
+/**
+ * A batch of rows whose cells are already transformed into value nodes. Single Responsibility:
+ * Carries transformed cells from a transform stage to the assembler in flat, reusable arrays.
+ *
+ * <p>Cells keep their row order; dropped cells (nulls under {@code allowSparseRows}) are not
+ * stored. A batch is refilled after every use and belongs to one thread at a time: ownership
+ * passes with the {@link SpscRing} hand-off.
+ */
+final class TransformedRows {
+  private static final int INITIAL_CELLS = 64;
+
+  private final int[] rowEnds;
+  private String[] columns = new String[INITIAL_CELLS];
+  private JsonNode[] values = new JsonNode[INITIAL_CELLS];
+  private int rowCount;
+  private int cellCount;
+  private Throwable failure;
+
+  TransformedRows(final int maxRows) {
+    this.rowEnds = new int[maxRows];
+  }
+
+  void clear() {
+    rowCount = 0;
+    cellCount = 0;
+  }
+
+  void addCell(final String column, final JsonNode value) {
+    if (cellCount == columns.length) {
+      columns = Arrays.copyOf(columns, cellCount * 2);
+      values = Arrays.copyOf(values, cellCount * 2);
+    }
+    columns[cellCount] = column;
+    values[cellCount++] = value;
+  }
+
+  /** Ends the current row; the cells added since the previous row end belong to it. */
+  void endRow() {
+    rowEnds[rowCount++] = cellCount;
+  }
+
+  int rowCount() {
+    return rowCount;
+  }
+
+  int cellStart(final int row) {
+    return row == 0 ? 0 : rowEnds[row - 1];
+  }
+
+  int cellEnd(final int row) {
+    return rowEnds[row];
+  }
+
+  String column(final int cell) {
+    return columns[cell];
+  }
+
+  JsonNode value(final int cell) {
+    return values[cell];
+  }
+
+  /** Marks the batch as the last one of a stage that failed with {@code cause}. */
+  void fail(final Throwable cause) {
+    failure = cause;
+  }
+
+  Throwable failure() {
+    return failure;
+  }
+}
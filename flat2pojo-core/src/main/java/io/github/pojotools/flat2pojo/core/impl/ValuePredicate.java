@@ -0,0 +1,187 @@
+package io.github.pojotools.flat2pojo.core.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.github.pojotools.flat2pojo.core.config.MappingConfig;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * One compiled filter condition. Single Responsibility: Tests a single value, raw or transformed,
+ * against the operands of a {@link MappingConfig.Filter}.
+ *
+ * <p>Operands are classified once, so testing a value allocates nothing except for big decimal
+ * comparisons. Immutable and shared.
+ */
+final class ValuePredicate {
+  private static final int UNEQUAL = Integer.MIN_VALUE; // no order between value and operand
+
+  private final MappingConfig.FilterOp op;
+  private final Operand[] operands;
+  private final boolean blanksAsNulls;
+
+  /**
+   * @param blanksAsNulls whether a blank raw string counts as null, as the transformed value would
+   */
+  ValuePredicate(final MappingConfig.Filter filter, final boolean blanksAsNulls) {
+    this.op = filter.op();
+    this.operands = filter.values().stream().map(Operand::of).toArray(Operand[]::new);
+    this.blanksAsNulls = blanksAsNulls;
+  }
+
+  /** Tests a raw row value. */
+  boolean test(final Object raw) {
+    if (raw == null || (blanksAsNulls && raw instanceof String text && text.isBlank())) {
+      return passesNull();
+    }
+    return switch (op) {
+      case isNull -> false;
+      case notNull -> true;
+      case oneOf -> matchesAny(raw);
+      case noneOf -> !matchesAny(raw);
+      default -> passes(compareRaw(raw, operands[0]));
+    };
+  }
+
+  /** Tests a transformed value; {@code null} is an absent value. */
+  boolean test(final JsonNode node) {
+    if (node == null || node.isNull() || node.isMissingNode()) {
+      return passesNull();
+    }
+    return switch (op) {
+      case isNull -> false;
+      case notNull -> true;
+      case oneOf -> matchesAny(node);
+      case noneOf -> !matchesAny(node);
+      default -> passes(compareNode(node, operands[0]));
+    };
+  }
+
+  private boolean passesNull() {
+    return op == MappingConfig.FilterOp.isNull
+        || op == MappingConfig.FilterOp.ne
+        || op == MappingConfig.FilterOp.noneOf;
+  }
+
+  private boolean passes(final int comparison) {
+    return switch (op) {
+      case eq -> comparison == 0;
+      case ne -> comparison != 0;
+      case lt -> comparison != UNEQUAL && comparison < 0;
+      case le -> comparison != UNEQUAL && comparison <= 0;
+      case gt -> comparison > 0;
+      case ge -> comparison >= 0;
+      default -> throw new IllegalStateException("Not a comparison: " + op);
+    };
+  }
+
+  private boolean matchesAny(final Object raw) {
+    for (final Operand operand : operands) {
+      if (compareRaw(raw, operand) == 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean matchesAny(final JsonNode node) {
+    for (final Operand operand : operands) {
+      if (compareNode(node, operand) == 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static int compareRaw(final Object raw, final Operand operand) {
+    if (raw instanceof Integer
+        || raw instanceof Long
+        || raw instanceof Short
+        || raw instanceof Byte) {
+      return operand.compareLong(((Number) raw).longValue());
+    }
+    if (raw instanceof BigDecimal decimal) {
+      return operand.compareDecimal(decimal);
+    }
+    if (raw instanceof BigInteger integer) {
+      return operand.compareDecimal(new BigDecimal(integer));
+    }
+    if (raw instanceof Number number) {
+      return operand.compareDouble(number.doubleValue());
+    }
+    if (raw instanceof Boolean bool) {
+      return operand.compareBoolean(bool);
+    }
+    return operand.compareText(raw instanceof String text ? text : raw.toString());
+  }
+
+  private static int compareNode(final JsonNode node, final Operand operand) {
+    if (node.isIntegralNumber() && node.canConvertToLong()) {
+      return operand.compareLong(node.longValue());
+    }
+    if (node.isBigDecimal() || node.isBigInteger()) {
+      return operand.compareDecimal(node.decimalValue());
+    }
+    if (node.isNumber()) {
+      return operand.compareDouble(node.doubleValue());
+    }
+    if (node.isBoolean()) {
+      return operand.compareBoolean(node.booleanValue());
+    }
+    return operand.compareText(node.isTextual() ? node.textValue() : node.asText());
+  }
+
+  /** An operand classified by type; comparisons with another type are {@link #UNEQUAL}. */
+  private record Operand(
+      boolean integral,
+      long longValue,
+      double doubleValue,
+      BigDecimal decimal,
+      String text,
+      Boolean bool) {
+
+    static Operand of(final Object value) {
+      if (value instanceof Number number) {
+        final BigDecimal decimal =
+            number instanceof BigDecimal exact ? exact : new BigDecimal(number.toString());
+        final boolean integral =
+            decimal.stripTrailingZeros().scale() <= 0
+                && decimal.compareTo(BigDecimal.valueOf(Long.MAX_VALUE)) <= 0
+                && decimal.compareTo(BigDecimal.valueOf(Long.MIN_VALUE)) >= 0;
+        return new Operand(
+            integral,
+            integral ? decimal.longValue() : 0L,
+            decimal.doubleValue(),
+            decimal,
+            null,
+            null);
+      }
+      if (value instanceof Boolean bool) {
+        return new Operand(false, 0L, 0d, null, null, bool);
+      }
+      return new Operand(false, 0L, 0d, null, (String) value, null);
+    }
+
+    int compareLong(final long value) {
+      if (decimal == null) {
+        return UNEQUAL;
+      }
+      return integral ? Long.compare(value, longValue) : Double.compare(value, doubleValue);
+    }
+
+    int compareDouble(final double value) {
+      return decimal == null ? UNEQUAL : Double.compare(value, doubleValue);
+    }
+
+    int compareDecimal(final BigDecimal value) {
+      return decimal == null ? UNEQUAL : value.compareTo(decimal);
+    }
+
+    int compareBoolean(final boolean value) {
+      return bool == null ? UNEQUAL : Boolean.compare(value, bool);
+    }
+
+    int compareText(final String value) {
+      return text == null ? UNEQUAL : value.compareTo(text);
+    }
+  }
+}
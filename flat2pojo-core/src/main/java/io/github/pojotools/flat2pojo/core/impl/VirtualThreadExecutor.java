@@ -0,0 +1,38 @@
+package io.github.pojotools.flat2pojo.core.impl;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Runs every task on its own virtual thread. Single Responsibility: Bounds how many tasks run at
+ * once without bounding how many may wait.
+ *
+ * <p>A task's thread is started right away and parks on a {@link Semaphore} until a permit is
+ * free, so {@link #execute} never blocks the submitter, and a waiting virtual thread releases its
+ * carrier. Nothing here holds a monitor, so waiting tasks do not pin carrier threads.
+ */
+final class VirtualThreadExecutor implements Executor {
+  private final Semaphore permits;
+  private final ThreadFactory threads = Thread.ofVirtual().name("flat2pojo-", 0).factory();
+
+  VirtualThreadExecutor(final int maxConcurrency) {
+    this.permits = new Semaphore(maxConcurrency);
+  }
+
+  @Override
+  public void execute(final Runnable task) {
+    threads
+        .newThread(
+            () -> {
+              // a submitted task must run, or the future it completes would never complete
+              permits.acquireUninterruptibly();
+              try {
+                task.run();
+              } finally {
+                permits.release();
+              }
+            })
+        .start();
+  }
+}
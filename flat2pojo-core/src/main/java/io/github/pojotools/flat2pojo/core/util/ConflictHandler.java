@@ -2,6 +2,7 @@ package io.github.pojotools.flat2pojo.core.util;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.github.pojotools.flat2pojo.core.config.MappingConfig.ConflictPolicy;
 import java.util.Iterator;
 
 /**
@@ -13,7 +14,13 @@ import java.util.Iterator;
 public final class ConflictHandler {
   private ConflictHandler() {}
 
-  public static void writeScalarWithPolicy(
+  /**
+   * Writes {@code incoming} to {@code fieldName} according to the conflict policy.
+   *
+   * @return {@code true} if the field is settled on {@code incoming} afterwards, i.e. repeating the
+   *     same write would not change the node or report anything
+   */
+  public static boolean writeScalarWithPolicy(
       final ObjectNode target,
       final String fieldName,
       final JsonNode incoming,
@@ -22,13 +29,16 @@ public final class ConflictHandler {
 
     if (existing == null || existing.isNull()) {
       target.set(fieldName, incoming);
-      return;
+      return true;
     }
 
     final boolean shouldWrite = applyPolicy(existing, incoming, context);
     if (shouldWrite) {
       target.set(fieldName, incoming);
+      return true;
     }
+    // firstWriteWins kept a different value; merge folded objects in place (idempotent)
+    return context.policy() == ConflictPolicy.merge || existing.equals(incoming);
   }
 
   private static boolean applyPolicy(
@@ -58,6 +58,17 @@ public final class PathOps {
     return current;
   }
 
+  /** Allocation-free variant of {@link #traverseAndEnsurePath} over pre-split segments. */
+  public static ObjectNode traverseAndEnsurePath(
+      final ObjectNode root, final PathSegments segments, final ObjectNodeEnsurer ensurer) {
+    ObjectNode current = root;
+    final List<String> parents = segments.parents();
+    for (int i = 0; i < parents.size(); i++) {
+      current = ensurer.ensureObject(current, parents.get(i));
+    }
+    return current;
+  }
+
   /** Gets the final segment of a path after the last separator. */
   public static String getFinalSegment(final String path, final String separator) {
     final int lastSep = path.lastIndexOf(separator);
@@ -0,0 +1,22 @@
+package io.github.pojotools.flat2pojo.core.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A path split once into its parent segments and final field name, so hot-path traversal does not
+ * re-scan or substring the path on every row. Example: "a/b/c" has parents [a, b] and leaf "c".
+ */
+public record PathSegments(List<String> parents, String leaf) {
+
+  public static PathSegments of(final String path, final String separator) {
+    final List<String> parents = new ArrayList<>();
+    int start = 0;
+    int sepIndex;
+    while ((sepIndex = path.indexOf(separator, start)) >= 0) {
+      parents.add(path.substring(start, sepIndex));
+      start = sepIndex + separator.length();
+    }
+    return new PathSegments(List.copyOf(parents), path.substring(start));
+  }
+}
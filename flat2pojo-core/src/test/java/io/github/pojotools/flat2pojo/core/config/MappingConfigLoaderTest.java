@@ -3,6 +3,7 @@ package io.github.pojotools.flat2pojo.core.config;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import java.util.List;
 import org.junit.jupiter.api.Test;
 
 class MappingConfigLoaderTest {
@@ -42,4 +43,83 @@ class MappingConfigLoaderTest {
         .hasMessageContaining("must be relative")
         .hasMessageContaining("order/items/id");
   }
+
+  @Test
+  void fromYaml_withInterning_parsesPolicy() {
+    String yaml =
+        """
+        interning:
+          paths: ["status", "customer/country"]
+          autoDetect: true
+          maxEntriesPerColumn: 64
+        """;
+
+    MappingConfig config = MappingConfigLoader.fromYaml(yaml);
+
+    assertThat(config.interningPolicy())
+        .isEqualTo(
+            new MappingConfig.InterningPolicy(List.of("status", "customer/country"), true, 64));
+  }
+
+  @Test
+  void fromYaml_withParallelAssembly_parsesSettings() {
+    String yaml =
+        """
+        parallelAssembly:
+          minGroupRows: 100000
+          chunkRows: 20000
+        """;
+
+    MappingConfig config = MappingConfigLoader.fromYaml(yaml);
+
+    assertThat(config.parallelAssembly())
+        .isEqualTo(new MappingConfig.ParallelAssembly(100_000, 20_000));
+    assertThat(MappingConfigLoader.fromYaml("separator: \"/\"").parallelAssembly())
+        .isEqualTo(MappingConfig.ParallelAssembly.disabled());
+  }
+
+  @Test
+  void fromYaml_withInputClustering_parsesMode() {
+    MappingConfig config = MappingConfigLoader.fromYaml("inputClustering: verified");
+
+    assertThat(config.inputClustering()).isEqualTo(MappingConfig.InputClustering.verified);
+    assertThat(MappingConfigLoader.fromYaml("separator: \"/\"").inputClustering())
+        .isEqualTo(MappingConfig.InputClustering.none);
+  }
+
+  @Test
+  void fromYaml_withParallelGrouping_parsesSettings() {
+    String yaml =
+        """
+        parallelGrouping:
+          minRows: 1000000
+          partitions: 8
+        """;
+
+    MappingConfig config = MappingConfigLoader.fromYaml(yaml);
+
+    assertThat(config.parallelGrouping())
+        .isEqualTo(new MappingConfig.ParallelGrouping(1_000_000, 8));
+    assertThat(config.parallelGrouping().partitionCount()).isEqualTo(8);
+    assertThat(MappingConfigLoader.fromYaml("separator: \"/\"").parallelGrouping())
+        .isEqualTo(MappingConfig.ParallelGrouping.disabled());
+  }
+
+  @Test
+  void fromYaml_withPipelinedTransform_parsesSettings() {
+    String yaml =
+        """
+        pipelinedTransform:
+          stages: 2
+        """;
+
+    MappingConfig config = MappingConfigLoader.fromYaml(yaml);
+
+    assertThat(config.pipelinedTransform())
+        .isEqualTo(
+            new MappingConfig.PipelinedTransform(
+                2, MappingConfig.PipelinedTransform.DEFAULT_BATCH_ROWS));
+    assertThat(MappingConfigLoader.fromYaml("separator: \"/\"").pipelinedTransform())
+        .isEqualTo(MappingConfig.PipelinedTransform.disabled());
+  }
 }
@@ -1,6 +1,7 @@
 package io.github.pojotools.flat2pojo.core.engine;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
@@ -135,4 +136,58 @@ class ArrayBucketTest {
 
     assertThat(cached1).isSameAs(cached2);
   }
+
+  @Test
+  void appendOnly_keepsEveryElementInArrivalOrder() {
+    ArrayBucket appendOnly = ArrayBucket.appendOnly();
+    ObjectNode first = createNode("id", "same");
+    ObjectNode second = createNode("id", "same");
+
+    appendOnly.append(first);
+    appendOnly.append(second);
+
+    assertThat(appendOnly.ordered(List.of())).containsExactly(first, second);
+  }
+
+  @Test
+  void appendOnly_sortsWithComparators() {
+    ArrayBucket appendOnly = ArrayBucket.appendOnly();
+    ObjectNode b = createNode("id", "b");
+    ObjectNode a = createNode("id", "a");
+    appendOnly.append(b);
+    appendOnly.append(a);
+
+    Comparator<ObjectNode> comparator = Comparator.comparing(n -> n.get("id").asText());
+
+    assertThat(appendOnly.ordered(List.of(comparator))).containsExactly(a, b);
+  }
+
+  @Test
+  void appendOnly_rejectsUpsert() {
+    ArrayBucket appendOnly = ArrayBucket.appendOnly();
+
+    assertThatThrownBy(() -> appendOnly.upsert(key("id1"), om.createObjectNode()))
+        .isInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  void find_withReusedProbe_matchesStoredKeyAndDetachesForInsert() {
+    CompositeKey probe = CompositeKey.probe(2);
+    probe.add("id1");
+    probe.rehash();
+
+    assertThat(bucket.find(probe)).isNull();
+    ObjectNode inserted = bucket.upsert(probe.detach(), om.createObjectNode());
+
+    probe.reset();
+    probe.add("id2");
+    probe.rehash();
+    assertThat(bucket.find(probe)).isNull();
+
+    probe.reset();
+    probe.add("id1");
+    probe.rehash();
+    assertThat(bucket.find(probe)).isSameAs(inserted);
+    assertThat(bucket.find(key("id1"))).isSameAs(inserted);
+  }
 }
@@ -0,0 +1,90 @@
+package io.github.pojotools.flat2pojo.core.engine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class CompactNodeFactoryTest {
+
+  private final ObjectMapper om = new ObjectMapper();
+  private final CompactNodeFactory factory = new CompactNodeFactory();
+
+  private ObjectNode element(CompactNodeFactory nodeFactory, int id) {
+    ObjectNode node = nodeFactory.objectNode();
+    node.put("id", id);
+    node.put("name", "n" + id);
+    node.putObject("meta").put("active", true);
+    return node;
+  }
+
+  @Test
+  void objectNode_behavesLikeRegularObjectNode() throws Exception {
+    ObjectNode compact = element(factory, 1);
+    ObjectNode regular = om.createObjectNode();
+    regular.put("id", 1);
+    regular.put("name", "n1");
+    regular.putObject("meta").put("active", true);
+
+    assertThat(compact).isEqualTo(regular);
+    assertThat(regular).isEqualTo(compact);
+    assertThat(om.writeValueAsString(compact)).isEqualTo(om.writeValueAsString(regular));
+    assertThat(om.treeToValue(compact, Map.class))
+        .isEqualTo(Map.of("id", 1, "name", "n1", "meta", Map.of("active", true)));
+  }
+
+  @Test
+  void objectNode_replacingAndRemovingFields_keepsInsertionOrder() {
+    ObjectNode node = element(factory, 1);
+
+    node.put("name", "renamed");
+    node.remove("id");
+    node.put("id", 2);
+
+    List<String> names = new ArrayList<>();
+    node.fieldNames().forEachRemaining(names::add);
+    assertThat(names).containsExactly("name", "meta", "id");
+    assertThat(node.get("name").asText()).isEqualTo("renamed");
+  }
+
+  @Test
+  void objectNode_withSameFields_sharesShapeButNotValues() {
+    ObjectNode first = element(factory, 1);
+    ObjectNode second = element(factory, 2);
+
+    assertThat(first.get("id").asInt()).isEqualTo(1);
+    assertThat(second.get("id").asInt()).isEqualTo(2);
+    assertThat(second.get("meta")).isEqualTo(first.get("meta"));
+  }
+
+  @Test
+  void objectNode_nullFieldName_isAbsentLikeInRegularNode() {
+    ObjectNode narrow = element(factory, 1);
+    ObjectNode wide = factory.objectNode();
+    for (int i = 0; i < 10; i++) {
+      wide.put("f" + i, i);
+    }
+
+    assertThat(narrow.get((String) null)).isNull();
+    assertThat(wide.get((String) null)).isNull();
+    assertThat(wide.has((String) null)).isFalse();
+  }
+
+  @Test
+  void objectNode_retainAndRemoveAll_workThroughIterator() {
+    ObjectNode node = element(factory, 1);
+
+    node.retain("name", "meta");
+    assertThat(node.size()).isEqualTo(2);
+    assertThat(node.has("id")).isFalse();
+
+    node.removeAll();
+    assertThat(node.isEmpty()).isTrue();
+    node.put("id", 3);
+    assertThat(node).isEqualTo(om.createObjectNode().put("id", 3));
+  }
+}
@@ -0,0 +1,61 @@
+package io.github.pojotools.flat2pojo.core.engine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.node.TextNode;
+import io.github.pojotools.flat2pojo.core.config.MappingConfig.InterningPolicy;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class TextNodeInternerTest {
+
+  @Test
+  void textNode_whenDisabled_returnsFreshNodes() {
+    TextNodeInterner interner = new TextNodeInterner(InterningPolicy.disabled());
+
+    TextNode first = interner.textNode("status", new String("OPEN"));
+    TextNode second = interner.textNode("status", new String("OPEN"));
+
+    assertThat(first).isEqualTo(second).isNotSameAs(second);
+  }
+
+  @Test
+  void textNode_forConfiguredPath_sharesNodeAndString() {
+    TextNodeInterner interner =
+        new TextNodeInterner(new InterningPolicy(List.of("status"), false, 8));
+
+    TextNode first = interner.textNode("status", new String("OPEN"));
+    TextNode second = interner.textNode("status", new String("OPEN"));
+    TextNode other = interner.textNode("name", new String("OPEN"));
+
+    assertThat(second).isSameAs(first);
+    assertThat(second.textValue()).isSameAs(first.textValue());
+    assertThat(other).isNotSameAs(first);
+  }
+
+  @Test
+  void textNode_forConfiguredPath_whenFull_keepsExistingEntries() {
+    TextNodeInterner interner =
+        new TextNodeInterner(new InterningPolicy(List.of("code"), false, 1));
+
+    TextNode a = interner.textNode("code", "A");
+    interner.textNode("code", "B");
+
+    assertThat(interner.textNode("code", "A")).isSameAs(a);
+    assertThat(interner.textNode("code", "B")).isNotSameAs(interner.textNode("code", "B"));
+  }
+
+  @Test
+  void textNode_withAutoDetect_dropsHighCardinalityColumns() {
+    TextNodeInterner interner = new TextNodeInterner(new InterningPolicy(List.of(), true, 2));
+
+    TextNode country = interner.textNode("country", "DE");
+    interner.textNode("id", "1");
+    interner.textNode("id", "2");
+    TextNode overflow = interner.textNode("id", "3");
+
+    assertThat(interner.textNode("country", "DE")).isSameAs(country);
+    assertThat(interner.textNode("id", "1")).isNotSameAs(interner.textNode("id", "1"));
+    assertThat(interner.textNode("id", "3")).isNotSameAs(overflow);
+  }
+}
@@ -0,0 +1,29 @@
+package io.github.pojotools.flat2pojo.core.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.pojotools.flat2pojo.core.config.ImmutableMappingConfig;
+import io.github.pojotools.flat2pojo.core.config.MappingConfig;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class ConversionPipelinesTest {
+
+  private final ConversionPipelines pipelines = new ConversionPipelines(new ObjectMapper());
+
+  private MappingConfig config(String... rootKeys) {
+    return ImmutableMappingConfig.builder().compactNodes(true).rootKeys(List.of(rootKeys)).build();
+  }
+
+  @Test
+  void build_withCompactNodes_sharesNodeFactoryPerConfigOnly() {
+    MappingConfig orders = config("id");
+    MappingConfig customers = config("customerId");
+
+    assertThat(pipelines.build(orders, Object.class).dependencies().nodeFactory())
+        .isSameAs(pipelines.build(orders, Object.class).dependencies().nodeFactory())
+        .isSameAs(pipelines.compactNodeFactory(config("id")))
+        .isNotSameAs(pipelines.compactNodeFactory(customers));
+  }
+}
@@ -0,0 +1,58 @@
+package io.github.pojotools.flat2pojo.core.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class RowGroupIndexTest {
+
+  @Test
+  void build_withSingleKey_ordersGroupsByFirstAppearance() {
+    List<Map<String, ?>> rows =
+        List.of(
+            Map.of("id", 2, "v", "a"),
+            Map.of("id", 1, "v", "b"),
+            Map.of("v", "no key"),
+            Map.of("id", 2, "v", "c"));
+
+    RowGroupIndex index = RowGroupIndex.build(rows, List.of("id"));
+
+    assertThat(index.groupCount()).isEqualTo(2);
+    assertThat(index.groupKey(0, List.of("id"))).isEqualTo(2);
+    assertThat(index.groupRows(0)).containsExactly(rows.get(0), rows.get(3));
+    assertThat(index.groupRows(1)).containsExactly(rows.get(1));
+  }
+
+  @Test
+  void build_withCompositeKeys_matchesRootKeyGrouper() {
+    Random random = new Random(7);
+    List<Map<String, ?>> rows = new ArrayList<>();
+    for (int i = 0; i < 5_000; i++) {
+      Map<String, Object> row = new HashMap<>();
+      if (random.nextInt(40) > 0) {
+        row.put("id", random.nextInt(800));
+      }
+      row.put("region", random.nextBoolean() ? "EU" : "US");
+      row.put("seq", i);
+      rows.add(row);
+    }
+    List<String> rootKeys = List.of("id", "region");
+
+    Map<Object, List<Map<String, ?>>> expected = RootKeyGrouper.groupByRootKeys(rows, rootKeys);
+    RowGroupIndex index = RowGroupIndex.build(new LinkedList<>(rows), rootKeys);
+
+    List<Object> expectedKeys = new ArrayList<>(expected.keySet());
+    assertThat(index.groupCount()).isEqualTo(expected.size());
+    for (int group = 0; group < index.groupCount(); group++) {
+      Object key = expectedKeys.get(group);
+      assertThat(index.groupKey(group, rootKeys)).isEqualTo(key);
+      assertThat(index.groupRows(group)).isEqualTo(expected.get(key));
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package io.github.pojotools.flat2pojo.core.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class SpscRingTest {
+
+  @Test
+  void take_acrossThreads_returnsElementsInPublishOrder() throws InterruptedException {
+    SpscRing<Integer> ring = new SpscRing<>(4);
+    SpscRing<Integer> acks = new SpscRing<>(4);
+    Thread producer =
+        Thread.ofVirtual()
+            .start(
+                () -> {
+                  for (int i = 0; i < 10_000; i++) {
+                    if (i >= 4) {
+                      acks.take();
+                    }
+                    ring.put(i);
+                  }
+                });
+
+    List<Integer> taken = new ArrayList<>();
+    for (int i = 0; i < 10_000; i++) {
+      taken.add(ring.take());
+      acks.put(i);
+    }
+    producer.join();
+
+    assertThat(taken).hasSize(10_000).isSorted();
+    assertThat(taken.getLast()).isEqualTo(9_999);
+  }
+
+  @Test
+  void put_onFullRing_throwsIllegalStateException() {
+    SpscRing<String> ring = new SpscRing<>(2);
+    ring.put("a");
+    ring.put("b");
+
+    assertThatThrownBy(() -> ring.put("c")).isInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  void take_afterClose_returnsNull() throws InterruptedException {
+    SpscRing<String> ring = new SpscRing<>(2);
+    List<String> result = new ArrayList<>();
+    Thread consumer = Thread.ofVirtual().start(() -> result.add(ring.take()));
+
+    ring.close();
+    consumer.join();
+
+    assertThat(result).containsExactly((String) null);
+  }
+}
@@ -194,6 +194,40 @@ class ConflictHandlerTest {
     assertThat(reporter.warnings).isEmpty();
   }
 
+  @Test
+  void writeScalarWithPolicy_firstWriteWins_reportsUnsettledOnlyWhenValueKept() {
+    ObjectNode target = om.createObjectNode();
+    target.put("name", "Alice");
+    ConflictContext ctx = context(ConflictPolicy.firstWriteWins, "path/name", reporter);
+
+    boolean sameValue =
+        ConflictHandler.writeScalarWithPolicy(
+            target, "name", om.getNodeFactory().textNode("Alice"), ctx);
+    boolean otherValue =
+        ConflictHandler.writeScalarWithPolicy(
+            target, "name", om.getNodeFactory().textNode("Bob"), ctx);
+
+    assertThat(sameValue).isTrue();
+    assertThat(otherValue).isFalse();
+    assertThat(target.get("name").asText()).isEqualTo("Alice");
+  }
+
+  @Test
+  void writeScalarWithPolicy_lastWriteWins_isAlwaysSettled() {
+    ObjectNode target = om.createObjectNode();
+    target.put("name", "Alice");
+
+    boolean settled =
+        ConflictHandler.writeScalarWithPolicy(
+            target,
+            "name",
+            om.getNodeFactory().textNode("Bob"),
+            context(ConflictPolicy.lastWriteWins, "path/name", reporter));
+
+    assertThat(settled).isTrue();
+    assertThat(target.get("name").asText()).isEqualTo("Bob");
+  }
+
   @Test
   void deepMerge_mergesSimpleFields() {
     ObjectNode target = om.createObjectNode();
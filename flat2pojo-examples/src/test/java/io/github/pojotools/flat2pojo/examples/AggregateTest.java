@@ -0,0 +1,241 @@
+package io.github.pojotools.flat2pojo.examples;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.pojotools.flat2pojo.core.api.Flat2Pojo;
+import io.github.pojotools.flat2pojo.core.config.MappingConfig;
+import io.github.pojotools.flat2pojo.core.config.ValidationException;
+import io.github.pojotools.flat2pojo.spi.ValueConverter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests list aggregates computed during assembly, next to or instead of the list.
+ *
+ * <p>Models: Customers with keyed Orders, counted Items, tags and Payments.
+ */
+class AggregateTest {
+
+  private static final String MAPPING =
+      """
+      separator: "/"
+      rootKeys: ["id"]
+      lists:
+        - path: "orders"
+          keyPaths: ["id"]
+          orderBy:
+            - path: "id"
+          aggregates:
+            - field: "orderCount"
+            - field: "latestOrderDate"
+              op: max
+              path: "date"
+            - field: "totalAmount"
+              op: sum
+              path: "amount"
+        - path: "orders/items"
+          keyPaths: ["sku"]
+          aggregateOnly: true
+          aggregates:
+            - field: "itemCount"
+      primitiveLists:
+        - path: "tags"
+          aggregates:
+            - field: "tagCount"
+      """;
+
+  private ObjectMapper objectMapper;
+  private Flat2Pojo converter;
+
+  @BeforeEach
+  void init() {
+    objectMapper = TestSupport.createObjectMapper();
+    converter = TestSupport.createConverter(objectMapper);
+  }
+
+  @Test
+  void test01_aggregates_areWrittenNextToTheirLists() {
+    final List<Map<String, ?>> rows =
+        List.of(
+            row("O1", "2024-01-05", 15, "A", "vip"),
+            row("O1", "2024-01-05", 15, "B", "vip"),
+            row("O1", "2024-01-05", 15, "A", "new"),
+            row("O2", "2024-03-01", 7, "C", "vip"));
+
+    final JsonNode root =
+        TestSupport.firstElementOrThrow(
+            converter.convertAll(
+                rows, JsonNode.class, TestSupport.loadMappingConfigFromYaml(MAPPING)));
+
+    PojoJsonAssert.assertPojoJsonEquals(
+        objectMapper,
+        """
+        {
+          "id": 1,
+          "tags": ["vip", "new"],
+          "tagCount": 2,
+          "orderCount": 2,
+          "latestOrderDate": "2024-03-01",
+          "totalAmount": 22,
+          "orders": [
+            { "id": "O1", "date": "2024-01-05", "amount": 15, "itemCount": 2 },
+            { "id": "O2", "date": "2024-03-01", "amount": 7, "itemCount": 1 }
+          ]
+        }
+        """,
+        root);
+  }
+
+  @Test
+  void test02_aggregateOnlyList_neverConvertsItsOtherColumns() {
+    final AtomicInteger conversions = new AtomicInteger();
+    final MappingConfig config =
+        MappingConfig.builder()
+            .from(TestSupport.loadMappingConfigFromYaml(MAPPING))
+            .addValueConverters(new NoteConverter(conversions))
+            .build();
+    final Map<String, Object> withNote = new HashMap<>(row("O1", "2024-01-05", 3, "A", "vip"));
+    withNote.put("orders/items/note", new Note("fragile"));
+
+    final JsonNode root =
+        TestSupport.firstElementOrThrow(
+            converter.convertAll(List.of(withNote), JsonNode.class, config));
+
+    assertThat(root.at("/orders/0/items").isMissingNode()).isTrue();
+    assertThat(root.at("/orders/0/itemCount").asInt()).isEqualTo(1);
+    assertThat(conversions).hasValue(0);
+  }
+
+  @Test
+  void test03_sumWithoutPath_isRejected() {
+    final MappingConfig config =
+        MappingConfig.builder()
+            .rootKeys(List.of("id"))
+            .addLists(
+                new MappingConfig.ListRule(
+                    "orders",
+                    List.of("id"),
+                    List.of(),
+                    true,
+                    MappingConfig.ConflictPolicy.error,
+                    List.of(),
+                    new MappingConfig.Aggregation(
+                        List.of(
+                            new MappingConfig.Aggregate(
+                                "total", MappingConfig.AggregateOp.sum, null)),
+                        false)))
+            .build();
+
+    assertThatThrownBy(() -> converter.convertAll(List.of(Map.of("id", 1)), JsonNode.class, config))
+        .isInstanceOf(ValidationException.class)
+        .hasMessageContaining("total");
+  }
+
+  @Test
+  void test04_aggregates_readTheFinalElements() {
+    final MappingConfig config =
+        TestSupport.loadMappingConfigFromYaml(
+            """
+            separator: "/"
+            rootKeys: ["id"]
+            lists:
+              - path: "payments"
+                keyPaths: ["id"]
+                onConflict: "lastWriteWins"
+                aggregates:
+                  - field: "paid"
+                    op: sum
+                    path: "amount"
+                  - field: "amounts"
+                    op: count
+                    path: "amount"
+            """);
+    // P1's first row has no amount yet, and its last row overwrites the amount of the second
+    final List<Map<String, ?>> rows =
+        List.of(
+            Map.of("id", 1, "payments/id", "P1"),
+            Map.of("id", 1, "payments/id", "P1", "payments/amount", 5),
+            Map.of("id", 1, "payments/id", "P1", "payments/amount", 7),
+            Map.of("id", 1, "payments/id", "P2", "payments/amount", 3));
+
+    final JsonNode root =
+        TestSupport.firstElementOrThrow(converter.convertAll(rows, JsonNode.class, config));
+
+    assertThat(root.get("paid").asInt()).isEqualTo(10);
+    assertThat(root.get("amounts").asInt()).isEqualTo(2);
+  }
+
+  @Test
+  void test05_aggregateOnlyKeyedList_mergesEachKeysValuesLikeItsElement() {
+    final MappingConfig config =
+        TestSupport.loadMappingConfigFromYaml(
+            """
+            separator: "/"
+            rootKeys: ["id"]
+            lists:
+              - path: "payments"
+                keyPaths: ["id"]
+                onConflict: "lastWriteWins"
+                aggregateOnly: true
+                aggregates:
+                  - field: "paid"
+                    op: sum
+                    path: "amount"
+                  - field: "payments"
+                  - field: "largest"
+                    op: max
+                    path: "amount"
+            """);
+    // as in test04, P1 ends up with the amount of its last row
+    final List<Map<String, ?>> rows =
+        List.of(
+            Map.of("id", 1, "payments/id", "P1"),
+            Map.of("id", 1, "payments/id", "P1", "payments/amount", 5),
+            Map.of("id", 1, "payments/id", "P1", "payments/amount", 7),
+            Map.of("id", 1, "payments/id", "P2", "payments/amount", 3));
+
+    final JsonNode root =
+        TestSupport.firstElementOrThrow(converter.convertAll(rows, JsonNode.class, config));
+
+    assertThat(root.get("paid").asInt()).isEqualTo(10);
+    assertThat(root.get("payments").asInt()).isEqualTo(2);
+    assertThat(root.get("largest").asInt()).isEqualTo(7);
+  }
+
+  private static Map<String, ?> row(
+      final String orderId,
+      final String date,
+      final int amount,
+      final String sku,
+      final String tag) {
+    return Map.of(
+        "id", 1,
+        "tags", tag,
+        "orders/id", orderId,
+        "orders/date", date,
+        "orders/amount", amount,
+        "orders/items/sku", sku);
+  }
+
+  private record Note(String text) {}
+
+  private record NoteConverter(AtomicInteger conversions) implements ValueConverter<Note> {
+    @Override
+    public Class<Note> type() {
+      return Note.class;
+    }
+
+    @Override
+    public Object convert(final Note value) {
+      conversions.incrementAndGet();
+      return value.text();
+    }
+  }
+}
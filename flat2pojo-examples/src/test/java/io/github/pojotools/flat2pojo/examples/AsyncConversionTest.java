@@ -0,0 +1,156 @@
+package io.github.pojotools.flat2pojo.examples;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.pojotools.flat2pojo.core.api.Flat2Pojo;
+import io.github.pojotools.flat2pojo.core.config.MappingConfig;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the CompletableFuture-based conversions on a caller-supplied executor.
+ *
+ * <p>Models: Customers with keyed, ordered Orders whose totals must not conflict.
+ */
+class AsyncConversionTest {
+
+  private static final String MAPPING =
+      """
+      separator: "/"
+      rootKeys: ["id"]
+      lists:
+        - path: "orders"
+          keyPaths: ["id"]
+          orderBy:
+            - path: "total"
+              direction: "desc"
+          onConflict: "error"
+      """;
+
+  private ObjectMapper objectMapper;
+  private MappingConfig config;
+  private Flat2Pojo converter;
+  private ExecutorService pool;
+
+  @BeforeEach
+  void init() {
+    objectMapper = TestSupport.createObjectMapper();
+    config = TestSupport.loadMappingConfigFromYaml(MAPPING);
+    converter = TestSupport.createConverter(objectMapper);
+    pool = Executors.newSingleThreadExecutor();
+  }
+
+  @AfterEach
+  void shutdown() {
+    pool.shutdownNow();
+  }
+
+  @Test
+  void test01_convertAllAsync_matchesConvertAll() {
+    final List<Map<String, ?>> rows = customerRows(300);
+
+    assertThat(converter.convertAllAsync(rows, JsonNode.class, config, pool).join())
+        .isEqualTo(converter.convertAll(rows, JsonNode.class, config));
+  }
+
+  @Test
+  void test02_streamAsync_deliversRootsInOrder() {
+    final List<Map<String, ?>> rows = customerRows(300);
+    final List<JsonNode> delivered = new ArrayList<>();
+
+    converter.streamAsync(rows.iterator(), JsonNode.class, config, delivered::add, pool).join();
+
+    assertThat(delivered).isEqualTo(converter.convertAll(rows, JsonNode.class, config));
+  }
+
+  @Test
+  void test03_cancel_stopsConversionBetweenRows() throws InterruptedException {
+    final List<Map<String, ?>> rows = customerRows(10_000);
+    final CountDownLatch cancelled = new CountDownLatch(1);
+    final AtomicInteger reads = new AtomicInteger();
+    final List<Map<String, ?>> source =
+        new AbstractList<>() {
+          @Override
+          public Map<String, ?> get(final int index) {
+            if (reads.incrementAndGet() == 100) {
+              awaitQuietly(cancelled);
+            }
+            return rows.get(index);
+          }
+
+          @Override
+          public int size() {
+            return rows.size();
+          }
+        };
+
+    final CompletableFuture<List<JsonNode>> future =
+        converter.convertAllAsync(source, JsonNode.class, config, pool);
+    future.cancel(true);
+    cancelled.countDown();
+
+    assertThatThrownBy(future::join).isInstanceOf(CancellationException.class);
+    // the conversion task itself ends at the next row it reads
+    pool.shutdown();
+    assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+    assertThat(reads.get()).isLessThanOrEqualTo(100);
+  }
+
+  @Test
+  void test04_failure_completesFutureExceptionally() {
+    final List<Map<String, ?>> rows =
+        List.of(
+            Map.of("id", 1, "orders/id", "A", "orders/total", 1),
+            Map.of("id", 1, "orders/id", "A", "orders/total", 2));
+
+    assertThatThrownBy(() -> converter.convertAllAsync(rows, JsonNode.class, config, pool).join())
+        .isInstanceOf(CompletionException.class)
+        .hasMessageContaining("Conflict at 'orders/total'");
+  }
+
+  @Test
+  void test05_defaultImplementations_matchSynchronousConversions() {
+    final Flat2Pojo basic = new BasicConverter(converter);
+    final List<Map<String, ?>> rows = customerRows(300);
+    final List<JsonNode> delivered = new ArrayList<>();
+
+    final List<JsonNode> converted =
+        basic.convertAllAsync(rows, JsonNode.class, config, pool).join();
+    basic.streamAsync(rows.iterator(), JsonNode.class, config, delivered::add, pool).join();
+
+    assertThat(converted).isEqualTo(converter.convertAll(rows, JsonNode.class, config));
+    assertThat(delivered).isEqualTo(converted);
+  }
+
+  private static List<Map<String, ?>> customerRows(final int count) {
+    final List<Map<String, ?>> rows = new ArrayList<>();
+    for (int row = 0; row < count; row++) {
+      rows.add(Map.of("id", row / 10, "orders/id", "O" + row % 10, "orders/total", row % 10));
+    }
+    return rows;
+  }
+
+  private static void awaitQuietly(final CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (final InterruptedException interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
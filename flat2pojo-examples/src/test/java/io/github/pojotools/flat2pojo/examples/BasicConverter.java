@@ -0,0 +1,51 @@
+package io.github.pojotools.flat2pojo.examples;
+
+import io.github.pojotools.flat2pojo.core.api.Flat2Pojo;
+import io.github.pojotools.flat2pojo.core.api.IncrementalConversion;
+import io.github.pojotools.flat2pojo.core.api.RowSources;
+import io.github.pojotools.flat2pojo.core.config.MappingConfig;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/** Delegates only the abstract conversions, so every other method runs its default. */
+record BasicConverter(Flat2Pojo delegate) implements Flat2Pojo {
+
+  @Override
+  public <T> Optional<T> convertOptional(
+      final Map<String, ?> flatRow, final Class<T> type, final MappingConfig config) {
+    return delegate.convertOptional(flatRow, type, config);
+  }
+
+  @Override
+  public <T> List<T> convertAll(
+      final List<? extends Map<String, ?>> flatRows,
+      final Class<T> type,
+      final MappingConfig config) {
+    return delegate.convertAll(flatRows, type, config);
+  }
+
+  @Override
+  public <T> List<T> convertAll(
+      final RowSources sources, final Class<T> type, final MappingConfig config) {
+    return delegate.convertAll(sources, type, config);
+  }
+
+  @Override
+  public <T> IncrementalConversion<T> convertIncremental(
+      final List<? extends Map<String, ?>> flatRows,
+      final Class<T> type,
+      final MappingConfig config) {
+    return delegate.convertIncremental(flatRows, type, config);
+  }
+
+  @Override
+  public <T> Stream<T> stream(
+      final Iterator<? extends Map<String, ?>> rows,
+      final Class<T> type,
+      final MappingConfig config) {
+    return delegate.stream(rows, type, config);
+  }
+}
@@ -0,0 +1,89 @@
+package io.github.pojotools.flat2pojo.examples;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.pojotools.flat2pojo.core.api.Flat2Pojo;
+import io.github.pojotools.flat2pojo.core.config.MappingConfig;
+import io.github.pojotools.flat2pojo.core.config.ValidationException;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests grouping input that arrives ordered by root keys without a grouping map.
+ *
+ * <p>Models: Customers with Orders, as returned by a query ordered by customer id and region.
+ */
+class ClusteredInputTest {
+
+  private static final String MAPPING =
+      """
+      separator: "/"
+      rootKeys: ["id", "region"]
+      inputClustering: %s
+      lists:
+        - path: "orders"
+          keyPaths: ["id"]
+      """;
+
+  private static final List<Map<String, ?>> ORDERED_ROWS =
+      List.of(
+          Map.of("id", 1, "region", "EU", "name", "Ann", "orders/id", "O1"),
+          Map.of("id", 1, "region", "EU", "orders/id", "O2"),
+          Map.of("id", 1, "region", "US", "name", "Ann", "orders/id", "O3"),
+          Map.of("region", "US", "orders/id", "O9"),
+          Map.of("id", 2, "region", "EU", "name", "Bob"));
+
+  private ObjectMapper objectMapper;
+  private Flat2Pojo converter;
+
+  @BeforeEach
+  void init() {
+    objectMapper = TestSupport.createObjectMapper();
+    converter = TestSupport.createConverter(objectMapper);
+  }
+
+  @Test
+  void test01_clusteredInput_matchesHashGrouping() {
+    MappingConfig clustered =
+        TestSupport.loadMappingConfigFromYaml(MAPPING.formatted("verified"));
+    MappingConfig hashed = TestSupport.loadMappingConfigFromYaml(MAPPING.formatted("none"));
+
+    List<JsonNode> out = converter.convertAll(ORDERED_ROWS, JsonNode.class, clustered);
+
+    assertThat(out).isEqualTo(converter.convertAll(ORDERED_ROWS, JsonNode.class, hashed));
+    assertThat(out).hasSize(3);
+    assertThat(out.getFirst().get("orders")).hasSize(2);
+  }
+
+  @Test
+  void test02_reappearingKey_failsWhenVerified() {
+    MappingConfig cfg = TestSupport.loadMappingConfigFromYaml(MAPPING.formatted("verified"));
+    List<Map<String, ?>> rows =
+        List.of(
+            Map.of("id", 1, "region", "EU"),
+            Map.of("id", 2, "region", "EU"),
+            Map.of("id", 1, "region", "EU"));
+
+    assertThatThrownBy(() -> converter.convertAll(rows, JsonNode.class, cfg))
+        .isInstanceOf(ValidationException.class)
+        .hasMessageContaining("[1, EU]")
+        .hasMessageContaining("row 2");
+  }
+
+  @Test
+  void test03_reappearingKey_startsNewRootWhenTrusted() {
+    MappingConfig cfg = TestSupport.loadMappingConfigFromYaml(MAPPING.formatted("clustered"));
+    List<Map<String, ?>> rows =
+        List.of(
+            Map.of("id", 1, "region", "EU"),
+            Map.of("id", 2, "region", "EU"),
+            Map.of("id", 1, "region", "EU"));
+
+    assertThat(converter.convertAll(rows, JsonNode.class, cfg)).hasSize(3);
+  }
+}
@@ -0,0 +1,110 @@
+package io.github.pojotools.flat2pojo.examples;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.pojotools.flat2pojo.core.api.Flat2Pojo;
+import io.github.pojotools.flat2pojo.core.config.MappingConfig;
+import io.github.pojotools.flat2pojo.core.config.ValidationException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests streaming clustered rows of a list through a spliterator that splits at root key changes.
+ *
+ * <p>Models: Customers ordered by id with keyed, ordered Orders.
+ */
+class ClusteredStreamTest {
+
+  private static final String MAPPING =
+      """
+      separator: "/"
+      rootKeys: ["id"]
+      inputClustering: "clustered"
+      lists:
+        - path: "orders"
+          keyPaths: ["id"]
+          orderBy:
+            - path: "total"
+              direction: "desc"
+      """;
+
+  private ObjectMapper objectMapper;
+  private MappingConfig config;
+  private Flat2Pojo converter;
+
+  @BeforeEach
+  void init() {
+    objectMapper = TestSupport.createObjectMapper();
+    config = TestSupport.loadMappingConfigFromYaml(MAPPING);
+    converter = TestSupport.createConverter(objectMapper);
+  }
+
+  @Test
+  void test01_parallelStream_matchesConvertAllInEncounterOrder() {
+    final List<Map<String, ?>> rows = customerRows(2_000);
+
+    final List<JsonNode> expected = converter.convertAll(rows, JsonNode.class, config);
+
+    assertThat(converter.stream(rows, JsonNode.class, config).parallel().toList())
+        .isEqualTo(expected);
+    assertThat(converter.stream(rows, JsonNode.class, config).toList()).isEqualTo(expected);
+  }
+
+  @Test
+  void test02_split_fallsOnRootKeyChange() {
+    final List<Map<String, ?>> rows = customerRows(7);
+    final Spliterator<JsonNode> suffix =
+        converter.stream(rows, JsonNode.class, config).spliterator();
+
+    final Spliterator<JsonNode> prefix = suffix.trySplit();
+
+    assertThat(suffix.hasCharacteristics(Spliterator.ORDERED | Spliterator.NONNULL)).isTrue();
+    final List<Integer> firstIds = new ArrayList<>();
+    prefix.forEachRemaining(root -> firstIds.add(root.get("id").asInt()));
+    final List<Integer> secondIds = new ArrayList<>();
+    suffix.forEachRemaining(root -> secondIds.add(root.get("id").asInt()));
+    // the middle row (8 of 16) belongs to customer 3, which stays whole in the first half
+    assertThat(firstIds).containsExactly(0, 1, 2, 3);
+    assertThat(secondIds).containsExactly(4, 5, 6);
+  }
+
+  @Test
+  void test03_verifiedInput_isCheckedAsTheStreamIsConsumed() {
+    final MappingConfig verified =
+        MappingConfig.builder()
+            .from(config)
+            .inputClustering(MappingConfig.InputClustering.verified)
+            .build();
+    final List<Map<String, ?>> rows = List.of(Map.of("id", 1), Map.of("id", 2), Map.of("id", 1));
+
+    assertThatThrownBy(() -> converter.stream(rows, JsonNode.class, verified).parallel().toList())
+        .isInstanceOf(ValidationException.class)
+        .hasMessageContaining("reappears at row 2");
+  }
+
+  @Test
+  void test04_defaultImplementation_streamsTheListIterator() {
+    final List<Map<String, ?>> rows = customerRows(200);
+
+    assertThat(new BasicConverter(converter).stream(rows, JsonNode.class, config).toList())
+        .isEqualTo(converter.convertAll(rows, JsonNode.class, config));
+  }
+
+  /** Customer {@code id} has {@code id % 4 + 1} orders, in id order. */
+  private static List<Map<String, ?>> customerRows(final int customers) {
+    final List<Map<String, ?>> rows = new ArrayList<>();
+    for (int id = 0; id < customers; id++) {
+      for (int order = 0; order <= id % 4; order++) {
+        rows.add(Map.of("id", id, "orders/id", "O" + order, "orders/total", order));
+      }
+    }
+    return rows;
+  }
+}
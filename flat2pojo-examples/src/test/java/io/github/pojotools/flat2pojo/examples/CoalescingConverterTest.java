@@ -0,0 +1,214 @@
+package io.github.pojotools.flat2pojo.examples;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.pojotools.flat2pojo.core.api.CoalescingConverter;
+import io.github.pojotools.flat2pojo.core.config.MappingConfig;
+import io.github.pojotools.flat2pojo.core.impl.Flat2PojoCore;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests coalescing many small concurrent conversions into shared micro-batches.
+ *
+ * <p>Models: Customers with keyed, ordered Orders whose totals must not conflict.
+ */
+class CoalescingConverterTest {
+
+  private static final String MAPPING =
+      """
+      separator: "/"
+      rootKeys: ["id"]
+      lists:
+        - path: "orders"
+          keyPaths: ["id"]
+          orderBy:
+            - path: "total"
+              direction: "desc"
+          onConflict: "error"
+      """;
+
+  private ObjectMapper objectMapper;
+  private MappingConfig config;
+  private ExecutorService executor;
+  private Flat2PojoCore converter;
+
+  @BeforeEach
+  void init() {
+    objectMapper = TestSupport.createObjectMapper();
+    config = TestSupport.loadMappingConfigFromYaml(MAPPING);
+    executor = Executors.newFixedThreadPool(2);
+    converter = new Flat2PojoCore(objectMapper, executor);
+  }
+
+  @AfterEach
+  void shutdown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void test01_concurrentCallers_receiveExactlyTheirOwnRoots() {
+    final CoalescingConverter coalescing =
+        new CoalescingConverter(converter, executor, Duration.ofMillis(5), 16);
+    final List<List<Map<String, ?>>> requests = new ArrayList<>();
+    final List<CompletableFuture<List<JsonNode>>> futures = new ArrayList<>();
+    for (int request = 0; request < 200; request++) {
+      // every request reuses root ids 0..2, so merged batches would be visible; order ids are
+      // distinct per row, so a root's orders never conflict
+      final List<Map<String, ?>> rows = new ArrayList<>();
+      for (int order = 0; order < request % 5; order++) {
+        final String orderId = "O" + request + "-" + order;
+        rows.add(Map.of("id", order % 3, "orders/id", orderId, "orders/total", order));
+      }
+      requests.add(rows);
+      futures.add(coalescing.convertAll(rows, JsonNode.class, config));
+    }
+
+    for (int request = 0; request < requests.size(); request++) {
+      assertThat(futures.get(request).join())
+          .isEqualTo(converter.convertAll(requests.get(request), JsonNode.class, config));
+    }
+  }
+
+  @Test
+  void test02_fullBatch_isDispatchedWithoutWaitingForTheWindow() {
+    final CoalescingConverter coalescing =
+        new CoalescingConverter(converter, executor, Duration.ofHours(1), 2);
+
+    final CompletableFuture<List<JsonNode>> first =
+        coalescing.convertAll(List.of(Map.of("id", 1)), JsonNode.class, config);
+    final CompletableFuture<List<JsonNode>> second =
+        coalescing.convertAll(List.of(Map.of("id", 2)), JsonNode.class, config);
+
+    assertThat(first.orTimeout(10, TimeUnit.SECONDS).join()).hasSize(1);
+    assertThat(second.orTimeout(10, TimeUnit.SECONDS).join()).hasSize(1);
+  }
+
+  @Test
+  void test03_failingRequest_failsOnlyItsOwnFuture() {
+    final CoalescingConverter coalescing =
+        new CoalescingConverter(converter, executor, Duration.ZERO, 3);
+
+    final CompletableFuture<List<JsonNode>> before =
+        coalescing.convertAll(
+            List.of(Map.of("id", 1, "orders/id", "A", "orders/total", 1)), JsonNode.class, config);
+    final CompletableFuture<List<JsonNode>> conflicting =
+        coalescing.convertAll(
+            List.of(
+                Map.of("id", 2, "orders/id", "A", "orders/total", 1),
+                Map.of("id", 2, "orders/id", "A", "orders/total", 2)),
+            JsonNode.class,
+            config);
+    final CompletableFuture<List<JsonNode>> after =
+        coalescing.convertAll(
+            List.of(Map.of("id", 3, "orders/id", "A", "orders/total", 3)), JsonNode.class, config);
+
+    assertThatThrownBy(conflicting::join)
+        .isInstanceOf(CompletionException.class)
+        .hasMessageContaining("Conflict at 'orders/total'");
+    assertThat(before.join().getFirst().get("id").asInt()).isEqualTo(1);
+    assertThat(after.join().getFirst().get("orders").get(0).get("total").asInt()).isEqualTo(3);
+  }
+
+  @Test
+  void test04_invalidBatchLimits_areRejected() {
+    assertThatThrownBy(
+            () -> new CoalescingConverter(converter, executor, Duration.ofMillis(-1), 8))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> new CoalescingConverter(converter, executor, Duration.ZERO, 0))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void test05_defaultConvertEach_convertsEachRequestOnItsOwn() {
+    final CoalescingConverter coalescing =
+        new CoalescingConverter(new BasicConverter(converter), executor, Duration.ZERO, 2);
+    final List<Map<String, ?>> rows =
+        List.of(
+            Map.of("id", 1, "orders/id", "A", "orders/total", 1),
+            Map.of("id", 1, "orders/id", "B", "orders/total", 2));
+
+    final CompletableFuture<List<JsonNode>> converted =
+        coalescing.convertAll(rows, JsonNode.class, config);
+    final CompletableFuture<List<JsonNode>> conflicting =
+        coalescing.convertAll(
+            List.of(
+                Map.of("id", 1, "orders/id", "A", "orders/total", 1),
+                Map.of("id", 1, "orders/id", "A", "orders/total", 2)),
+            JsonNode.class,
+            config);
+
+    assertThat(converted.orTimeout(10, TimeUnit.SECONDS).join())
+        .isEqualTo(converter.convertAll(rows, JsonNode.class, config));
+    assertThatThrownBy(() -> conflicting.orTimeout(10, TimeUnit.SECONDS).join())
+        .hasMessageContaining("Conflict at 'orders/total'");
+  }
+
+  @Test
+  void test06_rejectedBatch_failsEveryRequestInIt() {
+    final CoalescingConverter coalescing =
+        new CoalescingConverter(
+            converter,
+            task -> {
+              throw new RejectedExecutionException("saturated");
+            },
+            Duration.ZERO,
+            2);
+
+    final CompletableFuture<List<JsonNode>> first =
+        coalescing.convertAll(List.of(Map.of("id", 1)), JsonNode.class, config);
+    final CompletableFuture<List<JsonNode>> second =
+        coalescing.convertAll(List.of(Map.of("id", 2)), JsonNode.class, config);
+
+    for (final CompletableFuture<List<JsonNode>> future : List.of(first, second)) {
+      assertThatThrownBy(() -> future.orTimeout(10, TimeUnit.SECONDS).join())
+          .hasCauseInstanceOf(RejectedExecutionException.class);
+    }
+  }
+
+  @Test
+  void test07_parallelStagesOfABatch_runWithoutFreeExecutorSlots() {
+    final MappingConfig parallel =
+        TestSupport.loadMappingConfigFromYaml(
+            MAPPING
+                + """
+                parallelAssembly:
+                  minGroupRows: 10
+                  chunkRows: 5
+                """);
+    final ExecutorService single = Executors.newSingleThreadExecutor();
+    final CoalescingConverter coalescing =
+        new CoalescingConverter(
+            new Flat2PojoCore(objectMapper, single), single, Duration.ZERO, 1);
+    final List<Map<String, ?>> rows = new ArrayList<>();
+    for (int order = 0; order < 40; order++) {
+      rows.add(Map.of("id", 1, "orders/id", "O" + order, "orders/total", order));
+    }
+
+    try {
+      final List<JsonNode> roots =
+          coalescing
+              .convertAll(rows, JsonNode.class, parallel)
+              .orTimeout(10, TimeUnit.SECONDS)
+              .join();
+
+      assertThat(roots).isEqualTo(converter.convertAll(rows, JsonNode.class, parallel));
+    } finally {
+      single.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,198 @@
+package io.github.pojotools.flat2pojo.examples;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.pojotools.flat2pojo.core.api.FairConversionScheduler;
+import io.github.pojotools.flat2pojo.core.api.FairConversionScheduler.TenantQuota;
+import io.github.pojotools.flat2pojo.core.config.MappingConfig;
+import io.github.pojotools.flat2pojo.core.impl.Flat2PojoCore;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests sharing workers between tenants with weighted fair queuing and group-boundary preemption.
+ *
+ * <p>Models: Customers with keyed, ordered Orders, exported per tenant.
+ */
+class FairConversionSchedulerTest {
+
+  private static final String MAPPING =
+      """
+      separator: "/"
+      rootKeys: ["id"]
+      lists:
+        - path: "orders"
+          keyPaths: ["id"]
+          orderBy:
+            - path: "total"
+              direction: "desc"
+      """;
+
+  private ObjectMapper objectMapper;
+  private MappingConfig config;
+  private ExecutorService workers;
+  private Flat2PojoCore converter;
+
+  @BeforeEach
+  void init() {
+    objectMapper = TestSupport.createObjectMapper();
+    config = TestSupport.loadMappingConfigFromYaml(MAPPING);
+    workers = Executors.newFixedThreadPool(2);
+    converter = new Flat2PojoCore(objectMapper, workers);
+  }
+
+  @AfterEach
+  void shutdown() {
+    workers.shutdownNow();
+  }
+
+  @Test
+  void test01_slicedJobs_matchConvertAll() {
+    final FairConversionScheduler scheduler = new FairConversionScheduler(converter, workers, 2, 7);
+    scheduler.register("gold", new TenantQuota(3, 2, Long.MAX_VALUE));
+    final List<Map<String, ?>> interleaved = new ArrayList<>();
+    for (int row = 0; row < 500; row++) {
+      // an order's total follows from its id, so repeated orders of a customer never conflict
+      interleaved.add(
+          Map.of("id", row % 13, "orders/id", "O" + row % 7, "orders/total", row % 7 * 10));
+    }
+
+    final CompletableFuture<List<JsonNode>> gold =
+        scheduler.submit("gold", interleaved, JsonNode.class, config);
+    final CompletableFuture<List<JsonNode>> bronze =
+        scheduler.submit("bronze", interleaved.subList(0, 50), JsonNode.class, config);
+
+    assertThat(gold.join()).isEqualTo(converter.convertAll(interleaved, JsonNode.class, config));
+    assertThat(bronze.join())
+        .isEqualTo(converter.convertAll(interleaved.subList(0, 50), JsonNode.class, config));
+  }
+
+  @Test
+  void test02_largeJob_isPreemptedForOtherTenantsSmallJob() {
+    final FairConversionScheduler scheduler =
+        new FairConversionScheduler(converter, workers, 1, 100);
+    final CountDownLatch smallSubmitted = new CountDownLatch(1);
+    final List<Map<String, ?>> export = exportRows(100_000, smallSubmitted);
+    final List<String> completed = new CopyOnWriteArrayList<>();
+
+    final CompletableFuture<List<JsonNode>> large =
+        scheduler.submit("batch", export, JsonNode.class, config);
+    final CompletableFuture<List<JsonNode>> small =
+        scheduler.submit("web", List.of(Map.of("id", 1)), JsonNode.class, config);
+    final CompletableFuture<Void> largeDone = large.thenRun(() -> completed.add("batch"));
+    final CompletableFuture<Void> smallDone = small.thenRun(() -> completed.add("web"));
+    smallSubmitted.countDown();
+
+    CompletableFuture.allOf(largeDone, smallDone).join();
+    assertThat(completed).containsExactly("web", "batch");
+    assertThat(large.join()).hasSize(25_000);
+  }
+
+  @Test
+  void test03_invalidQuota_isRejected() {
+    assertThatThrownBy(() -> new TenantQuota(0, 1, 100))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> new FairConversionScheduler(converter, workers, 0, 100))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void test04_defaultSlicedConversion_matchesConvertAll() {
+    final FairConversionScheduler scheduler =
+        new FairConversionScheduler(new BasicConverter(converter), workers, 2, 7);
+    final List<Map<String, ?>> rows = exportRows(200, new CountDownLatch(0));
+
+    assertThat(scheduler.submit("web", rows, JsonNode.class, config).join())
+        .isEqualTo(converter.convertAll(rows, JsonNode.class, config));
+  }
+
+  @Test
+  void test05_cancelledJob_stopsAtTheNextRow() throws InterruptedException {
+    final FairConversionScheduler scheduler =
+        new FairConversionScheduler(converter, workers, 1, 100_000);
+    final CountDownLatch cancelled = new CountDownLatch(1);
+    final AtomicInteger reads = new AtomicInteger();
+    final List<Map<String, ?>> rows = exportRows(10_000, new CountDownLatch(0));
+    final List<Map<String, ?>> source =
+        new AbstractList<>() {
+          @Override
+          public Map<String, ?> get(final int index) {
+            if (reads.incrementAndGet() == 100) {
+              awaitQuietly(cancelled);
+            }
+            return rows.get(index);
+          }
+
+          @Override
+          public int size() {
+            return rows.size();
+          }
+        };
+
+    final CompletableFuture<List<JsonNode>> job =
+        scheduler.submit("batch", source, JsonNode.class, config);
+    job.cancel(true);
+    cancelled.countDown();
+
+    workers.shutdown();
+    assertThat(workers.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+    assertThat(job).isCancelled();
+    assertThat(reads.get()).isLessThanOrEqualTo(100);
+  }
+
+  @Test
+  void test06_unregisteredTenants_areForgottenOnceIdle() {
+    final FairConversionScheduler scheduler = new FairConversionScheduler(converter, workers, 2, 5);
+    scheduler.register("gold", TenantQuota.weighted(2));
+    final List<CompletableFuture<List<JsonNode>>> jobs = new ArrayList<>();
+    for (int tenant = 0; tenant < 100; tenant++) {
+      jobs.add(
+          scheduler.submit("ad-hoc-" + tenant, List.of(Map.of("id", 1)), JsonNode.class, config));
+    }
+
+    CompletableFuture.allOf(jobs.toArray(CompletableFuture[]::new)).join();
+
+    assertThat(scheduler.tenants()).containsExactly("gold");
+  }
+
+  /** Rows of 4 orders per customer; the first read waits until the competing job is queued. */
+  private static List<Map<String, ?>> exportRows(final int count, final CountDownLatch gate) {
+    return new AbstractList<>() {
+      @Override
+      public Map<String, ?> get(final int index) {
+        if (index == 0) {
+          awaitQuietly(gate);
+        }
+        return Map.of("id", index / 4, "orders/id", "O" + index % 4, "orders/total", index % 4);
+      }
+
+      @Override
+      public int size() {
+        return count;
+      }
+    };
+  }
+
+  private static void awaitQuietly(final CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (final InterruptedException interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,196 @@
+package io.github.pojotools.flat2pojo.examples;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.pojotools.flat2pojo.core.api.Flat2Pojo;
+import io.github.pojotools.flat2pojo.core.config.MappingConfig;
+import io.github.pojotools.flat2pojo.core.config.ValidationException;
+import io.github.pojotools.flat2pojo.spi.ValueConverter;
+import java.util.AbstractList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests declarative row and list element filters applied during assembly.
+ *
+ * <p>Models: Customers with keyed Orders and their Items, exported with soft-deleted rows.
+ */
+class FilterTest {
+
+  private static final String MAPPING =
+      """
+      separator: "/"
+      rootKeys: ["id"]
+      filters:
+        - path: "deleted"
+          op: ne
+          value: true
+      lists:
+        - path: "orders"
+          keyPaths: ["id"]
+          filters:
+            - path: "status"
+              op: in
+              values: ["open", "shipped"]
+        - path: "orders/items"
+          keyPaths: ["sku"]
+          filters:
+            - path: "quantity"
+              op: gt
+              value: 0
+      """;
+
+  private ObjectMapper objectMapper;
+  private Flat2Pojo converter;
+
+  @BeforeEach
+  void init() {
+    objectMapper = TestSupport.createObjectMapper();
+    converter = TestSupport.createConverter(objectMapper);
+  }
+
+  @Test
+  void test01_rowAndElementFilters_keepOnlyMatchingData() {
+    final List<Map<String, ?>> rows =
+        List.of(
+            row(1, false, "O1", "open", "A", 2),
+            row(1, false, "O1", "open", "B", 0),
+            row(1, false, "O2", "cancelled", "C", 1),
+            row(1, true, "O3", "open", "D", 1),
+            row(2, true, "O4", "open", "E", 1));
+
+    final List<JsonNode> roots =
+        converter.convertAll(rows, JsonNode.class, TestSupport.loadMappingConfigFromYaml(MAPPING));
+
+    assertThat(roots).hasSize(1);
+    PojoJsonAssert.assertPojoJsonEquals(
+        objectMapper,
+        """
+        {
+          "id": 1,
+          "deleted": false,
+          "orders": [
+            {
+              "id": "O1",
+              "status": "open",
+              "items": [ { "sku": "A", "quantity": 2 } ]
+            }
+          ]
+        }
+        """,
+        roots.getFirst());
+  }
+
+  @Test
+  void test02_rejectedRows_areNeverTransformed() {
+    final AtomicInteger conversions = new AtomicInteger();
+    final MappingConfig config =
+        MappingConfig.builder()
+            .from(TestSupport.loadMappingConfigFromYaml(MAPPING))
+            .addValueConverters(new NoteConverter(conversions))
+            .build();
+    final Map<String, Object> deleted = new HashMap<>(row(1, true, "O1", "open", "A", 1));
+    deleted.put("note", new Note("gone"));
+    final Map<String, Object> kept = new HashMap<>(row(2, false, "O2", "open", "B", 1));
+    kept.put("note", new Note("kept"));
+
+    final List<JsonNode> roots =
+        converter.convertAll(List.of(deleted, kept), JsonNode.class, config);
+
+    assertThat(roots).extracting(root -> root.get("note").asText()).containsExactly("kept");
+    assertThat(conversions).hasValue(1);
+  }
+
+  @Test
+  void test03_comparisonWithoutValue_isRejected() {
+    final MappingConfig config =
+        MappingConfig.builder()
+            .rootKeys(List.of("id"))
+            .addFilters(MappingConfig.Filter.of("deleted", MappingConfig.FilterOp.eq))
+            .build();
+
+    assertThatThrownBy(() -> converter.convertAll(List.of(Map.of("id", 1)), JsonNode.class, config))
+        .isInstanceOf(ValidationException.class)
+        .hasMessageContaining("deleted");
+  }
+
+  @Test
+  void test04_clusteredStream_filtersRowsAsItReadsThem() {
+    final MappingConfig config =
+        MappingConfig.builder()
+            .from(TestSupport.loadMappingConfigFromYaml(MAPPING))
+            .inputClustering(MappingConfig.InputClustering.clustered)
+            .build();
+    final AtomicInteger furthestRead = new AtomicInteger(-1);
+    final List<Map<String, ?>> rows = new GeneratedRows(100_000, furthestRead);
+
+    final JsonNode first =
+        converter.stream(rows, JsonNode.class, config).findFirst().orElseThrow();
+
+    assertThat(first.get("id").asInt()).isEqualTo(1);
+    // only the rows sampled to size splits and the first group are read, never a filtered copy
+    assertThat(furthestRead.get()).isLessThan(2_000);
+  }
+
+  private static Map<String, ?> row(
+      final int id,
+      final boolean deleted,
+      final String orderId,
+      final String status,
+      final String sku,
+      final int quantity) {
+    return Map.of(
+        "id", id,
+        "deleted", deleted,
+        "orders/id", orderId,
+        "orders/status", status,
+        "orders/items/sku", sku,
+        "orders/items/quantity", quantity);
+  }
+
+  /** One customer per row, every other one deleted; remembers the furthest row read. */
+  private static final class GeneratedRows extends AbstractList<Map<String, ?>>
+      implements RandomAccess {
+    private final int size;
+    private final AtomicInteger furthestRead;
+
+    GeneratedRows(final int size, final AtomicInteger furthestRead) {
+      this.size = size;
+      this.furthestRead = furthestRead;
+    }
+
+    @Override
+    public Map<String, ?> get(final int index) {
+      furthestRead.accumulateAndGet(index, Math::max);
+      return row(index, index % 2 == 0, "O1", "open", "A", 1);
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+  }
+
+  private record Note(String text) {}
+
+  private record NoteConverter(AtomicInteger conversions) implements ValueConverter<Note> {
+    @Override
+    public Class<Note> type() {
+      return Note.class;
+    }
+
+    @Override
+    public Object convert(final Note value) {
+      conversions.incrementAndGet();
+      return value.text();
+    }
+  }
+}
@@ -0,0 +1,184 @@
+package io.github.pojotools.flat2pojo.examples;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.pojotools.flat2pojo.core.api.Flat2Pojo;
+import io.github.pojotools.flat2pojo.core.api.IncrementalConversion;
+import io.github.pojotools.flat2pojo.core.api.RowChange;
+import io.github.pojotools.flat2pojo.core.config.MappingConfig;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests applying row-level upserts and deletes to retained, previously assembled roots.
+ *
+ * <p>Models: Customers with Orders ordered by total, each holding Items.
+ */
+class IncrementalConversionTest {
+
+  private static final String MAPPING =
+      """
+      separator: "/"
+      rootKeys: ["id"]
+      lists:
+        - path: "orders"
+          keyPaths: ["id"]
+          orderBy:
+            - path: "total"
+              direction: "desc"
+          onConflict: "lastWriteWins"
+        - path: "orders/items"
+          keyPaths: ["sku"]
+          onConflict: "lastWriteWins"
+      """;
+
+  private static final String LOGGED =
+      """
+      separator: "/"
+      rootKeys: ["id"]
+      lists:
+        - path: "log"
+          dedupe: false
+      primitiveLists:
+        - path: "codes"
+          orderDirection: "insertion"
+      """;
+
+  private static final List<Map<String, ?>> INITIAL =
+      List.of(
+          Map.of("id", 1, "name", "Ann", "orders/id", "O1", "orders/total", 10),
+          Map.of("id", 1, "orders/id", "O1", "orders/total", 10, "orders/items/sku", "A"),
+          Map.of("id", 1, "orders/id", "O2", "orders/total", 5, "orders/items/sku", "B"),
+          Map.of("id", 2, "name", "Bob"));
+
+  private ObjectMapper objectMapper;
+  private Flat2Pojo converter;
+  private IncrementalConversion<JsonNode> customers;
+
+  @BeforeEach
+  void init() {
+    objectMapper = TestSupport.createObjectMapper();
+    converter = TestSupport.createConverter(objectMapper);
+    MappingConfig cfg = TestSupport.loadMappingConfigFromYaml(MAPPING);
+    customers = converter.convertIncremental(INITIAL, JsonNode.class, cfg);
+  }
+
+  @Test
+  void test01_upserts_updateOnlyTouchedRootAndResortItsLists() {
+    Map<Object, Optional<JsonNode>> changed =
+        customers.apply(
+            List.of(
+                RowChange.upsert(Map.of("id", 1, "orders/id", "O2", "orders/total", 50)),
+                RowChange.upsert(
+                    Map.of(
+                        "id", 1, "orders/id", "O1", "orders/total", 10, "orders/items/sku", "C"))));
+
+    assertThat(changed).containsOnlyKeys(1);
+    PojoJsonAssert.assertPojoJsonEquals(
+        objectMapper,
+        """
+        {
+          "id": 1,
+          "name": "Ann",
+          "orders": [
+            { "id": "O2", "total": 50, "items": [ { "sku": "B" } ] },
+            { "id": "O1", "total": 10, "items": [ { "sku": "A" }, { "sku": "C" } ] }
+          ]
+        }
+        """,
+        changed.get(1).orElseThrow());
+    assertThat(customers.roots()).hasSize(2);
+  }
+
+  @Test
+  void test02_deletes_removeAddressedElementOrWholeRoot() {
+    Map<Object, Optional<JsonNode>> changed =
+        customers.apply(
+            List.of(
+                RowChange.delete(Map.of("id", 1, "orders/id", "O1", "orders/items/sku", "A")),
+                RowChange.delete(Map.of("id", 1, "orders/id", "O2")),
+                RowChange.delete(Map.of("id", 2))));
+
+    assertThat(changed.get(2)).isEmpty();
+    assertThat(customers.root(2)).isEmpty();
+    PojoJsonAssert.assertPojoJsonEquals(
+        objectMapper,
+        """
+        {
+          "id": 1,
+          "name": "Ann",
+          "orders": [ { "id": "O1", "total": 10, "items": [] } ]
+        }
+        """,
+        customers.root(1).orElseThrow());
+  }
+
+  @Test
+  void test03_returnedTrees_areNotMutatedByLaterChanges() {
+    JsonNode before = customers.root(2).orElseThrow();
+
+    customers.apply(List.of(RowChange.upsert(Map.of("id", 2, "name", "Robert"))));
+
+    assertThat(before.get("name").asText()).isEqualTo("Bob");
+    assertThat(customers.root(2).orElseThrow().get("name").asText()).isEqualTo("Robert");
+  }
+
+  @Test
+  void test04_repeatedUpserts_replaceTheEarlierRowInsteadOfAddingToIt() {
+    MappingConfig cfg = TestSupport.loadMappingConfigFromYaml(LOGGED);
+    Map<String, ?> row = Map.of("id", 3, "log/event", "opened", "codes", "X");
+    IncrementalConversion<JsonNode> events =
+        converter.convertIncremental(List.of(row), JsonNode.class, cfg);
+
+    events.apply(List.of(RowChange.upsert(row), RowChange.upsert(row)));
+    customers.apply(List.of(RowChange.upsert(Map.of("id", 2, "name", "Robert"))));
+    customers.apply(List.of(RowChange.upsert(Map.of("id", 2, "name", "Bob"))));
+
+    PojoJsonAssert.assertPojoJsonEquals(
+        objectMapper,
+        """
+        { "id": 3, "log": [ { "event": "opened" } ], "codes": [ "X" ] }
+        """,
+        events.root(3).orElseThrow());
+    assertThat(customers.root(2).orElseThrow().get("name").asText()).isEqualTo("Bob");
+  }
+
+  @Test
+  void test05_failingBatch_leavesEveryRootAsItWas() {
+    MappingConfig cfg =
+        TestSupport.loadMappingConfigFromYaml(MAPPING.replace("lastWriteWins", "error"));
+    IncrementalConversion<JsonNode> strict =
+        converter.convertIncremental(INITIAL, JsonNode.class, cfg);
+    List<JsonNode> before = strict.roots();
+
+    assertThatThrownBy(
+            () ->
+                strict.apply(
+                    List.of(
+                        RowChange.upsert(Map.of("id", 2, "orders/id", "O9", "orders/total", 1)),
+                        RowChange.delete(Map.of("id", 1, "orders/id", "O2")),
+                        RowChange.upsert(Map.of("id", 1, "orders/id", "O1", "orders/total", 99)))))
+        .isInstanceOf(RuntimeException.class)
+        .hasMessageContaining("orders/total");
+
+    assertThat(strict.roots()).isEqualTo(before);
+    Map<Object, Optional<JsonNode>> changed =
+        strict.apply(
+            List.of(
+                RowChange.upsert(Map.of("id", 2, "orders/id", "O9")),
+                RowChange.upsert(Map.of("id", 1, "name", "Ann"))));
+    PojoJsonAssert.assertPojoJsonEquals(
+        objectMapper,
+        """
+        { "id": 2, "name": "Bob", "orders": [ { "id": "O9", "items": [] } ] }
+        """,
+        changed.get(2).orElseThrow());
+    assertThat(changed.get(1)).contains(before.get(0));
+  }
+}
@@ -0,0 +1,123 @@
+package io.github.pojotools.flat2pojo.examples;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.pojotools.flat2pojo.core.api.ConversionTarget;
+import io.github.pojotools.flat2pojo.core.api.Flat2Pojo;
+import io.github.pojotools.flat2pojo.core.api.TargetResults;
+import io.github.pojotools.flat2pojo.core.config.MappingConfig;
+import io.github.pojotools.flat2pojo.core.config.ValidationException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests converting the same rows into several targets in one pass.
+ *
+ * <p>Models: Customers with keyed Orders as a DTO, and a flat search document of their Items.
+ */
+class MultiTargetConversionTest {
+
+  private static final String DTO_MAPPING =
+      """
+      separator: "/"
+      rootKeys: ["id"]
+      lists:
+        - path: "orders"
+          keyPaths: ["id"]
+          orderBy:
+            - path: "total"
+              direction: "desc"
+        - path: "orders/items"
+          keyPaths: ["sku"]
+      """;
+
+  private static final String SEARCH_MAPPING =
+      """
+      separator: "/"
+      rootKeys: ["id"]
+      nullPolicy:
+        blanksAsNulls: true
+      lists:
+        - path: "orders/items"
+          keyPaths: ["sku"]
+          orderBy:
+            - path: "sku"
+              direction: "asc"
+      """;
+
+  private ObjectMapper objectMapper;
+  private Flat2Pojo converter;
+  private ConversionTarget<JsonNode> dto;
+  private ConversionTarget<JsonNode> search;
+
+  @BeforeEach
+  void init() {
+    objectMapper = TestSupport.createObjectMapper();
+    converter = TestSupport.createConverter(objectMapper);
+    dto = ConversionTarget.of(JsonNode.class, TestSupport.loadMappingConfigFromYaml(DTO_MAPPING));
+    search =
+        ConversionTarget.of(JsonNode.class, TestSupport.loadMappingConfigFromYaml(SEARCH_MAPPING));
+  }
+
+  @Test
+  void test01_eachTarget_matchesItsOwnConvertAll() {
+    final List<Map<String, ?>> rows = customerRows();
+
+    final TargetResults results = converter.convertAll(rows, List.of(dto, search));
+
+    assertThat(results.get(dto)).isEqualTo(converter.convertAll(rows, dto.type(), dto.config()));
+    assertThat(results.get(search))
+        .isEqualTo(converter.convertAll(rows, search.type(), search.config()));
+  }
+
+  @Test
+  void test02_targetsWithDifferentRootKeys_areRejected() {
+    final MappingConfig byName =
+        MappingConfig.builder().from(dto.config()).rootKeys(List.of("name")).build();
+    final List<ConversionTarget<?>> targets =
+        List.of(dto, ConversionTarget.of(JsonNode.class, byName));
+
+    assertThatThrownBy(() -> converter.convertAll(List.of(Map.of("id", 1)), targets))
+        .isInstanceOf(ValidationException.class)
+        .hasMessageContaining("rootKeys");
+  }
+
+  @Test
+  void test03_unknownTarget_isRejected() {
+    final TargetResults results = converter.convertAll(List.of(Map.of("id", 1)), List.of(dto));
+
+    assertThatThrownBy(() -> results.get(search)).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void test04_defaultImplementation_convertsOncePerTarget() {
+    final List<Map<String, ?>> rows = customerRows();
+
+    final TargetResults results =
+        new BasicConverter(converter).convertAll(rows, List.of(dto, search));
+
+    assertThat(results.get(dto)).isEqualTo(converter.convertAll(rows, dto.type(), dto.config()));
+    assertThat(results.get(search))
+        .isEqualTo(converter.convertAll(rows, search.type(), search.config()));
+  }
+
+  private static List<Map<String, ?>> customerRows() {
+    final List<Map<String, ?>> rows = new ArrayList<>();
+    for (int row = 0; row < 200; row++) {
+      rows.add(
+          Map.of(
+              "id", row % 9,
+              "name", row % 9 == 0 ? " " : "Customer " + row % 9,
+              "orders/id", "O" + row % 5,
+              "orders/total", row % 5 * 10,
+              "orders/items/sku", "S" + row % 3));
+    }
+    return rows;
+  }
+}
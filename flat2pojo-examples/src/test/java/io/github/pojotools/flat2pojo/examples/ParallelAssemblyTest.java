@@ -0,0 +1,139 @@
+package io.github.pojotools.flat2pojo.examples;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.pojotools.flat2pojo.core.api.Flat2Pojo;
+import io.github.pojotools.flat2pojo.core.config.MappingConfig;
+import io.github.pojotools.flat2pojo.core.impl.Flat2PojoCore;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests assembling large groups in parallel chunks against sequential assembly of the same rows.
+ *
+ * <p>Models: Customers with keyed, ordered Orders holding Items, an append-only order Log, and
+ * primitive lists with and without ordering.
+ */
+class ParallelAssemblyTest {
+
+  private static final String MAPPING =
+      """
+      separator: "/"
+      rootKeys: ["id"]
+      lists:
+        - path: "orders"
+          keyPaths: ["id"]
+          orderBy:
+            - path: "total"
+              direction: "desc"
+          onConflict: "%1$s"
+        - path: "orders/items"
+          keyPaths: ["sku"]
+          onConflict: "%1$s"
+        - path: "orders/log"
+          dedupe: false
+      primitiveLists:
+        - path: "orders/tags"
+          orderDirection: "asc"
+          dedup: true
+        - path: "codes"
+          orderDirection: "insertion"
+      """;
+
+  private static final String PARALLEL =
+      """
+      parallelAssembly:
+        minGroupRows: 10
+        chunkRows: 25
+      """;
+
+  private ObjectMapper objectMapper;
+  private ExecutorService executor;
+
+  @BeforeEach
+  void init() {
+    objectMapper = TestSupport.createObjectMapper();
+    executor = Executors.newFixedThreadPool(4);
+  }
+
+  @AfterEach
+  void shutdown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void test01_parallelChunks_matchSequentialAssembly() {
+    for (final String policy : List.of("lastWriteWins", "firstWriteWins", "merge")) {
+      final MappingConfig sequential =
+          TestSupport.loadMappingConfigFromYaml(MAPPING.formatted(policy));
+      final MappingConfig parallel =
+          TestSupport.loadMappingConfigFromYaml(MAPPING.formatted(policy) + PARALLEL);
+      final List<Map<String, ?>> rows = rows(300);
+
+      final List<JsonNode> expected =
+          TestSupport.createConverter(objectMapper).convertAll(rows, JsonNode.class, sequential);
+      final List<JsonNode> actual = parallelConverter().convertAll(rows, JsonNode.class, parallel);
+
+      assertThat(actual).as(policy).isEqualTo(expected);
+    }
+  }
+
+  @Test
+  void test02_onlyGroupsAboveThresholdAndChunkSize_areSplit() {
+    final MappingConfig cfg = TestSupport.loadMappingConfigFromYaml(MAPPING.formatted("error"));
+
+    assertThat(cfg.parallelAssembly().appliesTo(9)).isFalse();
+    assertThat(cfg.parallelAssembly().appliesTo(100)).isFalse();
+    assertThat(
+            TestSupport.loadMappingConfigFromYaml(MAPPING.formatted("error") + PARALLEL)
+                .parallelAssembly()
+                .appliesTo(26))
+        .isTrue();
+  }
+
+  @Test
+  void test03_conflictAcrossChunks_failsLikeSequentialAssembly() {
+    final MappingConfig cfg =
+        TestSupport.loadMappingConfigFromYaml(MAPPING.formatted("error") + PARALLEL);
+    final List<Map<String, ?>> rows = new ArrayList<>();
+    for (int i = 0; i < 40; i++) {
+      rows.add(Map.of("id", 1, "orders/id", "O1", "orders/total", i < 30 ? 10 : 20));
+    }
+
+    assertThatThrownBy(() -> parallelConverter().convertAll(rows, JsonNode.class, cfg))
+        .isInstanceOf(RuntimeException.class)
+        .hasMessageContaining("orders/total");
+  }
+
+  private Flat2Pojo parallelConverter() {
+    return new Flat2PojoCore(objectMapper, executor);
+  }
+
+  private static List<Map<String, ?>> rows(final int count) {
+    final List<Map<String, ?>> rows = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      final Map<String, Object> row = new HashMap<>();
+      row.put("id", i % 3 == 0 ? 1 : 2);
+      row.put("name", "name-" + (i % 7));
+      row.put("orders/id", "O" + (i * 7 % 11));
+      row.put("orders/total", i % 5);
+      row.put("orders/items/sku", "S" + (i * 3 % 4));
+      row.put("orders/items/qty", i % 6);
+      row.put("orders/log/msg", "m" + i);
+      row.put("orders/tags", "t" + (i % 4));
+      row.put("codes", i % 9);
+      rows.add(row);
+    }
+    return rows;
+  }
+}
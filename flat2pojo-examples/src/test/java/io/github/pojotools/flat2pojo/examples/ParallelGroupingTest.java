@@ -0,0 +1,158 @@
+package io.github.pojotools.flat2pojo.examples;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.pojotools.flat2pojo.core.api.Flat2Pojo;
+import io.github.pojotools.flat2pojo.core.config.MappingConfig;
+import io.github.pojotools.flat2pojo.core.impl.Flat2PojoCore;
+import java.util.AbstractSequentialList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests grouping and assembling hash partitions in parallel against sequential grouping of the
+ * same rows.
+ *
+ * <p>Models: Customers keyed by id and region with keyed, ordered Orders and a sorted tag list.
+ */
+class ParallelGroupingTest {
+
+  private static final String MAPPING =
+      """
+      separator: "/"
+      rootKeys: ["id", "region"]
+      lists:
+        - path: "orders"
+          keyPaths: ["id"]
+          orderBy:
+            - path: "total"
+              direction: "desc"
+          onConflict: "%s"
+      primitiveLists:
+        - path: "tags"
+          orderDirection: "asc"
+          dedup: true
+      """;
+
+  private static final String PARALLEL =
+      """
+      parallelGrouping:
+        minRows: 100
+        partitions: 4
+      """;
+
+  private ObjectMapper objectMapper;
+  private ExecutorService executor;
+
+  @BeforeEach
+  void init() {
+    objectMapper = TestSupport.createObjectMapper();
+    executor = Executors.newFixedThreadPool(4);
+  }
+
+  @AfterEach
+  void shutdown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void test01_partitions_keepFirstAppearanceOrderOfSequentialGrouping() {
+    final List<Map<String, ?>> rows = rows(2_000);
+
+    final List<JsonNode> expected =
+        TestSupport.createConverter(objectMapper)
+            .convertAll(rows, JsonNode.class, config("lastWriteWins", ""));
+    final List<JsonNode> actual =
+        parallelConverter()
+            .convertAll(sequential(rows), JsonNode.class, config("lastWriteWins", PARALLEL));
+
+    assertThat(actual).isEqualTo(expected);
+  }
+
+  @Test
+  void test02_largeGroups_areLeftToParallelAssembly() {
+    final String assembly =
+        """
+        parallelAssembly:
+          minGroupRows: 50
+          chunkRows: 20
+        """;
+    final List<Map<String, ?>> rows = rows(2_000);
+    for (int i = 0; i < 200; i++) {
+      rows.add(Map.of("id", -1, "region", "EU", "orders/id", "O" + (i % 13), "orders/total", i));
+    }
+
+    final List<JsonNode> expected =
+        TestSupport.createConverter(objectMapper)
+            .convertAll(rows, JsonNode.class, config("lastWriteWins", ""));
+    final List<JsonNode> actual =
+        parallelConverter()
+            .convertAll(rows, JsonNode.class, config("lastWriteWins", PARALLEL + assembly));
+
+    assertThat(actual).isEqualTo(expected);
+  }
+
+  @Test
+  void test03_smallInputsAndConflicts_behaveLikeSequentialGrouping() {
+    final MappingConfig cfg = config("error", PARALLEL);
+    assertThat(cfg.parallelGrouping().appliesTo(99)).isFalse();
+
+    final List<Map<String, ?>> rows = rows(200);
+    rows.add(Map.of("id", 500, "region", "US", "orders/id", "O0", "orders/total", 1));
+    rows.add(Map.of("id", 500, "region", "US", "orders/id", "O0", "orders/total", 2));
+
+    assertThatThrownBy(() -> parallelConverter().convertAll(rows, JsonNode.class, cfg))
+        .isInstanceOf(RuntimeException.class)
+        .hasMessageContaining("orders/total");
+  }
+
+  private MappingConfig config(final String policy, final String parallel) {
+    return TestSupport.loadMappingConfigFromYaml(MAPPING.formatted(policy) + parallel);
+  }
+
+  private Flat2Pojo parallelConverter() {
+    return new Flat2PojoCore(objectMapper, executor);
+  }
+
+  private static List<Map<String, ?>> rows(final int count) {
+    final List<Map<String, ?>> rows = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      final Map<String, Object> row = new HashMap<>();
+      if (i % 50 != 7) {
+        row.put("id", i * 31 % 97);
+      }
+      row.put("region", i % 2 == 0 ? "EU" : "US");
+      row.put("orders/id", "O" + (i % 5));
+      row.put("orders/total", (i * 31 % 97) + (i % 5));
+      row.put("tags", "t" + (i % 6));
+      rows.add(row);
+    }
+    return rows;
+  }
+
+  /** A view of {@code rows} without random access, so partitioning must copy it first. */
+  private static List<Map<String, ?>> sequential(final List<Map<String, ?>> rows) {
+    return new AbstractSequentialList<>() {
+      @Override
+      public ListIterator<Map<String, ?>> listIterator(final int index) {
+        return rows.listIterator(index);
+      }
+
+      @Override
+      public int size() {
+        return rows.size();
+      }
+    };
+  }
+}
@@ -0,0 +1,115 @@
+package io.github.pojotools.flat2pojo.examples;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.pojotools.flat2pojo.core.api.Flat2Pojo;
+import io.github.pojotools.flat2pojo.core.api.PartialConversion;
+import io.github.pojotools.flat2pojo.core.config.MappingConfig;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests feeding one conversion in pages whose roots span page boundaries.
+ *
+ * <p>Models: Customers with ordered Orders holding Items and a sorted primitive list of Tags.
+ */
+class PartialConversionTest {
+
+  private static final String MAPPING =
+      """
+      separator: "/"
+      rootKeys: ["id"]
+      lists:
+        - path: "orders"
+          keyPaths: ["id"]
+          orderBy:
+            - path: "total"
+              direction: "desc"
+        - path: "orders/items"
+          keyPaths: ["sku"]
+      primitiveLists:
+        - path: "tags"
+          orderDirection: "asc"
+      """;
+
+  private static final List<Map<String, ?>> ROWS =
+      List.of(
+          Map.of("id", 1, "name", "Ann", "orders/id", "O1", "orders/total", 10, "tags", "vip"),
+          Map.of("id", 2, "name", "Bob", "orders/id", "O3", "orders/total", 5),
+          Map.of("id", 1, "orders/id", "O1", "orders/total", 10, "orders/items/sku", "A"),
+          Map.of("id", 1, "orders/id", "O2", "orders/total", 30, "tags", "new"),
+          Map.of("id", 2, "orders/id", "O3", "orders/total", 5, "orders/items/sku", "B"),
+          Map.of("id", 1, "orders/id", "O1", "orders/total", 10, "orders/items/sku", "C"));
+
+  private ObjectMapper objectMapper;
+  private Flat2Pojo converter;
+
+  @BeforeEach
+  void init() {
+    objectMapper = TestSupport.createObjectMapper();
+    converter = TestSupport.createConverter(objectMapper);
+  }
+
+  @Test
+  void test01_rootsSpanningPages_matchSingleBatch() {
+    MappingConfig cfg = TestSupport.loadMappingConfigFromYaml(MAPPING);
+
+    PartialConversion<JsonNode> conversion = converter.convertPartial(JsonNode.class, cfg);
+    conversion.accept(ROWS.subList(0, 2)).accept(ROWS.subList(2, 3)).accept(ROWS.subList(3, 6));
+
+    assertThat(conversion.openGroups()).isEqualTo(2);
+    List<JsonNode> out = conversion.complete();
+    assertThat(out).isEqualTo(converter.convertAll(ROWS, JsonNode.class, cfg));
+    PojoJsonAssert.assertPojoJsonEquals(
+        objectMapper,
+        """
+        [
+          {
+            "id": 1,
+            "name": "Ann",
+            "orders": [
+              { "id": "O2", "total": 30, "items": [] },
+              { "id": "O1", "total": 10, "items": [ { "sku": "A" }, { "sku": "C" } ] }
+            ],
+            "tags": [ "new", "vip" ]
+          },
+          {
+            "id": 2,
+            "name": "Bob",
+            "orders": [ { "id": "O3", "total": 5, "items": [ { "sku": "B" } ] } ]
+          }
+        ]
+        """,
+        out);
+  }
+
+  @Test
+  void test02_completedConversion_rejectsFurtherRows() {
+    MappingConfig cfg = TestSupport.loadMappingConfigFromYaml(MAPPING);
+
+    PartialConversion<JsonNode> conversion = converter.convertPartial(JsonNode.class, cfg);
+    conversion.accept(ROWS).complete();
+
+    assertThatThrownBy(() -> conversion.accept(ROWS))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("complete");
+  }
+
+  @Test
+  void test03_defaultImplementation_matchesSingleBatch() {
+    MappingConfig cfg = TestSupport.loadMappingConfigFromYaml(MAPPING);
+    Flat2Pojo basic = new BasicConverter(converter);
+
+    PartialConversion<JsonNode> conversion = basic.convertPartial(JsonNode.class, cfg);
+    conversion.accept(ROWS.subList(0, 3)).accept(ROWS.subList(3, 6));
+
+    assertThat(conversion.openGroups()).isEqualTo(2);
+    assertThat(conversion.complete()).isEqualTo(converter.convertAll(ROWS, JsonNode.class, cfg));
+    assertThatThrownBy(conversion::complete).isInstanceOf(IllegalStateException.class);
+  }
+}
@@ -0,0 +1,126 @@
+package io.github.pojotools.flat2pojo.examples;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.pojotools.flat2pojo.core.api.Flat2Pojo;
+import io.github.pojotools.flat2pojo.core.config.MappingConfig;
+import io.github.pojotools.flat2pojo.spi.ValuePreprocessor;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests transforming row values on pipeline stages ahead of assembly against sequential
+ * processing of the same rows.
+ *
+ * <p>Models: Customers with keyed, ordered Orders, split code lists and sorted tags, with a value
+ * preprocessor deriving a column.
+ */
+class PipelinedTransformTest {
+
+  private static final String MAPPING =
+      """
+      separator: "/"
+      rootKeys: ["id"]
+      allowSparseRows: true
+      lists:
+        - path: "orders"
+          keyPaths: ["id"]
+          orderBy:
+            - path: "total"
+              direction: "desc"
+          onConflict: "lastWriteWins"
+      primitives:
+        - path: "codes"
+          delimiter: ","
+          trim: true
+      primitiveLists:
+        - path: "tags"
+          orderDirection: "asc"
+          dedup: true
+      """;
+
+  private static final String PIPELINED =
+      """
+      pipelinedTransform:
+        stages: %d
+        batchRows: 16
+      """;
+
+  private ObjectMapper objectMapper;
+  private Flat2Pojo converter;
+
+  @BeforeEach
+  void init() {
+    objectMapper = TestSupport.createObjectMapper();
+    converter = TestSupport.createConverter(objectMapper);
+  }
+
+  @Test
+  void test01_pipelinedStages_matchSequentialProcessing() {
+    final List<Map<String, ?>> rows = rows(1_000);
+    final List<JsonNode> expected = converter.convertAll(rows, JsonNode.class, config(""));
+
+    for (final int stages : List.of(1, 3)) {
+      final List<JsonNode> actual =
+          converter.convertAll(rows, JsonNode.class, config(PIPELINED.formatted(stages)));
+
+      assertThat(actual).as("stages=" + stages).isEqualTo(expected);
+    }
+  }
+
+  @Test
+  void test02_preprocessorFailure_isThrownOnTheCallingThread() {
+    final ValuePreprocessor failing =
+        row -> {
+          if (Integer.valueOf(7).equals(row.get("id"))) {
+            throw new IllegalArgumentException("bad row for customer 7");
+          }
+          return row;
+        };
+    final MappingConfig cfg =
+        MappingConfig.builder()
+            .from(config(PIPELINED.formatted(2)))
+            .valuePreprocessor(Optional.of(failing))
+            .build();
+
+    assertThatThrownBy(() -> converter.convertAll(rows(200), JsonNode.class, cfg))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("bad row for customer 7");
+  }
+
+  private static MappingConfig config(final String pipelined) {
+    final ValuePreprocessor labelling =
+        row -> {
+          final Map<String, Object> copy = new HashMap<>(row);
+          copy.put("label", "customer-" + row.get("id"));
+          return copy;
+        };
+    return MappingConfig.builder()
+        .from(TestSupport.loadMappingConfigFromYaml(MAPPING + pipelined))
+        .valuePreprocessor(Optional.of(labelling))
+        .build();
+  }
+
+  private static List<Map<String, ?>> rows(final int count) {
+    final List<Map<String, ?>> rows = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      final Map<String, Object> row = new HashMap<>();
+      row.put("id", i % 37);
+      row.put("orders/id", "O" + (i % 5));
+      row.put("orders/total", (i % 37) * 10 + i % 5);
+      row.put("codes", "a, b," + (i % 3));
+      row.put("tags", "t" + (i % 4));
+      row.put("note", i % 2 == 0 ? null : "n" + (i % 37));
+      rows.add(row);
+    }
+    return rows;
+  }
+}
@@ -0,0 +1,136 @@
+package io.github.pojotools.flat2pojo.examples;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.pojotools.flat2pojo.core.api.Flat2Pojo;
+import io.github.pojotools.flat2pojo.core.config.MappingConfig;
+import io.github.pojotools.flat2pojo.examples.domain.ImmutableProductRoot;
+import io.github.pojotools.flat2pojo.spi.ValueConverter;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests dropping unused columns before they are transformed, by path patterns or by the target
+ * type's properties.
+ *
+ * <p>Models: Products with keyed Definitions, exported with audit columns no consumer reads.
+ */
+class ProjectionTest {
+
+  private static final String MAPPING =
+      """
+      separator: "/"
+      rootKeys: ["referencedProductId/identifier"]
+      lists:
+        - path: "definitions"
+          keyPaths: ["id/identifier"]
+      """;
+
+  private ObjectMapper objectMapper;
+  private Flat2Pojo converter;
+  private AtomicInteger auditConversions;
+  private MappingConfig config;
+
+  @BeforeEach
+  void init() {
+    objectMapper = TestSupport.createObjectMapper();
+    converter = TestSupport.createConverter(objectMapper);
+    auditConversions = new AtomicInteger();
+    config =
+        MappingConfig.builder()
+            .from(TestSupport.loadMappingConfigFromYaml(MAPPING))
+            .addValueConverters(new AuditStampConverter(auditConversions))
+            .build();
+  }
+
+  @Test
+  void test01_fromTargetType_dropsUnboundColumnsBeforeTransforming() {
+    final MappingConfig projected =
+        MappingConfig.builder()
+            .from(config)
+            .projection(new MappingConfig.Projection(List.of(), List.of(), true))
+            .build();
+    final List<Map<String, ?>> rows = exportRows();
+
+    final List<ImmutableProductRoot> expected =
+        converter.convertAll(rows, ImmutableProductRoot.class, config);
+    auditConversions.set(0);
+
+    assertThat(converter.convertAll(rows, ImmutableProductRoot.class, projected))
+        .isEqualTo(expected);
+    assertThat(auditConversions).hasValue(0);
+  }
+
+  @Test
+  void test02_includeAndExclude_alwaysKeepRootAndListKeys() {
+    final MappingConfig projected =
+        TestSupport.loadMappingConfigFromYaml(
+            MAPPING
+                + """
+                projection:
+                  include: ["metadata", "definitions/priority"]
+                  exclude: ["metadata/description"]
+                """);
+
+    final JsonNode root =
+        TestSupport.firstElementOrThrow(
+            converter.convertAll(exportRows(), JsonNode.class, projected));
+
+    PojoJsonAssert.assertPojoJsonEquals(
+        objectMapper,
+        """
+        {
+          "referencedProductId": { "identifier": "P1" },
+          "metadata": { "name": "Alpha" },
+          "definitions": [
+            { "id": { "identifier": "D1" }, "priority": 1 },
+            { "id": { "identifier": "D2" }, "priority": 2 }
+          ]
+        }
+        """,
+        root);
+  }
+
+  private static List<Map<String, ?>> exportRows() {
+    return List.of(
+        Map.of(
+            "referencedProductId/identifier", "P1",
+            "metadata/name", "Alpha",
+            "metadata/description", "First product",
+            "exportedAt", new AuditStamp("2025-01-15"),
+            "definitions/id/identifier", "D1",
+            "definitions/name", "Basic",
+            "definitions/priority", 1,
+            "definitions/exportedAt", new AuditStamp("2025-01-15")),
+        Map.of(
+            "referencedProductId/identifier", "P1",
+            "metadata/name", "Alpha",
+            "metadata/description", "First product",
+            "exportedAt", new AuditStamp("2025-01-15"),
+            "definitions/id/identifier", "D2",
+            "definitions/name", "Premium",
+            "definitions/priority", 2,
+            "definitions/exportedAt", new AuditStamp("2025-01-16")));
+  }
+
+  private record AuditStamp(String date) {}
+
+  private record AuditStampConverter(AtomicInteger conversions)
+      implements ValueConverter<AuditStamp> {
+    @Override
+    public Class<AuditStamp> type() {
+      return AuditStamp.class;
+    }
+
+    @Override
+    public Object convert(final AuditStamp value) {
+      conversions.incrementAndGet();
+      return value.date();
+    }
+  }
+}
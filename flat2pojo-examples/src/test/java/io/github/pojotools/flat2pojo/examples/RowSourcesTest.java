@@ -0,0 +1,113 @@
+package io.github.pojotools.flat2pojo.examples;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.pojotools.flat2pojo.core.api.Flat2Pojo;
+import io.github.pojotools.flat2pojo.core.api.RowSources;
+import io.github.pojotools.flat2pojo.core.config.MappingConfig;
+import io.github.pojotools.flat2pojo.core.config.ValidationException;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests assembling sibling lists from separate row sources instead of one cartesian JOIN.
+ *
+ * <p>Models: Customers, their Orders with Items, and their Addresses, each loaded by its own query.
+ */
+class RowSourcesTest {
+
+  private static final String MAPPING =
+      """
+      separator: "/"
+      rootKeys: ["id"]
+      lists:
+        - path: "orders"
+          keyPaths: ["id"]
+        - path: "orders/items"
+          keyPaths: ["sku"]
+        - path: "addresses"
+          keyPaths: ["id"]
+      """;
+
+  private ObjectMapper objectMapper;
+  private Flat2Pojo converter;
+
+  @BeforeEach
+  void init() {
+    objectMapper = TestSupport.createObjectMapper();
+    converter = TestSupport.createConverter(objectMapper);
+  }
+
+  @Test
+  void test01_siblingListsFromSeparateSources_matchJoinShape() {
+    MappingConfig cfg = TestSupport.loadMappingConfigFromYaml(MAPPING);
+
+    RowSources sources =
+        RowSources.of(List.of(Map.of("id", 1, "name", "Ann"), Map.of("id", 2, "name", "Bob")))
+            .withList(
+                "orders",
+                List.of(
+                    Map.of("id", 1, "orders/id", "O1", "orders/total", 30),
+                    Map.of("id", 1, "orders/id", "O2", "orders/total", 12)))
+            .withList(
+                "orders/items",
+                List.of(
+                    Map.of("id", 1, "orders/id", "O1", "orders/items/sku", "A"),
+                    Map.of("id", 1, "orders/id", "O1", "orders/items/sku", "B")))
+            .withList(
+                "addresses",
+                List.of(
+                    Map.of("id", 1, "addresses/id", "HOME"),
+                    Map.of("id", 1, "addresses/id", "WORK")));
+
+    List<JsonNode> out = converter.convertAll(sources, JsonNode.class, cfg);
+
+    PojoJsonAssert.assertPojoJsonEquals(
+        objectMapper,
+        """
+        [
+          {
+            "id": 1,
+            "name": "Ann",
+            "orders": [
+              { "id": "O1", "total": 30, "items": [ { "sku": "A" }, { "sku": "B" } ] },
+              { "id": "O2", "total": 12, "items": [] }
+            ],
+            "addresses": [ { "id": "HOME" }, { "id": "WORK" } ]
+          },
+          { "id": 2, "name": "Bob", "orders": [], "addresses": [] }
+        ]
+        """,
+        out);
+  }
+
+  @Test
+  void test02_listRowsWithoutRootRow_areSkipped() {
+    MappingConfig cfg = TestSupport.loadMappingConfigFromYaml(MAPPING);
+
+    RowSources sources =
+        RowSources.of(List.of(Map.of("id", 1)))
+            .withList("addresses", List.of(Map.of("id", 7, "addresses/id", "HOME")));
+
+    List<JsonNode> out = converter.convertAll(sources, JsonNode.class, cfg);
+
+    assertThat(out).hasSize(1);
+    assertThat(out.getFirst().get("addresses")).isEmpty();
+  }
+
+  @Test
+  void test03_sourceForUndeclaredList_isRejected() {
+    MappingConfig cfg = TestSupport.loadMappingConfigFromYaml(MAPPING);
+
+    RowSources sources = RowSources.of(List.of()).withList("payments", List.of());
+
+    assertThatThrownBy(() -> converter.convertAll(sources, JsonNode.class, cfg))
+        .isInstanceOf(ValidationException.class)
+        .hasMessageContaining("payments");
+  }
+}
@@ -10,6 +10,7 @@ import io.github.pojotools.flat2pojo.core.config.MappingConfigLoader;
 import io.github.pojotools.flat2pojo.core.config.ValidationException;
 import io.github.pojotools.flat2pojo.examples.domain.ImmutableProductRoot;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import org.junit.jupiter.api.BeforeEach;
@@ -3496,4 +3497,86 @@ class SpecSuiteTest {
         """,
         out);
   }
+
+  @Test
+  void test72_dedupe_false_appends_every_row_and_sorts() {
+    MappingConfig cfg =
+        TestSupport.loadMappingConfigFromYaml(
+            """
+            separator: "/"
+            rootKeys: ["id"]
+            lists:
+              - path: "events"
+                dedupe: false
+                orderBy:
+                  - path: "at"
+          """);
+
+    List<Map<String, ?>> rows =
+        List.of(
+            Map.of("id", 1, "events/type", "click", "events/at", 3),
+            Map.of("id", 1, "events/type", "click", "events/at", 1),
+            Map.of("id", 1, "events/type", "view", "events/at", 2),
+            Map.of("id", 1));
+
+    var out = TestSupport.firstElementOrThrow(converter.convertAll(rows, JsonNode.class, cfg));
+
+    PojoJsonAssert.assertPojoJsonEquals(
+        objectMapper,
+        """
+        {
+          "id": 1,
+          "events": [
+            { "type": "click", "at": 1 },
+            { "type": "view", "at": 2 },
+            { "type": "click", "at": 3 }
+          ]
+        }
+        """,
+        out);
+  }
+
+  @Test
+  void test73_sparseRows_drop_null_columns() {
+    MappingConfig cfg =
+        TestSupport.loadMappingConfigFromYaml(
+            """
+            separator: "/"
+            allowSparseRows: true
+            rootKeys: ["id"]
+            lists:
+              - path: "definitions"
+                keyPaths: ["id/identifier"]
+                onConflict: "lastWriteWins"
+          """);
+
+    Map<String, Object> withNulls = new HashMap<>();
+    withNulls.put("id", 1);
+    withNulls.put("name", null);
+    withNulls.put("definitions/id/identifier", "D-1");
+    withNulls.put("definitions/name", null);
+    Map<String, Object> withoutDefinition = new HashMap<>();
+    withoutDefinition.put("id", 1);
+    withoutDefinition.put("definitions/id/identifier", null);
+
+    List<Map<String, ?>> rows =
+        List.of(
+            Map.of("id", 1, "name", "Alpha", "definitions/id/identifier", "D-1"),
+            Map.of("id", 1, "definitions/id/identifier", "D-1", "definitions/name", "First"),
+            withNulls,
+            withoutDefinition);
+
+    var out = TestSupport.firstElementOrThrow(converter.convertAll(rows, JsonNode.class, cfg));
+
+    PojoJsonAssert.assertPojoJsonEquals(
+        objectMapper,
+        """
+        {
+          "id": 1,
+          "name": "Alpha",
+          "definitions": [ { "id": { "identifier": "D-1" }, "name": "First" } ]
+        }
+        """,
+        out);
+  }
 }
@@ -7,7 +7,11 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.pojotools.flat2pojo.core.api.Flat2Pojo;
 import io.github.pojotools.flat2pojo.core.config.MappingConfig;
 import io.github.pojotools.flat2pojo.spi.Reporter;
+import io.github.pojotools.flat2pojo.spi.ValueConverter;
 import io.github.pojotools.flat2pojo.spi.ValuePreprocessor;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -254,4 +258,47 @@ class SpiIntegrationTest {
     // No warnings expected for this case
     assertThat(warnings).isEmpty();
   }
+
+  @Test
+  void test_valueConverter_and_builtIn_types_bypass_fallback() {
+    List<String> warnings = new ArrayList<>();
+    Reporter reporter = warnings::add;
+    ValueConverter<ZoneId> zoneConverter =
+        new ValueConverter<>() {
+          @Override
+          public Class<ZoneId> type() {
+            return ZoneId.class;
+          }
+
+          @Override
+          public Object convert(ZoneId value) {
+            return value.getId();
+          }
+        };
+
+    MappingConfig cfg =
+        MappingConfig.builder()
+            .reporter(Optional.of(reporter))
+            .addValueConverters(zoneConverter)
+            .build();
+
+    List<Map<String, ?>> rows =
+        List.of(
+            Map.of(
+                "zone", ZoneId.of("Europe/Berlin"),
+                "amount", new BigDecimal("12.50"),
+                "day", LocalDate.of(2024, 3, 1),
+                "nested", Map.of("k", "v")));
+
+    var out = TestSupport.firstElementOrThrow(converter.convertAll(rows, JsonNode.class, cfg));
+
+    assertThat(out.get("zone").asText()).isEqualTo("Europe/Berlin");
+    assertThat(out.get("amount").decimalValue()).isEqualByComparingTo("12.5");
+    assertThat(out.get("day").asText()).isEqualTo("2024-03-01");
+    assertThat(out.get("nested").get("k").asText()).isEqualTo("v");
+
+    // Only the Map column still takes the ObjectMapper.valueToTree slow path
+    assertThat(warnings).hasSize(1);
+    assertThat(warnings.getFirst()).contains("{nested=1}");
+  }
 }
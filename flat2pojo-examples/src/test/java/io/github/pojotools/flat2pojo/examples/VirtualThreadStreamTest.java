@@ -0,0 +1,133 @@
+package io.github.pojotools.flat2pojo.examples;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.pojotools.flat2pojo.core.api.Flat2Pojo;
+import io.github.pojotools.flat2pojo.core.config.MappingConfig;
+import io.github.pojotools.flat2pojo.core.config.ValidationException;
+import io.github.pojotools.flat2pojo.core.impl.Flat2PojoCore;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests streaming clustered rows from a blocking source through the virtual-thread hand-off.
+ *
+ * <p>Models: Customers ordered by id with keyed, ordered Orders.
+ */
+class VirtualThreadStreamTest {
+
+  private static final String MAPPING =
+      """
+      separator: "/"
+      rootKeys: ["id"]
+      inputClustering: "verified"
+      lists:
+        - path: "orders"
+          keyPaths: ["id"]
+          orderBy:
+            - path: "total"
+              direction: "desc"
+      """;
+
+  private ObjectMapper objectMapper;
+  private MappingConfig config;
+  private Flat2Pojo converter;
+
+  @BeforeEach
+  void init() {
+    objectMapper = TestSupport.createObjectMapper();
+    config = TestSupport.loadMappingConfigFromYaml(MAPPING);
+    converter = Flat2PojoCore.onVirtualThreads(objectMapper, 4);
+  }
+
+  @Test
+  void test01_stream_matchesConvertAllInInputOrder() {
+    final List<Map<String, ?>> rows = new ArrayList<>();
+    for (int id = 0; id < 500; id++) {
+      for (int order = 0; order < id % 4; order++) {
+        rows.add(Map.of("id", id, "orders/id", "O" + order, "orders/total", order));
+      }
+    }
+
+    final List<JsonNode> expected =
+        TestSupport.createConverter(objectMapper).convertAll(rows, JsonNode.class, config);
+    final List<JsonNode> actual =
+        converter.stream(rows.iterator(), JsonNode.class, config).toList();
+
+    assertThat(actual).isEqualTo(expected);
+  }
+
+  @Test
+  void test02_unboundedSource_isThrottledAndStoppedOnClose() {
+    try (Stream<JsonNode> roots = converter.stream(new EndlessRows(), JsonNode.class, config)) {
+      assertThat(roots.limit(3).map(root -> root.get("id").asInt()).toList())
+          .containsExactly(0, 1, 2);
+    }
+  }
+
+  @Test
+  void test03_reappearingKey_failsAtItsPositionInTheStream() {
+    final List<Map<String, ?>> rows = List.of(Map.of("id", 1), Map.of("id", 2), Map.of("id", 1));
+    final Iterator<JsonNode> roots =
+        converter.stream(rows.iterator(), JsonNode.class, config).iterator();
+
+    assertThat(roots.next().get("id").asInt()).isEqualTo(1);
+    assertThatThrownBy(roots::next)
+        .isInstanceOf(ValidationException.class)
+        .hasMessageContaining("reappears at row 2");
+  }
+
+  @Test
+  void test04_nonPositiveConcurrency_isRejected() {
+    assertThatThrownBy(() -> Flat2PojoCore.onVirtualThreads(objectMapper, 0))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void test05_findFirstOnEndlessSource_terminatesTheProducer() throws InterruptedException {
+    final EndlessRows endless = new EndlessRows();
+
+    try (Stream<JsonNode> roots = converter.stream(endless, JsonNode.class, config)) {
+      assertThat(roots.findFirst().map(root -> root.get("id").asInt())).contains(0);
+    }
+
+    final Thread producer = endless.reader;
+    producer.join(Duration.ofSeconds(5));
+    assertThat(producer.isAlive()).isFalse();
+  }
+
+  @Test
+  void test06_unconsumedStream_readsNothing() {
+    final EndlessRows endless = new EndlessRows();
+
+    converter.stream(endless, JsonNode.class, config).close();
+
+    assertThat(endless.reader).isNull();
+  }
+
+  /** Two rows per root, forever; remembers the thread reading it. */
+  private static final class EndlessRows implements Iterator<Map<String, ?>> {
+    private volatile Thread reader;
+    private int row;
+
+    @Override
+    public boolean hasNext() {
+      reader = Thread.currentThread();
+      return true;
+    }
+
+    @Override
+    public Map<String, ?> next() {
+      return Map.of("id", row++ / 2);
+    }
+  }
+}
@@ -0,0 +1,17 @@
+package io.github.pojotools.flat2pojo.spi;
+
+/**
+ * Optional hook to convert cell values of a custom type into a simple value BEFORE it becomes a
+ * JSON node. Return a String, Number, Boolean, byte[] or null; a Jackson {@code JsonNode} is used
+ * as-is. Any other result goes through the ObjectMapper.
+ *
+ * <p>Converters are resolved once per runtime class; the first registered converter whose {@link
+ * #type()} is assignable from the value's class wins.
+ *
+ * @param <T> the value type handled by this converter
+ */
+public interface ValueConverter<T> {
+  Class<T> type();
+
+  Object convert(T value);
+}